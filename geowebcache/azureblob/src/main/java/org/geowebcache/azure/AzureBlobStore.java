@@ -293,6 +293,27 @@ public boolean get(TileObject obj) throws StorageException {
         return true;
     }
 
+    /** Checks the tile by getting the blob properties, without downloading it */
+    @Override
+    public boolean getMetadata(TileObject obj) throws StorageException {
+        final String key = keyBuilder.forTile(obj);
+        final BlockBlobURL blob = client.getBlockBlobURL(key);
+        try {
+            BlobGetPropertiesResponse properties = blob.getProperties().blockingGet();
+            Long size = properties.headers().contentLength();
+            if (size != null) {
+                obj.setBlobSize(size.intValue());
+            }
+            obj.setCreated(properties.headers().lastModified().toEpochSecond() * 1000l);
+        } catch (RestException e) {
+            if (e.response().statusCode() == 404) {
+                return false;
+            }
+            throw new StorageException("Error getting " + key, e);
+        }
+        return true;
+    }
+
     @Override
     public void put(TileObject obj) throws StorageException {
         final Resource blob = obj.getBlob();
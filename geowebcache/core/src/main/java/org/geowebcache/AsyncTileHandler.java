@@ -0,0 +1,478 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.conveyor.ConveyorTile;
+import org.geowebcache.grid.GridSubset;
+import org.geowebcache.layer.AbstractTileLayer;
+import org.geowebcache.layer.TileLayer;
+import org.geowebcache.storage.StorageException;
+import org.geowebcache.util.GWCVars;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Serves the tile requests that are likely cache misses with servlet asynchronous processing, so
+ * that container threads are not held while the backend renders the tiles. Cache hits are served
+ * on the container thread as usual, a request is considered a hit if the tile is stored and not
+ * expired, or still within its stale window. The stored tile is read ahead, with {@link
+ * ConveyorTile#prefetch()}, so hits cost no extra storage lookup.
+ *
+ * <p>Misses run on a dedicated pool of {@link #THREADS} threads, the container thread being
+ * released as soon as the request is queued. Requests still queued when the client goes away or
+ * the {@link #TIMEOUT} expires are dropped, while tiles already being rendered are left to
+ * complete, and get cached, with their response discarded. Timed out requests get a 503 response.
+ *
+ * <p>Enabled by setting {@link #ENABLED} to {@code true}, the servlet and its filters must be
+ * declared as supporting asynchronous processing, requests not supporting it are served
+ * synchronously.
+ */
+public class AsyncTileHandler {
+
+    private static Logger log = Logging.getLogger(AsyncTileHandler.class.getName());
+
+    /** Whether tile requests for likely cache misses are served asynchronously */
+    public static final String ENABLED = "GWC_ASYNC_TILES";
+
+    /** Number of threads serving the asynchronous tile requests */
+    public static final String THREADS = "GWC_ASYNC_TILES_THREADS";
+
+    /** How long an asynchronous tile request can take, in seconds */
+    public static final String TIMEOUT = "GWC_ASYNC_TILES_TIMEOUT";
+
+    static final int DEFAULT_THREADS = 4 * Runtime.getRuntime().availableProcessors();
+
+    static final long DEFAULT_TIMEOUT = 120;
+
+    private final ThreadPoolExecutor executor;
+
+    private final long timeout;
+
+    private final AtomicLong dispatched = new AtomicLong();
+
+    private final AtomicLong timedOut = new AtomicLong();
+
+    private final AtomicLong abandoned = new AtomicLong();
+
+    /**
+     * @param threads number of threads serving the asynchronous requests
+     * @param timeout how long a request can take, in milliseconds
+     */
+    public AsyncTileHandler(int threads, long timeout) {
+        CustomizableThreadFactory tf = new CustomizableThreadFactory("GWC async tile thread-");
+        tf.setDaemon(true);
+        this.executor =
+                new ThreadPoolExecutor(
+                        threads,
+                        threads,
+                        0,
+                        TimeUnit.MILLISECONDS,
+                        new LinkedBlockingQueue<>(),
+                        tf);
+        this.timeout = timeout;
+    }
+
+    /**
+     * Creates an instance configured after the {@link #ENABLED}, {@link #THREADS} and {@link
+     * #TIMEOUT} properties
+     *
+     * @return the handler, or {@code null} if asynchronous tile requests are not enabled
+     */
+    public static AsyncTileHandler fromProperties() {
+        if (!Boolean.parseBoolean(GeoWebCacheExtensions.getProperty(ENABLED))) {
+            return null;
+        }
+        int threads = (int) getLong(THREADS, DEFAULT_THREADS);
+        long timeout = getLong(TIMEOUT, DEFAULT_TIMEOUT);
+        log.info(
+                "Serving tile cache misses asynchronously with "
+                        + threads
+                        + " threads and a "
+                        + timeout
+                        + "s timeout");
+        return new AsyncTileHandler(threads, TimeUnit.SECONDS.toMillis(timeout));
+    }
+
+    private static long getLong(String property, long defaultValue) {
+        String value = GeoWebCacheExtensions.getProperty(property);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            long parsed = Long.parseLong(value.trim());
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // fall through
+        }
+        log.warning("Invalid " + property + " value '" + value + "', using " + defaultValue);
+        return defaultValue;
+    }
+
+    /**
+     * Checks whether a tile request, already past the request filters and security checks, should
+     * be served asynchronously: the request supports it and the tile is not a fresh cache hit.
+     */
+    public boolean isAsync(HttpServletRequest request, TileLayer layer, ConveyorTile tile) {
+        if (request == null || !request.isAsyncSupported() || request.isAsyncStarted()) {
+            return false;
+        }
+        try {
+            return !isHit(layer, tile);
+        } catch (StorageException | RuntimeException e) {
+            // let the regular code path report it
+            log.log(Level.FINE, "Failed to check " + tile + ", serving it synchronously", e);
+            return false;
+        }
+    }
+
+    private boolean isHit(TileLayer layer, ConveyorTile tile) throws StorageException {
+        long[] index = tile.getTileIndex();
+        GridSubset gridSubset = layer.getGridSubset(tile.getGridSetId());
+        if (gridSubset == null) {
+            // reported by the regular code path
+            return true;
+        }
+        if (!gridSubset.shouldCacheAtZoom(index[2])) {
+            return false;
+        }
+        int zoomLevel = (int) index[2];
+        int expireCache = layer.getExpireCache(zoomLevel);
+        if (expireCache == GWCVars.CACHE_DISABLE_CACHE) {
+            return false;
+        }
+        // the regular code path reuses the tile read here
+        if (!tile.prefetch()) {
+            return false;
+        }
+        if (expireCache <= 0) {
+            return true;
+        }
+        // tiles within their stale window are served as is, and refreshed in the background
+        long maxStale = 0;
+        if (layer instanceof AbstractTileLayer) {
+            maxStale = ((AbstractTileLayer) layer).getExpireCacheMaxStale(zoomLevel) * 1000L;
+        }
+        long created = tile.getStorageObject().getCreated();
+        return created + expireCache * 1000L + maxStale >= System.currentTimeMillis();
+    }
+
+    /**
+     * Serves a tile request asynchronously, running the task on the handler threads and releasing
+     * the calling container thread. The task must write its response through the tile {@link
+     * ConveyorTile#servletResp}, which gets replaced so that nothing is written once the request
+     * timed out or failed.
+     *
+     * @param request the tile request
+     * @param tile the tile conveyor
+     * @param task writes the tile, handling its own errors
+     */
+    public void dispatch(HttpServletRequest request, ConveyorTile tile, Runnable task) {
+        AsyncResponse response = new AsyncResponse(tile.servletResp);
+        tile.servletResp = response;
+
+        AsyncContext context = request.startAsync();
+        context.setTimeout(timeout);
+        FutureTask<Void> future =
+                new FutureTask<>(
+                        () -> {
+                            try {
+                                task.run();
+                            } finally {
+                                if (response.close()) {
+                                    context.complete();
+                                }
+                            }
+                        },
+                        null);
+        context.addListener(
+                new AsyncListener() {
+                    @Override
+                    public void onTimeout(AsyncEvent event) throws IOException {
+                        future.cancel(false);
+                        if (response.close()) {
+                            timedOut.incrementAndGet();
+                            log.fine("Timed out serving " + tile);
+                            response.unavailable("Timed out waiting for the tile");
+                            context.complete();
+                        }
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) throws IOException {
+                        future.cancel(false);
+                        if (response.close()) {
+                            abandoned.incrementAndGet();
+                            log.log(Level.FINE, "Abandoned " + tile, event.getThrowable());
+                            context.complete();
+                        }
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) throws IOException {}
+
+                    @Override
+                    public void onComplete(AsyncEvent event) throws IOException {}
+                });
+        dispatched.incrementAndGet();
+        try {
+            executor.execute(future);
+        } catch (RejectedExecutionException e) {
+            // shutting down
+            if (response.close()) {
+                try {
+                    response.unavailable("Shutting down");
+                } catch (IOException ioe) {
+                    log.log(Level.FINE, "Failed to reject " + tile, ioe);
+                }
+                context.complete();
+            }
+        }
+    }
+
+    /** Number of requests served asynchronously so far */
+    public long getDispatched() {
+        return dispatched.get();
+    }
+
+    /** Number of asynchronous requests that timed out */
+    public long getTimedOut() {
+        return timedOut.get();
+    }
+
+    /** Number of asynchronous requests abandoned due to an error, such as a client disconnect */
+    public long getAbandoned() {
+        return abandoned.get();
+    }
+
+    /** Number of asynchronous requests waiting for a thread */
+    public int getQueued() {
+        return executor.getQueue().size();
+    }
+
+    ExecutorService getExecutor() {
+        return executor;
+    }
+
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * A response that stops forwarding to the container one once the asynchronous request is over,
+     * writes failing with a {@link ClientStreamAbortedException} from then on
+     */
+    static class AsyncResponse extends HttpServletResponseWrapper {
+
+        private boolean closed;
+
+        AsyncResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        /** @return {@code true} if the response was open, and so the request is to be completed */
+        synchronized boolean close() {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            return true;
+        }
+
+        synchronized boolean isClosed() {
+            return closed;
+        }
+
+        private HttpServletResponse container() {
+            return (HttpServletResponse) getResponse();
+        }
+
+        /** Tells the client to retry later, unless the tile response was already started */
+        void unavailable(String message) throws IOException {
+            HttpServletResponse response = container();
+            if (!response.isCommitted()) {
+                response.reset();
+                byte[] contents = message.getBytes(StandardCharsets.UTF_8);
+                response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                response.setHeader("Retry-After", "60");
+                response.setContentType("text/plain");
+                response.setContentLength(contents.length);
+                response.getOutputStream().write(contents);
+            }
+        }
+
+        @Override
+        public synchronized ServletOutputStream getOutputStream() throws IOException {
+            if (closed) {
+                throw new ClientStreamAbortedException();
+            }
+            return new AsyncOutputStream(super.getOutputStream());
+        }
+
+        @Override
+        public synchronized void sendError(int sc, String msg) throws IOException {
+            if (!closed) {
+                super.sendError(sc, msg);
+            }
+        }
+
+        @Override
+        public synchronized void sendError(int sc) throws IOException {
+            if (!closed) {
+                super.sendError(sc);
+            }
+        }
+
+        @Override
+        public synchronized void setStatus(int sc) {
+            if (!closed) {
+                super.setStatus(sc);
+            }
+        }
+
+        @Override
+        public synchronized void setHeader(String name, String value) {
+            if (!closed) {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public synchronized void addHeader(String name, String value) {
+            if (!closed) {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public synchronized void setDateHeader(String name, long date) {
+            if (!closed) {
+                super.setDateHeader(name, date);
+            }
+        }
+
+        @Override
+        public synchronized void addDateHeader(String name, long date) {
+            if (!closed) {
+                super.addDateHeader(name, date);
+            }
+        }
+
+        @Override
+        public synchronized void setIntHeader(String name, int value) {
+            if (!closed) {
+                super.setIntHeader(name, value);
+            }
+        }
+
+        @Override
+        public synchronized void setContentType(String type) {
+            if (!closed) {
+                super.setContentType(type);
+            }
+        }
+
+        @Override
+        public synchronized void setContentLength(int len) {
+            if (!closed) {
+                super.setContentLength(len);
+            }
+        }
+
+        @Override
+        public synchronized void setContentLengthLong(long len) {
+            if (!closed) {
+                super.setContentLengthLong(len);
+            }
+        }
+
+        private class AsyncOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream real;
+
+            AsyncOutputStream(ServletOutputStream real) {
+                this.real = real;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                synchronized (AsyncResponse.this) {
+                    if (closed) {
+                        throw new ClientStreamAbortedException();
+                    }
+                    real.write(b);
+                }
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                synchronized (AsyncResponse.this) {
+                    if (closed) {
+                        throw new ClientStreamAbortedException();
+                    }
+                    real.write(b, off, len);
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                synchronized (AsyncResponse.this) {
+                    if (!closed) {
+                        real.flush();
+                    }
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                synchronized (AsyncResponse.this) {
+                    if (!closed) {
+                        real.close();
+                    }
+                }
+            }
+
+            @Override
+            public boolean isReady() {
+                return real.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                real.setWriteListener(writeListener);
+            }
+        }
+    }
+}
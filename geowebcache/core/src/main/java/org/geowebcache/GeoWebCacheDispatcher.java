@@ -51,6 +51,7 @@
 import org.geowebcache.layer.BadTileException;
 import org.geowebcache.layer.TileLayer;
 import org.geowebcache.layer.TileLayerDispatcher;
+import org.geowebcache.seed.SeedThrottle;
 import org.geowebcache.service.HttpErrorCodeException;
 import org.geowebcache.service.OWSException;
 import org.geowebcache.service.Service;
@@ -105,6 +106,10 @@ public class GeoWebCacheDispatcher extends AbstractController {
 
     private SecurityDispatcher securityDispatcher;
 
+    private volatile AsyncTileHandler asyncTileHandler;
+
+    private volatile boolean asyncTileHandlerLoaded;
+
     /** Should be invoked through Spring */
     public GeoWebCacheDispatcher(
             TileLayerDispatcher tileLayerDispatcher,
@@ -285,7 +290,16 @@ public ServletOutputStream getOutputStream() throws IOException {
             if (requestComps == null || requestComps[0].equalsIgnoreCase(TYPE_HOME)) {
                 handleFrontPage(request, response);
             } else if (requestComps[0].equalsIgnoreCase(TYPE_SERVICE)) {
-                handleServiceRequest(requestComps[1], request, response);
+                final long start = System.nanoTime();
+                boolean async = false;
+                try {
+                    async = handleServiceRequest(requestComps[1], request, response, start);
+                } finally {
+                    if (!async) {
+                        // lets seeding yield to interactive traffic
+                        SeedThrottle.requestCompleted(System.nanoTime() - start);
+                    }
+                }
             } else if (requestComps[0].equalsIgnoreCase(TYPE_DEMO)
                     || requestComps[0].equalsIgnoreCase(TYPE_DEMO + "s")) {
                 handleDemoRequest(requestComps[1], request, response);
@@ -293,17 +307,27 @@ public ServletOutputStream getOutputStream() throws IOException {
                 ResponseUtils.writeErrorPage(
                         response, 404, "Unknown path: " + requestComps[0], runtimeStats);
             }
-        } catch (HttpErrorCodeException e) {
+        } catch (Exception e) {
+            handleException(e, request, response);
+        }
+        return null;
+    }
+
+    /** Writes the response for a failed request */
+    private void handleException(
+            Exception e, HttpServletRequest request, HttpServletResponse response) {
+        if (e instanceof HttpErrorCodeException) {
+            HttpErrorCodeException codeE = (HttpErrorCodeException) e;
             ResponseUtils.writeFixedResponse(
                     response,
-                    e.getErrorCode(),
+                    codeE.getErrorCode(),
                     "text/plain",
-                    new ByteArrayResource(e.getMessage().getBytes()),
+                    new ByteArrayResource(codeE.getMessage().getBytes()),
                     CacheResult.OTHER,
                     runtimeStats);
-        } catch (RequestFilterException e) {
+        } else if (e instanceof RequestFilterException) {
 
-            RequestFilterException reqE = e;
+            RequestFilterException reqE = (RequestFilterException) e;
             reqE.setHttpInfoHeader(response);
 
             ResponseUtils.writeFixedResponse(
@@ -313,15 +337,16 @@ public ServletOutputStream getOutputStream() throws IOException {
                     reqE.getResponse(),
                     CacheResult.OTHER,
                     runtimeStats);
-        } catch (OWSException e) {
+        } else if (e instanceof OWSException) {
+            OWSException owsE = (OWSException) e;
             ResponseUtils.writeFixedResponse(
                     response,
-                    e.getResponseCode(),
-                    e.getContentType(),
-                    e.getResponse(),
+                    owsE.getResponseCode(),
+                    owsE.getContentType(),
+                    owsE.getResponse(),
                     CacheResult.OTHER,
                     runtimeStats);
-        } catch (SecurityException e) {
+        } else if (e instanceof SecurityException) {
             ResponseUtils.writeFixedResponse(
                     response,
                     403,
@@ -330,7 +355,7 @@ public ServletOutputStream getOutputStream() throws IOException {
                     CacheResult.OTHER,
                     runtimeStats);
             LOG.warning(e.getMessage());
-        } catch (Exception e) {
+        } else {
             if (!(e instanceof BadTileException) || LOG.isLoggable(Level.FINE)) {
                 LOG.severe(e.getMessage() + " " + request.getRequestURL().toString());
             }
@@ -343,7 +368,6 @@ public ServletOutputStream getOutputStream() throws IOException {
                 LOG.log(Level.FINE, "Request failed, client closed connection", e);
             }
         }
-        return null;
     }
 
     private boolean isClientStreamAbortedException(Throwable t) {
@@ -367,6 +391,10 @@ private boolean isClientStreamAbortedException(Throwable t) {
      */
     public void destroy() {
         LOG.fine("GeoWebCacheDispatcher.destroy() was invoked, shutting down.");
+        AsyncTileHandler asyncTiles = this.asyncTileHandler;
+        if (asyncTiles != null) {
+            asyncTiles.destroy();
+        }
     }
 
     /**
@@ -389,9 +417,17 @@ private String[] parseRequest(String servletPath) throws GeoWebCacheException {
         return retStrs;
     }
 
-    /** This is the main method for handling service requests. See comments in the code. */
-    private void handleServiceRequest(
-            String serviceStr, HttpServletRequest request, HttpServletResponse response)
+    /**
+     * This is the main method for handling service requests. See comments in the code.
+     *
+     * @param start when the request started, in {@link System#nanoTime()} terms
+     * @return {@code true} if the request goes on asynchronously
+     */
+    private boolean handleServiceRequest(
+            String serviceStr,
+            HttpServletRequest request,
+            HttpServletResponse response,
+            long start)
             throws Exception {
 
         Conveyor conv = null;
@@ -424,15 +460,57 @@ private void handleServiceRequest(
         if (conv.reqHandler == Conveyor.RequestHandler.SERVICE) {
             // A3 The service object takes it from here
             service.handleRequest(conv);
-        } else {
-            ResponseUtils.writeTile(
-                    getSecurityDispatcher(),
-                    conv,
-                    layerName,
-                    tileLayerDispatcher,
-                    defaultStorageFinder,
-                    runtimeStats);
+            return false;
+        }
+        final ConveyorTile convTile = (ConveyorTile) conv;
+        final TileLayer tileLayer =
+                ResponseUtils.checkTile(
+                        getSecurityDispatcher(), convTile, layerName, tileLayerDispatcher);
+        AsyncTileHandler asyncTiles = getAsyncTileHandler();
+        if (asyncTiles != null && asyncTiles.isAsync(request, tileLayer, convTile)) {
+            // likely a cache miss, don't hold the container thread while it's rendered
+            asyncTiles.dispatch(
+                    request,
+                    convTile,
+                    () -> {
+                        try {
+                            ResponseUtils.writeTile(
+                                    tileLayer, convTile, defaultStorageFinder, runtimeStats);
+                        } catch (Exception e) {
+                            handleException(e, request, convTile.servletResp);
+                        } finally {
+                            SeedThrottle.requestCompleted(System.nanoTime() - start);
+                        }
+                    });
+            return true;
+        }
+        ResponseUtils.writeTile(tileLayer, convTile, defaultStorageFinder, runtimeStats);
+        return false;
+    }
+
+    /**
+     * @return the handler serving tile cache misses asynchronously, or {@code null} if not enabled
+     * @see AsyncTileHandler#fromProperties()
+     */
+    AsyncTileHandler getAsyncTileHandler() {
+        if (!asyncTileHandlerLoaded) {
+            synchronized (this) {
+                if (!asyncTileHandlerLoaded) {
+                    asyncTileHandler = AsyncTileHandler.fromProperties();
+                    asyncTileHandlerLoaded = true;
+                }
+            }
+        }
+        return asyncTileHandler;
+    }
+
+    /** Sets the handler serving tile cache misses asynchronously, {@code null} to disable it */
+    public synchronized void setAsyncTileHandler(AsyncTileHandler asyncTileHandler) {
+        if (this.asyncTileHandler != null && this.asyncTileHandler != asyncTileHandler) {
+            this.asyncTileHandler.destroy();
         }
+        this.asyncTileHandler = asyncTileHandler;
+        this.asyncTileHandlerLoaded = true;
     }
 
     private void handleDemoRequest(
@@ -16,6 +16,8 @@
 
 import static com.google.common.base.Preconditions.checkState;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.geowebcache.layer.TileLayerDispatcher;
 import org.geowebcache.locks.LockProvider;
 import org.geowebcache.storage.BlobStore;
@@ -23,6 +25,7 @@
 import org.geowebcache.storage.StorageException;
 import org.geowebcache.storage.blobstore.file.DefaultFilePathGenerator;
 import org.geowebcache.storage.blobstore.file.FileBlobStore;
+import org.geowebcache.storage.blobstore.file.StripedFileBlobStore;
 import org.geowebcache.storage.blobstore.file.XYZFilePathGenerator;
 
 /**
@@ -47,6 +50,12 @@ public static enum PathGeneratorType {
 
     private PathGeneratorType pathGeneratorType = PathGeneratorType.DEFAULT;
 
+    private Boolean deduplicate;
+
+    private List<String> stripeDirectories;
+
+    private StripedFileBlobStore.Granularity stripeGranularity;
+
     public FileBlobStoreInfo() {
         super();
     }
@@ -107,6 +116,49 @@ public void setPathGeneratorType(PathGeneratorType pathGeneratorType) {
         this.pathGeneratorType = pathGeneratorType;
     }
 
+    /**
+     * Whether tiles with identical contents are stored once, with the tile files being hard links
+     * to a shared payload. Defaults to {@code false}.
+     */
+    public boolean isDeduplicate() {
+        return Boolean.TRUE.equals(deduplicate);
+    }
+
+    /** Enables or disables the deduplication of tiles with identical contents */
+    public void setDeduplicate(boolean deduplicate) {
+        this.deduplicate = deduplicate;
+    }
+
+    /**
+     * Additional root directories, usually on other disks, to stripe the tiles across along with
+     * the {@link #getBaseDirectory() base directory}. Directories can be added later on, but not
+     * removed.
+     *
+     * @return the additional root directories, possibly empty
+     */
+    public List<String> getStripeDirectories() {
+        return stripeDirectories == null ? new ArrayList<>() : stripeDirectories;
+    }
+
+    public void setStripeDirectories(List<String> stripeDirectories) {
+        this.stripeDirectories =
+                stripeDirectories == null ? null : new ArrayList<>(stripeDirectories);
+    }
+
+    /**
+     * How coarse the assignment of tiles to the stripe directories is, defaults to {@link
+     * StripedFileBlobStore.Granularity#BLOCK}
+     */
+    public StripedFileBlobStore.Granularity getStripeGranularity() {
+        return stripeGranularity == null
+                ? StripedFileBlobStore.Granularity.BLOCK
+                : stripeGranularity;
+    }
+
+    public void setStripeGranularity(StripedFileBlobStore.Granularity stripeGranularity) {
+        this.stripeGranularity = stripeGranularity;
+    }
+
     @Override
     public String toString() {
         return new StringBuilder("FileBlobStore[id:")
@@ -117,6 +169,10 @@ public String toString() {
                 .append(baseDirectory)
                 .append(", fileSystemBlockSize:")
                 .append(fileSystemBlockSize)
+                .append(", deduplicate:")
+                .append(isDeduplicate())
+                .append(", stripeDirectories:")
+                .append(getStripeDirectories())
                 .append(']')
                 .toString();
     }
@@ -134,26 +190,47 @@ public BlobStore createInstance(TileLayerDispatcher layers, LockProvider lockPro
                 fileSystemBlockSize >= 0,
                 "fileSystemBlockSize must be a positive integer: %s",
                 fileSystemBlockSize);
+        if (getStripeDirectories().isEmpty()) {
+            return createFileBlobStore(baseDirectory, layers);
+        }
+
+        List<String> roots = new ArrayList<>();
+        roots.add(baseDirectory);
+        roots.addAll(getStripeDirectories());
+        List<FileBlobStore> stores = new ArrayList<>();
+        try {
+            for (String root : roots) {
+                stores.add(createFileBlobStore(root, layers));
+            }
+            return new StripedFileBlobStore(roots, stores, getStripeGranularity(), layers);
+        } catch (StorageException | RuntimeException e) {
+            stores.forEach(FileBlobStore::destroy);
+            throw e;
+        }
+    }
+
+    private FileBlobStore createFileBlobStore(String directory, TileLayerDispatcher layers)
+            throws StorageException {
         FileBlobStore fileBlobStore;
         if (pathGeneratorType == null || pathGeneratorType == PathGeneratorType.DEFAULT) {
-            fileBlobStore =
-                    new FileBlobStore(baseDirectory, new DefaultFilePathGenerator(baseDirectory));
+            fileBlobStore = new FileBlobStore(directory, new DefaultFilePathGenerator(directory));
         } else if (pathGeneratorType == PathGeneratorType.TMS) {
             fileBlobStore =
                     new FileBlobStore(
-                            baseDirectory,
+                            directory,
                             new XYZFilePathGenerator(
-                                    baseDirectory, layers, XYZFilePathGenerator.Convention.TMS));
+                                    directory, layers, XYZFilePathGenerator.Convention.TMS));
         } else {
             fileBlobStore =
                     new FileBlobStore(
-                            baseDirectory,
+                            directory,
                             new XYZFilePathGenerator(
-                                    baseDirectory, layers, XYZFilePathGenerator.Convention.XYZ));
+                                    directory, layers, XYZFilePathGenerator.Convention.XYZ));
         }
         if (fileSystemBlockSize > 0) {
             fileBlobStore.setBlockSize(fileSystemBlockSize);
         }
+        fileBlobStore.setDeduplicate(isDeduplicate());
         return fileBlobStore;
     }
 
@@ -163,12 +240,24 @@ public String getLocation() {
         return getBaseDirectory();
     }
 
+    @Override
+    public Object clone() {
+        FileBlobStoreInfo clone = (FileBlobStoreInfo) super.clone();
+        if (stripeDirectories != null) {
+            clone.stripeDirectories = new ArrayList<>(stripeDirectories);
+        }
+        return clone;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
         int result = super.hashCode();
         result = prime * result + ((baseDirectory == null) ? 0 : baseDirectory.hashCode());
         result = prime * result + fileSystemBlockSize;
+        result = prime * result + (isDeduplicate() ? 1231 : 1237);
+        result = prime * result + getStripeDirectories().hashCode();
+        result = prime * result + getStripeGranularity().hashCode();
         return result;
     }
 
@@ -182,6 +271,9 @@ public boolean equals(Object obj) {
             if (other.baseDirectory != null) return false;
         } else if (!baseDirectory.equals(other.baseDirectory)) return false;
         if (fileSystemBlockSize != other.fileSystemBlockSize) return false;
+        if (isDeduplicate() != other.isDeduplicate()) return false;
+        if (!getStripeDirectories().equals(other.getStripeDirectories())) return false;
+        if (getStripeGranularity() != other.getStripeGranularity()) return false;
         return true;
     }
 }
@@ -0,0 +1,193 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.config;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.File;
+import org.geowebcache.layer.TileLayerDispatcher;
+import org.geowebcache.locks.LockProvider;
+import org.geowebcache.storage.BlobStore;
+import org.geowebcache.storage.StorageException;
+import org.geowebcache.storage.blobstore.file.FileBlobStore;
+import org.geowebcache.storage.blobstore.tiered.TieredBlobStore;
+
+/**
+ * Configuration and factory for {@link TieredBlobStore}, a local {@link FileBlobStore} hot tier in
+ * front of any other blob store, the cold tier, configured inline.
+ *
+ * @see BlobStoreInfo
+ */
+public class TieredBlobStoreInfo extends BlobStoreInfo {
+
+    private static final long serialVersionUID = 3402722487451981937L;
+
+    private String hotDirectory;
+
+    private int hotTierSize;
+
+    private Boolean writeBack;
+
+    private BlobStoreInfo coldStore;
+
+    public TieredBlobStoreInfo() {
+        super();
+    }
+
+    public TieredBlobStoreInfo(String id) {
+        super(id);
+    }
+
+    /**
+     * The directory of the hot tier, emptied on startup. It must be dedicated to this blob store.
+     */
+    public String getHotDirectory() {
+        return hotDirectory;
+    }
+
+    public void setHotDirectory(String hotDirectory) {
+        this.hotDirectory = hotDirectory;
+    }
+
+    /** Size budget of the hot tier, in megabytes */
+    public int getHotTierSize() {
+        return hotTierSize;
+    }
+
+    public void setHotTierSize(int hotTierSize) {
+        this.hotTierSize = hotTierSize;
+    }
+
+    /**
+     * Whether puts return as soon as the hot tier has the tile, before the cold tier write.
+     * Defaults to {@code false}.
+     */
+    public boolean isWriteBack() {
+        return Boolean.TRUE.equals(writeBack);
+    }
+
+    public void setWriteBack(boolean writeBack) {
+        this.writeBack = writeBack;
+    }
+
+    /** The configuration of the cold tier, which is created along with this store */
+    public BlobStoreInfo getColdStore() {
+        return coldStore;
+    }
+
+    public void setColdStore(BlobStoreInfo coldStore) {
+        this.coldStore = coldStore;
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder("TieredBlobStore[id:")
+                .append(getName())
+                .append(", enabled:")
+                .append(isEnabled())
+                .append(", hotDirectory:")
+                .append(hotDirectory)
+                .append(", hotTierSize:")
+                .append(hotTierSize)
+                .append(", writeBack:")
+                .append(isWriteBack())
+                .append(", coldStore:")
+                .append(coldStore)
+                .append(']')
+                .toString();
+    }
+
+    /** @see BlobStoreInfo#createInstance(TileLayerDispatcher, LockProvider) */
+    @Override
+    public BlobStore createInstance(TileLayerDispatcher layers, LockProvider lockProvider)
+            throws StorageException {
+        checkState(getName() != null, "id not set");
+        checkState(
+                isEnabled(),
+                "Can't call TieredBlobStoreInfo.createInstance() is blob store is not enabled");
+        checkState(hotDirectory != null, "hotDirectory not provided");
+        checkState(hotTierSize > 0, "hotTierSize must be a positive integer: %s", hotTierSize);
+        checkState(coldStore != null, "coldStore not provided");
+
+        // the cold tier only lives within this store
+        BlobStoreInfo coldConfig = (BlobStoreInfo) coldStore.clone();
+        if (coldConfig.getName() == null) {
+            coldConfig.setName(getName() + "-cold");
+        }
+        coldConfig.setEnabled(true);
+        coldConfig.setDefault(false);
+        BlobStore cold = coldConfig.createInstance(layers, lockProvider);
+
+        File dir = new File(hotDirectory);
+        BlobStore hot;
+        try {
+            TieredBlobStore.prepareHotDirectory(dir, cold);
+            hot = new FileBlobStore(hotDirectory);
+            TieredBlobStore.markHotDirectory(dir);
+        } catch (StorageException | RuntimeException e) {
+            cold.destroy();
+            throw e;
+        }
+        return new TieredBlobStore(
+                hot,
+                cold,
+                hotTierSize * 1024L * 1024L,
+                isWriteBack(),
+                new File(dir, TieredBlobStore.PENDING_WRITES));
+    }
+
+    /** @see BlobStoreInfo#getLocation() */
+    @Override
+    public String getLocation() {
+        return coldStore == null ? hotDirectory : coldStore.getLocation();
+    }
+
+    @Override
+    public Object clone() {
+        TieredBlobStoreInfo clone = (TieredBlobStoreInfo) super.clone();
+        if (coldStore != null) {
+            clone.coldStore = (BlobStoreInfo) coldStore.clone();
+        }
+        return clone;
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = super.hashCode();
+        result = prime * result + ((hotDirectory == null) ? 0 : hotDirectory.hashCode());
+        result = prime * result + hotTierSize;
+        result = prime * result + (isWriteBack() ? 1231 : 1237);
+        result = prime * result + ((coldStore == null) ? 0 : coldStore.hashCode());
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!super.equals(obj)) return false;
+        if (getClass() != obj.getClass()) return false;
+        TieredBlobStoreInfo other = (TieredBlobStoreInfo) obj;
+        if (hotDirectory == null) {
+            if (other.hotDirectory != null) return false;
+        } else if (!hotDirectory.equals(other.hotDirectory)) return false;
+        if (hotTierSize != other.hotTierSize) return false;
+        if (isWriteBack() != other.isWriteBack()) return false;
+        if (coldStore == null) {
+            if (other.coldStore != null) return false;
+        } else if (!coldStore.equals(other.coldStore)) return false;
+        return true;
+    }
+}
@@ -38,6 +38,17 @@ public interface TileLayerConfiguration extends BaseConfiguration {
      */
     Collection<? extends TileLayer> getLayers();
 
+    /**
+     * Get the {@link TileLayer}s that can be used right away. Configurations initializing their
+     * layers in background leave out those still initializing, and report each of them to their
+     * {@link #addLayerListener listeners} once ready, the others return all their layers.
+     *
+     * @return an unmodifiable list of layers, may be empty, but not null.
+     */
+    default Collection<? extends TileLayer> getReadyLayers() {
+        return getLayers();
+    }
+
     /**
      * Gets a single {@link TileLayer} from the configuration, using the layer's unique name as a
      * key.
@@ -101,6 +112,28 @@ void renameLayer(String oldName, String newName)
      */
     void addLayer(TileLayer tl) throws IllegalArgumentException;
 
+    /**
+     * Adds or replaces several tile layers at once, layers whose name already exists in this
+     * configuration are modified, the others are added.
+     *
+     * <p>The default implementation calls {@link #modifyLayer(TileLayer)} or {@link
+     * #addLayer(TileLayer)} for each layer, implementations persisting their contents as a whole
+     * should override it to persist the changes once for the whole batch.
+     *
+     * @param layers the tile layers to add or modify
+     * @throws IllegalArgumentException if any of the layers can't be saved by this configuration
+     */
+    default void putLayers(Collection<? extends TileLayer> layers)
+            throws IllegalArgumentException {
+        for (TileLayer tl : layers) {
+            if (containsLayer(tl.getName())) {
+                modifyLayer(tl);
+            } else {
+                addLayer(tl);
+            }
+        }
+    }
+
     /**
      * Whether a tile layer with the given name exists in the configuration.
      *
@@ -121,4 +154,22 @@ void renameLayer(String oldName, String newName)
 
     /** Set the GridSetBroker */
     void setGridSetBroker(GridSetBroker broker);
+
+    /**
+     * Whether this configuration notifies the {@link #addLayerListener listeners} of every layer
+     * added, removed or replaced on it. {@link TileLayerDispatcher} indexes the layers of such
+     * configurations, and queries the others on each lookup.
+     */
+    default boolean supportsLayerListeners() {
+        return false;
+    }
+
+    /**
+     * Registers a listener notified of the layers changed on this configuration. Configurations
+     * that do not {@link #supportsLayerListeners() support listeners} ignore it.
+     */
+    default void addLayerListener(TileLayerConfigurationListener listener) {}
+
+    /** Unregisters a listener added with {@link #addLayerListener} */
+    default void removeLayerListener(TileLayerConfigurationListener listener) {}
 }
@@ -0,0 +1,33 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.config;
+
+/**
+ * Indicates a class should listen to layer changes on a {@link TileLayerConfiguration}.
+ * Implementations are responsible for registering themselves through {@link
+ * TileLayerConfiguration#addLayerListener}.
+ */
+public interface TileLayerConfigurationListener {
+
+    /**
+     * Called once a layer change is saved, or once a layer initialized in background becomes
+     * ready. Implementations must not call back into the configuration, which may still hold its
+     * own locks.
+     *
+     * @param layerName the name of the layer that was added, modified, removed or initialized, both
+     *     the old and the new name are reported for a renamed layer
+     */
+    void handleLayerChange(String layerName);
+}
@@ -17,10 +17,13 @@
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.converters.extended.NamedCollectionConverter;
 import com.thoughtworks.xstream.io.xml.DomReader;
+import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
@@ -30,12 +33,20 @@
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -92,6 +103,7 @@
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.Assert;
 import org.springframework.web.context.WebApplicationContext;
 import org.w3c.dom.Document;
@@ -135,6 +147,28 @@
     private ListenerCollection<BlobStoreConfigurationListener> blobStoreListeners =
             new ListenerCollection<>();
 
+    private ListenerCollection<TileLayerConfigurationListener> layerListeners =
+            new ListenerCollection<>();
+
+    /**
+     * Number of threads initializing layers on startup, with the default of one layers are
+     * initialized one after the other on the thread creating this configuration
+     */
+    public static final String LAYER_INIT_THREADS = "gwc.xmlconfig.layerInitThreads";
+
+    /**
+     * If {@code true} the layers are initialized in background on startup, a layer still waiting
+     * is initialized on first use instead
+     */
+    public static final String LAZY_LAYER_INIT = "gwc.xmlconfig.lazyLayerInit";
+
+    private int layerInitThreads = Integer.parseInt(System.getProperty(LAYER_INIT_THREADS, "1"));
+
+    private boolean lazyLayerInit = Boolean.parseBoolean(System.getProperty(LAZY_LAYER_INIT));
+
+    /** Layers whose initialization was started on startup and is not complete yet */
+    private final Map<String, FutureTask<Void>> pendingLayers = new ConcurrentHashMap<>();
+
     /**
      * Base Constructor with custom {@link ConfigurationResourceProvider}.
      *
@@ -336,6 +370,8 @@ private synchronized void save() throws IOException {
         if (!resourceProvider.hasOutput()) {
             return;
         }
+        // layer initialization fills in some of the persisted properties
+        awaitLayers();
 
         try {
             resourceProvider.backup();
@@ -400,6 +436,11 @@ public static XStream getConfiguredXStreamWithContext(
 
         xs.alias("blobStores", new ArrayList<BlobStoreInfo>().getClass());
         xs.alias("FileBlobStore", FileBlobStoreInfo.class);
+        xs.registerLocalConverter(
+                FileBlobStoreInfo.class,
+                "stripeDirectories",
+                new NamedCollectionConverter(xs.getMapper(), "directory", String.class));
+        xs.alias("TieredBlobStore", TieredBlobStoreInfo.class);
         xs.aliasAttribute(BlobStoreInfo.class, "_default", "default");
         // Alias added to retain XML backwards-compatibility.
         // TODO: Would be nice to be able to use name for consistency
@@ -434,6 +475,7 @@ public static XStream getConfiguredXStreamWithContext(
         xs.alias("expirationRule", ExpirationRule.class);
         xs.useAttributeFor(ExpirationRule.class, "minZoom");
         xs.useAttributeFor(ExpirationRule.class, "expiration");
+        xs.useAttributeFor(ExpirationRule.class, "maxStale");
 
         xs.alias("geoRssFeed", GeoRSSFeedDefinition.class);
 
@@ -482,13 +524,18 @@ private void persistToFile() throws IOException {
         // create the XStream for serializing the configuration
         XStream xs = getConfiguredXStreamWithContext(new GeoWebCacheXStream(), Context.PERSIST);
 
-        try (OutputStreamWriter writer = new OutputStreamWriter(resourceProvider.out(), UTF_8)) {
+        // serialize in memory first, a serialization failure must not leave a truncated file
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (OutputStreamWriter writer = new OutputStreamWriter(buffer, UTF_8)) {
             // set version to latest
             String currentSchemaVersion = getCurrentSchemaVersion();
             getGwcConfig().setVersion(currentSchemaVersion);
 
             writer.write("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n");
             xs.toXML(getGwcConfig(), writer);
+        }
+        try (OutputStream out = resourceProvider.out()) {
+            buffer.writeTo(out);
         } catch (UnsupportedEncodingException uee) {
             throw new IOException(uee.getMessage(), uee);
         } catch (FileNotFoundException fnfe) {
@@ -557,6 +604,70 @@ public synchronized void addLayer(TileLayer tl) throws IllegalArgumentException
             }
             throw new ConfigurationPersistenceException("Unable to add layer " + tl.getName(), e);
         }
+        fireLayerChange(tl.getName());
+    }
+
+    /**
+     * Adds or replaces all the given layers, persisting the configuration once for the whole batch
+     * instead of once per layer. Either all the layers are saved or none is.
+     *
+     * @see TileLayerConfiguration#putLayers(Collection)
+     */
+    @Override
+    public synchronized void putLayers(Collection<? extends TileLayer> tileLayers)
+            throws IllegalArgumentException {
+        Map<String, TileLayer> batch = new LinkedHashMap<>();
+        for (TileLayer tl : tileLayers) {
+            if (tl == null) {
+                throw new NullPointerException();
+            }
+            if (!canSaveIfNotTransient(tl)) {
+                throw new IllegalArgumentException(
+                        "Can't add layers of type " + tl.getClass().getName());
+            }
+            if (batch.put(tl.getName(), tl) != null) {
+                throw new IllegalArgumentException(
+                        "Layer '" + tl.getName() + "' is included more than once");
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        final List<TileLayer> layerList = getGwcConfig().getLayers();
+        final List<TileLayer> previous = new ArrayList<>(layerList);
+        try {
+            for (TileLayer tl : batch.values()) {
+                initialize(tl);
+            }
+            List<TileLayer> updated = new ArrayList<>(previous.size() + batch.size());
+            for (TileLayer tl : previous) {
+                if (!batch.containsKey(tl.getName())) {
+                    updated.add(tl);
+                }
+            }
+            updated.addAll(batch.values());
+            layerList.clear();
+            layerList.addAll(updated);
+            updateLayers();
+            save();
+        } catch (IOException | RuntimeException e) {
+            // revert the whole batch to maintain a consistent state
+            layerList.clear();
+            layerList.addAll(previous);
+            for (TileLayer tl : previous) {
+                if (batch.containsKey(tl.getName())) {
+                    initialize(tl);
+                }
+            }
+            updateLayers();
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            }
+            throw new ConfigurationPersistenceException(
+                    "Unable to save " + batch.size() + " layers", e);
+        }
+        batch.keySet().forEach(this::fireLayerChange);
     }
 
     /**
@@ -587,6 +698,7 @@ public synchronized void modifyLayer(TileLayer tl) throws NoSuchElementException
             updateLayers();
             throw new IllegalArgumentException("Unable to modify layer " + tl.getName(), e);
         }
+        fireLayerChange(tl.getName());
     }
 
     protected TileLayer findLayer(String layerName) throws NoSuchElementException {
@@ -631,6 +743,30 @@ public synchronized void removeLayer(final String layerName)
             }
             throw new IllegalArgumentException("Unable to remove layer " + tileLayer, e);
         }
+        fireLayerChange(layerName);
+    }
+
+    private void fireLayerChange(String layerName) {
+        try {
+            layerListeners.safeForEach(listener -> listener.handleLayerChange(layerName));
+        } catch (GeoWebCacheException | IOException e) {
+            log.log(Level.WARNING, "Error notifying the change of layer " + layerName, e);
+        }
+    }
+
+    @Override
+    public boolean supportsLayerListeners() {
+        return true;
+    }
+
+    @Override
+    public void addLayerListener(TileLayerConfigurationListener listener) {
+        layerListeners.add(listener);
+    }
+
+    @Override
+    public void removeLayerListener(TileLayerConfigurationListener listener) {
+        layerListeners.remove(listener);
     }
 
     /** */
@@ -848,17 +984,168 @@ public void afterPropertiesSet() throws GeoWebCacheException {
 
         log.config("Initializing layers from " + getIdentifier());
 
-        // Loop over the layers and set appropriate values
         for (TileLayer layer : getGwcConfig().getLayers()) {
             if (layer == null) {
                 throw new IllegalStateException(getIdentifier() + " contains a null layer");
             }
-            initialize(layer);
+        }
+        if (layerInitThreads > 1 || lazyLayerInit) {
+            initializeLayers(getGwcConfig().getLayers());
+        } else {
+            // Loop over the layers and set appropriate values
+            for (TileLayer layer : getGwcConfig().getLayers()) {
+                initialize(layer);
+            }
         }
 
         updateLayers();
     }
 
+    /**
+     * Initializes the layers on a pool of {@link #LAYER_INIT_THREADS} threads, waiting for them
+     * unless {@link #LAZY_LAYER_INIT} is set
+     */
+    private void initializeLayers(List<TileLayer> toInitialize) throws GeoWebCacheException {
+        // resolve what may need the application context on this thread, as the worker threads
+        // would wait on the application context while this bean is being created
+        gridSetBroker.getWorldEpsg4326();
+        gridSetBroker.getWorldEpsg3857();
+        getGwcConfig().getLockProvider();
+
+        final long start = System.currentTimeMillis();
+        final int count = toInitialize.size();
+        final AtomicInteger remaining = new AtomicInteger(count);
+        final AtomicInteger failed = new AtomicInteger();
+        final AtomicInteger cancelled = new AtomicInteger();
+        CustomizableThreadFactory threadFactory =
+                new CustomizableThreadFactory("GWC Layer Initializer-");
+        threadFactory.setDaemon(true);
+        ExecutorService executor =
+                Executors.newFixedThreadPool(Math.max(1, layerInitThreads), threadFactory);
+        try {
+            for (TileLayer layer : toInitialize) {
+                final String name = layer.getName();
+                FutureTask<Void> task =
+                        new FutureTask<Void>(() -> initialize(layer), null) {
+                            @Override
+                            protected void done() {
+                                pendingLayers.remove(name, this);
+                                if (isCancelled()) {
+                                    cancelled.incrementAndGet();
+                                } else {
+                                    try {
+                                        get();
+                                    } catch (ExecutionException | InterruptedException e) {
+                                        failed.incrementAndGet();
+                                        log.log(
+                                                Level.SEVERE,
+                                                "Error initializing layer " + name,
+                                                e.getCause());
+                                    }
+                                    fireLayerChange(name);
+                                }
+                                if (remaining.decrementAndGet() == 0) {
+                                    logLayersInitialized(
+                                            count,
+                                            failed.get(),
+                                            cancelled.get(),
+                                            System.currentTimeMillis() - start);
+                                }
+                            }
+                        };
+                pendingLayers.put(name, task);
+            }
+            for (TileLayer layer : toInitialize) {
+                FutureTask<Void> task = pendingLayers.get(layer.getName());
+                if (task != null) {
+                    executor.execute(task);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        if (!lazyLayerInit) {
+            try {
+                awaitLayers();
+            } catch (RuntimeException e) {
+                throw new GeoWebCacheException(e);
+            }
+        }
+    }
+
+    private void logLayersInitialized(int count, int failed, int cancelled, long elapsed) {
+        int initialized = count - failed - cancelled;
+        String source = " layers from " + getIdentifier() + " in " + elapsed + "ms";
+        if (cancelled > 0) {
+            log.info(
+                    "Layer initialization cancelled, initialized "
+                            + initialized
+                            + " of "
+                            + count
+                            + source);
+        } else if (failed > 0) {
+            log.warning(
+                    "Failed to initialize "
+                            + failed
+                            + " of "
+                            + count
+                            + source
+                            + ", see the previous errors");
+        } else {
+            log.info("Initialized " + count + source);
+        }
+    }
+
+    /**
+     * Makes sure the named layer is initialized, running its initialization on the calling thread
+     * if it did not start yet
+     */
+    private void awaitLayer(String layerName) {
+        FutureTask<Void> task = pendingLayers.get(layerName);
+        if (task == null) {
+            return;
+        }
+        // no-op if already running or done
+        task.run();
+        try {
+            task.get();
+            pendingLayers.remove(layerName, task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted initializing layer " + layerName, e);
+        } catch (CancellationException e) {
+            // configuration reloaded in the meantime
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Error initializing layer " + layerName, cause);
+        }
+    }
+
+    /** Makes sure all layers are initialized */
+    private void awaitLayers() {
+        for (String layerName : new ArrayList<>(pendingLayers.keySet())) {
+            awaitLayer(layerName);
+        }
+    }
+
+    /** @return number of layers not initialized yet, zero once startup is complete */
+    public int getPendingLayerCount() {
+        return pendingLayers.size();
+    }
+
+    /** @param layerInitThreads number of threads initializing layers on startup */
+    public void setLayerInitThreads(int layerInitThreads) {
+        this.layerInitThreads = layerInitThreads;
+    }
+
+    /** @param lazyLayerInit whether startup should return before all layers are initialized */
+    public void setLazyLayerInit(boolean lazyLayerInit) {
+        this.lazyLayerInit = lazyLayerInit;
+    }
+
     private void updateLayers() {
         Map<String, TileLayer> buff = new HashMap<>();
         for (TileLayer layer : getGwcConfig().getLayers()) {
@@ -924,12 +1211,31 @@ public void setAbsolutePath(String absPath) {
     /** @see TileLayerConfiguration#getLayers() */
     @Override
     public Collection<TileLayer> getLayers() {
+        awaitLayers();
         return Collections.unmodifiableList(getGwcConfig().getLayers());
     }
 
+    /**
+     * Returns the layers whose startup initialization is complete, without waiting for the others
+     *
+     * @see TileLayerConfiguration#getReadyLayers()
+     */
+    @Override
+    public Collection<TileLayer> getReadyLayers() {
+        if (pendingLayers.isEmpty()) {
+            return Collections.unmodifiableList(getGwcConfig().getLayers());
+        }
+        List<TileLayer> ready =
+                getGwcConfig().getLayers().stream()
+                        .filter(layer -> !pendingLayers.containsKey(layer.getName()))
+                        .collect(Collectors.toList());
+        return Collections.unmodifiableList(ready);
+    }
+
     /** @see TileLayerConfiguration#getLayer(java.lang.String) */
     @Override
     public Optional<TileLayer> getLayer(String layerName) {
+        awaitLayer(layerName);
         return Optional.ofNullable(layers.get(layerName));
     }
 
@@ -943,6 +1249,7 @@ public Optional<TileLayer> getLayer(String layerName) {
     @Deprecated
     public @Nullable TileLayer getTileLayerById(String layerId) {
         // this configuration does not differentiate between identifier and identity yet
+        awaitLayer(layerId);
         return layers.get(layerId);
     }
 
@@ -1504,6 +1811,8 @@ public void setGridSetBroker(@Qualifier("gwcGridSetBroker") GridSetBroker broker
 
     @Override
     public void deinitialize() throws Exception {
+        pendingLayers.values().forEach(task -> task.cancel(false));
+        pendingLayers.clear();
         this.gridSets = null;
         this.layers = null;
         this.gwcConfig = null;
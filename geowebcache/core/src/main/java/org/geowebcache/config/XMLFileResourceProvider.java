@@ -18,9 +18,13 @@
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.Date;
@@ -153,9 +157,79 @@ public InputStream in() throws IOException {
         return new FileInputStream(findOrCreateConfFile());
     }
 
+    /**
+     * The returned stream writes to a temporary file next to the configuration file, which is
+     * renamed over it when the stream is closed, so that readers and a crash half way through a
+     * save never see a partially written configuration. If writing fails the temporary file is
+     * discarded and the configuration file is left untouched.
+     */
     @Override
     public OutputStream out() throws IOException {
-        return new FileOutputStream(findOrCreateConfFile());
+        final File xmlFile = findOrCreateConfFile();
+        final File tmpFile = new File(xmlFile.getParentFile(), xmlFile.getName() + ".tmp");
+        final FileOutputStream fos = new FileOutputStream(tmpFile);
+        return new FilterOutputStream(fos) {
+
+            boolean failed;
+
+            boolean closed;
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                try {
+                    out.write(b, off, len);
+                } catch (IOException e) {
+                    failed = true;
+                    throw e;
+                }
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                try {
+                    out.write(b);
+                } catch (IOException e) {
+                    failed = true;
+                    throw e;
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                try {
+                    if (!failed) {
+                        fos.getFD().sync();
+                    }
+                    fos.close();
+                } catch (IOException e) {
+                    failed = true;
+                    throw e;
+                } finally {
+                    if (failed) {
+                        Files.deleteIfExists(tmpFile.toPath());
+                    }
+                }
+                if (failed) {
+                    return;
+                }
+                try {
+                    Files.move(
+                            tmpFile.toPath(),
+                            xmlFile.toPath(),
+                            StandardCopyOption.ATOMIC_MOVE,
+                            StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(
+                            tmpFile.toPath(),
+                            xmlFile.toPath(),
+                            StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        };
     }
 
     @Override
@@ -29,6 +29,7 @@
 import org.geowebcache.storage.StorageBroker;
 import org.geowebcache.storage.StorageException;
 import org.geowebcache.storage.TileObject;
+import org.geowebcache.util.ResponseUtils;
 
 /** Represents a request for a tile and carries the information needed to complete it. */
 public class ConveyorTile extends Conveyor implements TileResponseReceiver {
@@ -59,6 +60,17 @@ public class ConveyorTile extends Conveyor implements TileResponseReceiver {
 
     private boolean isMetaTileCacheOnly;
 
+    private boolean stale;
+
+    private boolean backgroundRequest;
+
+    private boolean conditionalProbe;
+
+    private boolean notModified;
+
+    /** Whether {@link #stObj} holds the stored tile, read ahead by {@link #prefetch()} */
+    private boolean prefetched;
+
     public ConveyorTile(
             StorageBroker sb,
             String layerId,
@@ -216,18 +228,59 @@ public boolean persist() throws GeoWebCacheException {
         }
     }
 
+    /**
+     * Reads the stored tile ahead of {@link #retrieve(long, long)}, which then uses it rather than
+     * reading it again. Used to tell likely cache misses apart with no extra storage lookup.
+     *
+     * @return whether the tile is stored
+     */
+    public boolean prefetch() throws StorageException {
+        this.prefetched = storageBroker.get(stObj);
+        return prefetched;
+    }
+
     public boolean retrieve(long maxAge) throws GeoWebCacheException {
+        return retrieve(maxAge, 0);
+    }
+
+    /**
+     * Retrieves the tile from the storage broker, accepting tiles that are older than {@code
+     * maxAge} for up to {@code maxStale} further milliseconds. Tiles served from within that window
+     * are flagged as {@link #isStale() stale} so that the caller can schedule a refresh.
+     *
+     * @param maxAge maximum age of the tile in milliseconds, {@code 0} or less for no expiration
+     * @param maxStale how long past {@code maxAge} the tile can still be served, in milliseconds
+     * @return whether a usable tile was found
+     */
+    public boolean retrieve(long maxAge, long maxStale) throws GeoWebCacheException {
+        this.stale = false;
+        this.notModified = false;
         try {
             if (isMetaTileCacheOnly) {
                 boolean cached = storageBroker.getTransient(stObj);
                 this.setCacheResult(cached ? CacheResult.HIT : CacheResult.MISS);
                 return cached;
             }
-            boolean ret = storageBroker.get(stObj);
+            if (conditionalProbe && probeNotModified(maxAge)) {
+                this.prefetched = false;
+                this.notModified = true;
+                this.setCacheResult(CacheResult.HIT);
+                return true;
+            }
+            boolean ret = prefetched || storageBroker.get(stObj);
+            this.prefetched = false;
 
             // Do we use expiration, and if so, is the tile recent enough ?
-            if (ret && maxAge > 0 && stObj.getCreated() + maxAge < System.currentTimeMillis()) {
-                ret = false;
+            if (ret && maxAge > 0) {
+                long expires = stObj.getCreated() + maxAge;
+                long now = System.currentTimeMillis();
+                if (expires < now) {
+                    if (maxStale > 0 && expires + maxStale >= now) {
+                        this.stale = true;
+                    } else {
+                        ret = false;
+                    }
+                }
             }
 
             if (ret) {
@@ -244,6 +297,27 @@ public boolean retrieve(long maxAge) throws GeoWebCacheException {
         }
     }
 
+    /**
+     * Checks the tile metadata against the request validators, so that a fresh tile the client
+     * already has costs a metadata lookup rather than a read
+     */
+    private boolean probeNotModified(long maxAge) throws StorageException {
+        if (!ResponseUtils.isConditional(servletReq)
+                || !(prefetched || storageBroker.getMetadata(stObj))) {
+            return false;
+        }
+        // expired tiles, stale ones included, take the regular path
+        if (maxAge > 0 && stObj.getCreated() + maxAge < System.currentTimeMillis()) {
+            return false;
+        }
+        boolean useETags = tileLayer != null && tileLayer.useETags();
+        if (!ResponseUtils.isNotModified(servletReq, stObj.getCreated(), useETags)) {
+            return false;
+        }
+        stObj.setBlob(null);
+        return true;
+    }
+
     @Override
     public String toString() {
         StringBuilder str = new StringBuilder();
@@ -280,4 +354,42 @@ public void setMetaTileCacheOnly(boolean b) {
     public boolean isMetaTileCacheOnly() {
         return isMetaTileCacheOnly;
     }
+
+    /**
+     * @return {@code true} if the last {@link #retrieve(long, long)} returned an expired tile from
+     *     within its stale window
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * Lets {@link #retrieve(long, long)} answer conditional requests from the tile metadata alone,
+     * leaving the tile contents unread when the client copy is current. Only to be enabled by
+     * callers checking {@link #isNotModified()} before using the contents.
+     */
+    public void setConditionalProbe(boolean conditionalProbe) {
+        this.conditionalProbe = conditionalProbe;
+    }
+
+    /**
+     * @return {@code true} if the last {@link #retrieve(long, long)} found the client copy of the
+     *     tile current, in which case the tile contents were not read
+     */
+    public boolean isNotModified() {
+        return notModified;
+    }
+
+    @Override
+    public boolean isBackgroundRequest() {
+        return backgroundRequest;
+    }
+
+    /**
+     * Flags the tile as requested without a client waiting for it, as when seeding or refreshing
+     * a stale tile, so that the backend request can give way to interactive ones
+     */
+    public void setBackgroundRequest(boolean backgroundRequest) {
+        this.backgroundRequest = backgroundRequest;
+    }
 }
@@ -0,0 +1,102 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.filter.request;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+
+/**
+ * Immutable raster filter mask for a zoom level, one bit per pixel, set where the raster has data.
+ * Safe to read from any number of threads without locking.
+ */
+final class FilterMatrix {
+
+    private final int width;
+
+    private final int height;
+
+    private final long[] bits;
+
+    private FilterMatrix(int width, int height, long[] bits) {
+        this.width = width;
+        this.height = height;
+        this.bits = bits;
+    }
+
+    /** Pixels with a 0 sample in the first band have data, as in {@link RasterFilter} rasters */
+    static FilterMatrix fromImage(BufferedImage img) {
+        int width = img.getWidth();
+        int height = img.getHeight();
+        long[] bits = new long[(int) (((long) width * height + 63) >>> 6)];
+        Raster raster = img.getRaster();
+        int minX = raster.getMinX();
+        int minY = raster.getMinY();
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            raster.getSamples(minX, minY + y, width, 1, 0, row);
+            long offset = (long) y * width;
+            for (int x = 0; x < width; x++) {
+                if (row[x] == 0) {
+                    long i = offset + x;
+                    bits[(int) (i >>> 6)] |= 1L << i;
+                }
+            }
+        }
+        return new FilterMatrix(width, height, bits);
+    }
+
+    /** The reverse of {@link #fromImage(BufferedImage)}, a binary image with 0 where it has data */
+    BufferedImage toImage() {
+        BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY);
+        WritableRaster raster = img.getRaster();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (!hasData(x, y)) {
+                    raster.setSample(x, y, 0, 1);
+                }
+            }
+        }
+        return img;
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return whether the pixel has data
+     * @throws ArrayIndexOutOfBoundsException if the pixel is outside of the matrix, like {@link
+     *     Raster#getSample(int, int, int)}
+     */
+    boolean hasData(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new ArrayIndexOutOfBoundsException(
+                    "Pixel " + x + "," + y + " outside of " + width + "x" + height);
+        }
+        long i = (long) y * width + x;
+        return (bits[(int) (i >>> 6)] & (1L << i)) != 0;
+    }
+
+    /** @return the approximate heap size of the matrix, in bytes */
+    long getMemoryUsage() {
+        // object header and fields, plus the array header and words
+        return 32 + 16 + 8L * bits.length;
+    }
+}
@@ -18,6 +18,8 @@
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.geotools.util.logging.Logging;
@@ -53,7 +55,8 @@ public abstract class RasterFilter extends RequestFilter {
 
     private Boolean debug;
 
-    public transient Map<String, BufferedImage[]> matrices;
+    /** The loaded masks, per gridset and zoom level, replaced as a whole on reload */
+    private transient volatile Map<String, AtomicReferenceArray<FilterMatrix>> matrices;
 
     public RasterFilter() {}
 
@@ -149,11 +152,11 @@ public void apply(ConveyorTile convTile) throws RequestFilterException {
             idx[2] = zoomStop;
         }
 
-        if (matrices == null
-                || matrices.get(gridSetId) == null
-                || matrices.get(gridSetId)[(int) idx[2]] == null) {
+        FilterMatrix mat = getMatrix(gridSetId, (int) idx[2]);
+        if (mat == null) {
             try {
                 setMatrix(convTile.getLayer(), gridSetId, (int) idx[2], false);
+                mat = getMatrix(gridSetId, (int) idx[2]);
             } catch (Exception e) {
                 log.log(
                         Level.SEVERE,
@@ -165,6 +168,8 @@ public void apply(ConveyorTile convTile) throws RequestFilterException {
                                 + idx[2]
                                 + " : "
                                 + e.getMessage());
+            }
+            if (mat == null) {
                 throw new RequestFilterException(
                         this,
                         500,
@@ -175,7 +180,7 @@ public void apply(ConveyorTile convTile) throws RequestFilterException {
         }
 
         if (zoomDiff == 0) {
-            if (!lookup(convTile.getGridSubset(), idx)) {
+            if (!lookup(convTile.getGridSubset(), idx, mat)) {
                 if (debug != null && debug) {
                     throw new GreenTileException(this);
                 } else {
@@ -183,7 +188,7 @@ public void apply(ConveyorTile convTile) throws RequestFilterException {
                 }
             }
         } else if (zoomDiff > 0) {
-            if (!lookupQuad(convTile.getGridSubset(), idx)) {
+            if (!lookupQuad(convTile.getGridSubset(), idx, mat)) {
                 if (debug != null && debug) {
                     throw new GreenTileException(this);
                 } else {
@@ -191,7 +196,7 @@ public void apply(ConveyorTile convTile) throws RequestFilterException {
                 }
             }
         } else if (zoomDiff < 0) {
-            if (!lookupSubsample(convTile.getGridSubset(), idx, zoomDiff)) {
+            if (!lookupSubsample(convTile.getGridSubset(), idx, zoomDiff, mat)) {
                 if (debug != null && debug) {
                     throw new GreenTileException(this);
                 } else {
@@ -229,25 +234,21 @@ public void initialize(TileLayer layer) throws GeoWebCacheException {
     }
 
     /** Performs a lookup against an internal raster. */
-    private boolean lookup(GridSubset grid, long[] idx) {
-        BufferedImage mat = matrices.get(grid.getName())[(int) idx[2]];
-
+    private boolean lookup(GridSubset grid, long[] idx, FilterMatrix mat) {
         long[] gridCoverage = grid.getCoverage((int) idx[2]);
 
         // Changing index to top left hand origin
         long x = idx[0] - gridCoverage[0];
         long y = gridCoverage[3] - idx[1];
 
-        return (mat.getRaster().getSample((int) x, (int) y, 0) == 0);
+        return mat.hasData((int) x, (int) y);
     }
 
     /**
      * Performs a lookup against an internal raster. The sampling is actually done against 4 pixels,
      * idx should already have been modified to use one level higher than strictly necessary.
      */
-    private boolean lookupQuad(GridSubset grid, long[] idx) {
-        BufferedImage mat = matrices.get(grid.getName())[(int) idx[2]];
-
+    private boolean lookupQuad(GridSubset grid, long[] idx, FilterMatrix mat) {
         long[] gridCoverage = grid.getCoverage((int) idx[2]);
 
         // Changing index to top left hand origin
@@ -267,40 +268,35 @@ private boolean lookupQuad(GridSubset grid, long[] idx) {
         int[] xOffsets = {0, 1, 0, 1};
         int[] yOffsets = {0, 0, 1, 1};
 
-        // Lock, in case someone wants to replace the matrix
-        synchronized (mat) {
-            try {
-                for (int i = 0; i < 4 && !hasData; i++) {
-                    x = baseX + xOffsets[i];
-                    y = baseY - yOffsets[i];
-
-                    if (x > -1 && x < width && y > -1 && y < height) {
-                        if (mat.getRaster().getSample(x, y, 0) == 0) {
-                            hasData = true;
-                        }
+        try {
+            for (int i = 0; i < 4 && !hasData; i++) {
+                x = baseX + xOffsets[i];
+                y = baseY - yOffsets[i];
+
+                if (x > -1 && x < width && y > -1 && y < height) {
+                    if (mat.hasData(x, y)) {
+                        hasData = true;
                     }
                 }
-            } catch (ArrayIndexOutOfBoundsException aioob) {
-                log.log(
-                        Level.SEVERE,
-                        "x:"
-                                + x
-                                + "  y:"
-                                + y
-                                + " ("
-                                + mat.getWidth()
-                                + " "
-                                + mat.getHeight()
-                                + ")");
             }
+        } catch (ArrayIndexOutOfBoundsException aioob) {
+            log.log(
+                    Level.SEVERE,
+                    "x:"
+                            + x
+                            + "  y:"
+                            + y
+                            + " ("
+                            + mat.getWidth()
+                            + " "
+                            + mat.getHeight()
+                            + ")");
         }
 
         return hasData;
     }
 
-    private boolean lookupSubsample(GridSubset grid, long[] idx, int zoomDiff) {
-        BufferedImage mat = matrices.get(grid.getName())[(int) idx[2]];
-
+    private boolean lookupSubsample(GridSubset grid, long[] idx, int zoomDiff, FilterMatrix mat) {
         int sampleChange = 1 << (-1 * zoomDiff);
 
         long[] gridCoverage = grid.getCoverage((int) idx[2]);
@@ -320,55 +316,53 @@ private boolean lookupSubsample(GridSubset grid, long[] idx, int zoomDiff) {
         int x = -1;
         int y = -1;
 
-        // Lock, in case someone wants to replace the matrix
-        synchronized (mat) {
-            try {
-                // Try center and edges first
-                x = (stopX + startX) / 2;
-                y = (startY + stopY) / 2;
-                if (mat.getRaster().getSample(x, y, 0) == 0
-                        || mat.getRaster().getSample(stopX - 1, stopY + 1, 0) == 0
-                        || mat.getRaster().getSample(stopX - 1, startY, 0) == 0
-                        || mat.getRaster().getSample(startX, stopY + 1, 0) == 0) {
-                    return true;
-                }
+        try {
+            // Try center and edges first
+            x = (stopX + startX) / 2;
+            y = (startY + stopY) / 2;
+            if (mat.hasData(x, y)
+                    || mat.hasData(stopX - 1, stopY + 1)
+                    || mat.hasData(stopX - 1, startY)
+                    || mat.hasData(startX, stopY + 1)) {
+                return true;
+            }
 
-                // Do the hard work, loop over all pixels
-                x = startX;
-                y = startY;
+            // Do the hard work, loop over all pixels
+            x = startX;
+            y = startY;
 
-                // Left to right
-                while (x < stopX) {
-                    // Bottom to top
-                    while (y > stopY) {
-                        if (mat.getRaster().getSample(x, y, 0) == 0) {
-                            return true;
-                        }
-                        y--;
+            // Left to right
+            while (x < stopX) {
+                // Bottom to top
+                while (y > stopY) {
+                    if (mat.hasData(x, y)) {
+                        return true;
                     }
-                    x++;
-                    y = startY;
+                    y--;
                 }
-            } catch (ArrayIndexOutOfBoundsException aioob) {
-                log.log(
-                        Level.SEVERE,
-                        "x:"
-                                + x
-                                + "  y:"
-                                + y
-                                + " ("
-                                + mat.getWidth()
-                                + " "
-                                + mat.getHeight()
-                                + ")");
+                x++;
+                y = startY;
             }
+        } catch (ArrayIndexOutOfBoundsException aioob) {
+            log.log(
+                    Level.SEVERE,
+                    "x:"
+                            + x
+                            + "  y:"
+                            + y
+                            + " ("
+                            + mat.getWidth()
+                            + " "
+                            + mat.getHeight()
+                            + ")");
         }
 
         return false;
     }
 
     /**
-     * This function will load the matrix from the appropriate source.
+     * This function will load the matrix from the appropriate source. Lookups are not blocked, they
+     * keep using the previous matrix until the new one is loaded.
      *
      * @param layer Access to the layer, to make the object simpler
      * @param z (zoom level)
@@ -378,28 +372,84 @@ public synchronized void setMatrix(TileLayer layer, String gridSetId, int z, boo
             throws IOException, GeoWebCacheException {
 
         if (matrices == null) {
-            matrices = new HashMap<>();
+            matrices = new ConcurrentHashMap<>();
         }
 
-        if (matrices.get(gridSetId) == null) {
-            matrices.put(gridSetId, new BufferedImage[zoomStop + 1]);
+        AtomicReferenceArray<FilterMatrix> matArray =
+                matrices.computeIfAbsent(gridSetId, k -> new AtomicReferenceArray<>(zoomStop + 1));
+
+        if (matArray.get(z) == null || replace) {
+            BufferedImage img = loadMatrix(layer, gridSetId, z);
+            FilterMatrix matrix = img == null ? null : FilterMatrix.fromImage(img);
+            if (matrix != null && log.isLoggable(Level.FINE)) {
+                log.fine(
+                        "Loaded "
+                                + matrix.getWidth()
+                                + "x"
+                                + matrix.getHeight()
+                                + " matrix of "
+                                + getName()
+                                + " for "
+                                + gridSetId
+                                + ", zoom level "
+                                + z
+                                + ", using "
+                                + matrix.getMemoryUsage()
+                                + " bytes");
+            }
+            // swapped atomically, lookups see either the old or the new matrix
+            matArray.set(z, matrix);
         }
+    }
 
-        if (matrices.get(gridSetId)[z] == null) {
-            matrices.get(gridSetId)[z] = loadMatrix(layer, gridSetId, z);
-
-        } else if (replace) {
-            BufferedImage oldImg = matrices.get(gridSetId)[z];
-            BufferedImage[] matArray = matrices.get(gridSetId);
-
-            // Get the replacement
-            BufferedImage newImg = loadMatrix(layer, gridSetId, z);
+    private FilterMatrix getMatrix(String gridSetId, int z) {
+        Map<String, AtomicReferenceArray<FilterMatrix>> matrices = this.matrices;
+        if (matrices == null) {
+            return null;
+        }
+        AtomicReferenceArray<FilterMatrix> matArray = matrices.get(gridSetId);
+        if (matArray == null || z < 0 || z >= matArray.length()) {
+            return null;
+        }
+        return matArray.get(z);
+    }
 
-            // We need to lock it
-            synchronized (oldImg) {
-                matArray[z] = newImg;
-            }
+    /**
+     * Returns copies of the loaded matrices as images, per gridset and zoom level, with a 0 sample
+     * where the raster has data. Levels that are not loaded are null.
+     *
+     * @return the matrices, or null if none has been loaded yet
+     * @deprecated the matrices used to be kept as images in a public {@code matrices} field, they
+     *     are now packed bitsets and this rebuilds the images on every call. Use {@link
+     *     #getMatrixMemoryUsage(String, int)} to check whether a level is loaded.
+     */
+    @Deprecated
+    public Map<String, BufferedImage[]> getMatrices() {
+        Map<String, AtomicReferenceArray<FilterMatrix>> matrices = this.matrices;
+        if (matrices == null) {
+            return null;
         }
+        Map<String, BufferedImage[]> images = new HashMap<>();
+        matrices.forEach(
+                (gridSetId, matArray) -> {
+                    BufferedImage[] levels = new BufferedImage[matArray.length()];
+                    for (int z = 0; z < levels.length; z++) {
+                        FilterMatrix matrix = matArray.get(z);
+                        levels[z] = matrix == null ? null : matrix.toImage();
+                    }
+                    images.put(gridSetId, levels);
+                });
+        return images;
+    }
+
+    /**
+     * Returns the memory used by the matrix of a zoom level
+     *
+     * @return the approximate size in bytes, or 0 if the matrix is not loaded
+     */
+    public long getMatrixMemoryUsage(String gridSetId, int z) {
+        FilterMatrix matrix = getMatrix(gridSetId, z);
+        return matrix == null ? 0 : matrix.getMemoryUsage();
     }
 
     /** Helper function for calculating width and height */
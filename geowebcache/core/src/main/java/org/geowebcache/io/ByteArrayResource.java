@@ -165,6 +165,11 @@ public void truncate() {
         length = 0;
     }
 
+    /** @return the size of the backing array, that is, how much can be written before it grows */
+    int getCapacity() {
+        return data == null ? 0 : data.length;
+    }
+
     public void setLastModified(long lastModified) {
         this.lastModified = lastModified;
     }
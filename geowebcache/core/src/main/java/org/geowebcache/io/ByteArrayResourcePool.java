@@ -0,0 +1,296 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.io;
+
+import java.lang.ref.Cleaner;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
+
+/**
+ * A bounded pool of {@link ByteArrayResource} buffers used to fetch and encode tiles.
+ *
+ * <p>Buffers are handed out as {@link Lease leases} that must be closed once the buffer contents
+ * are no longer needed, usually with a try-with-resources block. Unlike a thread local, the pool
+ * does not tie memory to the threads that happened to use it, so it works the same with a handful
+ * of seeding threads, thousands of servlet threads or virtual threads.
+ *
+ * <p>Idle buffers are kept in size classes (16KB up to 4MB) and a buffer is filed under the class
+ * matching the size it grew to while leased. Each class keeps at most {@code
+ * gwc.bufferPool.maxPerSizeClass} buffers and the pool as a whole at most {@code
+ * gwc.bufferPool.maxRetainedBytes} bytes, buffers that do not fit are left to the garbage
+ * collector. Leases that are garbage collected without being closed are counted and logged as
+ * leaks.
+ */
+public class ByteArrayResourcePool {
+
+    private static Logger log = Logging.getLogger(ByteArrayResourcePool.class.getName());
+
+    public static final String PROPERTY_MAX_PER_SIZE_CLASS = "gwc.bufferPool.maxPerSizeClass";
+
+    public static final String PROPERTY_MAX_RETAINED_BYTES = "gwc.bufferPool.maxRetainedBytes";
+
+    static final int[] SIZE_CLASSES = {
+        16 * 1024, 64 * 1024, 256 * 1024, 1024 * 1024, 4 * 1024 * 1024
+    };
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private static final ByteArrayResourcePool DEFAULT =
+            new ByteArrayResourcePool(
+                    Integer.parseInt(System.getProperty(PROPERTY_MAX_PER_SIZE_CLASS, "64")),
+                    Long.parseLong(
+                            System.getProperty(
+                                    PROPERTY_MAX_RETAINED_BYTES,
+                                    String.valueOf(64L * 1024 * 1024))));
+
+    private final int maxPerSizeClass;
+
+    private final long maxRetainedBytes;
+
+    private final ConcurrentLinkedDeque<ByteArrayResource>[] idle;
+
+    private final AtomicInteger[] idleCounts;
+
+    private final AtomicLong retainedBytes = new AtomicLong();
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private final AtomicLong leases = new AtomicLong();
+
+    private final AtomicLong reused = new AtomicLong();
+
+    private final AtomicLong allocated = new AtomicLong();
+
+    private final AtomicLong discarded = new AtomicLong();
+
+    private final AtomicLong leaked = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    ByteArrayResourcePool(int maxPerSizeClass, long maxRetainedBytes) {
+        this.maxPerSizeClass = maxPerSizeClass;
+        this.maxRetainedBytes = maxRetainedBytes;
+        this.idle = new ConcurrentLinkedDeque[SIZE_CLASSES.length];
+        this.idleCounts = new AtomicInteger[SIZE_CLASSES.length];
+        for (int i = 0; i < SIZE_CLASSES.length; i++) {
+            idle[i] = new ConcurrentLinkedDeque<>();
+            idleCounts[i] = new AtomicInteger();
+        }
+    }
+
+    /** @return the JVM wide pool */
+    public static ByteArrayResourcePool getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Leases an empty buffer with a capacity of at least {@code sizeHint} bytes. The buffer still
+     * grows as needed if more is written to it.
+     *
+     * @param sizeHint the expected content size, zero if unknown
+     */
+    public Lease lease(int sizeHint) {
+        leases.incrementAndGet();
+        outstanding.incrementAndGet();
+        ByteArrayResource resource = null;
+        for (int i = sizeClass(sizeHint); i < SIZE_CLASSES.length && resource == null; i++) {
+            resource = idle[i].pollFirst();
+            if (resource != null) {
+                idleCounts[i].decrementAndGet();
+                retainedBytes.addAndGet(-resource.getCapacity());
+            }
+        }
+        if (resource == null) {
+            allocated.incrementAndGet();
+            int index = sizeClass(sizeHint);
+            int capacity = index < SIZE_CLASSES.length ? SIZE_CLASSES[index] : sizeHint;
+            resource = new ByteArrayResource(capacity);
+        } else {
+            reused.incrementAndGet();
+            resource.setLastModified(System.currentTimeMillis());
+        }
+        return new Lease(resource);
+    }
+
+    /** Index of the smallest size class holding {@code size} bytes, or the class count if none */
+    private static int sizeClass(int size) {
+        for (int i = 0; i < SIZE_CLASSES.length; i++) {
+            if (size <= SIZE_CLASSES[i]) {
+                return i;
+            }
+        }
+        return SIZE_CLASSES.length;
+    }
+
+    private void release(ByteArrayResource resource) {
+        outstanding.decrementAndGet();
+        resource.truncate();
+        final int capacity = resource.getCapacity();
+        // file it under the largest class it can fully serve
+        int index = -1;
+        for (int i = 0; i < SIZE_CLASSES.length && SIZE_CLASSES[i] <= capacity; i++) {
+            index = i;
+        }
+        // buffers that grew well past the largest class are not worth retaining
+        if (index < 0 || capacity > 2 * SIZE_CLASSES[SIZE_CLASSES.length - 1]) {
+            discarded.incrementAndGet();
+            return;
+        }
+        if (idleCounts[index].incrementAndGet() > maxPerSizeClass) {
+            idleCounts[index].decrementAndGet();
+            discarded.incrementAndGet();
+            return;
+        }
+        if (retainedBytes.addAndGet(capacity) > maxRetainedBytes) {
+            retainedBytes.addAndGet(-capacity);
+            idleCounts[index].decrementAndGet();
+            discarded.incrementAndGet();
+            return;
+        }
+        idle[index].offerFirst(resource);
+    }
+
+    /** @return number of leases handed out */
+    public long getLeaseCount() {
+        return leases.get();
+    }
+
+    /** @return number of leases served with an idle buffer */
+    public long getReusedCount() {
+        return reused.get();
+    }
+
+    /** @return number of leases that had to allocate a new buffer */
+    public long getAllocatedCount() {
+        return allocated.get();
+    }
+
+    /** @return number of released buffers not retained because the pool was full */
+    public long getDiscardedCount() {
+        return discarded.get();
+    }
+
+    /** @return number of leases garbage collected without being closed */
+    public long getLeakedCount() {
+        return leaked.get();
+    }
+
+    /** @return number of leases currently open */
+    public int getOutstandingCount() {
+        return outstanding.get();
+    }
+
+    /** @return number of buffers waiting in the pool */
+    public int getIdleCount() {
+        int count = 0;
+        for (AtomicInteger c : idleCounts) {
+            count += c.get();
+        }
+        return count;
+    }
+
+    /** @return total capacity of the buffers waiting in the pool, in bytes */
+    public long getRetainedBytes() {
+        return retainedBytes.get();
+    }
+
+    /** Drops all idle buffers */
+    public void clear() {
+        for (int i = 0; i < SIZE_CLASSES.length; i++) {
+            ByteArrayResource resource;
+            while ((resource = idle[i].pollFirst()) != null) {
+                idleCounts[i].decrementAndGet();
+                retainedBytes.addAndGet(-resource.getCapacity());
+            }
+        }
+    }
+
+    /**
+     * A buffer on loan from the pool. The buffer must not be used, nor referenced by anything
+     * outliving the lease, once the lease is closed.
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final ByteArrayResource resource;
+
+        private final AtomicBoolean released;
+
+        private final Cleaner.Cleanable cleanable;
+
+        Lease(ByteArrayResource resource) {
+            this.resource = resource;
+            this.released = new AtomicBoolean();
+            this.cleanable =
+                    CLEANER.register(
+                            this,
+                            new LeakDetector(
+                                    released,
+                                    outstanding,
+                                    leaked,
+                                    Thread.currentThread().getName()));
+        }
+
+        public ByteArrayResource getResource() {
+            return resource;
+        }
+
+        /** Returns the buffer to the pool, calling it more than once has no effect */
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                cleanable.clean();
+                release(resource);
+            }
+        }
+    }
+
+    /** Cleaner action, must not reference the lease or it would never become unreachable */
+    private static class LeakDetector implements Runnable {
+
+        private final AtomicBoolean released;
+
+        private final AtomicInteger outstanding;
+
+        private final AtomicLong leaked;
+
+        private final String thread;
+
+        LeakDetector(
+                AtomicBoolean released,
+                AtomicInteger outstanding,
+                AtomicLong leaked,
+                String thread) {
+            this.released = released;
+            this.outstanding = outstanding;
+            this.leaked = leaked;
+            this.thread = thread;
+        }
+
+        @Override
+        public void run() {
+            if (released.compareAndSet(false, true)) {
+                outstanding.decrementAndGet();
+                leaked.incrementAndGet();
+                log.warning(
+                        "A tile buffer leased by thread "
+                                + thread
+                                + " was garbage collected without being returned to the pool");
+            }
+        }
+    }
+}
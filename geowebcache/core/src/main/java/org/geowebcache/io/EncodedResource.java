@@ -0,0 +1,170 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.geotools.util.logging.Logging;
+
+/**
+ * A read only resource whose content is stored compressed with an HTTP content coding. It reads as
+ * the decoded content, decompressed on first use, while {@link #getEncoded()} gives access to the
+ * stored bytes so they can be sent as is to clients accepting the {@link #getEncoding() encoding}.
+ */
+public class EncodedResource implements Resource {
+
+    private static Logger log = Logging.getLogger(EncodedResource.class.getName());
+
+    /** The gzip content coding */
+    public static final String GZIP = "gzip";
+
+    /** Size of the gzip header and trailer, the smallest possible gzip stream */
+    private static final int GZIP_MIN_SIZE = 18;
+
+    private final Resource encoded;
+
+    private final String encoding;
+
+    /** The decoded size, negative until known */
+    private volatile long size;
+
+    private ByteArrayResource decoded;
+
+    /**
+     * @param encoded the encoded content
+     * @param encoding the content coding, only {@link #GZIP} is supported
+     * @param size the decoded size, or a negative value if unknown, the content is then decoded
+     *     when the size is first asked for
+     */
+    public EncodedResource(Resource encoded, String encoding, long size) {
+        if (!GZIP.equals(encoding)) {
+            throw new IllegalArgumentException("Unsupported content encoding: " + encoding);
+        }
+        this.encoded = encoded;
+        this.encoding = encoding;
+        this.size = size;
+    }
+
+    /**
+     * Wraps a resource holding a gzip stream. Only the gzip header is read, the content is decoded
+     * when first used.
+     *
+     * @return the wrapped resource, or {@code null} if the resource is not gzip compressed
+     */
+    public static EncodedResource ifGzipped(Resource resource) throws IOException {
+        if (resource.getSize() < GZIP_MIN_SIZE) {
+            return null;
+        }
+        try (InputStream in = resource.getInputStream()) {
+            // magic number and deflate compression method
+            if (in.read() != 0x1f || in.read() != 0x8b || in.read() != 8) {
+                return null;
+            }
+        }
+        return new EncodedResource(resource, GZIP, -1);
+    }
+
+    /** Compresses a resource with gzip */
+    public static EncodedResource gzip(Resource resource) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) resource.getSize() / 2);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes);
+                WritableByteChannel channel = Channels.newChannel(out)) {
+            resource.transferTo(channel);
+        }
+        ByteArrayResource encoded = new ByteArrayResource(bytes.toByteArray());
+        encoded.setLastModified(resource.getLastModified());
+        return new EncodedResource(encoded, GZIP, resource.getSize());
+    }
+
+    /** The content as stored, compressed */
+    public Resource getEncoded() {
+        return encoded;
+    }
+
+    /** The HTTP content coding of the {@link #getEncoded() encoded} content */
+    public String getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * A copy of this resource holding the same content, encoded the same way, in {@code encoded}
+     */
+    public EncodedResource withEncoded(Resource encoded) {
+        return new EncodedResource(encoded, encoding, size);
+    }
+
+    private synchronized ByteArrayResource decoded() throws IOException {
+        if (decoded == null) {
+            long capacity = size >= 0 ? size : 4 * encoded.getSize();
+            ByteArrayResource resource = new ByteArrayResource((int) Math.max(capacity, 1));
+            try (InputStream in = new GZIPInputStream(encoded.getInputStream());
+                    ReadableByteChannel channel = Channels.newChannel(in)) {
+                resource.transferFrom(channel);
+            }
+            decoded = resource;
+            size = resource.getSize();
+        }
+        return decoded;
+    }
+
+    /** The decoded size, or -1 if the content cannot be decoded */
+    @Override
+    public long getSize() {
+        long size = this.size;
+        if (size < 0) {
+            try {
+                size = decoded().getSize();
+            } catch (IOException e) {
+                log.log(Level.FINE, "Could not decode " + encoded, e);
+                return -1;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public long transferTo(WritableByteChannel channel) throws IOException {
+        return decoded().transferTo(channel);
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel channel) throws IOException {
+        throw new UnsupportedOperationException("Encoded resources are read only");
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return decoded().getInputStream();
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        throw new UnsupportedOperationException("Encoded resources are read only");
+    }
+
+    @Override
+    public long getLastModified() {
+        return encoded.getLastModified();
+    }
+}
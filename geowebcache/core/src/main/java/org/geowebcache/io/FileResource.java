@@ -29,8 +29,21 @@ public class FileResource implements Resource {
 
     private final File file;
 
+    private final File stagingDirectory;
+
     public FileResource(File file) {
+        this(file, null);
+    }
+
+    /**
+     * @param file the file
+     * @param stagingDirectory a private directory on the same file system as {@code file}, where
+     *     hard links to it can be kept, or {@code null}. Only given by stores that replace files
+     *     rather than rewriting them in place, so that a link keeps the current version.
+     */
+    public FileResource(File file, File stagingDirectory) {
         this.file = file;
+        this.stagingDirectory = stagingDirectory;
     }
 
     /** @see org.geowebcache.io.Resource#getLastModified() */
@@ -90,4 +103,12 @@ public OutputStream getOutputStream() throws IOException {
     public File getFile() {
         return file;
     }
+
+    /**
+     * @return the directory where hard links to the file can be kept, or {@code null} if the file
+     *     may be rewritten in place
+     */
+    public File getStagingDirectory() {
+        return stagingDirectory;
+    }
 }
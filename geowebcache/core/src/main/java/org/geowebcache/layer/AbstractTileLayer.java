@@ -433,22 +433,21 @@ public int getExpireCache(int zoomLevel) {
         return getExpiration(this.expireCacheList, zoomLevel);
     }
 
-    private int getExpiration(ArrayList<ExpirationRule> list, int zoomLevel) {
-        int retVal;
-
-        int length = list.size();
-        if (length == 1) {
-            retVal = list.get(0).getExpiration();
-        } else {
-            int i;
-            for (i = 1; i < length; ) {
-                if (list.get(i).getMinZoom() > zoomLevel) {
-                    break;
-                }
-                i++;
-            }
-            retVal = list.get(i - 1).getExpiration();
+    /**
+     * Returns the number of seconds an expired tile at the given zoom level may still be served
+     * while being refreshed in the background, as configured by {@link ExpirationRule#getMaxStale()}.
+     *
+     * @return the stale window in seconds, {@code 0} if stale tiles are not to be served
+     */
+    public int getExpireCacheMaxStale(int zoomLevel) {
+        if (expireCacheList == null || expireCacheList.isEmpty()) {
+            return 0;
         }
+        return getRule(expireCacheList, zoomLevel).getMaxStale();
+    }
+
+    private int getExpiration(ArrayList<ExpirationRule> list, int zoomLevel) {
+        int retVal = getRule(list, zoomLevel).getExpiration();
 
         if (retVal == GWCVars.CACHE_USE_WMS_BACKEND_VALUE) {
             return 7200;
@@ -457,6 +456,21 @@ private int getExpiration(ArrayList<ExpirationRule> list, int zoomLevel) {
         return retVal;
     }
 
+    private ExpirationRule getRule(ArrayList<ExpirationRule> list, int zoomLevel) {
+        int length = list.size();
+        if (length == 1) {
+            return list.get(0);
+        }
+        int i;
+        for (i = 1; i < length; ) {
+            if (list.get(i).getMinZoom() > zoomLevel) {
+                break;
+            }
+            i++;
+        }
+        return list.get(i - 1);
+    }
+
     @Override
     public List<ParameterFilter> getParameterFilters() {
         return parameterFilters;
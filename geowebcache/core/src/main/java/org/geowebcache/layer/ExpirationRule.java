@@ -21,6 +21,13 @@ public class ExpirationRule implements Serializable {
 
     private int expiration;
 
+    /**
+     * Number of seconds past {@link #getExpiration() expiration} during which an expired tile may
+     * still be served while it gets refreshed in the background. {@code null} or {@code 0} disables
+     * stale-while-revalidate for the rule.
+     */
+    private Integer maxStale;
+
     ExpirationRule() {
         // default constructor for XStream
     }
@@ -30,6 +37,11 @@ public ExpirationRule(int minZoom, int expiration) {
         this.expiration = expiration;
     }
 
+    public ExpirationRule(int minZoom, int expiration, int maxStale) {
+        this(minZoom, expiration);
+        this.maxStale = maxStale;
+    }
+
     public int getMinZoom() {
         return minZoom;
     }
@@ -37,4 +49,12 @@ public int getMinZoom() {
     public int getExpiration() {
         return expiration;
     }
+
+    /**
+     * @return the stale-while-revalidate window in seconds, or {@code 0} if expired tiles must not
+     *     be served
+     */
+    public int getMaxStale() {
+        return maxStale == null ? 0 : maxStale.intValue();
+    }
 }
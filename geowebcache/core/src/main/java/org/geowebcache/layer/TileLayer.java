@@ -43,6 +43,7 @@
 import org.geowebcache.grid.OutsideCoverageException;
 import org.geowebcache.grid.SRS;
 import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.io.ByteArrayResourcePool;
 import org.geowebcache.io.Resource;
 import org.geowebcache.layer.meta.LayerMetaInformation;
 import org.geowebcache.layer.meta.MetadataURL;
@@ -64,8 +65,18 @@ public abstract class TileLayer implements Info {
 
     private static Logger log = Logging.getLogger(TileLayer.class.getName());
 
+    /**
+     * @deprecated tile buffers are leased from {@link #getBufferPool()}, this buffer is no longer
+     *     used by GeoWebCache itself
+     */
+    @Deprecated
     protected static final ThreadLocal<ByteArrayResource> WMS_BUFFER = new ThreadLocal<>();
 
+    /**
+     * @deprecated tile buffers are leased from {@link #getBufferPool()}, this buffer is no longer
+     *     used by GeoWebCache itself
+     */
+    @Deprecated
     protected static final ThreadLocal<ByteArrayResource> WMS_BUFFER2 = new ThreadLocal<>();
 
     // cached default parameter filter values
@@ -478,6 +489,11 @@ public static String encodeDimensionValue(String value) {
 
     public abstract void addGridSubset(GridSubset gridSubset);
 
+    /**
+     * @deprecated lease buffers from {@link #getBufferPool()} instead, they go back to the pool
+     *     once closed rather than being retained by each thread
+     */
+    @Deprecated
     protected ByteArrayResource getImageBuffer(ThreadLocal<ByteArrayResource> tl) {
         ByteArrayResource buffer = tl.get();
         if (buffer == null) {
@@ -488,7 +504,16 @@ protected ByteArrayResource getImageBuffer(ThreadLocal<ByteArrayResource> tl) {
         return buffer;
     }
 
-    /** Loops over the gridPositions, generates cache keys and saves to cache */
+    /** @return the pool the buffers used to fetch and encode tiles are leased from */
+    protected ByteArrayResourcePool getBufferPool() {
+        return ByteArrayResourcePool.getDefault();
+    }
+
+    /**
+     * Loops over the gridPositions, generates cache keys and saves to cache. The tiles are encoded
+     * in a buffer leased from {@link #getBufferPool()}, the requested tile is copied out of it into
+     * the blob of {@code tileProto}.
+     */
     protected void saveTiles(MetaTile metaTile, ConveyorTile tileProto, long requestTime)
             throws GeoWebCacheException {
 
@@ -499,27 +524,23 @@ protected void saveTiles(MetaTile metaTile, ConveyorTile tileProto, long request
         final int zoomLevel = (int) gridLoc[2];
         final boolean store = this.getExpireCache(zoomLevel) != GWCVars.CACHE_DISABLE_CACHE;
 
-        Resource resource;
-        boolean encode;
-        for (int i = 0; i < gridPositions.length; i++) {
-            final long[] gridPos = gridPositions[i];
-            if (Arrays.equals(gridLoc, gridPos)) {
-                // Is this the one we need to save? then don't use the buffer or it'll be overridden
-                // by the next tile
-                resource = getImageBuffer(WMS_BUFFER2);
-                tileProto.setBlob(resource);
-                encode = true;
-            } else {
-                resource = getImageBuffer(WMS_BUFFER);
-                encode = store;
-            }
-
-            if (encode) {
+        try (ByteArrayResourcePool.Lease lease = getBufferPool().lease(0)) {
+            final ByteArrayResource resource = lease.getResource();
+            for (int i = 0; i < gridPositions.length; i++) {
+                final long[] gridPos = gridPositions[i];
+                final boolean requested = Arrays.equals(gridLoc, gridPos);
+                if (!requested && !store) {
+                    continue;
+                }
                 if (!gridSubset.covers(gridPos)) {
                     // edge tile outside coverage, do not store it
+                    if (requested) {
+                        tileProto.setBlob(new ByteArrayResource());
+                    }
                     continue;
                 }
 
+                resource.truncate();
                 try {
                     boolean completed = metaTile.writeTileToStream(i, resource);
                     if (!completed) {
@@ -527,6 +548,12 @@ protected void saveTiles(MetaTile metaTile, ConveyorTile tileProto, long request
                                 Level.SEVERE,
                                 "metaTile.writeTileToStream returned false, no tiles saved");
                     }
+                    if (requested) {
+                        // the buffer goes back to the pool, the response gets its own copy
+                        ByteArrayResource blob = new ByteArrayResource(resource.getContents());
+                        blob.setLastModified(resource.getLastModified());
+                        tileProto.setBlob(blob);
+                    }
                     if (store) {
                         long[] idx = {gridPos[0], gridPos[1], gridPos[2]};
 
@@ -15,11 +15,17 @@
 package org.geowebcache.layer;
 
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -28,32 +34,48 @@
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import org.geowebcache.GeoWebCacheException;
 import org.geowebcache.GeoWebCacheExtensions;
+import org.geowebcache.ReinitializingBean;
 import org.geowebcache.config.BaseConfiguration;
 import org.geowebcache.config.ConfigurationAggregator;
 import org.geowebcache.config.ServerConfiguration;
 import org.geowebcache.config.TileLayerConfiguration;
+import org.geowebcache.config.TileLayerConfigurationListener;
 import org.geowebcache.config.meta.ServiceInformation;
 import org.geowebcache.grid.GridSet;
 import org.geowebcache.grid.GridSetBroker;
-import org.geowebcache.util.CompositeIterable;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.DisposableBean;
-import org.springframework.beans.factory.InitializingBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.util.Assert;
 
 /**
  * Serves tile layers from the {@link TileLayerConfiguration}s available in the application context.
+ *
+ * <p>Layer lookups are served from an immutable name to layer index spanning the configurations
+ * that {@link TileLayerConfiguration#supportsLayerListeners() report their changes}, built on first
+ * use and replaced, copy-on-write, whenever a layer is added, removed, renamed or modified through
+ * the dispatcher. Readers never lock. Layers changed directly on one of these configurations are
+ * reindexed on next access, as the configuration reports the change through a {@link
+ * TileLayerConfigurationListener}. A name missing from the index is still looked up in them, so
+ * that layers still initializing are found, and names found nowhere are remembered for a few
+ * seconds so that repeated lookups of unknown layers do not scan the configurations each time.
+ *
+ * <p>Configurations that do not report their changes, such as {@code
+ * GetCapabilitiesConfiguration} or configurations backed by an external catalog, are not indexed
+ * and are queried on each lookup, after the index, so that their layers are always current.
  */
 public class TileLayerDispatcher
         implements DisposableBean,
-                InitializingBean,
+                ReinitializingBean,
                 ApplicationContextAware,
                 ConfigurationAggregator<TileLayerConfiguration> {
 
@@ -61,12 +83,37 @@
 
     private List<TileLayerConfiguration> configs;
 
+    /** The configurations reporting their changes, whose layers are indexed */
+    private volatile List<TileLayerConfiguration> indexedConfigs = Collections.emptyList();
+
+    /** The configurations not reporting their changes, queried on each lookup */
+    private volatile List<TileLayerConfiguration> unindexedConfigs = Collections.emptyList();
+
     private GridSetBroker gridSetBroker;
 
     private ServiceInformation serviceInformation;
 
     private ApplicationContext applicationContext;
 
+    /** How long a name found in no configuration is remembered as unknown */
+    static final long UNKNOWN_LAYER_TTL_SECONDS = 10;
+
+    /** Current layer index, {@code null} until first used or after a {@link #reset()} */
+    private final AtomicReference<ImmutableMap<String, TileLayer>> layerIndex =
+            new AtomicReference<>();
+
+    /** Names of layers changed directly on a configuration, reindexed on next access */
+    private final Set<String> changedLayers = ConcurrentHashMap.newKeySet();
+
+    /** Names recently found in no configuration */
+    private final Cache<String, Boolean> unknownLayers =
+            CacheBuilder.newBuilder()
+                    .maximumSize(10_000)
+                    .expireAfterWrite(UNKNOWN_LAYER_TTL_SECONDS, TimeUnit.SECONDS)
+                    .build();
+
+    private final TileLayerConfigurationListener configurationListener = this::layerChanged;
+
     /**
      * Used for testing only, in production use {@link #TileLayerDispatcher(GridSetBroker)} instead,
      * configurations are loaded from the application context, the {@code config} parameter will be
@@ -79,6 +126,7 @@ public TileLayerDispatcher(
         this.gridSetBroker = gridSetBroker;
         this.configs = configs == null ? new ArrayList<>() : configs;
         this.tileLayerDispatcherFilter = tileLayerDispatcherFilter;
+        listenToConfigurations();
     }
 
     public TileLayerDispatcher(
@@ -88,13 +136,7 @@ public TileLayerDispatcher(
     }
 
     public boolean layerExists(final String layerName) {
-        for (TileLayerConfiguration configuration : configs) {
-            Optional<TileLayer> layer = configuration.getLayer(layerName);
-            if (layer.isPresent()) {
-                return true;
-            }
-        }
-        return false;
+        return findLayer(layerName).isPresent();
     }
 
     /**
@@ -105,11 +147,9 @@ public boolean layerExists(final String layerName) {
     public TileLayer getTileLayer(final String layerName) throws GeoWebCacheException {
         Preconditions.checkNotNull(layerName, "layerName is null");
 
-        for (TileLayerConfiguration configuration : configs) {
-            Optional<TileLayer> layer = configuration.getLayer(layerName);
-            if (layer.isPresent()) {
-                return layer.get();
-            }
+        Optional<TileLayer> found = findLayer(layerName);
+        if (found.isPresent()) {
+            return found.get();
         }
         throw new GeoWebCacheException(
                 "Thread "
@@ -121,16 +161,21 @@ public TileLayer getTileLayer(final String layerName) throws GeoWebCacheExceptio
     }
 
     public int getLayerCount() {
-        int count = 0;
-        for (TileLayerConfiguration configuration : configs) {
+        int count = getLayerIndex().size();
+        for (TileLayerConfiguration configuration : unindexedConfigs) {
             count += configuration.getLayerCount();
         }
         return count;
     }
 
     public Set<String> getLayerNames() {
-        Set<String> names = new HashSet<>();
-        for (TileLayerConfiguration configuration : configs) {
+        ImmutableMap<String, TileLayer> index = getLayerIndex();
+        List<TileLayerConfiguration> unindexed = unindexedConfigs;
+        if (unindexed.isEmpty()) {
+            return index.keySet();
+        }
+        Set<String> names = new LinkedHashSet<>(index.keySet());
+        for (TileLayerConfiguration configuration : unindexed) {
             names.addAll(configuration.getLayerNames());
         }
         return names;
@@ -139,21 +184,181 @@ public Set<String> getLayerNames() {
     /**
      * Returns a list of all the layers. The consumer may still have to initialize each layer!
      *
-     * <p>Modifications to the returned layer do not change the internal list of layers, but layers
-     * ARE mutable.
+     * <p>The returned list is an immutable snapshot, modifications to it are not possible and
+     * layers added or removed afterwards are not reflected in it, but layers ARE mutable.
      *
-     * @return a list view of this tile layer dispatcher's internal layers
+     * @return a snapshot of this tile layer dispatcher's layers
      */
-    @SuppressWarnings("unchecked")
     public Iterable<TileLayer> getLayerList() {
-        List<Iterable<TileLayer>> perConfigLayers = new ArrayList<>(configs.size());
+        ImmutableMap<String, TileLayer> index = getLayerIndex();
+        List<TileLayerConfiguration> unindexed = unindexedConfigs;
+        if (unindexed.isEmpty()) {
+            return index.values();
+        }
+        ImmutableList.Builder<TileLayer> layers = ImmutableList.builder();
+        layers.addAll(index.values());
+        for (TileLayerConfiguration configuration : unindexed) {
+            layers.addAll(configuration.getLayers());
+        }
+        return layers.build();
+    }
 
-        for (TileLayerConfiguration config : configs) {
-            perConfigLayers.add((Iterable<TileLayer>) config.getLayers());
+    /**
+     * Drops the layer index, it will be rebuilt from the configurations on next access. Needed
+     * only when the configurations reporting their changes are replaced as a whole, e.g. reloaded
+     * from disk.
+     */
+    public void reset() {
+        this.layerIndex.set(null);
+        this.unknownLayers.invalidateAll();
+    }
+
+    /** Called by the configurations when a layer is changed directly on them */
+    private void layerChanged(String layerName) {
+        unknownLayers.invalidate(layerName);
+        changedLayers.add(layerName);
+    }
+
+    private void listenToConfigurations() {
+        List<TileLayerConfiguration> indexed = new ArrayList<>();
+        List<TileLayerConfiguration> unindexed = new ArrayList<>();
+        for (TileLayerConfiguration configuration : configs) {
+            if (configuration.supportsLayerListeners()) {
+                configuration.addLayerListener(configurationListener);
+                indexed.add(configuration);
+            } else {
+                unindexed.add(configuration);
+            }
         }
+        this.indexedConfigs = indexed;
+        this.unindexedConfigs = unindexed;
+    }
 
-        Iterable<TileLayer> result = new CompositeIterable<>(perConfigLayers);
-        return result;
+    /**
+     * Looks up a layer in the index, then in the configurations not reporting their changes, then
+     * in the others for layers not indexed yet
+     */
+    private Optional<TileLayer> findLayer(final String layerName) {
+        TileLayer layer = getLayerIndex().get(layerName);
+        if (layer != null) {
+            return Optional.of(layer);
+        }
+        for (TileLayerConfiguration configuration : unindexedConfigs) {
+            Optional<TileLayer> found = configuration.getLayer(layerName);
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        return findAndIndex(layerName);
+    }
+
+    private ImmutableMap<String, TileLayer> getLayerIndex() {
+        ImmutableMap<String, TileLayer> index = this.layerIndex.get();
+        if (index == null) {
+            synchronized (this) {
+                index = this.layerIndex.get();
+                if (index == null) {
+                    index = buildLayerIndex();
+                    this.layerIndex.set(index);
+                }
+            }
+        }
+        if (!changedLayers.isEmpty()) {
+            // looked up outside of any lock, the configurations notify while holding their own
+            for (Iterator<String> it = changedLayers.iterator(); it.hasNext(); ) {
+                String layerName = it.next();
+                it.remove();
+                reindex(layerName, findInConfigurations(layerName));
+            }
+            index = this.layerIndex.get();
+        }
+        return index;
+    }
+
+    /**
+     * Indexes all ready layers of the configurations reporting their changes, the first
+     * configuration containing a given name wins. Layers still initializing are indexed once their
+     * configuration reports them ready, or when looked up by name.
+     */
+    private ImmutableMap<String, TileLayer> buildLayerIndex() {
+        Map<String, TileLayer> layers = new LinkedHashMap<>();
+        for (TileLayerConfiguration configuration : indexedConfigs) {
+            for (TileLayer layer : configuration.getReadyLayers()) {
+                layers.putIfAbsent(layer.getName(), layer);
+            }
+        }
+        return ImmutableMap.copyOf(layers);
+    }
+
+    /**
+     * Looks up a layer in the configurations, adding it to the index if found, or remembering it
+     * as unknown for a while if not
+     */
+    private Optional<TileLayer> findAndIndex(final String layerName) {
+        if (unknownLayers.getIfPresent(layerName) != null) {
+            return Optional.empty();
+        }
+        Optional<TileLayer> layer = findInConfigurations(layerName);
+        if (layer.isPresent()) {
+            reindex(layerName, layer);
+        } else {
+            unknownLayers.put(layerName, Boolean.TRUE);
+        }
+        return layer;
+    }
+
+    /** Looks up a layer in the configurations whose layers are indexed */
+    private Optional<TileLayer> findInConfigurations(final String layerName) {
+        for (TileLayerConfiguration configuration : indexedConfigs) {
+            Optional<TileLayer> layer = configuration.getLayer(layerName);
+            if (layer.isPresent()) {
+                return layer;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Publishes a new index where {@code layerName} maps to {@code layer}, or is removed if {@code
+     * layer} is empty
+     */
+    private void reindex(final String layerName, final Optional<TileLayer> layer) {
+        reindex(Collections.singletonMap(layerName, layer));
+    }
+
+    /** Same as {@link #reindex(String, Optional)} for several layers, publishing a single index */
+    private void reindex(final Collection<? extends TileLayer> changed) {
+        Map<String, Optional<TileLayer>> found = new LinkedHashMap<>();
+        for (TileLayer tl : changed) {
+            found.put(tl.getName(), findInConfigurations(tl.getName()));
+        }
+        reindex(found);
+    }
+
+    private void reindex(final Map<String, Optional<TileLayer>> changed) {
+        changed.forEach(
+                (name, layer) -> {
+                    if (layer.isPresent()) {
+                        unknownLayers.invalidate(name);
+                    }
+                });
+        // a null index will be built from scratch on next access
+        this.layerIndex.updateAndGet(
+                current -> {
+                    if (current == null) {
+                        return null;
+                    }
+                    Map<String, TileLayer> layers = new LinkedHashMap<>(current);
+                    changed.forEach(
+                            (name, layer) -> {
+                                if (layer.isPresent()) {
+                                    layers.put(name, layer.get());
+                                } else {
+                                    layers.remove(name);
+                                }
+                            });
+                    return ImmutableMap.copyOf(layers);
+                });
     }
 
     /**
@@ -185,7 +390,9 @@ public void setServiceInformation(ServiceInformation serviceInformation) {
     /** @see org.springframework.beans.factory.DisposableBean#destroy() */
     @Override
     public void destroy() throws Exception {
-        //
+        for (TileLayerConfiguration configuration : indexedConfigs) {
+            configuration.removeLayerListener(configurationListener);
+        }
     }
 
     /**
@@ -198,6 +405,7 @@ public synchronized void removeLayer(final String layerName) throws IllegalArgum
         for (TileLayerConfiguration config : configs) {
             if (config.containsLayer(layerName)) {
                 config.removeLayer(layerName);
+                reindex(layerName, findInConfigurations(layerName));
                 return;
             }
         }
@@ -215,12 +423,55 @@ public synchronized void addLayer(final TileLayer tl) throws IllegalArgumentExce
         for (TileLayerConfiguration c : configs) {
             if (c.canSave(tl)) {
                 c.addLayer(tl);
+                reindex(tl.getName(), findInConfigurations(tl.getName()));
                 return;
             }
         }
         throw new IllegalArgumentException("No configuration found capable of saving " + tl);
     }
 
+    /**
+     * Adds or replaces several layers at once. Existing layers are replaced in the configuration
+     * containing them, new layers are added to the first configuration capable of saving them, and
+     * each configuration is handed its share of the layers as a single batch.
+     *
+     * @param layers the layers to add or modify
+     * @throws IllegalArgumentException if any of the new layers can't be added to any
+     *     configuration managed by this tile layer dispatcher, in which case no layer is saved.
+     */
+    public synchronized void putLayers(final Collection<? extends TileLayer> layers)
+            throws IllegalArgumentException {
+        Map<TileLayerConfiguration, List<TileLayer>> batches = new LinkedHashMap<>();
+        for (TileLayer tl : layers) {
+            TileLayerConfiguration target = null;
+            for (TileLayerConfiguration c : configs) {
+                if (c.containsLayer(tl.getName())) {
+                    target = c;
+                    break;
+                }
+            }
+            if (target == null) {
+                target =
+                        configs.stream()
+                                .filter(c -> c.canSave(tl))
+                                .findFirst()
+                                .orElseThrow(
+                                        () ->
+                                                new IllegalArgumentException(
+                                                        "No configuration found capable of saving "
+                                                                + tl));
+            }
+            batches.computeIfAbsent(target, c -> new ArrayList<>()).add(tl);
+        }
+        try {
+            for (Entry<TileLayerConfiguration, List<TileLayer>> batch : batches.entrySet()) {
+                batch.getKey().putLayers(batch.getValue());
+            }
+        } finally {
+            reindex(layers);
+        }
+    }
+
     /**
      * Renames an existing layer.
      *
@@ -231,6 +482,8 @@ public synchronized void rename(final String oldName, final String newName)
             throws NoSuchElementException, IllegalArgumentException {
         TileLayerConfiguration config = getConfiguration(oldName);
         config.renameLayer(oldName, newName);
+        reindex(oldName, findInConfigurations(oldName));
+        reindex(newName, findInConfigurations(newName));
     }
 
     /**
@@ -242,6 +495,7 @@ public synchronized void modify(final TileLayer tl) throws IllegalArgumentExcept
         TileLayerConfiguration config = getConfiguration(tl);
         // TODO: this won't work with GetCapabilitiesConfiguration
         config.modifyLayer(tl);
+        reindex(tl.getName(), findInConfigurations(tl.getName()));
     }
 
     public TileLayerConfiguration getConfiguration(TileLayer tl) throws IllegalArgumentException {
@@ -334,6 +588,8 @@ public void afterPropertiesSet() throws Exception {
         this.configs =
                 GeoWebCacheExtensions.configurations(
                         TileLayerConfiguration.class, applicationContext);
+        listenToConfigurations();
+        reset();
 
         Map<String, BaseConfiguration> config =
                 applicationContext.getBeansOfType(BaseConfiguration.class);
@@ -347,6 +603,11 @@ public void afterPropertiesSet() throws Exception {
         }
     }
 
+    @Override
+    public void deinitialize() throws Exception {
+        reset();
+    }
+
     @Override
     public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
         if (this.applicationContext != null)
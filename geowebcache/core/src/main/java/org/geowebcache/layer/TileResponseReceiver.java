@@ -30,4 +30,12 @@ public interface TileResponseReceiver {
     public void setErrorMessage(String message);
 
     public String getErrorMessage();
+
+    /**
+     * @return {@code true} if no client is waiting for the response, as when seeding, so that the
+     *     backend request can give way to interactive ones
+     */
+    public default boolean isBackgroundRequest() {
+        return false;
+    }
 }
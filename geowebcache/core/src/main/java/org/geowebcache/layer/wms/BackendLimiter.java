@@ -0,0 +1,462 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.layer.wms;
+
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.GeoWebCacheException;
+import org.geowebcache.GeoWebCacheExtensions;
+
+/**
+ * Adaptive limit on the number of concurrent requests sent to a backend server.
+ *
+ * <p>The limit follows an additive increase, multiplicative decrease scheme: it grows slowly while
+ * the backend answers about as fast as the best latency observed recently, and shrinks when the
+ * latency grows past {@code gwc.backendLimiter.latencyTolerance} times that, or a request fails.
+ * Requests over the limit wait in a queue, interactive requests are always let through before
+ * background ones (seeding, stale tile refreshes). Requests give up after {@code
+ * gwc.backendLimiter.queueTimeout} milliseconds, as they may be waiting while holding a metatile
+ * lock other requests need, and interactive requests give up right away if {@code
+ * gwc.backendLimiter.maxQueue} of them are already waiting.
+ *
+ * <p>After {@code gwc.backendLimiter.failureThreshold} consecutive failures the circuit opens and
+ * requests are rejected for {@code gwc.backendLimiter.openTime} milliseconds, then a single probe
+ * request is let through and its outcome closes or opens the circuit again.
+ *
+ * <p>Limiters are shared by all the layers using the same backend host, and only used if {@code
+ * gwc.backendLimiter.enabled} is {@code true}.
+ */
+public class BackendLimiter {
+
+    private static Logger log = Logging.getLogger(BackendLimiter.class.getName());
+
+    public static final String ENABLED = "gwc.backendLimiter.enabled";
+
+    public static final String MAX_CONCURRENCY = "gwc.backendLimiter.maxConcurrency";
+
+    public static final String MIN_CONCURRENCY = "gwc.backendLimiter.minConcurrency";
+
+    public static final String MAX_QUEUE = "gwc.backendLimiter.maxQueue";
+
+    public static final String QUEUE_TIMEOUT = "gwc.backendLimiter.queueTimeout";
+
+    public static final String LATENCY_TOLERANCE = "gwc.backendLimiter.latencyTolerance";
+
+    public static final String FAILURE_THRESHOLD = "gwc.backendLimiter.failureThreshold";
+
+    public static final String OPEN_TIME = "gwc.backendLimiter.openTime";
+
+    /** {@code null} until the {@link #ENABLED} setting is first read */
+    private static volatile Boolean enabled;
+
+    private static final ConcurrentMap<String, BackendLimiter> LIMITERS = new ConcurrentHashMap<>();
+
+    private final String backend;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final int maxQueue;
+
+    private final long queueTimeout;
+
+    private final double latencyTolerance;
+
+    private final int failureThreshold;
+
+    private final long openTime;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition foreground = lock.newCondition();
+
+    private final Condition background = lock.newCondition();
+
+    // all guarded by lock
+    private double limit;
+
+    private int inFlight;
+
+    private int foregroundWaiting;
+
+    private int backgroundWaiting;
+
+    private long minLatency;
+
+    private long lastDecrease;
+
+    private int consecutiveFailures;
+
+    private long openUntil;
+
+    private boolean probing;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    BackendLimiter(
+            String backend,
+            int minLimit,
+            int maxLimit,
+            int maxQueue,
+            long queueTimeout,
+            double latencyTolerance,
+            int failureThreshold,
+            long openTime) {
+        this.backend = backend;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.maxQueue = maxQueue;
+        this.queueTimeout = queueTimeout;
+        this.latencyTolerance = latencyTolerance;
+        this.failureThreshold = failureThreshold;
+        this.openTime = openTime;
+        this.limit = this.maxLimit;
+    }
+
+    /** @return whether requests to backends should go through a limiter */
+    public static boolean isEnabled() {
+        Boolean enabled = BackendLimiter.enabled;
+        if (enabled == null) {
+            enabled = Boolean.parseBoolean(GeoWebCacheExtensions.getProperty(ENABLED));
+            BackendLimiter.enabled = enabled;
+        }
+        return enabled;
+    }
+
+    static void setEnabled(boolean enabled) {
+        BackendLimiter.enabled = enabled;
+    }
+
+    /** Drops all the limiters, and with them what they learned about the backends */
+    static void reset() {
+        LIMITERS.clear();
+    }
+
+    /** @return the limiter shared by all requests to the host serving {@code url} */
+    public static BackendLimiter get(URL url) {
+        String backend = url.getProtocol() + "://" + url.getAuthority();
+        BackendLimiter limiter = LIMITERS.get(backend);
+        if (limiter == null) {
+            BackendLimiter created = create(backend);
+            limiter = LIMITERS.putIfAbsent(backend, created);
+            if (limiter == null) {
+                limiter = created;
+            }
+        }
+        return limiter;
+    }
+
+    /** Creates a limiter for the backend out of the current settings */
+    private static BackendLimiter create(String backend) {
+        return new BackendLimiter(
+                backend,
+                (int) getLongProperty(MIN_CONCURRENCY, 1, 1),
+                (int) getLongProperty(MAX_CONCURRENCY, 64, 1),
+                (int) getLongProperty(MAX_QUEUE, 256, 0),
+                getLongProperty(QUEUE_TIMEOUT, 30_000, 0),
+                getDoubleProperty(LATENCY_TOLERANCE, 2, 1),
+                (int) getLongProperty(FAILURE_THRESHOLD, 5, 1),
+                getLongProperty(OPEN_TIME, 10_000, 0));
+    }
+
+    private static long getLongProperty(String name, long defaultValue, long minValue) {
+        String value = GeoWebCacheExtensions.getProperty(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            long parsed = Long.parseLong(value.trim());
+            if (parsed >= minValue && parsed <= Integer.MAX_VALUE) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // logged below
+        }
+        log.warning("Invalid value for " + name + ": " + value + ", using " + defaultValue);
+        return defaultValue;
+    }
+
+    private static double getDoubleProperty(String name, double defaultValue, double minValue) {
+        String value = GeoWebCacheExtensions.getProperty(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            double parsed = Double.parseDouble(value.trim());
+            if (parsed >= minValue && !Double.isInfinite(parsed)) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // logged below
+        }
+        log.warning("Invalid value for " + name + ": " + value + ", using " + defaultValue);
+        return defaultValue;
+    }
+
+    /** @return number of interactive requests waiting for their turn, on all the backends */
+    public static int getInteractiveWaiting() {
+        int waiting = 0;
+        for (BackendLimiter limiter : LIMITERS.values()) {
+            limiter.lock.lock();
+            try {
+                waiting += limiter.foregroundWaiting;
+            } finally {
+                limiter.lock.unlock();
+            }
+        }
+        return waiting;
+    }
+
+    /**
+     * Waits for the right to send a request to the backend.
+     *
+     * @param backgroundRequest whether no client is waiting for the response, such requests only
+     *     go once no interactive request is waiting
+     * @return the permit to release once the request is complete
+     * @throws GeoWebCacheException if the request is rejected, because the circuit is open, too
+     *     many requests are waiting, or the wait timed out
+     */
+    public Permit acquire(boolean backgroundRequest) throws GeoWebCacheException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(queueTimeout);
+        lock.lock();
+        try {
+            boolean probe = checkCircuit();
+            if (probe || canGo(backgroundRequest)) {
+                return grant(probe);
+            }
+            if (!backgroundRequest && foregroundWaiting >= maxQueue) {
+                throw reject("too many requests waiting");
+            }
+            if (backgroundRequest) {
+                backgroundWaiting++;
+            } else {
+                foregroundWaiting++;
+            }
+            try {
+                while (true) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw reject("timed out waiting");
+                    }
+                    (backgroundRequest ? background : foreground).awaitNanos(remaining);
+                    probe = checkCircuit();
+                    if (probe || canGo(backgroundRequest)) {
+                        return grant(probe);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GeoWebCacheException("Interrupted waiting for backend " + backend);
+            } finally {
+                if (backgroundRequest) {
+                    backgroundWaiting--;
+                } else {
+                    foregroundWaiting--;
+                }
+                // let the next one have a look if a slot is still free
+                signalNext();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks the circuit state, must hold the lock
+     *
+     * @return {@code true} if the caller is to send the probe request
+     * @throws GeoWebCacheException if the circuit is open
+     */
+    private boolean checkCircuit() throws GeoWebCacheException {
+        if (openUntil == 0) {
+            return false;
+        }
+        if (System.currentTimeMillis() < openUntil || probing) {
+            throw reject("too many consecutive failures, backend requests suspended");
+        }
+        probing = true;
+        return true;
+    }
+
+    private boolean canGo(boolean backgroundRequest) {
+        return inFlight < (int) limit && (!backgroundRequest || foregroundWaiting == 0);
+    }
+
+    private Permit grant(boolean probe) {
+        inFlight++;
+        return new Permit(probe);
+    }
+
+    private GeoWebCacheException reject(String reason) {
+        rejected.incrementAndGet();
+        return new GeoWebCacheException("Backend " + backend + " is overloaded, " + reason);
+    }
+
+    /** Wakes up one waiting request if there is room for it, must hold the lock */
+    private void signalNext() {
+        if (inFlight < (int) limit) {
+            if (foregroundWaiting > 0) {
+                foreground.signal();
+            } else if (backgroundWaiting > 0) {
+                background.signal();
+            }
+        }
+    }
+
+    private void release(boolean probe, boolean failed, long latency) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (probe) {
+                probing = false;
+            }
+            final long now = System.currentTimeMillis();
+            if (failed) {
+                consecutiveFailures++;
+                decrease(0.5, now);
+                if (probe || consecutiveFailures >= failureThreshold) {
+                    if (openUntil == 0 || probe) {
+                        log.warning(
+                                "Suspending requests to backend "
+                                        + backend
+                                        + " for "
+                                        + openTime
+                                        + "ms after "
+                                        + consecutiveFailures
+                                        + " consecutive failures");
+                    }
+                    openUntil = now + openTime;
+                }
+            } else {
+                consecutiveFailures = 0;
+                if (openUntil != 0) {
+                    log.info("Resuming requests to backend " + backend);
+                    openUntil = 0;
+                }
+                if (minLatency == 0 || latency < minLatency) {
+                    minLatency = latency;
+                } else {
+                    // let the baseline follow a backend that got slower for good
+                    minLatency += (latency - minLatency) / 100;
+                }
+                if (latency > latencyTolerance * minLatency) {
+                    decrease(0.9, now);
+                } else if (inFlight + 1 >= (int) limit) {
+                    // only grow a limit that is actually being used
+                    limit = Math.min(maxLimit, limit + 1 / limit);
+                }
+            }
+            signalNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Shrinks the limit, at most once per baseline latency to react to a burst only once */
+    private void decrease(double factor, long now) {
+        if (now - lastDecrease >= TimeUnit.NANOSECONDS.toMillis(minLatency)) {
+            limit = Math.max(minLimit, limit * factor);
+            lastDecrease = now;
+        }
+    }
+
+    /** @return the current concurrency limit */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return number of requests currently sent to the backend */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return number of requests waiting for their turn */
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return foregroundWaiting + backgroundWaiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return whether requests are currently rejected after repeated failures */
+    public boolean isCircuitOpen() {
+        lock.lock();
+        try {
+            return openUntil != 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** @return number of requests rejected so far */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    @Override
+    public String toString() {
+        return "BackendLimiter[" + backend + "]";
+    }
+
+    /** The right to send one request to the backend */
+    public class Permit {
+
+        private final boolean probe;
+
+        private final long start = System.nanoTime();
+
+        private boolean released;
+
+        Permit(boolean probe) {
+            this.probe = probe;
+        }
+
+        /**
+         * Gives the permit back, calling it more than once has no effect
+         *
+         * @param failed whether the backend failed to answer, or answered it is overloaded
+         */
+        public void release(boolean failed) {
+            release(failed, System.nanoTime() - start);
+        }
+
+        void release(boolean failed, long latency) {
+            if (!released) {
+                released = true;
+                BackendLimiter.this.release(probe, failed, latency);
+            }
+        }
+    }
+}
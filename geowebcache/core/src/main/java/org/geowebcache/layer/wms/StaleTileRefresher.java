@@ -0,0 +1,189 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.layer.wms;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Runs the background metatile refreshes triggered when a {@link WMSLayer} serves a stale tile
+ * (stale-while-revalidate).
+ *
+ * <p>Refreshes are deduplicated by key, so a burst of requests hitting the same expired metatile
+ * results in a single backend request. The executor is bounded both in threads and queue length,
+ * refreshes that do not fit are dropped and the next stale hit will try again.
+ *
+ * <p>The pool can be sized with the {@code gwc.staleRefresh.threads} and {@code
+ * gwc.staleRefresh.queueSize} system properties.
+ */
+public class StaleTileRefresher {
+
+    private static Logger log = Logging.getLogger(StaleTileRefresher.class.getName());
+
+    public static final String PROPERTY_THREADS = "gwc.staleRefresh.threads";
+
+    public static final String PROPERTY_QUEUE_SIZE = "gwc.staleRefresh.queueSize";
+
+    private static final StaleTileRefresher DEFAULT =
+            new StaleTileRefresher(
+                    Integer.parseInt(System.getProperty(PROPERTY_THREADS, "2")),
+                    Integer.parseInt(System.getProperty(PROPERTY_QUEUE_SIZE, "1000")));
+
+    /** A background refresh of a single metatile */
+    public interface Refresh {
+        void run() throws Exception;
+    }
+
+    private final ThreadPoolExecutor executor;
+
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong staleServed = new AtomicLong();
+
+    private final AtomicLong refreshesQueued = new AtomicLong();
+
+    private final AtomicLong refreshesDeduplicated = new AtomicLong();
+
+    private final AtomicLong refreshesRejected = new AtomicLong();
+
+    private final AtomicLong refreshesCompleted = new AtomicLong();
+
+    private final AtomicLong refreshesFailed = new AtomicLong();
+
+    private final AtomicLong totalRefreshLag = new AtomicLong();
+
+    private final AtomicLong maxRefreshLag = new AtomicLong();
+
+    StaleTileRefresher(int threads, int queueSize) {
+        CustomizableThreadFactory tf = new CustomizableThreadFactory("GWC stale tile refresh-");
+        tf.setDaemon(true);
+        executor =
+                new ThreadPoolExecutor(
+                        threads,
+                        threads,
+                        60,
+                        TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(queueSize),
+                        tf,
+                        new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /** @return the JVM wide refresher shared by all layers */
+    public static StaleTileRefresher getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Records a stale serve and queues {@code refresh} unless a refresh for the same key is already
+     * pending.
+     *
+     * @param key identifies the unit of work, usually the metatile lock key
+     * @param refresh the refresh action
+     * @return {@code true} if the refresh was queued, {@code false} if deduplicated or rejected
+     */
+    public boolean submit(final String key, final Refresh refresh) {
+        staleServed.incrementAndGet();
+        if (!pending.add(key)) {
+            refreshesDeduplicated.incrementAndGet();
+            return false;
+        }
+        final long queuedAt = System.currentTimeMillis();
+        try {
+            executor.execute(() -> runRefresh(key, refresh, queuedAt));
+        } catch (RejectedExecutionException e) {
+            pending.remove(key);
+            refreshesRejected.incrementAndGet();
+            log.fine("Stale tile refresh queue full, dropping refresh of " + key);
+            return false;
+        }
+        refreshesQueued.incrementAndGet();
+        return true;
+    }
+
+    private void runRefresh(String key, Refresh refresh, long queuedAt) {
+        try {
+            refresh.run();
+            refreshesCompleted.incrementAndGet();
+        } catch (Exception e) {
+            refreshesFailed.incrementAndGet();
+            log.log(Level.WARNING, "Background refresh of " + key + " failed", e);
+        } finally {
+            pending.remove(key);
+            long lag = System.currentTimeMillis() - queuedAt;
+            totalRefreshLag.addAndGet(lag);
+            maxRefreshLag.accumulateAndGet(lag, Math::max);
+        }
+    }
+
+    /** @return number of expired tiles served from within their stale window */
+    public long getStaleServed() {
+        return staleServed.get();
+    }
+
+    /** @return number of refreshes handed to the executor */
+    public long getRefreshesQueued() {
+        return refreshesQueued.get();
+    }
+
+    /** @return number of stale serves that found a refresh for the same metatile already pending */
+    public long getRefreshesDeduplicated() {
+        return refreshesDeduplicated.get();
+    }
+
+    /** @return number of refreshes dropped because the queue was full */
+    public long getRefreshesRejected() {
+        return refreshesRejected.get();
+    }
+
+    public long getRefreshesCompleted() {
+        return refreshesCompleted.get();
+    }
+
+    public long getRefreshesFailed() {
+        return refreshesFailed.get();
+    }
+
+    /** @return number of refreshes queued or running */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /** @return average time between queueing a refresh and its completion, in milliseconds */
+    public long getAverageRefreshLag() {
+        long done = refreshesCompleted.get() + refreshesFailed.get();
+        return done == 0 ? 0 : totalRefreshLag.get() / done;
+    }
+
+    /** @return the longest time between queueing a refresh and its completion, in milliseconds */
+    public long getMaxRefreshLag() {
+        return maxRefreshLag.get();
+    }
+
+    /** Stops accepting refreshes, pending ones are discarded */
+    public void shutdown() {
+        executor.shutdownNow();
+        pending.clear();
+    }
+}
@@ -121,7 +121,14 @@ protected void makeRequest(
                 throw new GeoWebCacheException(
                         "Malformed URL: " + requestUrl + " " + maue.getMessage());
             }
+            BackendLimiter.Permit permit = null;
+            boolean failed = false;
             try {
+                if (BackendLimiter.isEnabled()) {
+                    permit =
+                            BackendLimiter.get(wmsBackendUrl)
+                                    .acquire(tileRespRecv.isBackgroundRequest());
+                }
                 connectAndCheckHeaders(
                         tileRespRecv,
                         wmsBackendUrl,
@@ -132,6 +139,14 @@ protected void makeRequest(
                         layer.getHttpRequestMode());
             } catch (GeoWebCacheException e) {
                 fetchException = e;
+                failed =
+                        e.getCause() instanceof IOException
+                                || (e instanceof ServiceException
+                                        && isOverloaded(tileRespRecv.getStatus()));
+            } finally {
+                if (permit != null) {
+                    permit.release(failed);
+                }
             }
 
             backendTries++;
@@ -156,6 +171,11 @@ protected void makeRequest(
         }
     }
 
+    /** Whether the response status tells the backend is failing or overloaded */
+    private static boolean isOverloaded(int status) {
+        return status >= 500 || status == 429;
+    }
+
     /** Executes the actual HTTP request, checks the response headers (status and MIME) and */
     private void connectAndCheckHeaders(
             TileResponseReceiver tileRespRecv,
@@ -42,6 +42,7 @@
 import org.geowebcache.grid.OutsideCoverageException;
 import org.geowebcache.grid.SRS;
 import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.io.ByteArrayResourcePool;
 import org.geowebcache.io.Resource;
 import org.geowebcache.layer.AbstractTileLayer;
 import org.geowebcache.layer.ExpirationRule;
@@ -121,6 +122,8 @@ public enum HttpRequestMode {
 
     private transient LockProvider lockProvider;
 
+    private transient StaleTileRefresher staleTileRefresher;
+
     private LegendsRawInfo legends;
 
     private HttpRequestMode httpRequestMode = HttpRequestMode.Get;
@@ -276,16 +279,15 @@ public ConveyorTile getTile(ConveyorTile tile)
         ConveyorTile returnTile;
 
         tile.setMetaTileCacheOnly(!gridSubset.shouldCacheAtZoom(gridLoc[2]));
-        try {
-            if (tryCacheFetch(tile)) {
-                returnTile = finalizeTile(tile);
-            } else if (mime.supportsTiling()) { // Okay, so we need to go to the backend
-                returnTile = getMetatilingReponse(tile, true);
-            } else {
-                returnTile = getNonMetatilingReponse(tile, true);
+        if (tryCacheFetch(tile, true)) {
+            if (tile.isStale()) {
+                scheduleRefresh(tile, mime);
             }
-        } finally {
-            cleanUpThreadLocals();
+            returnTile = finalizeTile(tile);
+        } else if (mime.supportsTiling()) { // Okay, so we need to go to the backend
+            returnTile = getMetatilingReponse(tile, true);
+        } else {
+            returnTile = getNonMetatilingReponse(tile, true);
         }
 
         sendTileRequestedEvent(returnTile);
@@ -344,9 +346,11 @@ private ConveyorTile getMetatilingReponse(ConveyorTile tile, boolean tryCache)
         if (saveExpirationHeaders) {
             metaTile.setExpiresHeader(GWCVars.CACHE_USE_WMS_BACKEND_VALUE);
         }
+        metaTile.setBackgroundRequest(tile.isBackgroundRequest());
 
         String metaKey = buildLockKey(tile, metaTile);
         Lock lock = null;
+        ByteArrayResourcePool.Lease lease = null;
         try {
             /** ****************** Acquire lock ******************* */
             lock = lockProvider.getLock(metaKey);
@@ -359,9 +363,12 @@ private ConveyorTile getMetatilingReponse(ConveyorTile tile, boolean tryCache)
             tile.setCacheResult(CacheResult.MISS);
 
             /*
-             * This thread's byte buffer
+             * Buffer for the encoded metatile, sized on a rough guess of its encoded size
              */
-            ByteArrayResource buffer = getImageBuffer(WMS_BUFFER);
+            lease =
+                    getBufferPool()
+                            .lease(metaTile.getMetaTileWidth() * metaTile.getMetaTileHeight() / 4);
+            ByteArrayResource buffer = lease.getResource();
 
             /** ****************** No luck, Request metatile ****** */
             // Leave a hint to save expiration, if necessary
@@ -390,22 +397,25 @@ private ConveyorTile getMetatilingReponse(ConveyorTile tile, boolean tryCache)
             if (lock != null) {
                 lock.release();
             }
+            if (lease != null) {
+                lease.close();
+            }
             metaTile.dispose();
         }
         return finalizeTile(tile);
     }
 
     private String buildLockKey(ConveyorTile tile, WMSMetaTile metaTile) {
-        StringBuilder metaKey = new StringBuilder();
-
-        final long[] tileIndex;
         if (metaTile != null) {
-            tileIndex = metaTile.getMetaGridPos();
-            metaKey.append("meta_");
+            return buildLockKey(tile, metaTile.getMetaGridPos(), "meta_");
         } else {
-            tileIndex = tile.getTileIndex();
-            metaKey.append("tile_");
+            return buildLockKey(tile, tile.getTileIndex(), "tile_");
         }
+    }
+
+    private String buildLockKey(ConveyorTile tile, long[] tileIndex, String prefix) {
+        StringBuilder metaKey = new StringBuilder(prefix);
+
         long x = tileIndex[0];
         long y = tileIndex[1];
         long z = tileIndex[2];
@@ -473,10 +483,24 @@ private ConveyorTile getNonMetatilingReponse(ConveyorTile tile, boolean tryCache
     }
 
     public boolean tryCacheFetch(ConveyorTile tile) {
-        int expireCache = this.getExpireCache((int) tile.getTileIndex()[2]);
+        return tryCacheFetch(tile, false);
+    }
+
+    /**
+     * Looks up the tile in the cache
+     *
+     * @param tile the tile to look up
+     * @param allowStale whether an expired tile still within its {@link
+     *     #getExpireCacheMaxStale(int) stale window} counts as a hit, see {@link
+     *     ConveyorTile#isStale()}
+     */
+    private boolean tryCacheFetch(ConveyorTile tile, boolean allowStale) {
+        int zoomLevel = (int) tile.getTileIndex()[2];
+        int expireCache = this.getExpireCache(zoomLevel);
         if (expireCache != GWCVars.CACHE_DISABLE_CACHE) {
             try {
-                return tile.retrieve(expireCache * 1000L);
+                long maxStale = allowStale ? getExpireCacheMaxStale(zoomLevel) * 1000L : 0;
+                return tile.retrieve(expireCache * 1000L, maxStale);
             } catch (GeoWebCacheException gwce) {
                 log.severe(gwce.getMessage());
                 tile.setErrorMsg(gwce.getMessage());
@@ -486,18 +510,66 @@ public boolean tryCacheFetch(ConveyorTile tile) {
         return false;
     }
 
+    /**
+     * Queues a background refresh of the metatile (or single tile, for formats that do not support
+     * tiling) containing a stale tile that is being served to the client. Concurrent requests for
+     * the same metatile share a single refresh.
+     */
+    private void scheduleRefresh(ConveyorTile tile, MimeType mime) {
+        final long[] tileIndex = tile.getTileIndex().clone();
+        final boolean metaTiling = mime.supportsTiling();
+        final ConveyorTile refreshTile =
+                new ConveyorTile(
+                        tile.getStorageBroker(),
+                        tile.getLayerId(),
+                        tile.getGridSetId(),
+                        tileIndex,
+                        mime,
+                        tile.getFilteringParameters(),
+                        null,
+                        null);
+        refreshTile.setBackgroundRequest(true);
+
+        String key;
+        if (metaTiling) {
+            long[] metaIndex = {
+                tileIndex[0] - (tileIndex[0] % metaWidthHeight[0]),
+                tileIndex[1] - (tileIndex[1] % metaWidthHeight[1]),
+                tileIndex[2]
+            };
+            key = buildLockKey(refreshTile, metaIndex, "meta_");
+        } else {
+            key = buildLockKey(refreshTile, tileIndex, "tile_");
+        }
+
+        getStaleTileRefresher()
+                .submit(
+                        key,
+                        () -> {
+                            if (metaTiling) {
+                                getMetatilingReponse(refreshTile, true);
+                            } else {
+                                getNonMetatilingReponse(refreshTile, true);
+                            }
+                        });
+    }
+
     @Override
     public ConveyorTile doNonMetatilingRequest(ConveyorTile tile) throws GeoWebCacheException {
         tile.setTileLayer(this);
 
-        ByteArrayResource buffer = getImageBuffer(WMS_BUFFER);
-        sourceHelper.makeRequest(tile, buffer);
+        try (ByteArrayResourcePool.Lease lease = getBufferPool().lease(0)) {
+            ByteArrayResource buffer = lease.getResource();
+            sourceHelper.makeRequest(tile, buffer);
 
-        if (tile.getError() || buffer.getSize() == 0) {
-            throw new GeoWebCacheException("Empty tile, error message: " + tile.getErrorMessage());
-        }
+            if (tile.getError() || buffer.getSize() == 0) {
+                throw new GeoWebCacheException(
+                        "Empty tile, error message: " + tile.getErrorMessage());
+            }
 
-        tile.setBlob(buffer);
+            // the buffer goes back to the pool, the tile keeps a right sized copy
+            tile.setBlob(new ByteArrayResource(buffer.getContents()));
+        }
         return tile;
     }
 
@@ -756,8 +828,7 @@ public ConveyorTile getNoncachedTile(ConveyorTile tile) throws GeoWebCacheExcept
 
         // Should we do mime type checks?
 
-        // note: not using getImageBuffer() here cause this method is not called during seeding, so
-        // there's no gain
+        // note: not using a pooled buffer here, the blob is handed over to the caller
         Resource buffer = new ByteArrayResource(2048);
         sourceHelper.makeRequest(tile, buffer);
         tile.setBlob(buffer);
@@ -773,6 +844,12 @@ public String backendSRSOverride(SRS srs) {
         }
     }
 
+    /**
+     * @deprecated tile buffers are leased from a {@link ByteArrayResourcePool} and returned as soon
+     *     as they are no longer needed, only the deprecated {@link #WMS_BUFFER} and {@link
+     *     #WMS_BUFFER2} thread locals, unused by GeoWebCache itself, are cleaned up
+     */
+    @Deprecated
     public void cleanUpThreadLocals() {
         WMS_BUFFER.remove();
         WMS_BUFFER2.remove();
@@ -795,6 +872,15 @@ public void setLockProvider(LockProvider lockProvider) {
         this.lockProvider = lockProvider;
     }
 
+    /** Sets the refresher used for stale-while-revalidate, for testing purposes */
+    void setStaleTileRefresher(StaleTileRefresher staleTileRefresher) {
+        this.staleTileRefresher = staleTileRefresher;
+    }
+
+    StaleTileRefresher getStaleTileRefresher() {
+        return staleTileRefresher == null ? StaleTileRefresher.getDefault() : staleTileRefresher;
+    }
+
     @Override
     public void proxyRequest(ConveyorTile tile) throws GeoWebCacheException {
         String queryStr = tile.servletReq.getQueryString();
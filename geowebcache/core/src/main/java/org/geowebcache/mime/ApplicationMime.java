@@ -115,6 +115,11 @@ public boolean isVector() {
         return vector;
     }
 
+    @Override
+    public boolean isCompressible() {
+        return vector || "application/json".equals(getMimeType());
+    }
+
     @Override
     protected boolean isBinary() {
         return BINARY_FORMATS.contains(this.getMimeType());
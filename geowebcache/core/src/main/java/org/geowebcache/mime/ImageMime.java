@@ -25,10 +25,18 @@
 import java.awt.image.renderable.ParameterBlock;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.imageio.ImageWriter;
+import javax.imageio.spi.ImageWriterSpi;
 import javax.media.jai.ImageLayout;
 import javax.media.jai.JAI;
 import javax.media.jai.RenderedOp;
@@ -42,10 +50,20 @@ public class ImageMime extends MimeType {
 
     private static Logger log = Logging.getLogger(ImageMime.class.getName());
 
+    /** Maximum number of idle writers kept for each writer provider */
+    static final int MAX_POOLED_WRITERS =
+            Integer.parseInt(System.getProperty("gwc.imageWriterPool.maxPerProvider", "16"));
+
+    private static final ConcurrentHashMap<ImageWriterSpi, Queue<ImageWriter>> WRITER_POOLS =
+            new ConcurrentHashMap<>();
+
     boolean supportsAlphaChannel;
 
     boolean supportsAlphaBit;
 
+    /** Writer providers for this format, in registry order, looked up on first use */
+    private volatile List<ImageWriterSpi> writerProviders;
+
     static {
         // register the custom JAIExt operations, without forcing replacement of JAI own
         JAIExt.initJAIEXT(false, false);
@@ -99,25 +117,21 @@ public RenderedImage preprocess(RenderedImage ri) {
                 /** Quantize if the source did not do so already */
                 @Override
                 public RenderedImage preprocess(RenderedImage canvas) {
-                    if (!(canvas.getColorModel() instanceof IndexColorModel)) {
-                        if (canvas.getColorModel() instanceof ComponentColorModel
-                                && canvas.getSampleModel().getDataType() == DataBuffer.TYPE_BYTE) {
-                            ColorIndexer indexer =
-                                    new Quantizer(256).subsample().buildColorIndexer(canvas);
-                            if (indexer != null) {
-                                ParameterBlock pb = new ParameterBlock();
-                                pb.setSource(canvas, 0); // The source image.
-                                pb.set(indexer, 0);
-                                canvas =
-                                        JAI.create(
-                                                "ColorIndexer",
-                                                pb,
-                                                JAI.getDefaultInstance().getRenderingHints());
-                            }
+                    if (isQuantized(canvas)) {
+                        ColorIndexer indexer = buildColorIndexer(canvas);
+                        if (indexer != null) {
+                            canvas = applyColorIndexer(canvas, indexer);
                         }
                     }
                     return canvas;
                 }
+
+                @Override
+                boolean isQuantized(RenderedImage canvas) {
+                    return !(canvas.getColorModel() instanceof IndexColorModel)
+                            && canvas.getColorModel() instanceof ComponentColorModel
+                            && canvas.getSampleModel().getDataType() == DataBuffer.TYPE_BYTE;
+                }
             };
 
     public static final ImageMime png24 =
@@ -238,9 +252,13 @@ protected boolean isBinary() {
         return true;
     }
 
+    /**
+     * Returns a writer for the image. Writers are recycled, so callers should hand the writer back
+     * with {@link #releaseImageWriter(ImageWriter)} once done with it instead of disposing it.
+     */
     public ImageWriter getImageWriter(RenderedImage image) {
-        Iterator<ImageWriter> it = javax.imageio.ImageIO.getImageWritersByFormatName(internalName);
-        ImageWriter writer = it.next();
+        List<ImageWriterSpi> providers = getWriterProviders();
+        ImageWriterSpi provider = providers.get(0);
 
         // Native PNG Writer can't handle 2-4 bit PNG, so if our sample depth isn't 1/8 and the
         // returned writer is the native version, let's skip it and move on to the next
@@ -252,19 +270,119 @@ public ImageWriter getImageWriter(RenderedImage image) {
             int bitDepth = image.getSampleModel().getSampleSize(0);
             if (bitDepth > 1
                     && bitDepth < 8
-                    && writer.getClass().getName().equals(NATIVE_PNG_WRITER_CLASS_NAME)) {
+                    && NATIVE_PNG_WRITER_CLASS_NAME.equals(provider.getPluginClassName())) {
+                if (providers.size() < 2) {
+                    throw new NoSuchElementException();
+                }
+                provider = providers.get(1);
+            }
+        }
 
-                writer = it.next();
+        Queue<ImageWriter> pool =
+                WRITER_POOLS.computeIfAbsent(
+                        provider, p -> new ArrayBlockingQueue<>(Math.max(1, MAX_POOLED_WRITERS)));
+        ImageWriter writer = pool.poll();
+        if (writer == null) {
+            try {
+                writer = provider.createWriterInstance();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
         }
         return writer;
     }
 
+    /**
+     * Scanning the image I/O registry is costly and its result does not change once the plugins
+     * are loaded, so the providers are looked up once per format
+     */
+    private List<ImageWriterSpi> getWriterProviders() {
+        List<ImageWriterSpi> providers = writerProviders;
+        if (providers == null) {
+            providers = new ArrayList<>();
+            Iterator<ImageWriter> it =
+                    javax.imageio.ImageIO.getImageWritersByFormatName(internalName);
+            while (it.hasNext()) {
+                ImageWriter writer = it.next();
+                if (writer.getOriginatingProvider() != null) {
+                    providers.add(writer.getOriginatingProvider());
+                }
+                writer.dispose();
+            }
+            if (providers.isEmpty()) {
+                throw new NoSuchElementException("No image writer found for " + internalName);
+            }
+            writerProviders = providers;
+        }
+        return providers;
+    }
+
+    /**
+     * Hands back a writer obtained from {@link #getImageWriter(RenderedImage)}. The writer is reset
+     * and kept for reuse, or disposed if enough writers of its kind are already idle.
+     */
+    public static void releaseImageWriter(ImageWriter writer) {
+        if (writer == null) {
+            return;
+        }
+        boolean pooled = false;
+        ImageWriterSpi provider = writer.getOriginatingProvider();
+        Queue<ImageWriter> pool = provider == null ? null : WRITER_POOLS.get(provider);
+        if (pool != null) {
+            try {
+                writer.reset();
+                pooled = pool.offer(writer);
+            } catch (RuntimeException e) {
+                log.log(Level.FINE, "Could not reset image writer, disposing it", e);
+            }
+        }
+        if (!pooled) {
+            writer.dispose();
+        }
+    }
+
     /** Preprocesses the image to optimize it for the write about to happen */
     public RenderedImage preprocess(RenderedImage tile) {
         return tile;
     }
 
+    /**
+     * Returns a helper encoding the tiles cut out of {@code metaTile}, sharing work that would
+     * otherwise be repeated for every tile
+     */
+    public MetaTileEncoder createMetaTileEncoder(RenderedImage metaTile) {
+        return new MetaTileEncoder(this, metaTile);
+    }
+
+    /** Returns the format actually used to encode the image, this very one for most formats */
+    ImageMime resolve(RenderedImage image) {
+        return this;
+    }
+
+    /**
+     * Returns the format used for all the tiles of the metatile, or null if it has to be resolved
+     * tile by tile
+     */
+    ImageMime resolveMetaTile(RenderedImage metaTile) {
+        return this;
+    }
+
+    /** Returns true if {@link #preprocess(RenderedImage)} reduces the image to a palette */
+    boolean isQuantized(RenderedImage image) {
+        return false;
+    }
+
+    static ColorIndexer buildColorIndexer(RenderedImage image) {
+        return new Quantizer(256).subsample().buildColorIndexer(image);
+    }
+
+    static RenderedImage applyColorIndexer(RenderedImage image, ColorIndexer indexer) {
+        ParameterBlock pb = new ParameterBlock();
+        pb.setSource(image, 0); // The source image.
+        pb.set(indexer, 0);
+        return JAI.create("ColorIndexer", pb, JAI.getDefaultInstance().getRenderingHints());
+    }
+
     private static class JpegPngMime extends ImageMime {
 
         private static final int JPEG_MAGIC_MASK = 0xffd80000;
@@ -319,11 +437,28 @@ boolean isBestFormatJpeg(RenderedImage renderedImage) {
 
         @Override
         public ImageWriter getImageWriter(RenderedImage image) {
-            if (isBestFormatJpeg(image)) {
-                return jpegDelegate.getImageWriter(image);
-            } else {
-                return pngDelegate.getImageWriter(image);
+            return resolve(image).getImageWriter(image);
+        }
+
+        @Override
+        ImageMime resolve(RenderedImage image) {
+            return isBestFormatJpeg(image) ? jpegDelegate : pngDelegate;
+        }
+
+        /**
+         * An opaque metatile only holds opaque tiles, and one without an alpha band only tiles
+         * without one, only a translucent metatile needs to be checked tile by tile
+         */
+        @Override
+        ImageMime resolveMetaTile(RenderedImage metaTile) {
+            if (isBestFormatJpeg(metaTile)) {
+                return jpegDelegate;
+            }
+            int numBands = metaTile.getSampleModel().getNumBands();
+            if (numBands == 4 || numBands == 2) {
+                return null;
             }
+            return pngDelegate;
         }
 
         @Override
@@ -346,11 +481,7 @@ public boolean isCompatible(String otherMimeType) {
 
         @Override
         public RenderedImage preprocess(RenderedImage tile) {
-            if (isBestFormatJpeg(tile)) {
-                return jpegDelegate.preprocess(tile);
-            } else {
-                return pngDelegate.preprocess(tile);
-            }
+            return resolve(tile).preprocess(tile);
         }
     }
 }
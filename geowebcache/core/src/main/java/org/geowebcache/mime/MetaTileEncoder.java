@@ -0,0 +1,76 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.mime;
+
+import it.geosolutions.jaiext.colorindexer.ColorIndexer;
+import java.awt.image.RenderedImage;
+
+/**
+ * Encoding state shared by the tiles of a single metatile.
+ *
+ * <p>Paletted formats quantize the whole metatile once and apply the same palette to every tile,
+ * instead of building a palette per tile, which is both faster and avoids color shifts across tile
+ * borders. The mixed jpeg-png formats check the transparency of the whole metatile once, and only
+ * fall back on checking each tile when the metatile is partially transparent.
+ *
+ * <p>Not thread safe, meant to be used by the thread encoding the metatile.
+ */
+public class MetaTileEncoder {
+
+    private final ImageMime format;
+
+    private final RenderedImage metaTile;
+
+    private boolean metaTileResolved;
+
+    private ImageMime metaTileFormat;
+
+    private boolean paletteBuilt;
+
+    private ColorIndexer palette;
+
+    MetaTileEncoder(ImageMime format, RenderedImage metaTile) {
+        this.format = format;
+        this.metaTile = metaTile;
+    }
+
+    /** Returns the format used to encode the tile */
+    public ImageMime resolve(RenderedImage tile) {
+        if (!metaTileResolved) {
+            metaTileFormat = metaTile == null ? null : format.resolveMetaTile(metaTile);
+            metaTileResolved = true;
+        }
+        return metaTileFormat != null ? metaTileFormat : format.resolve(tile);
+    }
+
+    /**
+     * Preprocesses the tile for the format returned by {@link #resolve(RenderedImage)}, see {@link
+     * ImageMime#preprocess(RenderedImage)}
+     */
+    public RenderedImage preprocess(ImageMime tileFormat, RenderedImage tile) {
+        if (tileFormat.isQuantized(tile)) {
+            if (!paletteBuilt) {
+                if (metaTile != null && tileFormat.isQuantized(metaTile)) {
+                    palette = ImageMime.buildColorIndexer(metaTile);
+                }
+                paletteBuilt = true;
+            }
+            if (palette != null) {
+                return ImageMime.applyColorIndexer(tile, palette);
+            }
+        }
+        return tileFormat.preprocess(tile);
+    }
+}
@@ -115,6 +115,17 @@ public boolean isVector() {
         return false;
     }
 
+    /**
+     * Indicates whether content in this format compresses well with general purpose codecs such as
+     * gzip, and is hence worth storing and sending compressed. Most image formats are already
+     * compressed.
+     *
+     * @return {@code true} for text and uncompressed vector formats
+     */
+    public boolean isCompressible() {
+        return false;
+    }
+
     /** Get the MIME type object for a given MIME type string */
     public static MimeType createFromFormat(String formatStr) throws MimeException {
         if (formatStr == null) {
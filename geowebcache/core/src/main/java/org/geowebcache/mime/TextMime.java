@@ -40,6 +40,11 @@ private TextMime(
         super(mimeType, fileExtension, internalName, format, false);
     }
 
+    @Override
+    public boolean isCompressible() {
+        return true;
+    }
+
     protected static TextMime checkForFormat(String formatStr) throws MimeException {
         if (formatStr.toLowerCase().startsWith("text")) {
             if (formatStr.equalsIgnoreCase("text/plain")) {
@@ -39,6 +39,13 @@ public static enum STATE {
         DEAD
     };
 
+    /** How a running task is held back by the {@link SeedThrottle} */
+    public static enum THROTTLE {
+        NONE,
+        SLOWED,
+        PAUSED
+    };
+
     /**
      * Value shared between all the threads in the group, is incremented each time a task starts
      * working and decremented each time one task finishes (either normally or abnormally)
@@ -63,10 +70,18 @@ public static enum STATE {
 
     protected long tilesTotal = -1;
 
-    protected boolean terminate = false;
+    protected volatile boolean terminate = false;
+
+    protected int priority = 0;
+
+    protected volatile THROTTLE throttle = THROTTLE.NONE;
 
     private long groupStartTime;
 
+    private SeedThrottle seedThrottle;
+
+    private SeedJob job;
+
     /**
      * Marks this task as active in the group by incrementing the shared counter, delegates to
      * {@link #doActionInternal()}, and makes sure to remove this task from the group count.
@@ -78,6 +93,9 @@ public final void doAction() throws GeoWebCacheException, InterruptedException {
             doActionInternal();
         } finally {
             dispose();
+            if (job != null) {
+                job.taskFinished();
+            }
             int membersRemaining = this.sharedThreadCount.decrementAndGet();
             if (0 == membersRemaining) {
                 double groupTotalTimeSecs =
@@ -150,6 +168,54 @@ public long getTimeSpent() {
         return timeSpent;
     }
 
+    /** @return the task priority, tasks with a higher priority are started first */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * @param priority tasks with a higher priority are started first, tasks with a negative
+     *     priority are paused rather than slowed down under heavy interactive load
+     */
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    /** @return whether the task is currently held back by the {@link SeedThrottle} */
+    public THROTTLE getThrottle() {
+        return throttle;
+    }
+
+    /**
+     * @param seedThrottle holds the task back under heavy load or outside of the seeding windows,
+     *     may be null
+     */
+    public void setSeedThrottle(SeedThrottle seedThrottle) {
+        this.seedThrottle = seedThrottle;
+    }
+
+    /** @param job the persisted job this task is part of, if any */
+    void setJob(SeedJob job) {
+        this.job = job;
+    }
+
+    /** @return the persisted job this task is part of, or {@code null} */
+    public SeedJob getJob() {
+        return job;
+    }
+
+    /** Waits until the {@link SeedThrottle}, if any, lets the task go on */
+    protected void awaitThrottle() throws InterruptedException {
+        if (seedThrottle != null) {
+            try {
+                seedThrottle.await(this);
+            } catch (InterruptedException e) {
+                this.state = STATE.DEAD;
+                throw e;
+            }
+        }
+    }
+
     public void terminateNicely() {
         this.terminate = true;
     }
@@ -0,0 +1,518 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.seed;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.GeoWebCacheException;
+import org.geowebcache.conveyor.ConveyorTile;
+import org.geowebcache.grid.GridSet;
+import org.geowebcache.grid.GridSubset;
+import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.io.Resource;
+import org.geowebcache.layer.TileLayer;
+import org.geowebcache.mime.FormatModifier;
+import org.geowebcache.mime.ImageMime;
+import org.geowebcache.mime.MetaTileEncoder;
+import org.geowebcache.storage.StorageBroker;
+import org.geowebcache.storage.TileObject;
+import org.geowebcache.storage.TileRange;
+
+/**
+ * Builds the coarser levels of a seed request from the tiles of the level below, rather than
+ * having the backend render them. Only the deepest level of the request is seeded from the
+ * backend, each coarser tile is then composed of its four children, downsampled, working bottom-up
+ * one level at a time.
+ *
+ * <p>The {@link SeedTask}s of the request share the pyramid: they seed the deepest level as usual,
+ * then build each overview level together once all of them are done with the level below. A tile
+ * whose children could not all be read, for example at the edges of a seeded bounding box, is
+ * seeded from the backend instead.
+ *
+ * <p>Only applies to image formats and to gridsets whose resolutions halve from one level to the
+ * next, see {@link #create}.
+ */
+public class OverviewPyramid {
+
+    private static Logger log = Logging.getLogger(OverviewPyramid.class.getName());
+
+    /** How four child tiles are downsampled into their parent */
+    public static enum Quality {
+        /** Takes one pixel out of each block of four, the fastest, suits categorical data */
+        NEAREST,
+        /** Bilinear interpolation of the child tiles */
+        BILINEAR,
+        /** Averages each block of four pixels, the smoothest */
+        AVERAGE;
+
+        /**
+         * @param value the quality name, case insensitive
+         * @return the quality, or {@code null} if the value is {@code null} or empty
+         */
+        public static Quality parse(String value) throws GeoWebCacheException {
+            if (value == null || value.trim().isEmpty()) {
+                return null;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ENGLISH));
+            } catch (IllegalArgumentException e) {
+                throw new GeoWebCacheException(
+                        "Unknown overview quality '"
+                                + value
+                                + "', expected one of nearest, bilinear or average");
+            }
+        }
+    }
+
+    private final TileRange tileRange;
+
+    private final TileLayer layer;
+
+    private final GridSubset gridSubset;
+
+    private final ImageMime format;
+
+    private final Quality quality;
+
+    private final StorageBroker storageBroker;
+
+    private final boolean reseed;
+
+    /** The seed tasks building the pyramid, each level waits for the one below to be complete */
+    private final Phaser levels = new Phaser();
+
+    /** The next tile to build, per zoom level, as an index in the level range */
+    private final AtomicLong[] nextTile;
+
+    /** The registered seed tasks that did not start yet */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final AtomicLong built = new AtomicLong();
+
+    private final AtomicLong fromBackend = new AtomicLong();
+
+    private volatile boolean aborted;
+
+    OverviewPyramid(
+            TileRange tileRange,
+            TileLayer layer,
+            ImageMime format,
+            Quality quality,
+            StorageBroker storageBroker,
+            boolean reseed) {
+        this.tileRange = tileRange;
+        this.layer = layer;
+        this.gridSubset = layer.getGridSubset(tileRange.getGridSetId());
+        this.format = format;
+        this.quality = quality;
+        this.storageBroker = storageBroker;
+        this.reseed = reseed;
+        this.nextTile = new AtomicLong[tileRange.getZoomStop() + 1];
+        for (int z = 0; z < nextTile.length; z++) {
+            nextTile[z] = new AtomicLong();
+        }
+    }
+
+    /**
+     * Sets up the building of the overviews of a seed request, if it applies.
+     *
+     * @param tileRange the tiles to seed
+     * @param layer the layer to seed
+     * @param quality how tiles are downsampled, {@code null} to seed every level from the backend
+     * @param storageBroker where the tiles are read from and written to
+     * @param reseed whether existing overview tiles are built again
+     * @return the pyramid, or {@code null} if the whole range has to be seeded from the backend
+     */
+    public static OverviewPyramid create(
+            TileRange tileRange,
+            TileLayer layer,
+            Quality quality,
+            StorageBroker storageBroker,
+            boolean reseed) {
+        if (quality == null || tileRange.getZoomStart() >= tileRange.getZoomStop()) {
+            return null;
+        }
+        String reason = null;
+        GridSubset gridSubset = layer.getGridSubset(tileRange.getGridSetId());
+        if (!(tileRange.getMimeType() instanceof ImageMime)) {
+            reason = tileRange.getMimeType() + " is not an image format";
+        } else if (gridSubset == null) {
+            reason = "the layer has no gridset " + tileRange.getGridSetId();
+        } else {
+            GridSet gridSet = gridSubset.getGridSet();
+            for (int z = tileRange.getZoomStart(); z < tileRange.getZoomStop(); z++) {
+                double ratio =
+                        gridSet.getGrid(z).getResolution()
+                                / gridSet.getGrid(z + 1).getResolution();
+                if (Math.abs(ratio - 2) > 1e-6) {
+                    reason = "resolutions do not halve from level " + z + " to level " + (z + 1);
+                    break;
+                }
+                if (!gridSubset.shouldCacheAtZoom(z) || !gridSubset.shouldCacheAtZoom(z + 1)) {
+                    reason = "level " + z + " or " + (z + 1) + " is not cached";
+                    break;
+                }
+            }
+        }
+        if (reason != null) {
+            log.warning(
+                    "Cannot build the overviews of "
+                            + layer.getName()
+                            + " from child tiles, "
+                            + reason
+                            + ". Seeding all the levels from the backend.");
+            return null;
+        }
+        return new OverviewPyramid(
+                tileRange,
+                layer,
+                (ImageMime) tileRange.getMimeType(),
+                quality,
+                storageBroker,
+                reseed);
+    }
+
+    /** @return the whole range of the seed request */
+    public TileRange getTileRange() {
+        return tileRange;
+    }
+
+    /** @return the range seeded from the backend, the deepest level of the request */
+    public TileRange getBackendRange() {
+        int z = tileRange.getZoomStop();
+        return new TileRange(
+                tileRange.getLayerName(),
+                tileRange.getGridSetId(),
+                z,
+                z,
+                new long[][] {tileRange.rangeBounds(z)},
+                tileRange.getMimeType(),
+                tileRange.getParameters(),
+                tileRange.getParametersId());
+    }
+
+    /** @return the number of tiles built from their children so far */
+    public long getBuilt() {
+        return built.get();
+    }
+
+    /** @return the number of overview tiles seeded from the backend so far */
+    public long getFromBackend() {
+        return fromBackend.get();
+    }
+
+    /** Registers a seed task, it has to {@link #leave} once done whatever the outcome */
+    void join() {
+        pending.incrementAndGet();
+        levels.register();
+    }
+
+    /** Called by each registered seed task when it starts running */
+    void started() {
+        pending.decrementAndGet();
+    }
+
+    /**
+     * Unregisters a seed task
+     *
+     * @param completed whether the task seeded its share of the deepest level, the overviews are
+     *     not built if one of the tasks stopped before
+     */
+    void leave(boolean completed) {
+        if (!completed) {
+            aborted = true;
+        }
+        levels.arriveAndDeregister();
+    }
+
+    /**
+     * Builds the overview levels together with the other seed tasks, once they are all done with
+     * the deepest level
+     *
+     * @param task the calling task, used to seed tiles from the backend and report progress
+     */
+    void build(SeedTask task) throws InterruptedException {
+        if (pending.get() > 0) {
+            // tasks queued behind this one could never start if it waited for them, leave the
+            // overviews to the others
+            return;
+        }
+        levels.awaitAdvanceInterruptibly(levels.arrive());
+        for (int z = tileRange.getZoomStop() - 1; z >= tileRange.getZoomStart(); z--) {
+            if (aborted || task.terminate) {
+                return;
+            }
+            long[] bounds = tileRange.rangeBounds(z);
+            long width = bounds[2] - bounds[0] + 1;
+            long count = width * (bounds[3] - bounds[1] + 1);
+            for (long i = nextTile[z].getAndIncrement();
+                    i < count && !aborted && !task.terminate;
+                    i = nextTile[z].getAndIncrement()) {
+                task.checkInterrupted();
+                task.awaitThrottle();
+                long[] index = {bounds[0] + i % width, bounds[1] + i / width, z};
+                if (gridSubset.covers(index)) {
+                    buildTile(task, index);
+                }
+                task.overviewTileDone();
+            }
+            levels.awaitAdvanceInterruptibly(levels.arrive());
+        }
+        if (task.getThreadOffset() == 0 && !aborted) {
+            log.info(
+                    "Built "
+                            + built.get()
+                            + " overview tiles of "
+                            + layer.getName()
+                            + " from child tiles, "
+                            + fromBackend.get()
+                            + " from the backend");
+        }
+    }
+
+    private TileObject query(long[] index) {
+        return TileObject.createQueryTileObject(
+                layer.getName(),
+                index,
+                tileRange.getGridSetId(),
+                format.getFormat(),
+                tileRange.getParameters());
+    }
+
+    private void buildTile(SeedTask task, long[] index) throws InterruptedException {
+        try {
+            if (!reseed && storageBroker.getMetadata(query(index))) {
+                return;
+            }
+            BufferedImage image = compose(index);
+            if (image == null) {
+                // some children are missing, have the backend render it
+                ConveyorTile tile =
+                        new ConveyorTile(
+                                storageBroker,
+                                layer.getName(),
+                                tileRange.getGridSetId(),
+                                index,
+                                format,
+                                tileRange.getParameters(),
+                                null,
+                                null);
+                tile.setBackgroundRequest(true);
+                task.seedTile(tile, false);
+                fromBackend.incrementAndGet();
+                return;
+            }
+            TileObject tile =
+                    TileObject.createCompleteTileObject(
+                            layer.getName(),
+                            index,
+                            tileRange.getGridSetId(),
+                            format.getFormat(),
+                            tileRange.getParameters(),
+                            encode(image));
+            storageBroker.put(tile);
+            built.incrementAndGet();
+        } catch (GeoWebCacheException | IOException | RuntimeException e) {
+            log.log(
+                    Level.WARNING,
+                    "Could not build overview tile " + Arrays.toString(index),
+                    e);
+        }
+    }
+
+    /**
+     * Composes a tile out of its four children
+     *
+     * @return the tile, or {@code null} if a child within the gridset coverage could not be read
+     */
+    BufferedImage compose(long[] index) throws GeoWebCacheException, IOException {
+        final int width = gridSubset.getTileWidth();
+        final int height = gridSubset.getTileHeight();
+        final int z = (int) index[2];
+        // children of the tile, the y index counts from the top row on top left aligned grids
+        final long base = gridSubset.getGridSet().isTopLeftAligned() ? numTilesHigh(z) : 0;
+        final long childBase =
+                gridSubset.getGridSet().isTopLeftAligned() ? numTilesHigh(z + 1) : 0;
+
+        boolean alpha = format.supportsAlphaChannel() || format.supportsAlphaBit();
+        BufferedImage parent =
+                new BufferedImage(
+                        width,
+                        height,
+                        alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = parent.createGraphics();
+        try {
+            if (!alpha) {
+                graphics.setColor(background());
+                graphics.fillRect(0, 0, width, height);
+            }
+            for (int dx = 0; dx < 2; dx++) {
+                for (int dy = 0; dy < 2; dy++) {
+                    long[] child = {
+                        2 * index[0] + dx, childBase + 2 * (index[1] - base) + dy, z + 1
+                    };
+                    if (!gridSubset.covers(child)) {
+                        continue;
+                    }
+                    BufferedImage image = read(child);
+                    if (image == null) {
+                        return null;
+                    }
+                    // the northern children, with the higher y, go on top
+                    int x0 = dx * width / 2;
+                    int y0 = (1 - dy) * height / 2;
+                    int x1 = (dx + 1) * width / 2;
+                    int y1 = (2 - dy) * height / 2;
+                    downsample(image, parent, graphics, x0, y0, x1, y1);
+                }
+            }
+        } finally {
+            graphics.dispose();
+        }
+        return parent;
+    }
+
+    private long numTilesHigh(int z) {
+        return gridSubset.getNumTilesHigh(z);
+    }
+
+    private Color background() {
+        FormatModifier modifier = layer.getFormatModifier(format);
+        if (modifier != null && modifier.getBgColor() != null) {
+            try {
+                return Color.decode(modifier.getBgColor());
+            } catch (NumberFormatException e) {
+                log.fine("Cannot parse background color " + modifier.getBgColor());
+            }
+        }
+        // the default WMS background
+        return Color.WHITE;
+    }
+
+    private BufferedImage read(long[] index) throws GeoWebCacheException, IOException {
+        TileObject tile = query(index);
+        if (!storageBroker.get(tile)) {
+            return null;
+        }
+        try (InputStream in = tile.getBlob().getInputStream()) {
+            return ImageIO.read(in);
+        }
+    }
+
+    /** Draws the child tile scaled down into the {@code x0,y0,x1,y1} region of its parent */
+    private void downsample(
+            BufferedImage child,
+            BufferedImage parent,
+            Graphics2D graphics,
+            int x0,
+            int y0,
+            int x1,
+            int y1) {
+        if (quality == Quality.AVERAGE) {
+            average(child, parent, x0, y0, x1, y1);
+            return;
+        }
+        graphics.setRenderingHint(
+                RenderingHints.KEY_INTERPOLATION,
+                quality == Quality.NEAREST
+                        ? RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR
+                        : RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(
+                child, x0, y0, x1, y1, 0, 0, child.getWidth(), child.getHeight(), null);
+    }
+
+    /** Averages blocks of child pixels, weighting colors by their opacity */
+    private static void average(
+            BufferedImage child, BufferedImage parent, int x0, int y0, int x1, int y1) {
+        final int cw = child.getWidth();
+        final int ch = child.getHeight();
+        final int w = x1 - x0;
+        final int h = y1 - y0;
+        int[] rgb = child.getRGB(0, 0, cw, ch, null, 0, cw);
+        for (int y = 0; y < h; y++) {
+            int sy0 = y * ch / h;
+            int sy1 = Math.max(sy0 + 1, (y + 1) * ch / h);
+            for (int x = 0; x < w; x++) {
+                int sx0 = x * cw / w;
+                int sx1 = Math.max(sx0 + 1, (x + 1) * cw / w);
+                long a = 0, r = 0, g = 0, b = 0;
+                for (int sy = sy0; sy < sy1; sy++) {
+                    for (int sx = sx0; sx < sx1; sx++) {
+                        int p = rgb[sy * cw + sx];
+                        int pa = p >>> 24;
+                        a += pa;
+                        r += ((p >> 16) & 0xff) * pa;
+                        g += ((p >> 8) & 0xff) * pa;
+                        b += (p & 0xff) * pa;
+                    }
+                }
+                int n = (sy1 - sy0) * (sx1 - sx0);
+                int pixel = 0;
+                if (a > 0) {
+                    pixel =
+                            (int) ((a + n / 2) / n) << 24
+                                    | (int) ((r + a / 2) / a) << 16
+                                    | (int) ((g + a / 2) / a) << 8
+                                    | (int) ((b + a / 2) / a);
+                }
+                parent.setRGB(x0 + x, y0 + y, pixel);
+            }
+        }
+    }
+
+    /** Encodes the tile as metatiles do, see {@code MetaTile#writeTileToStream} */
+    private Resource encode(RenderedImage image) throws IOException {
+        MetaTileEncoder encoder = format.createMetaTileEncoder(null);
+        ImageMime tileFormat = encoder.resolve(image);
+        ImageWriter writer = tileFormat.getImageWriter(image);
+        try {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            FormatModifier modifier = layer.getFormatModifier(format);
+            if (modifier != null) {
+                param = modifier.adjustImageWriteParam(param);
+            }
+            RenderedImage encoded = encoder.preprocess(tileFormat, image);
+            ByteArrayResource resource = new ByteArrayResource(16 * 1024);
+            try (OutputStream out = resource.getOutputStream();
+                    ImageOutputStream imageOut = new MemoryCacheImageOutputStream(out)) {
+                writer.setOutput(imageOut);
+                writer.write(null, new IIOImage(encoded, null, null), param);
+            }
+            return resource;
+        } finally {
+            ImageMime.releaseImageWriter(writer);
+        }
+    }
+}
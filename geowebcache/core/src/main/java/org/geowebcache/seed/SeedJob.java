@@ -0,0 +1,170 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.seed;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.geowebcache.storage.TileRangeIterator;
+
+/**
+ * A seed request persisted by {@link SeedJobStore} along with its progress, so that it survives a
+ * restart.
+ *
+ * <p>The progress is the last {@link TileRangeIterator#getCheckpoint() checkpoint} of the tile
+ * range iteration, everything up to it has been processed. Truncate jobs have no checkpoint, they
+ * are run again from the start.
+ */
+public class SeedJob {
+
+    public static enum STATE {
+        RUNNING,
+        PAUSED
+    };
+
+    private String id;
+
+    private String layerName;
+
+    private SeedRequest request;
+
+    private STATE state = STATE.RUNNING;
+
+    private long[] checkpoint;
+
+    private long created;
+
+    private transient TileRangeIterator iterator;
+
+    private transient GWCTask[] tasks;
+
+    private transient AtomicInteger tasksRunning;
+
+    private transient TileBreeder breeder;
+
+    private transient volatile boolean pausing;
+
+    private transient volatile boolean cancelled;
+
+    SeedJob() {
+        // for XStream
+    }
+
+    SeedJob(String id, String layerName, SeedRequest request) {
+        this.id = id;
+        this.layerName = layerName;
+        // persisted on its own, and with a plain parameters map whatever the caller used
+        this.request = new SeedRequest(request);
+        this.created = System.currentTimeMillis();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getLayerName() {
+        return layerName;
+    }
+
+    public SeedRequest getRequest() {
+        return request;
+    }
+
+    public STATE getState() {
+        return state;
+    }
+
+    void setState(STATE state) {
+        this.state = state;
+    }
+
+    /** @return the last persisted checkpoint, or {@code null} if the job starts from scratch */
+    public long[] getCheckpoint() {
+        return checkpoint == null ? null : checkpoint.clone();
+    }
+
+    /** @return when the job was first submitted, in milliseconds since the epoch */
+    public long getCreated() {
+        return created;
+    }
+
+    /** @return the tasks currently running the job, or {@code null} if it is not running */
+    public GWCTask[] getTasks() {
+        return tasks;
+    }
+
+    /** Binds the job to the tasks running it */
+    void started(TileBreeder breeder, TileRangeIterator iterator, GWCTask[] tasks) {
+        this.breeder = breeder;
+        this.iterator = iterator;
+        this.tasks = tasks;
+        this.tasksRunning = new AtomicInteger(tasks.length);
+        this.pausing = false;
+        this.cancelled = false;
+    }
+
+    /** Called by each task of the job once it is done, whatever the outcome */
+    void taskFinished() {
+        AtomicInteger running = this.tasksRunning;
+        if (running != null && running.decrementAndGet() == 0) {
+            breeder.jobFinished(this);
+        }
+    }
+
+    /** Releases the tasks once the job stopped running */
+    void stopped() {
+        this.iterator = null;
+        this.tasks = null;
+        this.tasksRunning = null;
+    }
+
+    /**
+     * Updates the checkpoint from the progress of the running tasks
+     *
+     * @return {@code true} if the checkpoint changed
+     */
+    boolean updateCheckpoint() {
+        TileRangeIterator iterator = this.iterator;
+        if (iterator == null) {
+            return false;
+        }
+        long[] current = iterator.getCheckpoint();
+        if (current == null || Arrays.equals(current, checkpoint)) {
+            return false;
+        }
+        checkpoint = current;
+        return true;
+    }
+
+    boolean isPausing() {
+        return pausing;
+    }
+
+    void setPausing(boolean pausing) {
+        this.pausing = pausing;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + id + ": " + layerName + ", " + request.getType() + ", " + state + "]";
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.seed;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.xml.DomDriver;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.grid.BoundingBox;
+import org.geowebcache.grid.SRS;
+import org.geowebcache.io.GeoWebCacheXStream;
+
+/** Persists {@link SeedJob}s as one XML file per job in a directory */
+public class SeedJobStore {
+
+    private static Logger log = Logging.getLogger(SeedJobStore.class.getName());
+
+    private static final String EXTENSION = ".xml";
+
+    private final Path directory;
+
+    private final XStream xs;
+
+    public SeedJobStore(File directory) {
+        this.directory = directory.toPath();
+        this.xs = new GeoWebCacheXStream(new DomDriver("UTF-8"));
+        xs.allowTypes(
+                new Class[] {
+                    SeedJob.class,
+                    SeedJob.STATE.class,
+                    SeedRequest.class,
+                    GWCTask.TYPE.class,
+                    BoundingBox.class,
+                    SRS.class,
+                    LinkedHashMap.class,
+                    TreeMap.class
+                });
+        xs.setMode(XStream.NO_REFERENCES);
+        xs.alias("seedJob", SeedJob.class);
+        xs.alias("seedRequest", SeedRequest.class);
+        xs.alias("srs", SRS.class);
+    }
+
+    /** @return the directory holding the job files */
+    public File getDirectory() {
+        return directory.toFile();
+    }
+
+    /** Writes the job file, replacing any previous version of it as a whole */
+    public synchronized void save(SeedJob job) throws IOException {
+        Files.createDirectories(directory);
+        Path file = file(job.getId());
+        Path tmp = directory.resolve(job.getId() + EXTENSION + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            out.write(xs.toXML(job).getBytes(StandardCharsets.UTF_8));
+        }
+        try {
+            Files.move(
+                    tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** Removes the job file, if any */
+    public synchronized void delete(String id) throws IOException {
+        Files.deleteIfExists(file(id));
+    }
+
+    /** @return the persisted jobs, skipping the files that cannot be read */
+    public synchronized List<SeedJob> load() {
+        List<SeedJob> jobs = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return jobs;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (!file.getFileName().toString().endsWith(EXTENSION)) {
+                    continue;
+                }
+                try (InputStream in = Files.newInputStream(file)) {
+                    jobs.add((SeedJob) xs.fromXML(in));
+                } catch (IOException | RuntimeException e) {
+                    log.log(Level.WARNING, "Could not read seed job " + file + ", skipping it", e);
+                }
+            }
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Could not list the seed jobs in " + directory, e);
+        }
+        return jobs;
+    }
+
+    private Path file(String id) {
+        return directory.resolve(id + EXTENSION);
+    }
+}
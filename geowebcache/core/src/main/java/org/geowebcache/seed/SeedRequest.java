@@ -15,6 +15,7 @@
  */
 package org.geowebcache.seed;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.logging.Logger;
 import org.geotools.util.logging.Logging;
@@ -57,10 +58,39 @@ public class SeedRequest {
 
     private long totalFailuresBeforeAborting = TileBreeder.TOTAL_FAILURES_BEFORE_ABORTING_DEFAULT;
 
+    private Integer priority = null;
+
+    private String overviews = null;
+
     public SeedRequest() {
         // do nothing, i guess
     }
 
+    /**
+     * Copies a SeedRequest, the copy gets its own parameters map
+     *
+     * @param other the request to copy
+     */
+    SeedRequest(SeedRequest other) {
+        this.name = other.name;
+        this.bounds = other.bounds;
+        this.gridSetId = other.gridSetId;
+        this.srs = other.srs;
+        this.threadCount = other.threadCount;
+        this.zoomStart = other.zoomStart;
+        this.zoomStop = other.zoomStop;
+        this.format = other.format;
+        this.type = other.type;
+        this.enumType = other.enumType;
+        this.parameters = other.parameters == null ? null : new LinkedHashMap<>(other.parameters);
+        this.filterUpdate = other.filterUpdate;
+        this.tileFailureRetryCount = other.tileFailureRetryCount;
+        this.tileFailureRetryWaitTime = other.tileFailureRetryWaitTime;
+        this.totalFailuresBeforeAborting = other.totalFailuresBeforeAborting;
+        this.priority = other.priority;
+        this.overviews = other.overviews;
+    }
+
     /**
      * Create a new SeedRequest
      *
@@ -209,6 +239,10 @@ public Map<String, String> getParameters() {
         return parameters;
     }
 
+    void setParameters(Map<String, String> parameters) {
+        this.parameters = parameters;
+    }
+
     /**
      * Number of retries to build a tile before giving up on it. -1 disables also the wait and total
      * failures counters.
@@ -241,4 +275,33 @@ public long getTotalFailuresBeforeAborting() {
     public void setTotalFailuresBeforeAborting(long totalFailuresBeforeAborting) {
         this.totalFailuresBeforeAborting = totalFailuresBeforeAborting;
     }
+
+    /**
+     * Priority of the tasks, pending tasks with a higher priority are started first. Tasks with a
+     * negative priority are paused rather than slowed down under heavy interactive load.
+     *
+     * @return the priority, or {@code null} for the default {@code 0}
+     */
+    public Integer getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Integer priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * How the coarser levels of a seed request are built from the deepest one, one of {@code
+     * nearest}, {@code bilinear} or {@code average}, instead of being rendered by the backend. See
+     * {@link OverviewPyramid}.
+     *
+     * @return the overview quality, or {@code null} to seed all the levels from the backend
+     */
+    public String getOverviews() {
+        return overviews;
+    }
+
+    public void setOverviews(String overviews) {
+        this.overviews = overviews;
+    }
 }
@@ -16,10 +16,12 @@
 package org.geowebcache.seed;
 
 import com.google.common.annotations.VisibleForTesting;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -28,7 +30,6 @@
 import org.geowebcache.conveyor.ConveyorTile;
 import org.geowebcache.filter.request.RequestFilter;
 import org.geowebcache.layer.TileLayer;
-import org.geowebcache.layer.wms.WMSLayer;
 import org.geowebcache.storage.StorageBroker;
 import org.geowebcache.storage.TileRange;
 import org.geowebcache.storage.TileRangeIterator;
@@ -56,6 +57,17 @@ class SeedTask extends GWCTask {
 
     private AtomicLong sharedFailureCounter;
 
+    /** Bounds the seedTile calls running at the same time on the layer, may be null */
+    private Semaphore backendPermits;
+
+    /** Builds the coarser levels from the deepest one, may be null */
+    private OverviewPyramid overviews;
+
+    /** Whether this task seeded its share of the deepest level of the overview pyramid */
+    private boolean overviewBaseDone;
+
+    private long startTime;
+
     @VisibleForTesting Sleeper sleeper = Thread::sleep;
 
     /** Constructs a SeedTask */
@@ -89,6 +101,9 @@ public SeedTask(
     // TODO: refactoring this into smaller functions might improve readability
     @Override
     protected void doActionInternal() throws GeoWebCacheException, InterruptedException {
+        if (overviews != null) {
+            overviews.started();
+        }
         super.state = GWCTask.STATE.RUNNING;
 
         // Lower the priority of the thread
@@ -98,6 +113,7 @@ protected void doActionInternal() throws GeoWebCacheException, InterruptedExcept
 
         // approximate thread creation time
         final long START_TIME = System.currentTimeMillis();
+        startTime = START_TIME;
 
         final String layerName = tl.getName();
         log.info(getThreadName() + " begins seeding layer : " + layerName);
@@ -106,7 +122,7 @@ protected void doActionInternal() throws GeoWebCacheException, InterruptedExcept
 
         checkInterrupted();
         // TODO move to TileRange object, or distinguish between thread and task
-        super.tilesTotal = tileCount(tr);
+        super.tilesTotal = tileCount(overviews == null ? tr : overviews.getTileRange());
 
         final int metaTilingFactorX = tl.getMetaTilingFactors()[0];
         final int metaTilingFactorY = tl.getMetaTilingFactors()[1];
@@ -119,6 +135,7 @@ protected void doActionInternal() throws GeoWebCacheException, InterruptedExcept
         long seedCalls = 0;
         while (gridLoc != null && this.terminate == false) {
 
+            awaitThrottle();
             checkInterrupted();
             Map<String, String> fullParameters = tr.getParameters();
 
@@ -132,14 +149,19 @@ protected void doActionInternal() throws GeoWebCacheException, InterruptedExcept
                             fullParameters,
                             null,
                             null);
+            tile.setBackgroundRequest(true);
 
             for (int fetchAttempt = 0;
                     fetchAttempt <= tileFailureRetryCount || tileFailureRetryCount < 0;
                     fetchAttempt++) {
                 try {
                     checkInterrupted();
-                    tl.seedTile(tile, tryCache);
+                    seedTile(tile, tryCache);
                     break; // success, let it go
+                } catch (InterruptedException e) {
+                    // terminated while waiting, e.g. for a backend permit
+                    super.state = GWCTask.STATE.DEAD;
+                    throw e;
                 } catch (Exception e) {
                     // if GWC_SEED_RETRY_COUNT was not set then none of the settings have effect, in
                     // order to keep backwards compatibility with the old behaviour
@@ -198,12 +220,18 @@ protected void doActionInternal() throws GeoWebCacheException, InterruptedExcept
                     seedCalls * metaTilingFactorX * metaTilingFactorY;
 
             updateStatusInfo(tl, tilesCompletedByThisThread, START_TIME);
+            trIter.completed(gridLoc);
 
             checkInterrupted();
             seedCalls++;
             gridLoc = trIter.nextMetaGridLocation(gridLoc);
         }
 
+        if (overviews != null && !this.terminate) {
+            overviewBaseDone = true;
+            overviews.build(this);
+        }
+
         if (this.terminate) {
             log.info(
                     "Job on "
@@ -312,6 +340,47 @@ private void runFilterUpdates(String gridSetId) {
         }
     }
 
+    void seedTile(ConveyorTile tile, boolean tryCache)
+            throws GeoWebCacheException, IOException, InterruptedException {
+        if (backendPermits == null) {
+            tl.seedTile(tile, tryCache);
+            return;
+        }
+        backendPermits.acquire();
+        try {
+            tl.seedTile(tile, tryCache);
+        } finally {
+            backendPermits.release();
+        }
+    }
+
+    /**
+     * Shares a concurrency limit with the other seed tasks of the same layer, so that the number of
+     * concurrent backend requests no longer depends on the number of seeding threads
+     */
+    public void setBackendPermits(Semaphore backendPermits) {
+        this.backendPermits = backendPermits;
+    }
+
+    /**
+     * Has the task seed only the deepest level of its range from the backend, and then build the
+     * coarser levels with the other tasks sharing the pyramid
+     */
+    public void setOverviewPyramid(OverviewPyramid overviews) {
+        this.overviews = overviews;
+        overviews.join();
+    }
+
+    /** Called by the overview pyramid for each overview tile processed by this task */
+    void overviewTileDone() {
+        updateStatusInfo(tl, tilesDone + 1, startTime);
+    }
+
+    /** @return number of tile failures so far, shared by all the tasks of the same request */
+    public long getSharedFailureCount() {
+        return sharedFailureCounter.get();
+    }
+
     public void setFailurePolicy(
             int tileFailureRetryCount,
             long tileFailureRetryWaitTime,
@@ -325,8 +394,8 @@ public void setFailurePolicy(
 
     @Override
     protected void dispose() {
-        if (tl instanceof WMSLayer) {
-            ((WMSLayer) tl).cleanUpThreadLocals();
+        if (overviews != null) {
+            overviews.leave(overviewBaseDone);
         }
     }
 }
@@ -0,0 +1,323 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.seed;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.time.Clock;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.layer.wms.BackendLimiter;
+import org.geowebcache.seed.GWCTask.THROTTLE;
+import org.geowebcache.util.Sleeper;
+
+/**
+ * Decides whether seed and truncate tasks can go on, given the interactive load and the time of
+ * day.
+ *
+ * <p>Tasks are paused outside of the configured time windows. Within them, tasks are slowed down
+ * while interactive traffic is heavy: too many requests per second, a high 95th percentile response
+ * time, or interactive requests queuing for a backend in {@link BackendLimiter}. Tasks with a
+ * negative priority are paused instead of slowed down.
+ *
+ * <p>The interactive load is recorded by the dispatcher through {@link #requestCompleted(long)}
+ * and shared by all the throttles, the state is recomputed at most once per {@link
+ * #EVALUATION_INTERVAL} milliseconds so that checking it for every metatile is cheap.
+ */
+public class SeedThrottle {
+
+    private static Logger log = Logging.getLogger(SeedThrottle.class.getName());
+
+    /** Milliseconds between two evaluations of the load */
+    static final long EVALUATION_INTERVAL = 1000;
+
+    /** Milliseconds a paused task waits before checking the state again */
+    static final long PAUSE_POLL_INTERVAL = 1000;
+
+    private static final RequestLoad INTERACTIVE_LOAD = new RequestLoad();
+
+    private final RequestLoad load;
+
+    private final IntSupplier backendWaiting;
+
+    @VisibleForTesting Clock clock = Clock.systemDefaultZone();
+
+    @VisibleForTesting Sleeper sleeper = Thread::sleep;
+
+    private volatile List<LocalTime[]> windows = new ArrayList<>();
+
+    private volatile double maxRequestRate;
+
+    private volatile long maxLatency;
+
+    private volatile int maxBackendWaiting;
+
+    private volatile long delay = 1000;
+
+    // guarded by this
+    private long lastEvaluation = Long.MIN_VALUE;
+
+    private long lastRequestCount;
+
+    private volatile THROTTLE state = THROTTLE.NONE;
+
+    private volatile double requestRate;
+
+    private volatile long latencyP95;
+
+    public SeedThrottle() {
+        this(INTERACTIVE_LOAD, BackendLimiter::getInteractiveWaiting);
+    }
+
+    SeedThrottle(RequestLoad load, IntSupplier backendWaiting) {
+        this.load = load;
+        this.backendWaiting = backendWaiting;
+    }
+
+    /**
+     * Records the completion of an interactive request
+     *
+     * @param latencyNanos time spent handling the request
+     */
+    public static void requestCompleted(long latencyNanos) {
+        INTERACTIVE_LOAD.record(System.currentTimeMillis(), latencyNanos);
+    }
+
+    /**
+     * Waits until the task is allowed to do the next bit of work: as long as seeding is paused, or
+     * the configured delay if it is slowed down. Returns right away if the task is terminated.
+     */
+    public void await(GWCTask task) throws InterruptedException {
+        THROTTLE current = getState(task);
+        while (current == THROTTLE.PAUSED && !task.terminate) {
+            task.throttle = current;
+            sleeper.sleep(PAUSE_POLL_INTERVAL);
+            current = getState(task);
+        }
+        task.throttle = current;
+        if (current == THROTTLE.SLOWED && !task.terminate) {
+            sleeper.sleep(delay);
+        }
+    }
+
+    /** @return the state applying to the task, given its priority */
+    THROTTLE getState(GWCTask task) {
+        THROTTLE current = getState();
+        if (current == THROTTLE.SLOWED && task.getPriority() < 0) {
+            return THROTTLE.PAUSED;
+        }
+        return current;
+    }
+
+    /** @return the current state for tasks with the default priority */
+    public THROTTLE getState() {
+        long now = clock.millis();
+        synchronized (this) {
+            if (lastEvaluation == Long.MIN_VALUE
+                    || now - lastEvaluation >= EVALUATION_INTERVAL
+                    || now < lastEvaluation) {
+                evaluate(now);
+            }
+        }
+        return state;
+    }
+
+    private void evaluate(long now) {
+        long count = load.getCount();
+        if (lastEvaluation != Long.MIN_VALUE && now > lastEvaluation) {
+            requestRate = (count - lastRequestCount) * 1000d / (now - lastEvaluation);
+        }
+        lastRequestCount = count;
+        lastEvaluation = now;
+        latencyP95 = TimeUnit.NANOSECONDS.toMillis(load.getLatencyPercentile(now, 0.95));
+
+        THROTTLE newState;
+        String reason = null;
+        if (!isInWindow(LocalTime.now(clock))) {
+            newState = THROTTLE.PAUSED;
+            reason = "outside of the seeding windows";
+        } else if (maxRequestRate > 0 && requestRate > maxRequestRate) {
+            newState = THROTTLE.SLOWED;
+            reason = String.format("%.1f interactive requests per second", requestRate);
+        } else if (maxLatency > 0 && latencyP95 > maxLatency) {
+            newState = THROTTLE.SLOWED;
+            reason = "95th percentile response time of " + latencyP95 + "ms";
+        } else if (maxBackendWaiting > 0 && backendWaiting.getAsInt() >= maxBackendWaiting) {
+            newState = THROTTLE.SLOWED;
+            reason = "interactive requests waiting for the backend";
+        } else {
+            newState = THROTTLE.NONE;
+        }
+        if (newState != state) {
+            if (reason == null) {
+                log.info("Seeding resumes at full speed");
+            } else {
+                log.info("Seeding is " + newState.name().toLowerCase() + ", " + reason);
+            }
+            state = newState;
+        }
+    }
+
+    private boolean isInWindow(LocalTime time) {
+        List<LocalTime[]> windows = this.windows;
+        if (windows.isEmpty()) {
+            return true;
+        }
+        for (LocalTime[] window : windows) {
+            LocalTime start = window[0];
+            LocalTime end = window[1];
+            boolean inside =
+                    start.isBefore(end)
+                            ? !time.isBefore(start) && time.isBefore(end)
+                            // spans midnight
+                            : !time.isBefore(start) || time.isBefore(end);
+            if (inside) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets the time windows during which tasks run, outside of them tasks are paused
+     *
+     * @param windows comma separated list of {@code HH:mm-HH:mm} time ranges, windows ending before
+     *     they start span midnight. {@code null} or empty to let tasks run at any time.
+     * @throws IllegalArgumentException if the windows cannot be parsed
+     */
+    public void setWindows(String windows) {
+        List<LocalTime[]> parsed = new ArrayList<>();
+        if (windows != null && !windows.isBlank()) {
+            for (String window : windows.split(",")) {
+                String[] bounds = window.trim().split("-");
+                if (bounds.length != 2) {
+                    throw new IllegalArgumentException(
+                            "Invalid seeding window '" + window + "', expected HH:mm-HH:mm");
+                }
+                try {
+                    parsed.add(
+                            new LocalTime[] {
+                                LocalTime.parse(bounds[0].trim()), LocalTime.parse(bounds[1].trim())
+                            });
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException(
+                            "Invalid seeding window '" + window + "', expected HH:mm-HH:mm", e);
+                }
+            }
+        }
+        this.windows = parsed;
+        reevaluate();
+    }
+
+    /**
+     * @param maxRequestRate interactive requests per second over which tasks slow down, 0 to
+     *     ignore
+     */
+    public void setMaxRequestRate(double maxRequestRate) {
+        this.maxRequestRate = maxRequestRate;
+        reevaluate();
+    }
+
+    /**
+     * @param maxLatency 95th percentile of the interactive response time, in milliseconds, over
+     *     which tasks slow down, 0 to ignore
+     */
+    public void setMaxLatency(long maxLatency) {
+        this.maxLatency = maxLatency;
+        reevaluate();
+    }
+
+    /**
+     * @param maxBackendWaiting number of interactive requests waiting for a backend at which tasks
+     *     slow down, 0 to ignore
+     */
+    public void setMaxBackendWaiting(int maxBackendWaiting) {
+        this.maxBackendWaiting = maxBackendWaiting;
+        reevaluate();
+    }
+
+    /** @param delay milliseconds a slowed down task waits before each metatile */
+    public void setDelay(long delay) {
+        this.delay = delay;
+    }
+
+    private synchronized void reevaluate() {
+        // keep the request count of the last evaluation, to get a rate right away
+        if (lastEvaluation != Long.MIN_VALUE) {
+            lastEvaluation -= EVALUATION_INTERVAL;
+        }
+    }
+
+    /** @return interactive requests per second, as of the last evaluation */
+    public double getRequestRate() {
+        return requestRate;
+    }
+
+    /** @return 95th percentile of the recent interactive response times, in milliseconds */
+    public long getLatencyP95() {
+        return latencyP95;
+    }
+
+    /** Statistics about the recent interactive requests */
+    static class RequestLoad {
+
+        /** Latency samples older than this many milliseconds are ignored */
+        static final long LATENCY_WINDOW = 10_000;
+
+        private static final int SAMPLES = 1024;
+
+        private final LongAdder count = new LongAdder();
+
+        private final AtomicLongArray times = new AtomicLongArray(SAMPLES);
+
+        private final AtomicLongArray latencies = new AtomicLongArray(SAMPLES);
+
+        void record(long time, long latencyNanos) {
+            count.increment();
+            // the index is only approximately unique under contention, good enough for statistics
+            int i = (int) (count.sum() & (SAMPLES - 1));
+            latencies.set(i, latencyNanos);
+            times.set(i, time);
+        }
+
+        long getCount() {
+            return count.sum();
+        }
+
+        /** @return the percentile of the latencies recorded in the last {@link #LATENCY_WINDOW} */
+        long getLatencyPercentile(long now, double percentile) {
+            long[] recent = new long[SAMPLES];
+            int n = 0;
+            for (int i = 0; i < SAMPLES; i++) {
+                long time = times.get(i);
+                if (time != 0 && now - time <= LATENCY_WINDOW) {
+                    recent[n++] = latencies.get(i);
+                }
+            }
+            if (n == 0) {
+                return 0;
+            }
+            Arrays.sort(recent, 0, n);
+            return recent[Math.max(0, (int) Math.ceil(percentile * n) - 1)];
+        }
+    }
+}
@@ -14,23 +14,148 @@
  */
 package org.geowebcache.seed;
 
-import java.util.concurrent.LinkedBlockingQueue;
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RunnableFuture;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.geotools.util.logging.Logging;
+import org.geowebcache.GeoWebCacheExtensions;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
+/**
+ * Thread pool running the seed tasks dispatched by {@link TileBreeder}.
+ *
+ * <p>When the {@code GWC_SEED_VIRTUAL_THREADS} property is {@code true} and the JVM supports them
+ * (Java 21 or later), seed tasks run on virtual threads instead. Seed tasks spend most of their
+ * life waiting on the backend, so with virtual threads the pool is sized to {@link
+ * #VIRTUAL_POOL_SIZE} and the concurrency is meant to be bounded per layer with {@code
+ * GWC_SEED_LAYER_CONCURRENCY} rather than by the number of threads.
+ *
+ * <p>Pending tasks are started by decreasing {@link GWCTask#getPriority() priority}, and in
+ * submission order for the same priority.
+ */
 public class SeederThreadPoolExecutor extends ThreadPoolExecutor implements DisposableBean {
 
     private static final Logger log = Logging.getLogger(SeederThreadPoolExecutor.class.getName());
 
+    public static final String GWC_SEED_VIRTUAL_THREADS = "GWC_SEED_VIRTUAL_THREADS";
+
+    /** Pool size used with virtual threads, idle ones are not kept around */
+    static final int VIRTUAL_POOL_SIZE = 4096;
+
     private static final ThreadFactory tf = new CustomizableThreadFactory("GWC Seeder Thread-");
 
+    private final boolean virtual;
+
+    private final AtomicLong sequence = new AtomicLong();
+
     public SeederThreadPoolExecutor(int corePoolSize, int maxPoolSize) {
-        super(corePoolSize, maxPoolSize, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), tf);
+        this(
+                corePoolSize,
+                maxPoolSize,
+                Boolean.parseBoolean(
+                        GeoWebCacheExtensions.getProperty(GWC_SEED_VIRTUAL_THREADS)));
+    }
+
+    public SeederThreadPoolExecutor(int corePoolSize, int maxPoolSize, boolean virtualThreads) {
+        super(
+                corePoolSize,
+                maxPoolSize,
+                60,
+                TimeUnit.SECONDS,
+                new PriorityBlockingQueue<>(11, SeederThreadPoolExecutor::compare),
+                tf);
+        ThreadFactory virtualFactory = virtualThreads ? virtualThreadFactory() : null;
+        this.virtual = virtualFactory != null;
+        if (virtual) {
+            setThreadFactory(virtualFactory);
+            setMaximumPoolSize(Math.max(maxPoolSize, VIRTUAL_POOL_SIZE));
+            setCorePoolSize(Math.max(maxPoolSize, VIRTUAL_POOL_SIZE));
+            allowCoreThreadTimeOut(true);
+            log.info("Seeding will run on virtual threads");
+        } else if (virtualThreads) {
+            log.warning(
+                    GWC_SEED_VIRTUAL_THREADS
+                            + " is set but this JVM does not support virtual threads,"
+                            + " seeding will run on platform threads");
+        }
+    }
+
+    /** @return {@code true} if seed tasks run on virtual threads */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Looks up {@code Thread.ofVirtual().name("GWC Seeder Virtual Thread-", 0).factory()}
+     * reflectively, as the code base still targets Java 11
+     *
+     * @return the factory, or {@code null} if virtual threads are not available
+     */
+    static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Method name = builderClass.getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, "GWC Seeder Virtual Thread-", 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.log(Level.FINE, "Virtual threads are not available", e);
+            return null;
+        }
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        int priority = 0;
+        if (callable instanceof MTSeeder) {
+            priority = ((MTSeeder) callable).task.getPriority();
+        }
+        return new PrioritizedTask<>(callable, priority, sequence.getAndIncrement());
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new PrioritizedTask<>(
+                Executors.callable(runnable, value), 0, sequence.getAndIncrement());
+    }
+
+    private static int compare(Runnable r1, Runnable r2) {
+        int p1 = 0, p2 = 0;
+        long s1 = Long.MAX_VALUE, s2 = Long.MAX_VALUE;
+        if (r1 instanceof PrioritizedTask) {
+            p1 = ((PrioritizedTask<?>) r1).priority;
+            s1 = ((PrioritizedTask<?>) r1).sequence;
+        }
+        if (r2 instanceof PrioritizedTask) {
+            p2 = ((PrioritizedTask<?>) r2).priority;
+            s2 = ((PrioritizedTask<?>) r2).sequence;
+        }
+        int c = Integer.compare(p2, p1);
+        return c != 0 ? c : Long.compare(s1, s2);
+    }
+
+    /** A task queued with its priority and submission order */
+    private static class PrioritizedTask<T> extends FutureTask<T> {
+
+        final int priority;
+
+        final long sequence;
+
+        PrioritizedTask(Callable<T> callable, int priority, long sequence) {
+            super(callable);
+            this.priority = priority;
+            this.sequence = sequence;
+        }
     }
 
     /**
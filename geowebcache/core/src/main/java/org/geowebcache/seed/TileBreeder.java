@@ -16,9 +16,12 @@
  */
 package org.geowebcache.seed;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -26,8 +29,15 @@
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -51,8 +61,12 @@
 import org.geowebcache.util.GWCVars;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanInitializationException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 /**
  * Class in charge of dispatching seed/truncate tasks.
@@ -73,6 +87,25 @@
  *       10} and you launch a seed task with four threads, when {@code 10} failures are reached by
  *       all or any of those four threads the four threads will abort the seeding task. The default
  *       is {@code 1000}.
+ *   <li>{@code GWC_SEED_LAYER_CONCURRENCY}: specifies how many tiles can be requested to the
+ *       backend at the same time for a single layer, across all the seed tasks running on it. Use
+ *       it together with a large number of seeding threads, or with virtual threads (see {@link
+ *       SeederThreadPoolExecutor}), to let the backend capacity rather than the thread count drive
+ *       the seeding concurrency. Defaults to {@code 0}, meaning no limit.
+ *   <li>{@code GWC_SEED_WINDOWS}: comma separated list of {@code HH:mm-HH:mm} time ranges, seed
+ *       and truncate tasks are paused outside of them. Defaults to none, meaning any time.
+ *   <li>{@code GWC_SEED_THROTTLE_RATE}, {@code GWC_SEED_THROTTLE_LATENCY} and {@code
+ *       GWC_SEED_THROTTLE_QUEUE}: seed tasks slow down while the interactive requests per second,
+ *       their 95th percentile response time in milliseconds, or the number of interactive requests
+ *       waiting for a backend respectively reach the given value. Default to {@code 0}, meaning
+ *       ignored. See {@link SeedThrottle}.
+ *   <li>{@code GWC_SEED_THROTTLE_DELAY}: how long a slowed down seed task waits before each
+ *       metatile, in milliseconds. Defaults to {@code 1000}.
+ *   <li>{@code GWC_SEED_JOBS_DIR}: directory where the requests received by {@link
+ *       #seed(String, SeedRequest)} are persisted as {@link SeedJob}s, along with their progress,
+ *       so that they resume after a restart. Defaults to none, meaning jobs are not persisted.
+ *   <li>{@code GWC_SEED_CHECKPOINT_INTERVAL}: how often the progress of persisted jobs is saved,
+ *       in seconds. Defaults to {@code 60}.
  * </ul>
  *
  * These environment variables can be established by any of the following ways, in order of
@@ -97,13 +130,32 @@
  *
  * @author Gabriel Roldan, based on Marius Suta's and Arne Kepp's SeedRestlet
  */
-public class TileBreeder implements ApplicationContextAware {
+public class TileBreeder
+        implements ApplicationContextAware,
+                ApplicationListener<ContextRefreshedEvent>,
+                DisposableBean {
     private static final String GWC_SEED_ABORT_LIMIT = "GWC_SEED_ABORT_LIMIT";
 
     private static final String GWC_SEED_RETRY_WAIT = "GWC_SEED_RETRY_WAIT";
 
     private static final String GWC_SEED_RETRY_COUNT = "GWC_SEED_RETRY_COUNT";
 
+    private static final String GWC_SEED_LAYER_CONCURRENCY = "GWC_SEED_LAYER_CONCURRENCY";
+
+    private static final String GWC_SEED_WINDOWS = "GWC_SEED_WINDOWS";
+
+    private static final String GWC_SEED_THROTTLE_RATE = "GWC_SEED_THROTTLE_RATE";
+
+    private static final String GWC_SEED_THROTTLE_LATENCY = "GWC_SEED_THROTTLE_LATENCY";
+
+    private static final String GWC_SEED_THROTTLE_QUEUE = "GWC_SEED_THROTTLE_QUEUE";
+
+    private static final String GWC_SEED_THROTTLE_DELAY = "GWC_SEED_THROTTLE_DELAY";
+
+    private static final String GWC_SEED_JOBS_DIR = "GWC_SEED_JOBS_DIR";
+
+    private static final String GWC_SEED_CHECKPOINT_INTERVAL = "GWC_SEED_CHECKPOINT_INTERVAL";
+
     private static Logger log = Logging.getLogger(TileBreeder.class.getName());
 
     private ThreadPoolExecutor threadPool;
@@ -127,6 +179,26 @@ public class TileBreeder implements ApplicationContextAware {
      */
     public static long TOTAL_FAILURES_BEFORE_ABORTING_DEFAULT = 1000;
 
+    /**
+     * How many tiles can be seeded at the same time on a single layer, across all its seed tasks.
+     * 0 means no limit other than the number of seeding threads.
+     */
+    public static int LAYER_CONCURRENCY_DEFAULT = 0;
+
+    private final Map<String, Semaphore> layerPermits = new ConcurrentHashMap<>();
+
+    private final SeedThrottle throttle = new SeedThrottle();
+
+    private SeedJobStore jobStore;
+
+    private final Map<String, SeedJob> jobs = new ConcurrentHashMap<>();
+
+    private long checkpointInterval = 60;
+
+    private ScheduledExecutorService checkpointer;
+
+    private final AtomicBoolean jobsResumed = new AtomicBoolean();
+
     private Map<Long, SubmittedTask> currentPool = new TreeMap<>();
 
     private AtomicLong currentId = new AtomicLong();
@@ -161,13 +233,66 @@ public void setApplicationContext(ApplicationContext applicationContext) throws
         String retryCount = GWCVars.findEnvVar(applicationContext, GWC_SEED_RETRY_COUNT);
         String retryWait = GWCVars.findEnvVar(applicationContext, GWC_SEED_RETRY_WAIT);
         String abortLimit = GWCVars.findEnvVar(applicationContext, GWC_SEED_ABORT_LIMIT);
+        String layerConcurrency =
+                GWCVars.findEnvVar(applicationContext, GWC_SEED_LAYER_CONCURRENCY);
 
         TILE_FAILURE_RETRY_COUNT_DEFAULT = (int) toLong(GWC_SEED_RETRY_COUNT, retryCount, -1);
         TILE_FAILURE_RETRY_WAIT_TIME_DEFAULT = toLong(GWC_SEED_RETRY_WAIT, retryWait, 100);
         TOTAL_FAILURES_BEFORE_ABORTING_DEFAULT = toLong(GWC_SEED_ABORT_LIMIT, abortLimit, 1000);
+        LAYER_CONCURRENCY_DEFAULT =
+                (int) toLong(GWC_SEED_LAYER_CONCURRENCY, layerConcurrency, 0);
 
         checkPositive(TILE_FAILURE_RETRY_WAIT_TIME_DEFAULT, GWC_SEED_RETRY_WAIT);
         checkPositive(TOTAL_FAILURES_BEFORE_ABORTING_DEFAULT, GWC_SEED_ABORT_LIMIT);
+        checkPositive(LAYER_CONCURRENCY_DEFAULT, GWC_SEED_LAYER_CONCURRENCY);
+
+        String windows = GWCVars.findEnvVar(applicationContext, GWC_SEED_WINDOWS);
+        try {
+            throttle.setWindows(windows);
+        } catch (IllegalArgumentException e) {
+            throw new BeanInitializationException(
+                    "Invalid configuration value for environment variable "
+                            + GWC_SEED_WINDOWS
+                            + ". "
+                            + e.getMessage(),
+                    e);
+        }
+        long rate = throttleSetting(applicationContext, GWC_SEED_THROTTLE_RATE, 0);
+        long latency = throttleSetting(applicationContext, GWC_SEED_THROTTLE_LATENCY, 0);
+        long queue = throttleSetting(applicationContext, GWC_SEED_THROTTLE_QUEUE, 0);
+        long delay = throttleSetting(applicationContext, GWC_SEED_THROTTLE_DELAY, 1000);
+        throttle.setMaxRequestRate(rate);
+        throttle.setMaxLatency(latency);
+        throttle.setMaxBackendWaiting((int) queue);
+        throttle.setDelay(delay);
+
+        String jobsDir = GWCVars.findEnvVar(applicationContext, GWC_SEED_JOBS_DIR);
+        if (jobsDir != null && !jobsDir.isBlank()) {
+            setJobStore(new SeedJobStore(new File(jobsDir)));
+        }
+        checkpointInterval =
+                throttleSetting(applicationContext, GWC_SEED_CHECKPOINT_INTERVAL, 60);
+    }
+
+    /** Resumes the persisted jobs once the layers are available */
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        resumePersistedJobs();
+    }
+
+    /** Saves the progress of the running jobs, they resume from there after a restart */
+    @Override
+    public void destroy() {
+        if (checkpointer != null) {
+            checkpointer.shutdownNow();
+        }
+        saveCheckpoints();
+    }
+
+    private long throttleSetting(ApplicationContext context, String variable, long defaultVal) {
+        long value = toLong(variable, GWCVars.findEnvVar(context, variable), defaultVal);
+        checkPositive(value, variable);
+        return value;
     }
 
     @SuppressWarnings("serial")
@@ -205,10 +330,47 @@ public void seed(final String layerName, final SeedRequest sr) throws GeoWebCach
 
         TileLayer tl = findTileLayer(layerName);
 
+        if (jobStore != null) {
+            SeedJob job = new SeedJob(UUID.randomUUID().toString(), tl.getName(), sr);
+            try {
+                jobStore.save(job);
+            } catch (IOException e) {
+                throw new GeoWebCacheException(
+                        "Could not persist the seed job in " + jobStore.getDirectory(), e);
+            }
+            jobs.put(job.getId(), job);
+            try {
+                startJob(job, tl);
+            } catch (GeoWebCacheException | RuntimeException e) {
+                jobs.remove(job.getId());
+                try {
+                    jobStore.delete(job.getId());
+                } catch (IOException ioe) {
+                    e.addSuppressed(ioe);
+                }
+                throw e;
+            }
+            return;
+        }
+
         TileRange tr = createTileRange(sr, tl);
 
         GWCTask[] tasks =
-                createTasks(tr, tl, sr.getType(), sr.getThreadCount(), sr.getFilterUpdate());
+                createTasks(
+                        tr,
+                        tl,
+                        sr.getType(),
+                        sr.getThreadCount(),
+                        sr.getFilterUpdate(),
+                        TILE_FAILURE_RETRY_COUNT_DEFAULT,
+                        TILE_FAILURE_RETRY_WAIT_TIME_DEFAULT,
+                        TOTAL_FAILURES_BEFORE_ABORTING_DEFAULT,
+                        OverviewPyramid.Quality.parse(sr.getOverviews()));
+        if (sr.getPriority() != null) {
+            for (GWCTask task : tasks) {
+                task.setPriority(sr.getPriority());
+            }
+        }
 
         dispatchTasks(tasks);
     }
@@ -271,14 +433,81 @@ public GWCTask[] createTasks(
             long tileFailureRetryWaitTime,
             long totalFailuresBeforeAborting)
             throws GeoWebCacheException {
+        return createTasks(
+                tr,
+                tl,
+                type,
+                threadCount,
+                filterUpdate,
+                tileFailureRetryCount,
+                tileFailureRetryWaitTime,
+                totalFailuresBeforeAborting,
+                null);
+    }
+
+    /**
+     * Create tasks to manipulate the cache (Seed, truncate, etc), optionally building the coarser
+     * levels of seed tasks from the deepest one. They will still need to be dispatched.
+     *
+     * @param overviews how the coarser levels are downsampled from the deepest one, or {@code
+     *     null} to seed all the levels from the backend
+     * @see #createTasks(TileRange, TileLayer, TYPE, int, boolean, int, long, long)
+     * @see OverviewPyramid
+     */
+    public GWCTask[] createTasks(
+            TileRange tr,
+            TileLayer tl,
+            GWCTask.TYPE type,
+            int threadCount,
+            boolean filterUpdate,
+            int tileFailureRetryCount,
+            long tileFailureRetryWaitTime,
+            long totalFailuresBeforeAborting,
+            OverviewPyramid.Quality overviews)
+            throws GeoWebCacheException {
+
+        OverviewPyramid pyramid = createOverviewPyramid(tr, tl, type, overviews);
+        TileRangeIterator trIter =
+                new TileRangeIterator(
+                        pyramid == null ? tr : pyramid.getBackendRange(),
+                        tl.getMetaTilingFactors());
+        return createTasks(
+                trIter,
+                tl,
+                type,
+                threadCount,
+                filterUpdate,
+                tileFailureRetryCount,
+                tileFailureRetryWaitTime,
+                totalFailuresBeforeAborting,
+                pyramid);
+    }
+
+    /** @return the overview pyramid of a seed task, or {@code null} if not building overviews */
+    private OverviewPyramid createOverviewPyramid(
+            TileRange tr, TileLayer tl, GWCTask.TYPE type, OverviewPyramid.Quality overviews) {
+        if (type == TYPE.TRUNCATE) {
+            return null;
+        }
+        return OverviewPyramid.create(tr, tl, overviews, storageBroker, type == TYPE.RESEED);
+    }
+
+    private GWCTask[] createTasks(
+            TileRangeIterator trIter,
+            TileLayer tl,
+            GWCTask.TYPE type,
+            int threadCount,
+            boolean filterUpdate,
+            int tileFailureRetryCount,
+            long tileFailureRetryWaitTime,
+            long totalFailuresBeforeAborting,
+            OverviewPyramid pyramid) {
 
         if (threadCount < 1) {
             log.finer("Forcing thread count to 1");
             threadCount = 1;
         }
 
-        TileRangeIterator trIter = new TileRangeIterator(tr, tl.getMetaTilingFactors());
-
         GWCTask[] tasks = new GWCTask[threadCount];
 
         AtomicLong failureCounter = new AtomicLong();
@@ -293,14 +522,282 @@ public GWCTask[] createTasks(
                         tileFailureRetryWaitTime,
                         totalFailuresBeforeAborting,
                         failureCounter);
+                task.setBackendPermits(getLayerPermits(tl.getName()));
+                if (pyramid != null) {
+                    task.setOverviewPyramid(pyramid);
+                }
                 tasks[i] = task;
             }
             tasks[i].setThreadInfo(sharedThreadCount, i);
+            tasks[i].setSeedThrottle(throttle);
         }
 
         return tasks;
     }
 
+    /**
+     * @return the permits shared by the seed tasks of the layer, or {@code null} if {@link
+     *     #LAYER_CONCURRENCY_DEFAULT} does not set a limit
+     */
+    Semaphore getLayerPermits(String layerName) {
+        final int permits = LAYER_CONCURRENCY_DEFAULT;
+        if (permits <= 0) {
+            return null;
+        }
+        return layerPermits.computeIfAbsent(layerName, n -> new Semaphore(permits, true));
+    }
+
+    /** @return the throttle holding seed and truncate tasks back under heavy interactive load */
+    public SeedThrottle getSeedThrottle() {
+        return throttle;
+    }
+
+    /** Starts or restarts the tasks of a job, from its last checkpoint */
+    private void startJob(SeedJob job, TileLayer tl) throws GeoWebCacheException {
+        SeedRequest sr = job.getRequest();
+        TileRange tr = createTileRange(sr, tl);
+        OverviewPyramid pyramid =
+                createOverviewPyramid(
+                        tr, tl, sr.getType(), OverviewPyramid.Quality.parse(sr.getOverviews()));
+        TileRangeIterator trIter =
+                new TileRangeIterator(
+                        pyramid == null ? tr : pyramid.getBackendRange(),
+                        tl.getMetaTilingFactors());
+        trIter.trackProgress();
+        trIter.resumeAfter(job.getCheckpoint());
+        GWCTask[] tasks =
+                createTasks(
+                        trIter,
+                        tl,
+                        sr.getType(),
+                        sr.getThreadCount() == null ? 1 : sr.getThreadCount(),
+                        sr.getFilterUpdate(),
+                        TILE_FAILURE_RETRY_COUNT_DEFAULT,
+                        TILE_FAILURE_RETRY_WAIT_TIME_DEFAULT,
+                        TOTAL_FAILURES_BEFORE_ABORTING_DEFAULT,
+                        pyramid);
+        for (GWCTask task : tasks) {
+            if (sr.getPriority() != null) {
+                task.setPriority(sr.getPriority());
+            }
+            task.setJob(job);
+        }
+        job.started(this, trIter, tasks);
+        job.setState(SeedJob.STATE.RUNNING);
+        dispatchTasks(tasks);
+    }
+
+    /** Called once all the tasks of a job are done, whatever the outcome */
+    void jobFinished(SeedJob job) {
+        synchronized (job) {
+            GWCTask[] tasks = job.getTasks();
+            boolean terminated = tasks != null && Arrays.stream(tasks).anyMatch(t -> t.terminate);
+            // a task that gave up after too many failures or threw is left in another state
+            boolean aborted =
+                    tasks != null
+                            && Arrays.stream(tasks)
+                                    .anyMatch(t -> t.getState() != GWCTask.STATE.DONE);
+            long tileFailures =
+                    tasks != null && tasks.length > 0 && tasks[0] instanceof SeedTask
+                            ? ((SeedTask) tasks[0]).getSharedFailureCount()
+                            : 0;
+            job.updateCheckpoint();
+            job.stopped();
+            try {
+                if (job.isPausing()) {
+                    job.setPausing(false);
+                    job.setState(SeedJob.STATE.PAUSED);
+                    jobStore.save(job);
+                    log.info("Paused seed job " + job);
+                } else if (threadPool.isShutdown() && !job.isCancelled()) {
+                    // shutting down, keep the job to resume it on restart
+                    jobStore.save(job);
+                } else {
+                    jobs.remove(job.getId());
+                    jobStore.delete(job.getId());
+                    if (job.isCancelled()) {
+                        log.info("Cancelled seed job " + job);
+                    } else if (terminated) {
+                        log.info("Stopped seed job " + job);
+                    } else if (aborted) {
+                        log.warning(
+                                "Aborted seed job "
+                                        + job
+                                        + " with "
+                                        + tileFailures
+                                        + " tile failures, see the task errors");
+                    } else if (tileFailures > 0) {
+                        log.warning(
+                                "Completed seed job "
+                                        + job
+                                        + " with "
+                                        + tileFailures
+                                        + " tile failures");
+                    } else {
+                        log.info("Completed seed job " + job);
+                    }
+                }
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Could not update the persisted seed job " + job, e);
+            }
+        }
+    }
+
+    /** Loads the persisted jobs and starts the ones that are not paused, only the first time */
+    void resumePersistedJobs() {
+        if (jobStore == null || !jobsResumed.compareAndSet(false, true)) {
+            return;
+        }
+        List<SeedJob> stored = jobStore.load();
+        stored.sort(Comparator.comparingLong(SeedJob::getCreated));
+        for (SeedJob job : stored) {
+            jobs.put(job.getId(), job);
+            if (job.getState() == SeedJob.STATE.PAUSED) {
+                continue;
+            }
+            try {
+                log.info("Resuming seed job " + job);
+                startJob(job, findTileLayer(job.getLayerName()));
+            } catch (GeoWebCacheException | RuntimeException e) {
+                log.log(
+                        Level.WARNING,
+                        "Could not resume seed job "
+                                + job
+                                + ", it is kept until resumed or cancelled",
+                        e);
+                job.setState(SeedJob.STATE.PAUSED);
+            }
+        }
+    }
+
+    /** Saves the progress of the running jobs that moved forward since the last time */
+    void saveCheckpoints() {
+        if (jobStore == null) {
+            return;
+        }
+        for (SeedJob job : jobs.values()) {
+            synchronized (job) {
+                if (job.getTasks() != null && job.updateCheckpoint()) {
+                    try {
+                        jobStore.save(job);
+                    } catch (IOException e) {
+                        log.log(Level.WARNING, "Could not save the progress of " + job, e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets where seed requests are persisted, enabling seed jobs
+     *
+     * @param jobStore the store, or {@code null} to stop persisting new seed requests
+     */
+    public synchronized void setJobStore(SeedJobStore jobStore) {
+        this.jobStore = jobStore;
+        if (jobStore != null && checkpointer == null) {
+            CustomizableThreadFactory tf = new CustomizableThreadFactory("GWC Seed Checkpointer-");
+            tf.setDaemon(true);
+            checkpointer = Executors.newSingleThreadScheduledExecutor(tf);
+            checkpointer.scheduleWithFixedDelay(
+                    this::saveCheckpoints,
+                    checkpointInterval,
+                    checkpointInterval,
+                    TimeUnit.SECONDS);
+        }
+    }
+
+    /** @return the persisted seed jobs, running or paused */
+    public Collection<SeedJob> getJobs() {
+        List<SeedJob> list = new ArrayList<>(jobs.values());
+        list.sort(Comparator.comparingLong(SeedJob::getCreated));
+        return list;
+    }
+
+    /** @return the persisted job, or {@code null} if there is no such job */
+    public SeedJob getJob(String id) {
+        return jobs.get(id);
+    }
+
+    /**
+     * Stops the tasks of a running job once they are done with their current metatile, keeping its
+     * progress to resume it later
+     *
+     * @return {@code false} if the job does not exist or is not running
+     */
+    public boolean pauseJob(String id) {
+        SeedJob job = jobs.get(id);
+        if (job == null) {
+            return false;
+        }
+        synchronized (job) {
+            GWCTask[] tasks = job.getTasks();
+            if (tasks == null || job.isCancelled()) {
+                return false;
+            }
+            job.setPausing(true);
+            for (GWCTask task : tasks) {
+                terminateGWCTask(task.getTaskId());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Starts again a paused job from its last checkpoint
+     *
+     * @return {@code false} if the job does not exist or is not paused
+     */
+    public boolean resumeJob(String id) throws GeoWebCacheException {
+        SeedJob job = jobs.get(id);
+        if (job == null) {
+            return false;
+        }
+        synchronized (job) {
+            if (job.getTasks() != null || job.getState() != SeedJob.STATE.PAUSED) {
+                return false;
+            }
+            startJob(job, findTileLayer(job.getLayerName()));
+            try {
+                jobStore.save(job);
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Could not update the persisted seed job " + job, e);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops the tasks of a job, if running, and forgets about it
+     *
+     * @return {@code false} if the job does not exist
+     */
+    public boolean cancelJob(String id) {
+        SeedJob job = jobs.get(id);
+        if (job == null) {
+            return false;
+        }
+        synchronized (job) {
+            job.setCancelled(true);
+            GWCTask[] tasks = job.getTasks();
+            if (tasks != null) {
+                // jobFinished() removes it once the tasks are done
+                for (GWCTask task : tasks) {
+                    terminateGWCTask(task.getTaskId());
+                }
+                return true;
+            }
+            jobs.remove(id);
+            try {
+                jobStore.delete(id);
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Could not delete the persisted seed job " + job, e);
+            }
+        }
+        log.info("Cancelled seed job " + job);
+        return true;
+    }
+
     /** Dispatches tasks */
     public void dispatchTasks(GWCTask[] tasks) {
         lock.writeLock().lock();
@@ -418,7 +915,7 @@ private GWCTask createTruncateTask(
      *
      * @return array of {@code [[tilesDone, tilesTotal, timeRemaining, taskID, taskStatus],...]}
      *     where {@code taskStatus} is one of: {@code 0 = PENDING, 1 = RUNNING, 2 = DONE, -1 =
-     *     ABORTED}
+     *     ABORTED}, see {@link GWCTask#getThrottle()} for the throttle state of each task
      */
     public long[][] getStatusList() {
         return getStatusList(null);
@@ -430,7 +927,7 @@ public long[][] getStatusList() {
      *
      * @return array of {@code [[tilesDone, tilesTotal, timeRemaining, taskID, taskStatus],...]}
      *     where {@code taskStatus} is one of: {@code 0 = PENDING, 1 = RUNNING, 2 = DONE, -1 =
-     *     ABORTED}
+     *     ABORTED}, see {@link GWCTask#getThrottle()} for the throttle state of each task
      * @param layerName the name of the layer. null for all layers.
      */
     public long[][] getStatusList(final String layerName) {
@@ -49,7 +49,12 @@ public TruncateTask(StorageBroker sb, TileRange tr, TileLayer tl, boolean doFilt
     @Override
     protected void doActionInternal() throws GeoWebCacheException, InterruptedException {
         super.state = GWCTask.STATE.RUNNING;
+        awaitThrottle();
         checkInterrupted();
+        if (terminate) {
+            super.state = GWCTask.STATE.DEAD;
+            return;
+        }
         try {
             storageBroker.delete(tr);
         } catch (Exception e) {
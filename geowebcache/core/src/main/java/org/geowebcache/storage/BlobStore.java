@@ -95,6 +95,19 @@ public boolean deleteByParametersId(final String layerName, String parametersId)
      */
     public boolean get(TileObject obj) throws StorageException;
 
+    /**
+     * Looks up a tile filling only its metadata, its creation time and blob size, without
+     * retrieving the contents. The blob may or may not be set.
+     *
+     * <p>Used to answer conditional requests, stores should override it if they can check a tile
+     * with a cheaper call than the one reading it, such as a file system stat or an HTTP HEAD.
+     *
+     * @return {@literal true} if the tile exists, {@literal false} otherwise
+     */
+    public default boolean getMetadata(TileObject obj) throws StorageException {
+        return get(obj);
+    }
+
     /** Store blob. Calls getBlob() on passed object, does not modify the object. */
     public void put(TileObject obj) throws StorageException;
 
@@ -36,6 +36,7 @@
 import org.geowebcache.config.ConfigurationException;
 import org.geowebcache.config.FileBlobStoreInfo;
 import org.geowebcache.config.ServerConfiguration;
+import org.geowebcache.io.Resource;
 import org.geowebcache.layer.TileLayer;
 import org.geowebcache.layer.TileLayerDispatcher;
 import org.geowebcache.locks.LockProvider;
@@ -80,6 +81,12 @@ public class CompositeBlobStore implements BlobStore, BlobStoreConfigurationList
 
     private final BlobStoreListenerList listeners = new BlobStoreListenerList();
 
+    /** Answers the cache misses without a store round trip, {@code null} if disabled */
+    private final TileExistenceFilter existenceFilter = TileExistenceFilter.fromProperties();
+
+    /** Stores compressible tiles compressed, and recognizes them on read */
+    private final TileCompression compression = TileCompression.fromProperties();
+
     @VisibleForTesting
     static final class LiveStore {
         BlobStoreInfo config;
@@ -159,12 +166,26 @@ public CompositeBlobStore(
 
     @Override
     public boolean delete(String layerName) throws StorageException {
-        return readFunctionUnsafe(() -> store(layerName).delete(layerName));
+        return readFunctionUnsafe(
+                () -> {
+                    boolean deleted = store(layerName).delete(layerName);
+                    if (existenceFilter != null) {
+                        existenceFilter.layerDeleted(layerName);
+                    }
+                    return deleted;
+                });
     }
 
     @Override
     public boolean deleteByGridsetId(String layerName, String gridSetId) throws StorageException {
-        return readFunctionUnsafe(() -> store(layerName).deleteByGridsetId(layerName, gridSetId));
+        return readFunctionUnsafe(
+                () -> {
+                    boolean deleted = store(layerName).deleteByGridsetId(layerName, gridSetId);
+                    if (existenceFilter != null) {
+                        existenceFilter.gridSetDeleted(layerName, gridSetId);
+                    }
+                    return deleted;
+                });
     }
 
     @Override
@@ -179,12 +200,46 @@ public boolean delete(TileRange obj) throws StorageException {
 
     @Override
     public boolean get(TileObject obj) throws StorageException {
-        return readFunctionUnsafe(() -> store(obj.getLayerName()).get(obj));
+        boolean found;
+        if (existenceFilter != null) {
+            found = readFunctionUnsafe(() -> existenceFilter.get(store(obj.getLayerName()), obj));
+        } else {
+            found = readFunctionUnsafe(() -> store(obj.getLayerName()).get(obj));
+        }
+        if (found) {
+            compression.decode(obj);
+        }
+        return found;
+    }
+
+    @Override
+    public boolean getMetadata(TileObject obj) throws StorageException {
+        if (existenceFilter != null) {
+            return readFunctionUnsafe(
+                    () -> existenceFilter.getMetadata(store(obj.getLayerName()), obj));
+        }
+        return readFunctionUnsafe(() -> store(obj.getLayerName()).getMetadata(obj));
     }
 
     @Override
     public void put(TileObject obj) throws StorageException {
-        readActionUnsafe(() -> store(obj.getLayerName()).put(obj));
+        // the caller keeps its own contents
+        final Resource blob = obj.getBlob();
+        compression.encode(obj);
+        try {
+            if (existenceFilter != null) {
+                readActionUnsafe(() -> existenceFilter.put(store(obj.getLayerName()), obj));
+                return;
+            }
+            readActionUnsafe(() -> store(obj.getLayerName()).put(obj));
+        } finally {
+            obj.setBlob(blob);
+        }
+    }
+
+    /** @return the filter answering cache misses, or {@code null} if it's not enabled */
+    public @Nullable TileExistenceFilter getExistenceFilter() {
+        return existenceFilter;
     }
 
     @Deprecated
@@ -195,6 +250,10 @@ public void clear() throws StorageException {
 
     @Override
     public synchronized void destroy() {
+        if (existenceFilter != null) {
+            log.info(existenceFilter.toString());
+            existenceFilter.clear();
+        }
         destroy(blobStores);
     }
 
@@ -247,15 +306,21 @@ public boolean removeListener(BlobStoreListener listener) {
     public boolean rename(String oldLayerName, String newLayerName) throws StorageException {
         return readFunctionUnsafe(
                 () -> {
-                    for (LiveStore bs : blobStores.values()) {
-                        BlobStoreInfo config = bs.config;
-                        if (config.isEnabled()) {
-                            if (bs.liveInstance.rename(oldLayerName, newLayerName)) {
-                                return true;
+                    try {
+                        for (LiveStore bs : blobStores.values()) {
+                            BlobStoreInfo config = bs.config;
+                            if (config.isEnabled()) {
+                                if (bs.liveInstance.rename(oldLayerName, newLayerName)) {
+                                    return true;
+                                }
                             }
                         }
+                        return false;
+                    } finally {
+                        if (existenceFilter != null) {
+                            existenceFilter.layerRenamed(oldLayerName, newLayerName);
+                        }
                     }
-                    return false;
                 });
     }
 
@@ -338,6 +403,9 @@ public void setBlobStores(Iterable<? extends BlobStoreInfo> configs)
             Map<String, LiveStore> newStores = loadBlobStores(configs);
             Map<String, LiveStore> oldStores = this.blobStores;
             this.blobStores = newStores;
+            if (existenceFilter != null) {
+                existenceFilter.clear();
+            }
             for (LiveStore ls : oldStores.values()) {
                 if (ls.liveInstance != null) {
                     ls.liveInstance.destroy();
@@ -559,6 +627,10 @@ public void handleModifyBlobStore(BlobStoreInfo modifiedBlobStore)
             blobStores.put(modifiedBlobStore.getName(), removedStore);
             throw e;
         }
+        if (existenceFilter != null) {
+            // the misses may not hold for the new store settings
+            existenceFilter.clear();
+        }
     }
 
     @Override
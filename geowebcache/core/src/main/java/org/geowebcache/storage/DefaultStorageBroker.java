@@ -90,6 +90,11 @@ public boolean get(TileObject tileObj) throws StorageException {
         return blobStore.get(tileObj);
     }
 
+    @Override
+    public boolean getMetadata(TileObject tileObj) throws StorageException {
+        return blobStore.getMetadata(tileObj);
+    }
+
     @Override
     public boolean put(TileObject tileObj) throws StorageException {
         blobStore.put(tileObj);
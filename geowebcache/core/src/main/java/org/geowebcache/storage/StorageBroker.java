@@ -54,6 +54,15 @@ boolean deleteByParameters(String layerName, Map<String, String> parameters)
      */
     boolean get(TileObject tileObj) throws StorageException;
 
+    /**
+     * Looks up a tile filling only its metadata, without retrieving its contents
+     *
+     * @see BlobStore#getMetadata(TileObject)
+     */
+    default boolean getMetadata(TileObject tileObj) throws StorageException {
+        return get(tileObj);
+    }
+
     /** Puts the given TileObject into storage */
     boolean put(TileObject tileObj) throws StorageException;
 
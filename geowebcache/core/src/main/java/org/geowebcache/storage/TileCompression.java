@@ -0,0 +1,125 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.GeoWebCacheExtensions;
+import org.geowebcache.io.EncodedResource;
+import org.geowebcache.io.Resource;
+import org.geowebcache.mime.MimeException;
+import org.geowebcache.mime.MimeType;
+
+/**
+ * Stores the tiles of {@link MimeType#isCompressible() compressible} formats, such as vector tiles,
+ * compressed, used by {@link CompositeBlobStore} so that it applies to every blob store.
+ *
+ * <p>Compression on put is enabled by setting {@link #COMPRESSION} to {@code gzip}. Compressed
+ * tiles are recognized on get regardless, and handed out as {@link EncodedResource}s so that they
+ * can be sent to clients without being decompressed and compressed again.
+ */
+public class TileCompression {
+
+    private static Logger log = Logging.getLogger(TileCompression.class.getName());
+
+    /** The content coding tiles are stored with, {@code gzip} or {@code none} (the default) */
+    public static final String COMPRESSION = "GWC_BLOBSTORE_COMPRESSION";
+
+    private final boolean compressOnPut;
+
+    private final Map<String, Boolean> compressibleFormats = new ConcurrentHashMap<>();
+
+    /** @param compressOnPut whether to compress the tiles of compressible formats on put */
+    public TileCompression(boolean compressOnPut) {
+        this.compressOnPut = compressOnPut;
+    }
+
+    /** Creates an instance configured after the {@link #COMPRESSION} property */
+    public static TileCompression fromProperties() {
+        String compression = GeoWebCacheExtensions.getProperty(COMPRESSION);
+        boolean gzip = false;
+        if (compression != null && !"none".equalsIgnoreCase(compression.trim())) {
+            gzip = EncodedResource.GZIP.equalsIgnoreCase(compression.trim());
+            if (!gzip) {
+                log.warning(
+                        "Unsupported "
+                                + COMPRESSION
+                                + " value '"
+                                + compression
+                                + "', only gzip is supported. Tiles will be stored uncompressed.");
+            }
+        }
+        return new TileCompression(gzip);
+    }
+
+    public boolean isCompressOnPut() {
+        return compressOnPut;
+    }
+
+    private boolean isCompressible(TileObject obj) {
+        String format = obj.getBlobFormat();
+        if (format == null) {
+            return false;
+        }
+        return compressibleFormats.computeIfAbsent(
+                format,
+                f -> {
+                    try {
+                        return MimeType.createFromFormat(f).isCompressible();
+                    } catch (MimeException e) {
+                        return false;
+                    }
+                });
+    }
+
+    /**
+     * Replaces the tile contents by the ones to store: compressed if enabled and not already so.
+     * Contents read compressed are stored as is.
+     */
+    public void encode(TileObject obj) throws StorageException {
+        Resource blob = obj.getBlob();
+        if (blob instanceof EncodedResource) {
+            obj.setBlob(((EncodedResource) blob).getEncoded());
+        } else if (compressOnPut && blob != null && isCompressible(obj)) {
+            try {
+                if (EncodedResource.ifGzipped(blob) == null) {
+                    obj.setBlob(EncodedResource.gzip(blob).getEncoded());
+                }
+            } catch (IOException e) {
+                throw new StorageException("Failed to compress tile " + obj, e);
+            }
+        }
+    }
+
+    /** Wraps the contents of a tile read from a store if they are compressed */
+    public void decode(TileObject obj) throws StorageException {
+        Resource blob = obj.getBlob();
+        if (blob == null || blob instanceof EncodedResource || !isCompressible(obj)) {
+            return;
+        }
+        try {
+            EncodedResource encoded = EncodedResource.ifGzipped(blob);
+            if (encoded != null) {
+                // the decoded size is only worked out if a caller asks for it
+                obj.wrapBlob(encoded);
+            }
+        } catch (IOException e) {
+            throw new StorageException("Failed to read tile " + obj, e);
+        }
+    }
+}
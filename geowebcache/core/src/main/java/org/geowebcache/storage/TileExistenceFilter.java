@@ -0,0 +1,438 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.GeoWebCacheExtensions;
+import org.geowebcache.filter.parameters.ParametersUtils;
+
+/**
+ * Makes cache misses cheap by answering them without a round trip to the {@link BlobStore}, used
+ * by {@link CompositeBlobStore}.
+ *
+ * <p>Two mechanisms are available, each enabled independently:
+ *
+ * <ul>
+ *   <li>A negative cache remembering the tiles the store reported as missing for a short time,
+ *       forgotten as soon as the tile is stored. Enabled by setting {@link #NEGATIVE_CACHE_TTL} to
+ *       a number of seconds.
+ *   <li>A scalable Bloom filter per layer and gridset, fed by the tile puts. A tile the filter has
+ *       never seen is a definite miss. The filter can only be trusted if it saw every tile of the
+ *       layer, so it is only used for layers that had no tiles in the store when first accessed,
+ *       or after the whole layer was deleted. Enabled by setting {@link #EXISTENCE_FILTER} to
+ *       {@code true}.
+ * </ul>
+ *
+ * Both assume the tiles are only written through this instance: tiles written by other cluster
+ * members or external tools are hidden by the negative cache until it expires, and by the Bloom
+ * filter until a restart, so the Bloom filter is only suitable for single node setups.
+ */
+public class TileExistenceFilter {
+
+    private static Logger log = Logging.getLogger(TileExistenceFilter.class.getName());
+
+    /** Enables the Bloom filter, {@code false} by default */
+    public static final String EXISTENCE_FILTER = "GWC_BLOBSTORE_EXISTENCE_FILTER";
+
+    /** Number of tiles the first Bloom filter of a layer and gridset is sized for */
+    public static final String EXISTENCE_FILTER_SIZE = "GWC_BLOBSTORE_EXISTENCE_FILTER_SIZE";
+
+    /** Time to live of the negative cache entries, in seconds, 0 (disabled) by default */
+    public static final String NEGATIVE_CACHE_TTL = "GWC_BLOBSTORE_NEGATIVE_CACHE_TTL";
+
+    /** Maximum number of tiles in the negative cache */
+    public static final String NEGATIVE_CACHE_SIZE = "GWC_BLOBSTORE_NEGATIVE_CACHE_SIZE";
+
+    static final int DEFAULT_EXISTENCE_FILTER_SIZE = 10_000;
+
+    static final int DEFAULT_NEGATIVE_CACHE_SIZE = 100_000;
+
+    /** False positive probability of the first Bloom filter, halved for each following one */
+    static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    private final boolean bloomEnabled;
+
+    private final int initialFilterSize;
+
+    private final Cache<String, Boolean> negativeCache;
+
+    /** layer name -> gridset id -> filter */
+    private final Map<String, Map<String, TileSetFilter>> filters = new ConcurrentHashMap<>();
+
+    /** Incremented on each put so that a lookup racing with it does not cache a stale miss */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong lookups = new AtomicLong();
+
+    private final AtomicLong negativeCacheHits = new AtomicLong();
+
+    private final AtomicLong definiteMisses = new AtomicLong();
+
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    private final AtomicLong storeMisses = new AtomicLong();
+
+    /**
+     * @param bloomEnabled whether to use the Bloom filters
+     * @param initialFilterSize number of tiles the first Bloom filter of a layer and gridset is
+     *     sized for
+     * @param negativeCacheTtl time to live of the negative cache entries in milliseconds, 0 or less
+     *     to disable the negative cache
+     * @param negativeCacheSize maximum number of entries in the negative cache
+     */
+    public TileExistenceFilter(
+            boolean bloomEnabled,
+            int initialFilterSize,
+            long negativeCacheTtl,
+            int negativeCacheSize) {
+        if (initialFilterSize <= 0) {
+            throw new IllegalArgumentException(
+                    "Filter size must be positive: " + initialFilterSize);
+        }
+        this.bloomEnabled = bloomEnabled;
+        this.initialFilterSize = initialFilterSize;
+        if (negativeCacheTtl > 0) {
+            this.negativeCache =
+                    CacheBuilder.newBuilder()
+                            .expireAfterWrite(negativeCacheTtl, TimeUnit.MILLISECONDS)
+                            .maximumSize(negativeCacheSize)
+                            .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+                            .build();
+        } else {
+            this.negativeCache = null;
+        }
+    }
+
+    /**
+     * Creates the filter from the {@link GeoWebCacheExtensions#getProperty(String) properties}
+     *
+     * @return the filter, or {@code null} if neither the Bloom filter nor the negative cache are
+     *     enabled
+     */
+    public static TileExistenceFilter fromProperties() {
+        boolean bloom = Boolean.parseBoolean(GeoWebCacheExtensions.getProperty(EXISTENCE_FILTER));
+        long ttl = getLongProperty(NEGATIVE_CACHE_TTL, 0);
+        if (!bloom && ttl <= 0) {
+            return null;
+        }
+        int size = (int) getLongProperty(EXISTENCE_FILTER_SIZE, DEFAULT_EXISTENCE_FILTER_SIZE);
+        int cacheSize = (int) getLongProperty(NEGATIVE_CACHE_SIZE, DEFAULT_NEGATIVE_CACHE_SIZE);
+        log.info(
+                "Tile existence filter enabled, Bloom filter: "
+                        + bloom
+                        + ", negative cache TTL: "
+                        + ttl
+                        + "s");
+        return new TileExistenceFilter(
+                bloom, size, TimeUnit.SECONDS.toMillis(Math.max(ttl, 0)), cacheSize);
+    }
+
+    private static long getLongProperty(String name, long defaultValue) {
+        String value = GeoWebCacheExtensions.getProperty(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            log.warning("Invalid value for " + name + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Looks up the tile in the store, unless it is known to be missing
+     *
+     * @see BlobStore#get(TileObject)
+     */
+    public boolean get(BlobStore store, TileObject obj) throws StorageException {
+        return lookup(store, obj, false);
+    }
+
+    /**
+     * Looks up the tile metadata in the store, unless it is known to be missing
+     *
+     * @see BlobStore#getMetadata(TileObject)
+     */
+    public boolean getMetadata(BlobStore store, TileObject obj) throws StorageException {
+        return lookup(store, obj, true);
+    }
+
+    private boolean lookup(BlobStore store, TileObject obj, boolean metadataOnly)
+            throws StorageException {
+        lookups.incrementAndGet();
+        String key = key(obj);
+        if (negativeCache != null && negativeCache.getIfPresent(key) != null) {
+            negativeCacheHits.incrementAndGet();
+            return false;
+        }
+        TileSetFilter filter = bloomEnabled ? filter(store, obj) : null;
+        boolean authoritative = filter != null && filter.bloom != null;
+        if (authoritative && !filter.bloom.mightContain(key)) {
+            definiteMisses.incrementAndGet();
+            return false;
+        }
+        long gen = generation.get();
+        boolean found = metadataOnly ? store.getMetadata(obj) : store.get(obj);
+        if (!found) {
+            storeMisses.incrementAndGet();
+            if (authoritative) {
+                falsePositives.incrementAndGet();
+            }
+            if (negativeCache != null && generation.get() == gen) {
+                negativeCache.put(key, Boolean.TRUE);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Stores the tile and records it exists
+     *
+     * @see BlobStore#put(TileObject)
+     */
+    public void put(BlobStore store, TileObject obj) throws StorageException {
+        store.put(obj);
+        String key = key(obj);
+        generation.incrementAndGet();
+        if (negativeCache != null) {
+            negativeCache.invalidate(key);
+        }
+        if (bloomEnabled) {
+            TileSetFilter filter = filter(store, obj);
+            if (filter.bloom != null) {
+                filter.bloom.put(key);
+            }
+        }
+    }
+
+    /** Forgets about the layer, called once all its tiles have been deleted */
+    public void layerDeleted(String layerName) {
+        // the next access finds the layer empty and starts an authoritative filter
+        filters.remove(layerName);
+    }
+
+    /** Forgets about the layer's gridset, called once all its tiles have been deleted */
+    public void gridSetDeleted(String layerName, String gridSetId) {
+        Map<String, TileSetFilter> gridSets = filters.get(layerName);
+        if (gridSets != null) {
+            // the layer still has tiles so this is not enough to trust a new filter, but a put
+            // racing with the delete cannot get lost either
+            gridSets.remove(gridSetId);
+        }
+    }
+
+    /** Forgets about both layers, and about all the misses in case some were for the new name */
+    public void layerRenamed(String oldLayerName, String newLayerName) {
+        filters.remove(oldLayerName);
+        filters.remove(newLayerName);
+        if (negativeCache != null) {
+            negativeCache.invalidateAll();
+        }
+    }
+
+    /** Forgets everything, called when the blob store configuration changes */
+    public void clear() {
+        filters.clear();
+        if (negativeCache != null) {
+            negativeCache.invalidateAll();
+        }
+    }
+
+    private TileSetFilter filter(BlobStore store, TileObject obj) {
+        Map<String, TileSetFilter> gridSets =
+                filters.computeIfAbsent(obj.getLayerName(), l -> new ConcurrentHashMap<>());
+        TileSetFilter filter = gridSets.get(obj.getGridSetId());
+        if (filter == null || filter.store != store) {
+            // new, or the layer moved to another store
+            TileSetFilter created = newFilter(store, obj.getLayerName());
+            filter =
+                    gridSets.compute(
+                            obj.getGridSetId(),
+                            (id, current) ->
+                                    current != null && current.store == store ? current : created);
+        }
+        return filter;
+    }
+
+    private TileSetFilter newFilter(BlobStore store, String layerName) {
+        if (store.layerExists(layerName)) {
+            // tiles we have not seen, can only remember the misses
+            return new TileSetFilter(store, null);
+        }
+        log.fine("Layer " + layerName + " is empty, tracking the existence of its tiles");
+        return new TileSetFilter(store, new ScalableBloomFilter(initialFilterSize));
+    }
+
+    static String key(TileObject obj) {
+        String parametersId = obj.getParametersId();
+        if (parametersId == null) {
+            parametersId = ParametersUtils.getId(obj.getParameters());
+        }
+        long[] xyz = obj.getXYZ();
+        return obj.getLayerName()
+                + '/'
+                + obj.getGridSetId()
+                + '/'
+                + obj.getBlobFormat()
+                + '/'
+                + parametersId
+                + '/'
+                + xyz[2]
+                + '/'
+                + xyz[0]
+                + '/'
+                + xyz[1];
+    }
+
+    /** @return the number of tile lookups */
+    public long getLookups() {
+        return lookups.get();
+    }
+
+    /** @return the number of lookups answered by the negative cache */
+    public long getNegativeCacheHits() {
+        return negativeCacheHits.get();
+    }
+
+    /** @return the number of lookups answered by the Bloom filters */
+    public long getDefiniteMisses() {
+        return definiteMisses.get();
+    }
+
+    /** @return the number of lookups the Bloom filters let through that missed in the store */
+    public long getFalsePositives() {
+        return falsePositives.get();
+    }
+
+    /** @return the number of lookups that missed in the store */
+    public long getStoreMisses() {
+        return storeMisses.get();
+    }
+
+    /** @return the number of store round trips saved */
+    public long getSavedLookups() {
+        return negativeCacheHits.get() + definiteMisses.get();
+    }
+
+    /** @return the fraction of the misses the Bloom filters failed to answer, 0 if none */
+    public double getFalsePositiveRate() {
+        long fp = falsePositives.get();
+        long total = fp + definiteMisses.get();
+        return total == 0 ? 0 : (double) fp / total;
+    }
+
+    @Override
+    public String toString() {
+        return "TileExistenceFilter[lookups: "
+                + getLookups()
+                + ", saved: "
+                + getSavedLookups()
+                + " (negative cache: "
+                + getNegativeCacheHits()
+                + ", Bloom filter: "
+                + getDefiniteMisses()
+                + "), store misses: "
+                + getStoreMisses()
+                + ", false positive rate: "
+                + String.format("%.4f", getFalsePositiveRate())
+                + "]";
+    }
+
+    /** The tiles of a layer and gridset known to a store */
+    private static final class TileSetFilter {
+
+        final BlobStore store;
+
+        /** {@code null} if the filter cannot be trusted */
+        final ScalableBloomFilter bloom;
+
+        TileSetFilter(BlobStore store, ScalableBloomFilter bloom) {
+            this.store = store;
+            this.bloom = bloom;
+        }
+    }
+
+    /**
+     * A Bloom filter that grows as tiles are added, by chaining filters twice as large and with
+     * half the false positive probability of the previous one, keeping the overall false positive
+     * probability under twice the one of the first filter.
+     */
+    static final class ScalableBloomFilter {
+
+        private volatile BloomFilter<CharSequence>[] filters;
+
+        private volatile long capacity;
+
+        private final AtomicLong count = new AtomicLong();
+
+        ScalableBloomFilter(int initialSize) {
+            this.capacity = initialSize;
+            @SuppressWarnings("unchecked")
+            BloomFilter<CharSequence>[] first = new BloomFilter[] {create(initialSize, 0)};
+            this.filters = first;
+        }
+
+        private static BloomFilter<CharSequence> create(long expected, int index) {
+            double fpp = FALSE_POSITIVE_PROBABILITY / (1L << Math.min(index, 30));
+            return BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), expected, fpp);
+        }
+
+        boolean mightContain(String key) {
+            for (BloomFilter<CharSequence> filter : filters) {
+                if (filter.mightContain(key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void put(String key) {
+            if (mightContain(key)) {
+                return;
+            }
+            BloomFilter<CharSequence>[] current = filters;
+            if (current[current.length - 1].put(key) && count.incrementAndGet() >= capacity) {
+                grow(current);
+            }
+        }
+
+        private synchronized void grow(BloomFilter<CharSequence>[] seen) {
+            if (filters != seen) {
+                return;
+            }
+            long size = capacity;
+            BloomFilter<CharSequence>[] grown = Arrays.copyOf(seen, seen.length + 1);
+            grown[seen.length] = create(size * 2, seen.length);
+            capacity = size + size * 2;
+            filters = grown;
+        }
+
+        int getFilterCount() {
+            return filters.length;
+        }
+    }
+}
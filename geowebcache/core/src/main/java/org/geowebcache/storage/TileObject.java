@@ -102,6 +102,11 @@ public void setBlob(Resource blob) {
         this.blob = blob;
     }
 
+    /** Replaces the blob with another view of the same stored bytes, keeping the stored size */
+    void wrapBlob(Resource blob) {
+        this.blob = blob;
+    }
+
     public String getGridSetId() {
         return this.gridSetId;
     }
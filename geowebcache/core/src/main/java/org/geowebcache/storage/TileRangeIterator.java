@@ -14,6 +14,10 @@
  */
 package org.geowebcache.storage;
 
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class TileRangeIterator {
@@ -32,6 +36,15 @@ public class TileRangeIterator {
 
     private volatile long[] lastGridLoc;
 
+    /** Locations handed out and not yet completed, only tracked if progress tracking is enabled */
+    private volatile NavigableSet<long[]> inFlight;
+
+    /** Orders grid locations the way they are iterated, by zoom level, then row, then column */
+    private static final Comparator<long[]> ITERATION_ORDER =
+            Comparator.<long[]>comparingLong(loc -> loc[2])
+                    .thenComparingLong(loc -> loc[1])
+                    .thenComparingLong(loc -> loc[0]);
+
     /**
      * Note that the bounds of the tile range must already be expanded to the meta tile factors for
      * this to work.
@@ -100,6 +113,9 @@ public synchronized long[] nextMetaGridLocation(final long[] gridLoc) {
                     if (checkGridLocation(gridLoc)) {
                         tilesRenderedCount.addAndGet(tileCount);
                         lastGridLoc = gridLoc.clone();
+                        if (inFlight != null) {
+                            inFlight.add(lastGridLoc);
+                        }
                         return gridLoc;
                     }
 
@@ -119,6 +135,56 @@ public synchronized long[] nextMetaGridLocation(final long[] gridLoc) {
         return null;
     }
 
+    /**
+     * Starts keeping track of the locations handed out by {@link #nextMetaGridLocation(long[])}
+     * until they are marked as {@link #completed(long[]) completed}, so that {@link
+     * #getCheckpoint()} can tell where to resume from.
+     */
+    public synchronized void trackProgress() {
+        if (inFlight == null) {
+            inFlight = new ConcurrentSkipListSet<>(ITERATION_ORDER);
+        }
+    }
+
+    /** Marks the location returned by {@link #nextMetaGridLocation(long[])} as processed */
+    public void completed(long[] gridLoc) {
+        NavigableSet<long[]> inFlight = this.inFlight;
+        if (inFlight != null) {
+            inFlight.remove(gridLoc);
+        }
+    }
+
+    /**
+     * Returns a position all the locations up to which, included, have been processed, provided
+     * progress is {@link #trackProgress() tracked}. Locations processed out of order after the
+     * first one still in progress are not accounted for, and would be processed again on resume.
+     *
+     * @return the checkpoint to pass to {@link #resumeAfter(long[])}, or {@code null} if no
+     *     location has been processed yet
+     */
+    public synchronized long[] getCheckpoint() {
+        NavigableSet<long[]> inFlight = this.inFlight;
+        if (inFlight != null) {
+            Iterator<long[]> it = inFlight.iterator();
+            if (it.hasNext()) {
+                long[] first = it.next();
+                // the position right before the first location in progress
+                return new long[] {first[0] - metaX, first[1], first[2]};
+            }
+        }
+        return lastGridLoc == null ? null : lastGridLoc.clone();
+    }
+
+    /**
+     * Makes the iteration resume after a checkpoint obtained from {@link #getCheckpoint()}, must be
+     * called before the first call to {@link #nextMetaGridLocation(long[])}
+     */
+    public synchronized void resumeAfter(long[] checkpoint) {
+        if (checkpoint != null) {
+            lastGridLoc = checkpoint.clone();
+        }
+    }
+
     /** Calculates the number of tiles covered by the meta tile for this grid location. */
     private int tilesForLocation(long x, long y, long[] levelBounds) {
         long boundsMaxX = levelBounds[2];
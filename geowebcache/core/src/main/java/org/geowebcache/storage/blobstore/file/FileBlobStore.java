@@ -21,10 +21,13 @@
 import static org.geowebcache.util.TMSKeyBuilder.PARAMETERS_METADATA_OBJECT_SUFFIX;
 
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
@@ -32,8 +35,12 @@
 import java.nio.channels.FileChannel;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -41,6 +48,7 @@
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -49,6 +57,7 @@
 import java.util.stream.StreamSupport;
 import org.geotools.util.logging.Logging;
 import org.geowebcache.GeoWebCacheException;
+import org.geowebcache.GeoWebCacheExtensions;
 import org.geowebcache.config.ConfigurationException;
 import org.geowebcache.filter.parameters.ParametersUtils;
 import org.geowebcache.io.FileResource;
@@ -84,8 +93,31 @@ interface FileWriter {
 
     static final int DEFAULT_DISK_BLOCK_SIZE = 4096;
 
+    public static final String PROPERTY_PARAMETERS_CACHE_SIZE =
+            "gwc.fileblobstore.parametersCacheSize";
+
+    static final int PARAMETERS_CACHE_SIZE =
+            Integer.parseInt(System.getProperty(PROPERTY_PARAMETERS_CACHE_SIZE, "10000"));
+
+    /**
+     * How long, in milliseconds, a parameters file known to exist is trusted before checking again
+     * that no other process sharing the directory deleted it. It is also checked by puts creating
+     * a tile directory, as happens once the tiles of the parameters got deleted. Zero checks on
+     * every put, a negative value only on new tile directories.
+     */
+    public static final String PROPERTY_PARAMETERS_REVALIDATE =
+            "gwc.fileblobstore.parametersRevalidate";
+
+    static final long DEFAULT_PARAMETERS_REVALIDATE = 10_000;
+
     public static final int BUFFER_SIZE = 32768;
 
+    /**
+     * Name of the directory, under the temporary one, where tiles are hard linked while the
+     * container sends them
+     */
+    static final String SENDFILE_DIRECTORY = "sendfile";
+
     private final File stagingArea;
 
     private final String path;
@@ -98,12 +130,34 @@ interface FileWriter {
 
     private File tmp;
 
+    /** Where the hard links handed to the container's sendfile support are kept */
+    private File sendFileLinks;
+
     private ExecutorService deleteExecutorService;
 
     private LayerMetadataStore layerMetadata;
 
     private TempFileNameGenerator tmpGenerator = new TempFileNameGenerator();
 
+    private volatile TileDeduplicator deduplicator;
+
+    /**
+     * Contents of the parameters files, keyed by {@link #parametersKey}. These files are written
+     * once and never modified, so the cache saves parsing them again. Another node sharing the
+     * directory may delete them though, entries are only trusted once the file is found to exist.
+     */
+    private final Cache<String, Map<String, String>> parametersCache =
+            CacheBuilder.newBuilder().maximumSize(PARAMETERS_CACHE_SIZE).build();
+
+    /** When each parameters file, keyed by {@link #parametersKey}, was last found to exist */
+    private final Cache<String, Long> parametersValidated =
+            CacheBuilder.newBuilder().maximumSize(PARAMETERS_CACHE_SIZE).build();
+
+    private long parametersRevalidate =
+            getLongProperty(PROPERTY_PARAMETERS_REVALIDATE, DEFAULT_PARAMETERS_REVALIDATE);
+
+    private final AtomicBoolean sweepQueued = new AtomicBoolean();
+
     public FileBlobStore(DefaultStorageFinder defStoreFinder)
             throws StorageException, ConfigurationException {
         this(defStoreFinder.getDefaultPath());
@@ -145,6 +199,9 @@ public FileBlobStore(String rootPath, FilePathGenerator pathGenerator) throws St
         } catch (IOException e) {
             throw new StorageException(tmp.getPath() + " is not writable directory.", e);
         }
+        sendFileLinks = new File(tmp, SENDFILE_DIRECTORY);
+        clearSendFileLinks();
+        sendFileLinks.mkdirs();
 
         File metadataFile = new File(path, "metadata.properties");
         try {
@@ -262,6 +319,8 @@ public boolean delete(final String layerName) throws StorageException {
         final String target = filteredLayerName(layerName);
 
         boolean ret = stageDelete(source, target);
+        sweepPayloads();
+        invalidateLayer(layerName);
 
         this.listeners.sendLayerDeleted(layerName);
         return ret;
@@ -328,6 +387,7 @@ public boolean deleteByGridsetId(final String layerName, final String gridSetId)
             String target = filteredLayerName(layerName) + "_" + gridSubsetCache.getName();
             stageDelete(gridSubsetCache, target);
         }
+        sweepPayloads();
 
         listeners.sendGridSubsetDeleted(layerName, gridSetId);
 
@@ -366,6 +426,12 @@ public boolean rename(final String oldLayerName, final String newLayerName)
             return false;
         }
         boolean renamed = FileUtils.renameFile(oldLayerPath, newLayerPath);
+        invalidateLayer(oldLayerName);
+        invalidateLayer(newLayerName);
+        final TileDeduplicator deduplicator = this.deduplicator;
+        if (renamed && deduplicator != null) {
+            deduplicator.renamed(oldLayerPath, newLayerPath);
+        }
         if (renamed) {
             this.listeners.sendLayerRenamed(oldLayerName, newLayerName);
         } else {
@@ -467,6 +533,7 @@ public void postVisitDirectory(File dir) {
                 });
 
         log.info("Truncated " + count + " tiles");
+        sweepPayloads();
 
         return true;
     }
@@ -485,6 +552,11 @@ public boolean get(TileObject stObj) throws StorageException {
             return false;
         } else {
             Resource resource = readFile(fh);
+            final TileDeduplicator deduplicator = this.deduplicator;
+            if (deduplicator != null && resource != null && isLinked(fh)) {
+                long created = deduplicator.getCreated(fh, resource.getLastModified());
+                resource = new LinkedFileResource(fh, sendFileLinks, created);
+            }
             stObj.setBlob(resource);
             stObj.setCreated(resource.getLastModified());
             stObj.setBlobSize((int) resource.getSize());
@@ -492,18 +564,110 @@ public boolean get(TileObject stObj) throws StorageException {
         }
     }
 
+    /** Checks a tile with a single file system stat, leaving the blob unset */
+    @Override
+    public boolean getMetadata(TileObject stObj) throws StorageException {
+        File fh = getFileHandleTile(stObj, false);
+        final TileDeduplicator deduplicator = this.deduplicator;
+        if (deduplicator != null) {
+            return getLinkedMetadata(stObj, fh, deduplicator);
+        }
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(fh.toPath(), BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            stObj.setStatus(Status.MISS);
+            return false;
+        } catch (IOException e) {
+            throw new StorageException("Failed to read the attributes of " + fh, e);
+        }
+        if (!attributes.isRegularFile()) {
+            stObj.setStatus(Status.MISS);
+            return false;
+        }
+        stObj.setCreated(attributes.lastModifiedTime().toMillis());
+        stObj.setBlobSize((int) attributes.size());
+        return true;
+    }
+
+    /** Same as {@link #getMetadata}, also telling deduplicated tiles apart in the same stat */
+    private boolean getLinkedMetadata(TileObject stObj, File fh, TileDeduplicator deduplicator)
+            throws StorageException {
+        Map<String, Object> attributes;
+        try {
+            attributes =
+                    Files.readAttributes(
+                            fh.toPath(), "unix:isRegularFile,size,lastModifiedTime,nlink");
+        } catch (NoSuchFileException e) {
+            stObj.setStatus(Status.MISS);
+            return false;
+        } catch (IOException e) {
+            throw new StorageException("Failed to read the attributes of " + fh, e);
+        }
+        if (!Boolean.TRUE.equals(attributes.get("isRegularFile"))) {
+            stObj.setStatus(Status.MISS);
+            return false;
+        }
+        long lastModified = ((FileTime) attributes.get("lastModifiedTime")).toMillis();
+        if ((Integer) attributes.get("nlink") > 1) {
+            lastModified = deduplicator.getCreated(fh, lastModified);
+        }
+        stObj.setCreated(lastModified);
+        stObj.setBlobSize(((Long) attributes.get("size")).intValue());
+        return true;
+    }
+
+    /**
+     * @return the creation time of a deduplicated tile, or zero if the tile is not deduplicated
+     *     and its modification time is its creation time
+     */
+    long getLinkedTileCreated(File fh) {
+        final TileDeduplicator deduplicator = this.deduplicator;
+        if (deduplicator == null || !isLinked(fh)) {
+            return 0;
+        }
+        return deduplicator.getCreated(fh, fh.lastModified());
+    }
+
+    private static boolean isLinked(File fh) {
+        try {
+            return (Integer) Files.getAttribute(fh.toPath(), "unix:nlink") > 1;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /** A deduplicated tile, reporting its own creation time rather than that of its payload */
+    private static class LinkedFileResource extends FileResource {
+
+        private final long created;
+
+        LinkedFileResource(File file, File stagingDirectory, long created) {
+            super(file, stagingDirectory);
+            this.created = created;
+        }
+
+        @Override
+        public long getLastModified() {
+            return created;
+        }
+    }
+
     /** Store a tile. */
     @Override
     public void put(TileObject stObj) throws StorageException {
-        final File fh = getFileHandleTile(stObj, true);
+        final File fh = getFileHandleTile(stObj, false);
+        // a new tile directory may follow the removal of the parameters by another process
+        final boolean newDirectory = mkdirs(fh.getParentFile(), stObj);
         final long oldSize = fh.length();
         final boolean existed = oldSize > 0;
 
-        writeTile(fh, stObj, existed);
+        final boolean linked = writeTile(fh, stObj, existed);
 
         // mark the last modification as the tile creation time if set, otherwise
-        // we'll leave it to the writing time
-        if (stObj.getCreated() > 0) {
+        // we'll leave it to the writing time. Deduplicated payloads are shared with other tiles
+        // and already carry the creation time, they are never touched.
+        if (!linked && stObj.getCreated() > 0) {
             try {
                 fh.setLastModified(stObj.getCreated());
             } catch (Exception e) {
@@ -514,7 +678,11 @@ public void put(TileObject stObj) throws StorageException {
             }
         }
 
-        putParametersMetadata(stObj.getLayerName(), stObj.getParametersId(), stObj.getParameters());
+        putParametersMetadata(
+                stObj.getLayerName(),
+                stObj.getParametersId(),
+                stObj.getParameters(),
+                newDirectory);
 
         /*
          * this is important because listeners may be tracking tile existence
@@ -527,14 +695,36 @@ public void put(TileObject stObj) throws StorageException {
         }
     }
 
+    /**
+     * Writes the parameters file unless known to exist. The file is checked again when last found
+     * more than {@link #PROPERTY_PARAMETERS_REVALIDATE} milliseconds ago, or on {@code revalidate}.
+     */
     private void putParametersMetadata(
-            String layerName, String parametersId, Map<String, String> parameters)
+            String layerName,
+            String parametersId,
+            Map<String, String> parameters,
+            boolean revalidate)
             throws StorageException {
         // check if we even need to use any IO
         if (parametersId == null || parameters == null || parameters.isEmpty()) return;
 
+        final String key = parametersKey(layerName, parametersId);
+        final long now = System.currentTimeMillis();
+        Long validatedAt = parametersValidated.getIfPresent(key);
+        if (validatedAt != null
+                && !revalidate
+                && (parametersRevalidate < 0 || now - validatedAt < parametersRevalidate)) {
+            return;
+        }
+        // another node may have deleted it
         File parametersFile = parametersFile(layerName, parametersId);
-        if (parametersFile.exists()) return;
+        if (parametersFile.exists()) {
+            if (parametersCache.getIfPresent(key) == null) {
+                parametersCache.put(key, Collections.unmodifiableMap(new HashMap<>(parameters)));
+            }
+            parametersValidated.put(key, now);
+            return;
+        }
 
         writeFile(
                 parametersFile,
@@ -546,6 +736,41 @@ private void putParametersMetadata(
                         properties.store(os, "Parameters values for identifier: " + parametersId);
                     }
                 });
+        parametersCache.put(key, Collections.unmodifiableMap(new HashMap<>(parameters)));
+        parametersValidated.put(key, now);
+    }
+
+    /**
+     * Sets how old, in milliseconds, the knowledge that a parameters file exists can get before
+     * checking the file again. Negative values only check on new tile directories.
+     */
+    public void setParametersRevalidate(long parametersRevalidate) {
+        this.parametersRevalidate = parametersRevalidate;
+    }
+
+    private static long getLongProperty(String name, long defaultValue) {
+        String value = GeoWebCacheExtensions.getProperty(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            log.warning("Invalid value for " + name + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private static String parametersKey(String layerName, String parametersId) {
+        return layerName + '\u0000' + parametersId;
+    }
+
+    /** Drops the cached metadata of a layer whose directory got moved away */
+    private void invalidateLayer(String layerName) {
+        final String prefix = parametersKey(layerName, "");
+        parametersCache.asMap().keySet().removeIf(k -> k.startsWith(prefix));
+        parametersValidated.asMap().keySet().removeIf(k -> k.startsWith(prefix));
+        layerMetadata.invalidate(layerName);
     }
 
     private File parametersFile(String layerName, String parametersId) {
@@ -559,7 +784,56 @@ private File parametersFile(String layerName, String parametersId) {
         return new File(path);
     }
 
-    private File getFileHandleTile(TileObject stObj, boolean createParent) throws StorageException {
+    /**
+     * Visits the tile files of a range, with their grid coordinates. Used by {@link
+     * StripedFileBlobStore} to move tiles across roots.
+     */
+    void visitTiles(TileRange range, TileFileVisitor visitor) throws StorageException {
+        TileFileVisitor gridVisitor = visitor;
+        if (pathGenerator instanceof XYZFilePathGenerator) {
+            // the slippy convention numbers rows the other way around
+            XYZFilePathGenerator generator = (XYZFilePathGenerator) pathGenerator;
+            gridVisitor =
+                    new TileFileVisitor() {
+                        @Override
+                        public void preVisitDirectory(File dir) {
+                            visitor.preVisitDirectory(dir);
+                        }
+
+                        @Override
+                        public void visitFile(File tile, long x, long y, int z) {
+                            long gridY;
+                            try {
+                                gridY =
+                                        generator.getY(
+                                                range.getLayerName(),
+                                                range.getGridSetId(),
+                                                x,
+                                                y,
+                                                z);
+                            } catch (GeoWebCacheException e) {
+                                throw new IllegalStateException(
+                                        "Failed to compute the row of " + tile, e);
+                            }
+                            visitor.visitFile(tile, x, gridY, z);
+                        }
+
+                        @Override
+                        public void postVisitDirectory(File dir) {
+                            visitor.postVisitDirectory(dir);
+                        }
+                    };
+        }
+        pathGenerator.visitRange(getLayerPath(range.getLayerName()), range, gridVisitor);
+    }
+
+    /** A new file in the temporary directory of this root, not created yet */
+    File newTempFile() {
+        tmp.mkdirs();
+        return new File(tmp, tmpGenerator.newName());
+    }
+
+    File getFileHandleTile(TileObject stObj, boolean createParent) throws StorageException {
         final MimeType mimeType;
         try {
             mimeType = MimeType.createFromFormat(stObj.getBlobFormat());
@@ -588,10 +862,47 @@ private Resource readFile(File fh) throws StorageException {
         if (!fh.exists()) {
             return null;
         }
-        return new FileResource(fh);
+        return new FileResource(fh, sendFileLinks);
     }
 
-    private void writeTile(File target, TileObject stObj, boolean existed) throws StorageException {
+    /**
+     * Empties the sendfile link directory, links left by a previous run are no longer in use but
+     * would keep deleted tiles on disk
+     */
+    private void clearSendFileLinks() {
+        File[] links = listFilesNullSafe(sendFileLinks);
+        for (File link : links) {
+            if (!link.delete()) {
+                log.warning("Could not delete stale sendfile link " + link);
+            }
+        }
+        if (links.length > 0) {
+            log.fine("Deleted " + links.length + " stale sendfile links from " + sendFileLinks);
+        }
+    }
+
+    /** @return {@code true} if the tile was linked to a deduplicated payload */
+    private boolean writeTile(File target, TileObject stObj, boolean existed)
+            throws StorageException {
+        final TileDeduplicator deduplicator = this.deduplicator;
+        if (deduplicator != null) {
+            final TileDeduplicator.Payload payload =
+                    deduplicator.getPayload(stObj.getBlob(), stObj.getCreated());
+            if (payload != null) {
+                try {
+                    writeFile(
+                            target,
+                            existed,
+                            file -> Files.createLink(file.toPath(), payload.file.toPath()));
+                    deduplicator.linked(target, payload, stObj.getCreated());
+                    return true;
+                } catch (StorageException e) {
+                    // the payload might have been swept in the meantime
+                    log.log(Level.FINE, "Could not link tile to its payload, writing it as is", e);
+                }
+            }
+            deduplicator.unlinked(target);
+        }
         writeFile(
                 target,
                 existed,
@@ -601,6 +912,7 @@ private void writeTile(File target, TileObject stObj, boolean existed) throws St
                         stObj.getBlob().transferTo(channel);
                     }
                 });
+        return false;
     }
 
     /**
@@ -745,6 +1057,55 @@ public void setBlockSize(int fileSystemBlockSize) {
         this.diskBlockSize = fileSystemBlockSize;
     }
 
+    /**
+     * Enables or disables deduplication of tiles with identical contents, see {@link
+     * TileDeduplicator}. Tiles already stored are left untouched either way.
+     *
+     * <p>Deduplication needs hard links and link counts, if the file system does not provide them
+     * it stays disabled.
+     */
+    public void setDeduplicate(boolean deduplicate) {
+        if (!deduplicate) {
+            this.deduplicator = null;
+        } else if (this.deduplicator == null) {
+            if (TileDeduplicator.isSupported(new File(path))) {
+                this.deduplicator = new TileDeduplicator(new File(path), tmp, tmpGenerator);
+                sweepPayloads();
+            } else {
+                log.warning(
+                        "The file system of "
+                                + path
+                                + " does not report hard link counts,"
+                                + " tile deduplication is disabled");
+            }
+        }
+    }
+
+    public boolean isDeduplicate() {
+        return deduplicator != null;
+    }
+
+    /** @return the deduplication statistics, or {@code null} if deduplication is disabled */
+    public TileDeduplicator getDeduplicator() {
+        return deduplicator;
+    }
+
+    /**
+     * Queues the removal of unreferenced payloads after the pending deletes, unless one is queued
+     * already. Only bulk deletes trigger it, payloads left over by single tile deletes wait for the
+     * next one.
+     */
+    private void sweepPayloads() {
+        final TileDeduplicator deduplicator = this.deduplicator;
+        if (deduplicator != null && sweepQueued.compareAndSet(false, true)) {
+            deleteExecutorService.submit(
+                    () -> {
+                        sweepQueued.set(false);
+                        deduplicator.sweep();
+                    });
+        }
+    }
+
     /**
      * Pads the size of a tile to whole filesystem blocks
      *
@@ -771,6 +1132,8 @@ public boolean deleteByParametersId(String layerName, String parametersId)
         }
 
         // delete the parameter file
+        parametersCache.invalidate(parametersKey(layerName, parametersId));
+        parametersValidated.invalidate(parametersKey(layerName, parametersId));
         parametersFile(layerName, parametersId).delete();
 
         // clean up from the legacy metadata storage as well, if necessary
@@ -801,6 +1164,7 @@ public boolean deleteByParametersId(String layerName, String parametersId)
             String target = filteredLayerName(layerName) + "_" + parameterCache.getName();
             stageDelete(parameterCache, target);
         }
+        sweepPayloads();
 
         listeners.sendParametersDeleted(layerName, parametersId);
 
@@ -865,16 +1229,28 @@ public Map<String, Optional<Map<String, String>>> getParametersMapping(String la
 
         // go look for the current parameter files too though, and overwrite the legacy metadata
         for (String parameterId : parameterIds) {
+            final String key = parametersKey(layerName, parameterId);
             File file = parametersFile(layerName, parameterId);
-            if (file.exists()) {
-                try {
-                    Properties properties = new Properties();
-                    properties.load(Files.newInputStream(file.toPath()));
-                    result.put(parameterId, Optional.of(propertiesToMap(properties)));
-                } catch (IOException e) {
-                    throw new RuntimeException("Failed to read parameters file", e);
+            Map<String, String> parameters = null;
+            if (!file.exists()) {
+                parametersCache.invalidate(key);
+                parametersValidated.invalidate(key);
+            } else {
+                parameters = parametersCache.getIfPresent(key);
+                if (parameters == null) {
+                    try (InputStream is = Files.newInputStream(file.toPath())) {
+                        Properties properties = new Properties();
+                        properties.load(is);
+                        parameters = Collections.unmodifiableMap(propertiesToMap(properties));
+                        parametersCache.put(key, parameters);
+                    } catch (IOException e) {
+                        throw new RuntimeException("Failed to read parameters file", e);
+                    }
                 }
             }
+            if (parameters != null) {
+                result.put(parameterId, Optional.of(parameters));
+            }
         }
 
         return result;
@@ -16,6 +16,8 @@
 
 import static org.geowebcache.storage.blobstore.file.FilePathUtils.filteredLayerName;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.hash.Hashing;
 import java.io.File;
 import java.io.FileInputStream;
@@ -30,10 +32,14 @@
 import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Function;
@@ -46,6 +52,16 @@
 import org.geowebcache.util.FileUtils;
 import org.geowebcache.util.SuppressFBWarnings;
 
+/**
+ * Stores the layer metadata as a gzipped properties file in each layer directory.
+ *
+ * <p>Parsed metadata is cached in memory, up to {@code gwc.layermetadatastore.cacheSize} layers.
+ * Writes through this store invalidate the cache, changes made by other processes sharing the
+ * directory are picked up by checking the file modification time and size when a cached entry is
+ * older than {@code gwc.layermetadatastore.revalidate} milliseconds. The default of 0 checks on
+ * every read, which is still a lot cheaper than parsing the file, a negative value never checks and
+ * is only safe when a single process uses the cache directory.
+ */
 public class LayerMetadataStore {
 
     private static Logger log = Logging.getLogger(LayerMetadataStore.class.getName());
@@ -62,6 +78,16 @@ public class LayerMetadataStore {
     static final int WAIT_AFTER_RENAME =
             Integer.parseInt(System.getProperty(PROPERTY_WAIT_AFTER_RENAME, "50"));
 
+    public static final String PROPERTY_METADATA_CACHE_SIZE = "gwc.layermetadatastore.cacheSize";
+
+    public static final String PROPERTY_METADATA_REVALIDATE = "gwc.layermetadatastore.revalidate";
+
+    static final int METADATA_CACHE_SIZE =
+            Integer.parseInt(System.getProperty(PROPERTY_METADATA_CACHE_SIZE, "1000"));
+
+    static final long METADATA_REVALIDATE =
+            Long.parseLong(System.getProperty(PROPERTY_METADATA_REVALIDATE, "0"));
+
     static final String METADATA_GZIP_EXTENSION = ".gz";
 
     private final String path;
@@ -77,11 +103,59 @@ public class LayerMetadataStore {
                     .mapToObj(i -> new ReentrantReadWriteLock())
                     .toArray(ReadWriteLock[]::new);
 
+    private final Cache<String, CachedMetadata> metadataCache =
+            CacheBuilder.newBuilder().maximumSize(METADATA_CACHE_SIZE).build();
+
+    /** bumped on invalidation, so that a read racing with a write does not cache stale contents */
+    private final AtomicLong generation = new AtomicLong();
+
+    private long revalidate = METADATA_REVALIDATE;
+
     public LayerMetadataStore(String rootPath, File tmpPath) {
         this.path = rootPath;
         this.tmp = tmpPath;
     }
 
+    /** Parsed metadata of a layer, along with the state of the file it was read from */
+    private static class CachedMetadata {
+
+        final File file;
+
+        final long lastModified;
+
+        final long size;
+
+        final Properties metadata;
+
+        volatile long validatedAt;
+
+        CachedMetadata(File file, long[] stamp, Properties metadata, long validatedAt) {
+            this.file = file;
+            this.lastModified = stamp[0];
+            this.size = stamp[1];
+            this.metadata = metadata;
+            this.validatedAt = validatedAt;
+        }
+
+        boolean matches(long[] stamp) {
+            return lastModified >= 0 && lastModified == stamp[0] && size == stamp[1];
+        }
+    }
+
+    /**
+     * Sets how old, in milliseconds, a cached entry can get before checking the file for changes
+     * made by other processes. Negative values disable the checks.
+     */
+    public void setRevalidate(long revalidate) {
+        this.revalidate = revalidate;
+    }
+
+    /** Drops the cached metadata of the layer, to be called when its directory is moved away */
+    public void invalidate(String layerName) {
+        generation.incrementAndGet();
+        metadataCache.invalidate(layerName);
+    }
+
     public Map<String, String> getLayerMetadata(String layerName) throws IOException {
         Properties props = loadLayerMetadata(layerName);
         HashMap<String, String> map = new HashMap<>();
@@ -115,7 +189,11 @@ public void putEntry(final String layerName, final String key, final String valu
             doUpdate = !Objects.equals(encodedValue, metadata.getProperty(key));
         }
         if (doUpdate) {
-            writeMetadataOptimisticLock(key, encodedValue, metadataFile);
+            try {
+                writeMetadataOptimisticLock(key, encodedValue, metadataFile);
+            } finally {
+                invalidate(layerName);
+            }
         }
     }
 
@@ -337,9 +415,42 @@ private Properties loadLayerMetadata(final File metadataFile) throws IOException
         return loadLayerMetadata(metadataFile, this::openCompressed);
     }
 
+    /** Returns the cached metadata of the layer, callers must not modify it */
     private Properties loadLayerMetadata(final String layerName) throws IOException {
+        final long now = System.currentTimeMillis();
+        CachedMetadata cached = metadataCache.getIfPresent(layerName);
+        if (cached != null) {
+            if (revalidate < 0 || now - cached.validatedAt < revalidate) {
+                return cached.metadata;
+            }
+            if (cached.matches(stamp(cached.file))) {
+                cached.validatedAt = now;
+                return cached.metadata;
+            }
+        }
+        final long gen = generation.get();
         final File metadataFile = resolveMetadataFile(layerName);
-        return this.loadLayerMetadata(metadataFile);
+        // taken before reading, a change while reading is then caught by the next check
+        final long[] stamp = stamp(metadataFile);
+        Properties metadata = this.loadLayerMetadata(metadataFile);
+        if (gen == generation.get()) {
+            metadataCache.put(layerName, new CachedMetadata(metadataFile, stamp, metadata, now));
+        }
+        return metadata;
+    }
+
+    /** Modification time and size of the file, in a single file system call */
+    private static long[] stamp(File file) {
+        try {
+            BasicFileAttributes attributes =
+                    Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            return new long[] {attributes.lastModifiedTime().toMillis(), attributes.size()};
+        } catch (NoSuchFileException e) {
+            return new long[] {0, -1};
+        } catch (IOException e) {
+            // force a reload next time
+            return new long[] {-1, -1};
+        }
     }
 
     private String getMetadataFilename() {
@@ -0,0 +1,936 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage.blobstore.file;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.Striped;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.filter.parameters.ParametersUtils;
+import org.geowebcache.grid.GridSubset;
+import org.geowebcache.layer.TileLayer;
+import org.geowebcache.layer.TileLayerDispatcher;
+import org.geowebcache.mime.MimeType;
+import org.geowebcache.storage.BlobStore;
+import org.geowebcache.storage.BlobStoreListener;
+import org.geowebcache.storage.BlobStoreListenerList;
+import org.geowebcache.storage.StorageException;
+import org.geowebcache.storage.TileObject;
+import org.geowebcache.storage.TileRange;
+import org.geowebcache.util.FileUtils;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * A file blob store striped across several root directories, usually on different disks or mount
+ * points, each one holding a {@link FileBlobStore}.
+ *
+ * <p>Tiles are assigned to a root with a consistent hash ring, at the configured {@link
+ * Granularity}. The roots ever used are recorded in a manifest in the primary (first) root. Roots
+ * can be added, in which case the tiles of about {@code added/total} of the keys move to the new
+ * roots: they are looked up in their previous owner on a miss, and moved on read. A background
+ * migration moves the remaining ones, once it completes the previous generations are dropped from
+ * the manifest and the previous owners are no longer looked at. Roots cannot be removed. Renamed
+ * layers keep being hashed by their original name, so renames don't move tiles.
+ *
+ * <p>Bulk operations (layer, gridset, parameters and range deletes, renames) run on every root in
+ * parallel, one queue per root.
+ */
+public class StripedFileBlobStore implements BlobStore {
+
+    private static Logger log = Logging.getLogger(StripedFileBlobStore.class.getName());
+
+    /** Name of the file recording the root generations, in the primary root */
+    public static final String MANIFEST = "stripes.properties";
+
+    /** How coarse the assignment of tiles to roots is */
+    public static enum Granularity {
+        /** All the tiles of a layer go to the same root */
+        LAYER,
+        /** All the tiles of a zoom level go to the same root */
+        ZOOM,
+        /** Blocks of {@code 16x16} tiles go to the same root */
+        BLOCK
+    }
+
+    /**
+     * Layer metadata key of the name a layer is hashed by, set when the layer is renamed so its
+     * tiles stay where they are
+     */
+    static final String STRIPE_SEED = "stripe.seed";
+
+    /** Tiles per side of a {@link Granularity#BLOCK block}, as a shift */
+    static final int BLOCK_SHIFT = 4;
+
+    /** Points per root on the hash ring */
+    static final int VIRTUAL_NODES = 128;
+
+    /** Seconds the migration waits for, so the layers are configured when it starts */
+    static final int MIGRATION_DELAY = 60;
+
+    private final List<String> roots;
+
+    private final List<FileBlobStore> stores;
+
+    private final Granularity granularity;
+
+    /**
+     * Hash rings of every root generation, the current one last. Replaced by the current one alone
+     * when the migration completes.
+     */
+    private volatile List<TreeMap<Long, Integer>> rings;
+
+    /** Serializes the writes of a tile with its moves while the tiles are migrating */
+    private final Striped<Lock> tileLocks = Striped.lock(256);
+
+    private final ScheduledExecutorService migrationExecutor;
+
+    private final ExecutorService[] rootExecutors;
+
+    private final BlobStoreListenerList listeners = new BlobStoreListenerList();
+
+    private final AtomicLong relocatedTiles = new AtomicLong();
+
+    /** The stripe seed of each layer, see {@link #STRIPE_SEED} */
+    private final Map<String, String> seeds = new ConcurrentHashMap<>();
+
+    /**
+     * @param roots the root directories, the primary one first
+     * @param stores the file blob store for each root, in the same order
+     * @param granularity how coarse the assignment of tiles to roots is
+     * @throws StorageException if a root was removed, or the manifest can't be read or written
+     */
+    public StripedFileBlobStore(
+            List<String> roots, List<FileBlobStore> stores, Granularity granularity)
+            throws StorageException {
+        this(roots, stores, granularity, null);
+    }
+
+    /**
+     * @param roots the root directories, the primary one first
+     * @param stores the file blob store for each root, in the same order
+     * @param granularity how coarse the assignment of tiles to roots is
+     * @param layers the layers whose tiles are migrated after roots are added, if {@code null}
+     *     tiles are only moved as they are read
+     * @throws StorageException if a root was removed, or the manifest can't be read or written
+     */
+    public StripedFileBlobStore(
+            List<String> roots,
+            List<FileBlobStore> stores,
+            Granularity granularity,
+            TileLayerDispatcher layers)
+            throws StorageException {
+        checkArgument(!roots.isEmpty(), "At least a root is required");
+        checkArgument(roots.size() == stores.size(), "A blob store is required for each root");
+        this.roots = new ArrayList<>();
+        for (String root : roots) {
+            String normalized = normalize(root);
+            checkArgument(!this.roots.contains(normalized), "Duplicate root %s", root);
+            this.roots.add(normalized);
+        }
+        this.stores = new ArrayList<>(stores);
+        this.granularity = granularity == null ? Granularity.BLOCK : granularity;
+
+        List<TreeMap<Long, Integer>> rings = new ArrayList<>();
+        for (List<String> generation : updateManifest()) {
+            TreeMap<Long, Integer> ring = new TreeMap<>();
+            for (String root : generation) {
+                int index = this.roots.indexOf(root);
+                for (int i = 0; i < VIRTUAL_NODES; i++) {
+                    ring.put(hash(root + "#" + i), index);
+                }
+            }
+            rings.add(ring);
+        }
+        this.rings = rings;
+
+        this.rootExecutors = new ExecutorService[stores.size()];
+        BlobStoreListener forwarder = new TileEventForwarder();
+        for (int i = 0; i < stores.size(); i++) {
+            CustomizableThreadFactory tf =
+                    new CustomizableThreadFactory("GWC StripedFileBlobStore root " + i + "-");
+            tf.setDaemon(true);
+            rootExecutors[i] = Executors.newSingleThreadExecutor(tf);
+            stores.get(i).addListener(forwarder);
+        }
+
+        if (layers != null && rings.size() > 1) {
+            CustomizableThreadFactory tf =
+                    new CustomizableThreadFactory("GWC StripedFileBlobStore migration-");
+            tf.setDaemon(true);
+            migrationExecutor = Executors.newSingleThreadScheduledExecutor(tf);
+            migrationExecutor.schedule(() -> migrate(layers), MIGRATION_DELAY, TimeUnit.SECONDS);
+        } else {
+            migrationExecutor = null;
+        }
+    }
+
+    /**
+     * Returns the roots of the striped store whose primary root is {@code primaryRoot}, or just the
+     * primary root if the store is not striped.
+     */
+    public static List<File> getRoots(File primaryRoot) {
+        List<List<String>> generations;
+        try {
+            generations = readManifest(primaryRoot);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to read the stripes of " + primaryRoot, e);
+            generations = Collections.emptyList();
+        }
+        if (generations.isEmpty()) {
+            return Collections.singletonList(primaryRoot);
+        }
+        List<File> roots = new ArrayList<>();
+        for (String root : generations.get(generations.size() - 1)) {
+            roots.add(new File(root));
+        }
+        return roots;
+    }
+
+    /** Records the current roots as a new generation if needed, and returns all generations */
+    private List<List<String>> updateManifest() throws StorageException {
+        File primary = new File(roots.get(0));
+        List<List<String>> generations;
+        try {
+            generations = readManifest(primary);
+        } catch (IOException e) {
+            throw new StorageException("Failed to read the stripes of " + primary, e);
+        }
+        if (!generations.isEmpty()) {
+            List<String> last = generations.get(generations.size() - 1);
+            for (String root : last) {
+                if (!roots.contains(root)) {
+                    throw new StorageException(
+                            "Root "
+                                    + root
+                                    + " was removed from the striped blob store at "
+                                    + primary
+                                    + ", its tiles would be lost. Roots can only be added.");
+                }
+            }
+            if (!last.get(0).equals(roots.get(0))) {
+                throw new StorageException(
+                        "The primary root of the striped blob store must stay "
+                                + last.get(0)
+                                + ", it is listed first");
+            }
+            if (last.size() == roots.size()) {
+                return generations;
+            }
+            log.info(
+                    "Adding "
+                            + (roots.size() - last.size())
+                            + " root(s) to the striped blob store at "
+                            + primary
+                            + ", tiles will be moved as they are read");
+        }
+        generations = new ArrayList<>(generations);
+        if (generations.isEmpty() && roots.size() > 1 && hasLayers(primary)) {
+            // striping an existing cache, its tiles are all in the primary root
+            generations.add(Collections.singletonList(roots.get(0)));
+        }
+        generations.add(new ArrayList<>(roots));
+        if (generations.size() > 1 || roots.size() > 1) {
+            writeManifest(primary, generations);
+        }
+        return generations;
+    }
+
+    private static boolean hasLayers(File root) {
+        File[] layers = layerDirectories(root);
+        return layers != null && layers.length > 0;
+    }
+
+    private static List<List<String>> readManifest(File primaryRoot) throws IOException {
+        File file = new File(primaryRoot, MANIFEST);
+        if (!file.exists()) {
+            return Collections.emptyList();
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            properties.load(in);
+        }
+        List<List<String>> generations = new ArrayList<>();
+        for (int g = 0; properties.containsKey("generation." + g + ".0"); g++) {
+            List<String> generation = new ArrayList<>();
+            String root;
+            for (int i = 0;
+                    (root = properties.getProperty("generation." + g + "." + i)) != null;
+                    i++) {
+                generation.add(root);
+            }
+            generations.add(generation);
+        }
+        return generations;
+    }
+
+    private static void writeManifest(File primaryRoot, List<List<String>> generations)
+            throws StorageException {
+        Properties properties = new Properties();
+        for (int g = 0; g < generations.size(); g++) {
+            List<String> generation = generations.get(g);
+            for (int i = 0; i < generation.size(); i++) {
+                properties.setProperty("generation." + g + "." + i, generation.get(i));
+            }
+        }
+        File file = new File(primaryRoot, MANIFEST);
+        File tmp = new File(primaryRoot, MANIFEST + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp.toPath())) {
+            properties.store(out, "Roots of the striped blob store, do not edit");
+        } catch (IOException e) {
+            throw new StorageException("Failed to write " + tmp, e);
+        }
+        if (!FileUtils.renameFile(tmp, file)) {
+            throw new StorageException("Failed to rename " + tmp + " to " + file);
+        }
+    }
+
+    private static String normalize(String root) {
+        return new File(root).getAbsoluteFile().toPath().normalize().toString();
+    }
+
+    private static long hash(String key) {
+        return Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).asLong();
+    }
+
+    private String seed(String layerName) {
+        return seeds.computeIfAbsent(
+                layerName,
+                name -> {
+                    String seed = stores.get(0).getLayerMetadata(name, STRIPE_SEED);
+                    return seed == null ? name : seed;
+                });
+    }
+
+    private String stripeKey(TileObject obj) {
+        String layer = FilePathUtils.filteredLayerName(seed(obj.getLayerName()));
+        StringBuilder key = new StringBuilder(layer);
+        if (granularity != Granularity.LAYER) {
+            long[] xyz = obj.getXYZ();
+            key.append('/')
+                    .append(FilePathUtils.filteredGridSetId(obj.getGridSetId()))
+                    .append('/')
+                    .append(xyz[2]);
+            if (granularity == Granularity.BLOCK) {
+                key.append('/')
+                        .append(xyz[0] >> BLOCK_SHIFT)
+                        .append('/')
+                        .append(xyz[1] >> BLOCK_SHIFT);
+            }
+        }
+        return key.toString();
+    }
+
+    private static int owner(TreeMap<Long, Integer> ring, long hash) {
+        Map.Entry<Long, Integer> entry = ring.ceilingEntry(hash);
+        return entry == null ? ring.firstEntry().getValue() : entry.getValue();
+    }
+
+    /** The index of the root owning the tile */
+    int getStripe(TileObject obj) {
+        List<TreeMap<Long, Integer>> rings = this.rings;
+        return owner(rings.get(rings.size() - 1), hash(stripeKey(obj)));
+    }
+
+    /** The roots that owned the tile in previous generations, other than the current owner */
+    private Set<Integer> previousStripes(TileObject obj, int current) {
+        List<TreeMap<Long, Integer>> rings = this.rings;
+        if (rings.size() == 1) {
+            return Collections.emptySet();
+        }
+        long hash = hash(stripeKey(obj));
+        Set<Integer> previous = new LinkedHashSet<>();
+        for (int g = rings.size() - 2; g >= 0; g--) {
+            int stripe = owner(rings.get(g), hash);
+            if (stripe != current) {
+                previous.add(stripe);
+            }
+        }
+        return previous;
+    }
+
+    @Override
+    public boolean get(TileObject obj) throws StorageException {
+        int stripe = getStripe(obj);
+        if (stores.get(stripe).get(obj)) {
+            return true;
+        }
+        for (int previous : previousStripes(obj, stripe)) {
+            if (stores.get(previous).getMetadata(obj)) {
+                relocate(obj, previous, stripe);
+                // read it from wherever it is now, a write or delete may have raced with the move
+                return stores.get(stripe).get(obj) || stores.get(previous).get(obj);
+            }
+        }
+        return false;
+    }
+
+    /** Checks the owning root, then the previous owners, leaving relocation to the next get */
+    @Override
+    public boolean getMetadata(TileObject obj) throws StorageException {
+        int stripe = getStripe(obj);
+        if (stores.get(stripe).getMetadata(obj)) {
+            return true;
+        }
+        for (int previous : previousStripes(obj, stripe)) {
+            if (stores.get(previous).getMetadata(obj)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Moves a tile to its owner, logging failures as the tile stays readable where it was */
+    private boolean relocate(TileObject obj, int from, int to) {
+        try {
+            return move(obj, from, to);
+        } catch (StorageException | RuntimeException e) {
+            log.log(Level.FINE, "Failed to move tile to root " + roots.get(to), e);
+            return false;
+        }
+    }
+
+    /**
+     * Moves a tile to another root, unless the target already has it, in which case the source is
+     * stale and just deleted. The tile is copied next to the target and linked in place, as the
+     * roots are usually on different file systems, so it never replaces a tile written meanwhile,
+     * not even by another process. The file is moved as is, no tile events are sent.
+     *
+     * @return {@code true} if the tile was moved
+     */
+    private boolean move(TileObject obj, int from, int to) throws StorageException {
+        Lock lock = tileLock(obj);
+        lock.lock();
+        try {
+            File source = stores.get(from).getFileHandleTile(obj, false);
+            if (!source.isFile()) {
+                // moved or deleted meanwhile
+                return false;
+            }
+            FileBlobStore target = stores.get(to);
+            File targetFile = target.getFileHandleTile(obj, true);
+            boolean moved = false;
+            if (!targetFile.exists()) {
+                File temp = target.newTempFile();
+                try {
+                    Files.copy(source.toPath(), temp.toPath(), StandardCopyOption.COPY_ATTRIBUTES);
+                    // a deduplicated tile keeps its own time rather than that of its payload
+                    long created = stores.get(from).getLinkedTileCreated(source);
+                    if (created > 0) {
+                        temp.setLastModified(created);
+                    }
+                    Files.createLink(targetFile.toPath(), temp.toPath());
+                    moved = true;
+                } catch (FileAlreadyExistsException e) {
+                    log.finer("Tile " + targetFile + " was written while moving it");
+                } finally {
+                    Files.deleteIfExists(temp.toPath());
+                }
+            }
+            // the owner has the tile now, the stale copy would shadow deletes
+            Files.deleteIfExists(source.toPath());
+            source.getParentFile().delete();
+            if (moved) {
+                relocatedTiles.incrementAndGet();
+            }
+            return moved;
+        } catch (IOException e) {
+            throw new StorageException(
+                    "Failed to move tile from root " + roots.get(from) + " to " + roots.get(to),
+                    e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Lock tileLock(TileObject obj) {
+        String parametersId = obj.getParametersId();
+        if (parametersId == null && obj.getParameters() != null && !obj.getParameters().isEmpty()) {
+            parametersId = ParametersUtils.getId(obj.getParameters());
+        }
+        return tileLocks.get(
+                obj.getLayerName()
+                        + '/'
+                        + obj.getGridSetId()
+                        + '/'
+                        + obj.getBlobFormat()
+                        + '/'
+                        + parametersId
+                        + '/'
+                        + Arrays.toString(obj.getXYZ()));
+    }
+
+    @Override
+    public void put(TileObject obj) throws StorageException {
+        int stripe = getStripe(obj);
+        Set<Integer> previousStripes = previousStripes(obj, stripe);
+        if (previousStripes.isEmpty()) {
+            stores.get(stripe).put(obj);
+            return;
+        }
+        Lock lock = tileLock(obj);
+        lock.lock();
+        try {
+            stores.get(stripe).put(obj);
+            // drop the stale copy, if any, so it doesn't shadow deletes
+            for (int previous : previousStripes) {
+                stores.get(previous).delete(obj);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean delete(TileObject obj) throws StorageException {
+        int stripe = getStripe(obj);
+        Set<Integer> previousStripes = previousStripes(obj, stripe);
+        if (previousStripes.isEmpty()) {
+            return stores.get(stripe).delete(obj);
+        }
+        Lock lock = tileLock(obj);
+        lock.lock();
+        try {
+            boolean deleted = stores.get(stripe).delete(obj);
+            for (int previous : previousStripes) {
+                deleted |= stores.get(previous).delete(obj);
+            }
+            return deleted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves the tiles left in the roots of the previous generations to their owners. Only the
+     * tiles the layers can serve are looked for, those of the configured grid subsets, formats and
+     * zoom levels. Once all roots are clean the manifest keeps the current generation alone and
+     * the previous owners are no longer looked at, otherwise the migration is tried again on the
+     * next start.
+     *
+     * @return {@code true} if the migration completed
+     */
+    boolean migrate(TileLayerDispatcher layers) {
+        List<TreeMap<Long, Integer>> rings = this.rings;
+        if (rings.size() == 1) {
+            return true;
+        }
+        Set<Integer> previousRoots = new LinkedHashSet<>();
+        for (TreeMap<Long, Integer> ring : rings.subList(0, rings.size() - 1)) {
+            previousRoots.addAll(ring.values());
+        }
+        Map<String, TileLayer> layersByDirectory = new HashMap<>();
+        for (TileLayer layer : layers.getLayerList()) {
+            layersByDirectory.put(FilePathUtils.filteredLayerName(layer.getName()), layer);
+        }
+        long start = System.currentTimeMillis();
+        long relocated = relocatedTiles.get();
+        boolean complete = true;
+        for (int root : previousRoots) {
+            File[] layerDirectories = layerDirectories(new File(roots.get(root)));
+            if (layerDirectories == null) {
+                complete = false;
+                continue;
+            }
+            for (File directory : layerDirectories) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+                TileLayer layer = layersByDirectory.get(directory.getName());
+                if (layer == null) {
+                    log.fine("Can't migrate " + directory + ", it's not a configured layer");
+                    complete = false;
+                    continue;
+                }
+                try {
+                    migrate(layer, root);
+                } catch (StorageException | RuntimeException e) {
+                    log.log(Level.WARNING, "Failed to migrate the tiles in " + directory, e);
+                    complete = false;
+                }
+            }
+        }
+        long moved = relocatedTiles.get() - relocated;
+        if (!complete) {
+            log.info(
+                    "Moved "
+                            + moved
+                            + " tiles to their new root, some could not be checked, the striped"
+                            + " blob store at "
+                            + roots.get(0)
+                            + " will migrate again on the next start");
+            return false;
+        }
+        try {
+            writeManifest(new File(roots.get(0)), Collections.singletonList(roots));
+        } catch (StorageException e) {
+            log.log(Level.WARNING, "Failed to record the end of the migration", e);
+            return false;
+        }
+        this.rings = Collections.singletonList(rings.get(rings.size() - 1));
+        log.info(
+                "Moved "
+                        + moved
+                        + " tiles to their new root in "
+                        + (System.currentTimeMillis() - start)
+                        + "ms, the striped blob store at "
+                        + roots.get(0)
+                        + " is fully migrated");
+        return true;
+    }
+
+    private void migrate(TileLayer layer, int root) throws StorageException {
+        FileBlobStore store = stores.get(root);
+        String layerName = layer.getName();
+        List<String> parametersIds = new ArrayList<>(store.getParameterIds(layerName));
+        parametersIds.add(null);
+        for (String gridSetId : layer.getGridSubsets()) {
+            GridSubset subset = layer.getGridSubset(gridSetId);
+            for (MimeType mimeType : layer.getMimeTypes()) {
+                for (String parametersId : parametersIds) {
+                    TileRange range =
+                            new TileRange(
+                                    layerName,
+                                    gridSetId,
+                                    subset.getZoomStart(),
+                                    subset.getZoomStop(),
+                                    subset.getCoverages(),
+                                    mimeType,
+                                    null,
+                                    parametersId);
+                    List<TileObject> misplaced = new ArrayList<>();
+                    store.visitTiles(
+                            range,
+                            (file, x, y, z) -> {
+                                TileObject obj =
+                                        TileObject.createQueryTileObject(
+                                                layerName,
+                                                new long[] {x, y, z},
+                                                gridSetId,
+                                                mimeType.getFormat(),
+                                                null);
+                                obj.setParametersId(parametersId);
+                                if (getStripe(obj) != root) {
+                                    misplaced.add(obj);
+                                }
+                            });
+                    for (TileObject obj : misplaced) {
+                        move(obj, root, getStripe(obj));
+                    }
+                }
+            }
+        }
+    }
+
+    private static File[] layerDirectories(File root) {
+        return root.listFiles(
+                f -> f.isDirectory() && !f.getName().equals("tmp") && !f.getName().startsWith("_"));
+    }
+
+    /** Whether tiles may still be in the roots of previous generations */
+    public boolean isMigrating() {
+        return rings.size() > 1;
+    }
+
+    @Override
+    public boolean delete(TileRange obj) throws StorageException {
+        return allRoots(store -> store.delete(obj)).stream().allMatch(b -> b);
+    }
+
+    @Override
+    public boolean delete(String layerName) throws StorageException {
+        boolean deleted = allRoots(store -> store.delete(layerName)).contains(true);
+        seeds.remove(layerName);
+        listeners.sendLayerDeleted(layerName);
+        return deleted;
+    }
+
+    @Override
+    public boolean deleteByGridsetId(String layerName, String gridSetId)
+            throws StorageException {
+        boolean deleted =
+                allRoots(store -> store.deleteByGridsetId(layerName, gridSetId)).contains(true);
+        listeners.sendGridSubsetDeleted(layerName, gridSetId);
+        return deleted;
+    }
+
+    @Override
+    public boolean deleteByParametersId(String layerName, String parametersId)
+            throws StorageException {
+        boolean deleted =
+                allRoots(store -> store.deleteByParametersId(layerName, parametersId))
+                        .contains(true);
+        listeners.sendParametersDeleted(layerName, parametersId);
+        return deleted;
+    }
+
+    @Override
+    public boolean rename(String oldLayerName, String newLayerName) throws StorageException {
+        for (int i = 0; i < stores.size(); i++) {
+            if (stores.get(i).layerExists(newLayerName)) {
+                throw new StorageException(
+                        "Can't rename layer "
+                                + oldLayerName
+                                + " to "
+                                + newLayerName
+                                + ", the target layer exists in root "
+                                + roots.get(i));
+            }
+        }
+        // the renamed layer keeps being hashed by its original name
+        String seed = seed(oldLayerName);
+        if (seed.equals(oldLayerName) && layerExists(oldLayerName)) {
+            stores.get(0).putLayerMetadata(oldLayerName, STRIPE_SEED, seed);
+        }
+        boolean renamed;
+        try {
+            renamed =
+                    allRoots(store -> store.rename(oldLayerName, newLayerName)).stream()
+                            .allMatch(b -> b);
+        } finally {
+            seeds.remove(oldLayerName);
+            seeds.remove(newLayerName);
+        }
+        if (renamed) {
+            listeners.sendLayerRenamed(oldLayerName, newLayerName);
+        }
+        return renamed;
+    }
+
+    @FunctionalInterface
+    private static interface RootOperation {
+        boolean apply(FileBlobStore store) throws StorageException;
+    }
+
+    /** Runs the operation on every root in parallel and returns the results */
+    private List<Boolean> allRoots(RootOperation operation) throws StorageException {
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < stores.size(); i++) {
+            FileBlobStore store = stores.get(i);
+            futures.add(rootExecutors[i].submit(() -> operation.apply(store)));
+        }
+        List<Boolean> results = new ArrayList<>();
+        StorageException failure = null;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                results.add(futures.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new StorageException("Interrupted waiting for root " + roots.get(i), e);
+            } catch (ExecutionException e) {
+                // wait for the other roots before failing
+                if (failure == null) {
+                    failure =
+                            e.getCause() instanceof StorageException
+                                    ? (StorageException) e.getCause()
+                                    : new StorageException(
+                                            "Operation failed on root " + roots.get(i),
+                                            e.getCause());
+                } else {
+                    log.log(Level.WARNING, "Operation failed on root " + roots.get(i), e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    @Override
+    public void clear() throws StorageException {
+        allRoots(
+                store -> {
+                    store.clear();
+                    return true;
+                });
+    }
+
+    @Override
+    public void destroy() {
+        if (migrationExecutor != null) {
+            migrationExecutor.shutdownNow();
+        }
+        for (ExecutorService executor : rootExecutors) {
+            executor.shutdownNow();
+        }
+        for (FileBlobStore store : stores) {
+            store.destroy();
+        }
+    }
+
+    @Override
+    public void addListener(BlobStoreListener listener) {
+        listeners.addListener(listener);
+    }
+
+    @Override
+    public boolean removeListener(BlobStoreListener listener) {
+        return listeners.removeListener(listener);
+    }
+
+    /** Layer metadata is kept in the primary root, but read from any root for robustness */
+    @Override
+    public String getLayerMetadata(String layerName, String key) {
+        for (FileBlobStore store : stores) {
+            String value = store.getLayerMetadata(layerName, key);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void putLayerMetadata(String layerName, String key, String value) {
+        stores.get(0).putLayerMetadata(layerName, key, value);
+    }
+
+    @Override
+    public boolean layerExists(String layerName) {
+        return stores.stream().anyMatch(store -> store.layerExists(layerName));
+    }
+
+    @Override
+    public Map<String, Optional<Map<String, String>>> getParametersMapping(String layerName) {
+        Map<String, Optional<Map<String, String>>> mapping = new HashMap<>();
+        for (FileBlobStore store : stores) {
+            Map<String, Optional<Map<String, String>>> rootMapping =
+                    store.getParametersMapping(layerName);
+            if (rootMapping != null) {
+                rootMapping.forEach(
+                        (id, parameters) ->
+                                mapping.merge(id, parameters, (a, b) -> a.isPresent() ? a : b));
+            }
+        }
+        return mapping;
+    }
+
+    @Override
+    public Set<String> getParameterIds(String layerName) {
+        Set<String> ids = new HashSet<>();
+        for (FileBlobStore store : stores) {
+            ids.addAll(store.getParameterIds(layerName));
+        }
+        return ids;
+    }
+
+    /** The root directories, the primary one first */
+    public List<String> getRoots() {
+        return Collections.unmodifiableList(roots);
+    }
+
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    /** Number of tiles moved to their new root after roots were added */
+    public long getRelocatedTiles() {
+        return relocatedTiles.get();
+    }
+
+    /**
+     * Forwards the tile events of the roots, the other ones are sent once by the striped store
+     * itself
+     */
+    private class TileEventForwarder implements BlobStoreListener {
+
+        @Override
+        public void tileStored(
+                String layerName,
+                String gridSetId,
+                String blobFormat,
+                String parametersId,
+                long x,
+                long y,
+                int z,
+                long blobSize) {
+            listeners.sendTileStored(
+                    layerName, gridSetId, blobFormat, parametersId, x, y, z, blobSize);
+        }
+
+        @Override
+        public void tileDeleted(
+                String layerName,
+                String gridSetId,
+                String blobFormat,
+                String parametersId,
+                long x,
+                long y,
+                int z,
+                long blobSize) {
+            listeners.sendTileDeleted(
+                    layerName, gridSetId, blobFormat, parametersId, x, y, z, blobSize);
+        }
+
+        @Override
+        public void tileUpdated(
+                String layerName,
+                String gridSetId,
+                String blobFormat,
+                String parametersId,
+                long x,
+                long y,
+                int z,
+                long blobSize,
+                long oldSize) {
+            listeners.sendTileUpdated(
+                    layerName, gridSetId, blobFormat, parametersId, x, y, z, blobSize, oldSize);
+        }
+
+        @Override
+        public void layerDeleted(String layerName) {}
+
+        @Override
+        public void layerRenamed(String oldLayerName, String newLayerName) {}
+
+        @Override
+        public void gridSubsetDeleted(String layerName, String gridSetId) {}
+
+        @Override
+        public void parametersDeleted(String layerName, String parametersId) {}
+    }
+}
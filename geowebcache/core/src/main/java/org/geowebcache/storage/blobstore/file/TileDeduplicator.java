@@ -0,0 +1,382 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage.blobstore.file;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.io.Resource;
+import org.geowebcache.util.FileUtils;
+
+/**
+ * Content addressed storage of tile payloads for {@link FileBlobStore}.
+ *
+ * <p>Each distinct tile content is written once under the {@value #DEDUP_DIRECTORY} directory,
+ * named after its SHA-256 hash, and tile files are hard links to it. Reading a tile is still a
+ * single file lookup. Since tile files are always replaced by renaming a new file over them, never
+ * written in place, a shared payload is never modified.
+ *
+ * <p>Tiles sharing a payload share its modification time, the creation time of the first tile
+ * stored with its contents, never touched afterwards. Tiles created in another second keep their
+ * own creation time as the modification time of an empty file at the same relative path under the
+ * {@value #TIMES_DIRECTORY} directory, outside of the tile tree. It is only looked up for tiles
+ * that are links, a tile written as is never reports the time of a previous deduplicated one.
+ *
+ * <p>Deleting a tile only removes its link, payloads no longer referenced by any tile and the
+ * creation times of tiles no longer linked are removed by {@link #sweep()}.
+ */
+public class TileDeduplicator {
+
+    private static Logger log = Logging.getLogger(TileDeduplicator.class.getName());
+
+    public static final String DEDUP_DIRECTORY = "_gwc_dedup_";
+
+    /** Directory under {@link #DEDUP_DIRECTORY} holding the creation times of linked tiles */
+    public static final String TIMES_DIRECTORY = "times";
+
+    private final Path baseDirectory;
+
+    private final File root;
+
+    private final Path times;
+
+    private final File tmp;
+
+    private final TempFileNameGenerator tmpGenerator;
+
+    private final AtomicLong deduplicatedTiles = new AtomicLong();
+
+    private final AtomicLong deduplicatedBytes = new AtomicLong();
+
+    private final AtomicLong payloadCount = new AtomicLong();
+
+    private final AtomicLong payloadBytes = new AtomicLong();
+
+    TileDeduplicator(File baseDirectory, File tmp, TempFileNameGenerator tmpGenerator) {
+        this.baseDirectory = baseDirectory.toPath().toAbsolutePath();
+        this.root = new File(baseDirectory, DEDUP_DIRECTORY);
+        this.times = root.toPath().toAbsolutePath().resolve(TIMES_DIRECTORY);
+        this.tmp = tmp;
+        this.tmpGenerator = tmpGenerator;
+    }
+
+    /**
+     * Hard links are widely available, but telling whether a payload is still referenced needs the
+     * link count, which is only exposed by the "unix" file attribute view
+     */
+    static boolean isSupported(File baseDirectory) {
+        return baseDirectory
+                .toPath()
+                .getFileSystem()
+                .supportedFileAttributeViews()
+                .contains("unix");
+    }
+
+    /** A payload file, and whether tiles stored before share it */
+    static final class Payload {
+
+        final File file;
+
+        final long lastModified;
+
+        final long size;
+
+        final boolean shared;
+
+        Payload(File file, long lastModified, long size, boolean shared) {
+            this.file = file;
+            this.lastModified = lastModified;
+            this.size = size;
+            this.shared = shared;
+        }
+    }
+
+    /**
+     * Returns the payload file holding the blob contents, writing it if no tile with the same
+     * contents was stored before.
+     *
+     * @param blob the tile contents
+     * @param created the tile creation time, or zero for the current time
+     * @return the payload to link the tile to, or {@code null} if the payload could not be written
+     */
+    Payload getPayload(Resource blob, long created) {
+        try {
+            final File payload = payloadFile(hash(blob));
+            final long size = blob.getSize();
+            long lastModified = payload.lastModified();
+            if (lastModified > 0) {
+                return new Payload(payload, lastModified, size, true);
+            }
+            Files.createDirectories(payload.getParentFile().toPath());
+            tmp.mkdirs();
+            File temp = new File(tmp, tmpGenerator.newName());
+            boolean written = false;
+            try {
+                try (FileOutputStream fos = new FileOutputStream(temp);
+                        FileChannel channel = fos.getChannel()) {
+                    blob.transferTo(channel);
+                }
+                long time = created > 0 ? created : System.currentTimeMillis();
+                if (!temp.setLastModified(time)) {
+                    throw new IOException("Could not set the modification time of " + temp);
+                }
+                if (FileUtils.renameFile(temp, payload)) {
+                    temp = null;
+                    written = true;
+                    payloadCount.incrementAndGet();
+                    payloadBytes.addAndGet(size);
+                }
+                // otherwise another thread wrote the same contents in the meantime
+            } finally {
+                if (temp != null) {
+                    temp.delete();
+                }
+            }
+            lastModified = payload.lastModified();
+            return lastModified > 0 ? new Payload(payload, lastModified, size, !written) : null;
+        } catch (IOException e) {
+            log.log(Level.FINE, "Could not write deduplicated payload, storing tile as is", e);
+            return null;
+        }
+    }
+
+    /**
+     * Called once a tile got linked to its payload, records the tile creation time unless in the
+     * same second as the payload one, as HTTP dates do not tell them apart anyway
+     *
+     * @param tile the tile file
+     * @param payload the payload it is linked to
+     * @param created the tile creation time, or zero for the current time
+     */
+    void linked(File tile, Payload payload, long created) {
+        if (payload.shared) {
+            deduplicatedTiles.incrementAndGet();
+            deduplicatedBytes.addAndGet(payload.size);
+        }
+        final long time = created > 0 ? created : System.currentTimeMillis();
+        final File entry = timeFile(tile);
+        try {
+            if (time / 1000 == payload.lastModified / 1000) {
+                Files.deleteIfExists(entry.toPath());
+                return;
+            }
+            Files.createDirectories(entry.getParentFile().toPath());
+            entry.createNewFile();
+            if (!entry.setLastModified(time)) {
+                throw new IOException("Could not set the modification time of " + entry);
+            }
+        } catch (IOException e) {
+            // the tile reports the earlier time of its payload, and is refreshed sooner
+            log.log(Level.FINE, "Could not record the creation time of " + tile, e);
+        }
+    }
+
+    /** Called once a tile got written as is, its former creation time no longer applies */
+    void unlinked(File tile) {
+        try {
+            Files.deleteIfExists(timeFile(tile).toPath());
+        } catch (IOException e) {
+            log.log(Level.FINE, "Could not delete the creation time of " + tile, e);
+        }
+    }
+
+    /**
+     * Returns the creation time of a tile linked to a payload
+     *
+     * @param tile the tile file
+     * @param lastModified its modification time, that of the payload
+     */
+    long getCreated(File tile, long lastModified) {
+        long created = timeFile(tile).lastModified();
+        return created > 0 ? created : lastModified;
+    }
+
+    /** Moves the creation times of the tiles in a layer directory renamed to another one */
+    void renamed(File oldLayerPath, File newLayerPath) {
+        File oldTimes = timeFile(oldLayerPath);
+        if (oldTimes.exists()) {
+            File newTimes = timeFile(newLayerPath);
+            newTimes.getParentFile().mkdirs();
+            if (!FileUtils.renameFile(oldTimes, newTimes)) {
+                // the tiles report the earlier time of their payloads
+                log.fine("Could not move the creation times of " + oldLayerPath);
+            }
+        }
+    }
+
+    private File payloadFile(String hash) {
+        File dir = new File(new File(root, hash.substring(0, 2)), hash.substring(2, 4));
+        return new File(dir, hash);
+    }
+
+    private File timeFile(File tile) {
+        return times.resolve(baseDirectory.relativize(tile.toPath().toAbsolutePath())).toFile();
+    }
+
+    static String hash(Resource blob) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[8192];
+        try (InputStream in = blob.getInputStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        StringBuilder sb = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Removes the payloads no longer linked by any tile, and the creation times of tiles no longer
+     * linked. Recomputes the physical size of the remaining payloads.
+     *
+     * @return the number of payloads removed
+     */
+    public long sweep() {
+        if (!root.exists()) {
+            return 0;
+        }
+        long removed = 0;
+        long count = 0;
+        long bytes = 0;
+        try (Stream<Path> payloads = Files.walk(root.toPath().toAbsolutePath())) {
+            for (Path payload : (Iterable<Path>) payloads::iterator) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return removed;
+                }
+                if (payload.startsWith(times) || !Files.isRegularFile(payload)) {
+                    continue;
+                }
+                try {
+                    int links = (Integer) Files.getAttribute(payload, "unix:nlink");
+                    long size = Files.size(payload);
+                    // a payload just written might be swept before being linked, in that case
+                    // FileBlobStore falls back on writing the tile as is
+                    if (links <= 1) {
+                        Files.deleteIfExists(payload);
+                        removed++;
+                    } else {
+                        count++;
+                        bytes += size;
+                    }
+                } catch (IOException e) {
+                    log.log(Level.FINE, "Could not check deduplicated payload " + payload, e);
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.log(Level.WARNING, "Failed to sweep deduplicated payloads under " + root, e);
+        }
+        payloadCount.set(count);
+        payloadBytes.set(bytes);
+        if (removed > 0) {
+            log.fine("Removed " + removed + " unreferenced tile payloads");
+        }
+        sweepTimes();
+        return removed;
+    }
+
+    /** Removes the creation times of tiles deleted or written as is, and the emptied directories */
+    private void sweepTimes() {
+        if (!Files.isDirectory(times)) {
+            return;
+        }
+        List<Path> directories = new ArrayList<>();
+        try (Stream<Path> entries = Files.walk(times)) {
+            for (Path entry : (Iterable<Path>) entries::iterator) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                if (Files.isDirectory(entry)) {
+                    directories.add(entry);
+                    continue;
+                }
+                Path tile = baseDirectory.resolve(times.relativize(entry));
+                try {
+                    if (!isLinked(tile)) {
+                        Files.deleteIfExists(entry);
+                    }
+                } catch (IOException e) {
+                    log.log(Level.FINE, "Could not check the creation time of " + tile, e);
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.log(Level.WARNING, "Failed to sweep tile creation times under " + times, e);
+        }
+        // deepest first, only empty ones go
+        Collections.reverse(directories);
+        for (Path directory : directories) {
+            if (!directory.equals(times)) {
+                directory.toFile().delete();
+            }
+        }
+    }
+
+    private static boolean isLinked(Path tile) throws IOException {
+        try {
+            return (Integer) Files.getAttribute(tile, "unix:nlink") > 1;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    /** @return number of tiles stored by linking to the payload of an identical tile */
+    public long getDeduplicatedTiles() {
+        return deduplicatedTiles.get();
+    }
+
+    /** @return bytes not written thanks to deduplication */
+    public long getDeduplicatedBytes() {
+        return deduplicatedBytes.get();
+    }
+
+    /** @return number of distinct payloads, as of the last sweep plus the ones written since */
+    public long getPayloadCount() {
+        return payloadCount.get();
+    }
+
+    /**
+     * @return physical size of the distinct payloads, as of the last sweep plus the ones written
+     *     since. The blob store listeners, and so disk quota, are told about the logical size of
+     *     each tile instead.
+     */
+    public long getPayloadBytes() {
+        return payloadBytes.get();
+    }
+}
@@ -16,6 +16,7 @@
 
 import java.util.List;
 import org.geowebcache.storage.TileObject;
+import org.geowebcache.storage.TileRange;
 import org.geowebcache.storage.blobstore.memory.CacheConfiguration.EvictionPolicy;
 
 /**
@@ -40,6 +41,15 @@ public interface CacheProvider {
     /** Removes all the {@link TileObject}s for the related layer from cache. */
     public void removeLayer(String layername);
 
+    /**
+     * Removes the {@link TileObject}s of the given range from cache: same layer, gridset, format
+     * and parameters, within the zoom levels and their bounds. Implementations may remove more
+     * tiles than strictly needed, the default one removes the whole layer.
+     */
+    public default void removeTiles(TileRange range) {
+        removeLayer(range.getLayerName());
+    }
+
     /** Removes all the cached {@link TileObject}s */
     public void clear();
 
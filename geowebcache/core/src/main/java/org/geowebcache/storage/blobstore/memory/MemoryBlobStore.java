@@ -20,12 +20,19 @@
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
@@ -34,6 +41,7 @@
 import org.apache.commons.io.output.ByteArrayOutputStream;
 import org.geotools.util.logging.Logging;
 import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.io.EncodedResource;
 import org.geowebcache.io.Resource;
 import org.geowebcache.storage.BlobStore;
 import org.geowebcache.storage.BlobStoreListener;
@@ -44,14 +52,23 @@
 import org.springframework.beans.BeansException;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 /**
  * This class is an implementation of the {@link BlobStore} interface wrapping another {@link
  * BlobStore} implementation and supporting in memory caching. Caching is provided by an input
- * {@link CacheProvider} object. It must be pointed out that this Blobstore has an asynchronous
- * relation with the underlying wrapped {@link BlobStore}. In fact, each operation on the wrapped
- * {@link BlobStore} is scheduled in a queue and will be done by an executor thread. Operations that
- * require a boolean value will have to wait until previous tasks are completed.
+ * {@link CacheProvider} object.
+ *
+ * <p>Reads of the wrapped {@link BlobStore} on a cache miss run on the calling thread, so they scale
+ * with the wrapped store concurrency. Writes and single tile deletes are queued on a set of writer
+ * threads, each tile always going to the same one so that operations on a tile keep their order.
+ * Puts wait for the wrapped store write to complete unless {@link #setWriteBehind(boolean) write
+ * behind} is enabled, in which case the tile is served from memory until written. Operations
+ * affecting many tiles (layer, gridset, range deletes, clear, rename) run once all the previously
+ * queued operations are done, and reads issued after them wait for them to complete. The number of
+ * writer threads and their queue size are set with the {@code gwc.memoryBlobStore.writeThreads}
+ * and {@code gwc.memoryBlobStore.writeQueueSize} system properties, callers block when a queue is
+ * full.
  *
  * @author Nicola Lagomarsini Geosolutions
  */
@@ -66,8 +83,46 @@ public class MemoryBlobStore implements BlobStore, ApplicationContextAware {
     /** {@link CacheProvider} object to use for caching */
     private CacheProvider cacheProvider;
 
-    /** Executor service used for scheduling cacheProvider store operations like put,delete,... */
-    private final ExecutorService executorService;
+    public static final String PROPERTY_WRITE_THREADS = "gwc.memoryBlobStore.writeThreads";
+
+    public static final String PROPERTY_WRITE_QUEUE_SIZE = "gwc.memoryBlobStore.writeQueueSize";
+
+    /** Blocks the caller until there is room in the queue, keeping the per tile ordering */
+    private static final RejectedExecutionHandler BLOCK_WHEN_FULL =
+            (r, executor) -> {
+                if (executor.isShutdown()) {
+                    throw new RejectedExecutionException("MemoryBlobStore has been destroyed");
+                }
+                try {
+                    executor.getQueue().put(r);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException(e);
+                }
+            };
+
+    /**
+     * Single threaded executors used for scheduling the wrapped store operations like put,
+     * delete,... Operations on a tile always go to the same one.
+     */
+    private final ThreadPoolExecutor[] writers;
+
+    /** Serializes the submission of operations that go to all the writers */
+    private final Object barrierLock = new Object();
+
+    /** Last submitted operation going to all the writers, reads wait for it */
+    private volatile CompletableFuture<Boolean> lastBarrier;
+
+    /** Tiles with a queued write or delete, by tile key */
+    private final Map<String, PendingOperation> pending = new ConcurrentHashMap<>();
+
+    private volatile boolean writeBehind;
+
+    private final AtomicLong tasksExecuted = new AtomicLong();
+
+    private final AtomicLong totalQueueWait = new AtomicLong();
+
+    private final AtomicLong maxQueueWait = new AtomicLong();
 
     /**
      * Optional name used for searching the bean related to the CacheProvider to set in the
@@ -96,7 +151,23 @@ public class MemoryBlobStore implements BlobStore, ApplicationContextAware {
 
     public MemoryBlobStore() {
         // Initialization of the various elements
-        this.executorService = Executors.newFixedThreadPool(1);
+        int threads = Math.max(1, Integer.getInteger(PROPERTY_WRITE_THREADS, 4));
+        int queueSize = Math.max(1, Integer.getInteger(PROPERTY_WRITE_QUEUE_SIZE, 1000));
+        this.writers = new ThreadPoolExecutor[threads];
+        for (int i = 0; i < threads; i++) {
+            CustomizableThreadFactory tf =
+                    new CustomizableThreadFactory("GWC MemoryBlobStore writer " + i + "-");
+            tf.setDaemon(true);
+            writers[i] =
+                    new ThreadPoolExecutor(
+                            1,
+                            1,
+                            0,
+                            TimeUnit.MILLISECONDS,
+                            new ArrayBlockingQueue<>(queueSize),
+                            tf,
+                            BLOCK_WHEN_FULL);
+        }
         lock = new ReentrantReadWriteLock(true);
         blobStoreStateLock = lock.writeLock();
         componentsStateLock = lock.readLock();
@@ -128,7 +199,8 @@ public boolean delete(String layerName) throws StorageException {
             // Remove from cacheProvider
             cacheProvider.removeLayer(layerName);
             // Remove the layer. Wait other scheduled tasks
-            boolean executed = executeBlobStoreTask(BlobStoreAction.DELETE_LAYER, store, layerName);
+            removePending(layerName);
+            boolean executed = waitFor(submitToAll(BlobStoreAction.DELETE_LAYER, layerName));
             if (log.isLoggable(Level.FINE)) {
                 if (executed) {
                     log.fine("Delete Layer Task executed");
@@ -156,8 +228,8 @@ public boolean deleteByGridsetId(String layerName, String gridSetId) throws Stor
                 log.fine("Scheduling GridSet: " + gridSetId + " removal for Layer: " + layerName);
             }
             // Remove selected gridsets
-            executorService.submit(
-                    new BlobStoreTask(store, BlobStoreAction.DELETE_GRIDSET, layerName, gridSetId));
+            removePending(layerName);
+            submitToAll(BlobStoreAction.DELETE_GRIDSET, layerName, gridSetId);
             return true;
         } finally {
             componentsStateLock.unlock();
@@ -177,7 +249,10 @@ public boolean delete(TileObject obj) throws StorageException {
             if (log.isLoggable(Level.FINE)) {
                 log.fine("Scheduling removal of TileObject: " + obj);
             }
-            executorService.submit(new BlobStoreTask(store, BlobStoreAction.DELETE_SINGLE, obj));
+            String key = GuavaCacheProvider.generateTileKey(obj);
+            PendingOperation deletion = new PendingOperation(obj.getLayerName(), null);
+            pending.put(key, deletion);
+            submitOrdered(key, deletion, BlobStoreAction.DELETE_SINGLE, obj);
             return true;
         } finally {
             componentsStateLock.unlock();
@@ -200,8 +275,8 @@ public boolean delete(TileRange obj) throws StorageException {
                                 + "], Gridset: "
                                 + obj.getGridSetId());
             }
-            // Remove layer for the cacheProvider
-            cacheProvider.removeLayer(obj.getLayerName());
+            // Remove the tiles of the range from the cacheProvider
+            cacheProvider.removeTiles(obj);
             // Remove selected TileObject
             if (log.isLoggable(Level.FINE)) {
                 log.fine(
@@ -216,7 +291,8 @@ public boolean delete(TileRange obj) throws StorageException {
                                 + obj.getGridSetId());
             }
             // Remove selected TileRange
-            executorService.submit(new BlobStoreTask(store, BlobStoreAction.DELETE_RANGE, obj));
+            removePending(obj.getLayerName());
+            submitToAll(BlobStoreAction.DELETE_RANGE, obj);
             return true;
         } finally {
             componentsStateLock.unlock();
@@ -239,18 +315,24 @@ public boolean get(TileObject obj) throws StorageException {
                                     + obj
                                     + " not found. Try to get it from the wrapped blobstore");
                 }
-                // Try if it can be found in the system. Wait other scheduled tasks
-                found = executeBlobStoreTask(BlobStoreAction.GET, store, obj);
-
-                // If the file has been found, it is inserted in cacheProvider
-                if (found) {
-                    if (log.isLoggable(Level.FINE)) {
-                        log.fine("TileObject:" + obj + " found. Put it in cache");
+                PendingOperation queued = pending.get(GuavaCacheProvider.generateTileKey(obj));
+                if (queued != null) {
+                    // not written (or deleted) yet, the queued operation has the latest state
+                    cached = queued.tile;
+                    found = cached != null;
+                } else {
+                    // Try if it can be found in the system
+                    found = getFromStore(obj);
+                    // If the file has been found, it is inserted in cacheProvider
+                    if (found) {
+                        if (log.isLoggable(Level.FINE)) {
+                            log.fine("TileObject:" + obj + " found. Put it in cache");
+                        }
+                        // Get the Cached TileObject
+                        cached = getByteResourceTile(obj);
+                        // Put the file in Cache
+                        cacheProvider.putTileObj(cached);
                     }
-                    // Get the Cached TileObject
-                    cached = getByteResourceTile(obj);
-                    // Put the file in Cache
-                    cacheProvider.putTileObj(cached);
                 }
             } else {
                 // Found in cacheProvider
@@ -273,6 +355,38 @@ public boolean get(TileObject obj) throws StorageException {
         }
     }
 
+    /**
+     * Answers from the cache or the pending writes if possible, otherwise checks the wrapped store
+     * without caching the tile
+     */
+    @Override
+    public boolean getMetadata(TileObject obj) throws StorageException {
+        componentsStateLock.lock();
+        try {
+            TileObject cached = cacheProvider.getTileObj(obj);
+            if (cached == null) {
+                PendingOperation queued = pending.get(GuavaCacheProvider.generateTileKey(obj));
+                if (queued == null) {
+                    CompletableFuture<Boolean> barrier = lastBarrier;
+                    if (barrier != null && !barrier.isDone()) {
+                        waitFor(barrier);
+                    }
+                    return store.getMetadata(obj);
+                }
+                cached = queued.tile;
+                if (cached == null) {
+                    return false;
+                }
+            }
+            Resource resource = cached.getBlob();
+            obj.setCreated(resource.getLastModified());
+            obj.setBlobSize((int) resource.getSize());
+            return true;
+        } finally {
+            componentsStateLock.unlock();
+        }
+    }
+
     @Override
     public void put(TileObject obj) throws StorageException {
         componentsStateLock.lock();
@@ -289,8 +403,16 @@ public void put(TileObject obj) throws StorageException {
             if (log.isLoggable(Level.FINE)) {
                 log.fine("Adding TileObject: " + obj + " to the wrapped blobstore");
             }
-            // Variable containing the execution result
-            executeBlobStoreTask(BlobStoreAction.PUT, store, obj);
+            String key = GuavaCacheProvider.generateTileKey(obj);
+            if (writeBehind) {
+                // the caller may reuse the input resource, write the copy
+                cached.setCreated(obj.getCreated());
+                PendingOperation write = new PendingOperation(obj.getLayerName(), cached);
+                pending.put(key, write);
+                submitOrdered(key, write, BlobStoreAction.PUT, cached);
+            } else {
+                waitFor(submitOrdered(key, null, BlobStoreAction.PUT, obj));
+            }
         } finally {
             componentsStateLock.unlock();
         }
@@ -306,7 +428,8 @@ public void clear() throws StorageException {
             // flush the cacheProvider
             cacheProvider.clear();
             // Remove all the files
-            executorService.submit(new BlobStoreTask(store, BlobStoreAction.CLEAR, ""));
+            pending.clear();
+            submitToAll(BlobStoreAction.CLEAR, "");
         } finally {
             componentsStateLock.unlock();
         }
@@ -325,9 +448,12 @@ public void destroy() {
             if (log.isLoggable(Level.FINE)) {
                 log.fine("Destroy wrapped store");
             }
-            executeBlobStoreTask(BlobStoreAction.DESTROY, store, "");
+            pending.clear();
+            waitFor(submitToAll(BlobStoreAction.DESTROY, ""));
             // Stop the pending tasks
-            executorService.shutdown();
+            for (ThreadPoolExecutor writer : writers) {
+                writer.shutdown();
+            }
         } finally {
             blobStoreStateLock.unlock();
         }
@@ -375,8 +501,9 @@ public boolean rename(String oldLayerName, String newLayerName) throws StorageEx
                 log.fine("Executing Layer rename task");
             }
             // Variable containing the execution result
+            removePending(oldLayerName);
             boolean executed =
-                    executeBlobStoreTask(BlobStoreAction.RENAME, store, oldLayerName, newLayerName);
+                    waitFor(submitToAll(BlobStoreAction.RENAME, oldLayerName, newLayerName));
             return executed;
         } finally {
             componentsStateLock.unlock();
@@ -477,15 +604,20 @@ public void setCacheProvider(CacheProvider cache) {
      * @return a TileObject with resource stored in a Byte Array
      */
     private TileObject getByteResourceTile(TileObject obj) throws StorageException {
-        // Get TileObject resource
+        // Get TileObject resource, keeping compressed contents compressed
         Resource blob = obj.getBlob();
+        EncodedResource encoded = null;
+        if (blob instanceof EncodedResource) {
+            encoded = (EncodedResource) blob;
+            blob = encoded.getEncoded();
+        }
         final ByteArrayResource finalBlob;
         // If it is a ByteArrayResource, the result is simply copied
-        if (obj.getBlob() instanceof ByteArrayResource) {
+        if (blob instanceof ByteArrayResource) {
             if (log.isLoggable(Level.FINE)) {
                 log.fine("Resource is already a Byte Array, only a copy is needed");
             }
-            ByteArrayResource byteArrayResource = (ByteArrayResource) obj.getBlob();
+            ByteArrayResource byteArrayResource = (ByteArrayResource) blob;
             byte[] contents = byteArrayResource.getContents();
             finalBlob = new ByteArrayResource(contents);
         } else {
@@ -511,7 +643,9 @@ private TileObject getByteResourceTile(TileObject obj) throws StorageException {
                         obj.getGridSetId(),
                         obj.getBlobFormat(),
                         obj.getParameters(),
-                        finalBlob);
+                        encoded == null ? finalBlob : encoded.withEncoded(finalBlob));
+        // the cache size accounts for the bytes held
+        cached.setBlobSize((int) finalBlob.getSize());
         return cached;
     }
 
@@ -599,8 +733,113 @@ public void setApplicationContext(ApplicationContext applicationContext) throws
         }
     }
 
-    private boolean executeBlobStoreTask(BlobStoreAction action, BlobStore store, Object... objs) {
-        Future<Boolean> future = executorService.submit(new BlobStoreTask(store, action, objs));
+    /**
+     * Enables write behind: puts return as soon as the tile is in memory and queued for writing,
+     * instead of waiting for the wrapped store write to complete
+     */
+    public void setWriteBehind(boolean writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    /** @return number of operations waiting in the writer queues */
+    public int getWriteQueueSize() {
+        int size = 0;
+        for (ThreadPoolExecutor writer : writers) {
+            size += writer.getQueue().size();
+        }
+        return size;
+    }
+
+    /** @return number of tiles with a write or delete not yet applied to the wrapped store */
+    public int getPendingTileCount() {
+        return pending.size();
+    }
+
+    /** @return average time operations spent queued before running, in milliseconds */
+    public long getAverageQueueWait() {
+        long executed = tasksExecuted.get();
+        return executed == 0 ? 0 : totalQueueWait.get() / executed;
+    }
+
+    /** @return the longest time an operation spent queued before running, in milliseconds */
+    public long getMaxQueueWait() {
+        return maxQueueWait.get();
+    }
+
+    /** Reads from the wrapped store, after any previously submitted bulk operation completed */
+    private boolean getFromStore(TileObject obj) {
+        CompletableFuture<Boolean> barrier = lastBarrier;
+        if (barrier != null && !barrier.isDone()) {
+            waitFor(barrier);
+        }
+        try {
+            return store.get(obj);
+        } catch (StorageException e) {
+            if (log.isLoggable(Level.SEVERE)) {
+                log.log(Level.SEVERE, e.getMessage(), e);
+            }
+            return false;
+        }
+    }
+
+    private void removePending(String layerName) {
+        pending.values().removeIf(p -> layerName.equals(p.layerName));
+    }
+
+    /**
+     * Queues an operation on the writer owning the tile key
+     *
+     * @param operation the pending operation to clear once done, may be null
+     */
+    private Future<Boolean> submitOrdered(
+            String key, PendingOperation operation, BlobStoreAction action, Object... objs) {
+        ThreadPoolExecutor writer = writers[Math.floorMod(key.hashCode(), writers.length)];
+        QueuedTask task = new QueuedTask(new BlobStoreTask(store, action, objs));
+        if (operation != null) {
+            task.result.whenComplete((r, e) -> pending.remove(key, operation));
+        }
+        writer.execute(task);
+        return task.result;
+    }
+
+    /**
+     * Queues an operation on all the writers, it runs once all of them are done with the
+     * operations queued before it, and holds them until it completes
+     */
+    private CompletableFuture<Boolean> submitToAll(BlobStoreAction action, Object... objs) {
+        final BlobStoreTask operation = new BlobStoreTask(store, action, objs);
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        final CountDownLatch arrived = new CountDownLatch(writers.length);
+        synchronized (barrierLock) {
+            for (int i = 0; i < writers.length; i++) {
+                final boolean leader = i == 0;
+                Callable<Boolean> step =
+                        () -> {
+                            arrived.countDown();
+                            if (leader) {
+                                arrived.await();
+                                try {
+                                    result.complete(operation.call());
+                                } catch (Exception e) {
+                                    result.completeExceptionally(e);
+                                }
+                            } else {
+                                waitFor(result);
+                            }
+                            return true;
+                        };
+                writers[i].execute(new QueuedTask(step));
+            }
+            lastBarrier = result;
+        }
+        return result;
+    }
+
+    private boolean waitFor(Future<Boolean> future) {
         // Variable containing the execution result
         boolean executed = false;
         if (log.isLoggable(Level.FINE)) {
@@ -609,7 +848,12 @@ private boolean executeBlobStoreTask(BlobStoreAction action, BlobStore store, Ob
         try {
             // Waiting tasks
             executed = future.get();
-        } catch (InterruptedException | ExecutionException e) {
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (log.isLoggable(Level.SEVERE)) {
+                log.log(Level.SEVERE, e.getMessage(), e);
+            }
+        } catch (ExecutionException e) {
             if (log.isLoggable(Level.SEVERE)) {
                 log.log(Level.SEVERE, e.getMessage(), e);
             }
@@ -617,6 +861,46 @@ private boolean executeBlobStoreTask(BlobStoreAction action, BlobStore store, Ob
         return executed;
     }
 
+    /** A write or delete queued for a tile, {@code tile} is null for deletes */
+    private static class PendingOperation {
+
+        final String layerName;
+
+        final TileObject tile;
+
+        PendingOperation(String layerName, TileObject tile) {
+            this.layerName = layerName;
+            this.tile = tile;
+        }
+    }
+
+    /** Wraps a task queued on a writer, tracking how long it waited in the queue */
+    private class QueuedTask implements Runnable {
+
+        private final Callable<Boolean> task;
+
+        private final long queuedAt = System.currentTimeMillis();
+
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        QueuedTask(Callable<Boolean> task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            long wait = System.currentTimeMillis() - queuedAt;
+            tasksExecuted.incrementAndGet();
+            totalQueueWait.addAndGet(wait);
+            maxQueueWait.accumulateAndGet(wait, Math::max);
+            try {
+                result.complete(task.call());
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+
     /**
      * {@link Callable} implementation used for creating various tasks to submit to the {@link
      * MemoryBlobStore} executor service.
@@ -796,9 +1080,8 @@ public boolean deleteByParametersId(String layerName, String parametersId)
                                 + layerName);
             }
             // Remove selected parameters
-            executorService.submit(
-                    new BlobStoreTask(
-                            store, BlobStoreAction.DELETE_PARAMS_ID, layerName, parametersId));
+            removePending(layerName);
+            submitToAll(BlobStoreAction.DELETE_PARAMS_ID, layerName, parametersId);
             return true;
         } finally {
             componentsStateLock.unlock();
@@ -17,14 +17,19 @@
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
 import com.google.common.cache.Weigher;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -36,12 +41,13 @@
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.geotools.util.logging.Logging;
+import org.geowebcache.filter.parameters.ParametersUtils;
 import org.geowebcache.storage.TileObject;
+import org.geowebcache.storage.TileRange;
 import org.geowebcache.storage.blobstore.memory.CacheConfiguration;
 import org.geowebcache.storage.blobstore.memory.CacheConfiguration.EvictionPolicy;
 import org.geowebcache.storage.blobstore.memory.CacheProvider;
 import org.geowebcache.storage.blobstore.memory.CacheStatistics;
-import org.geowebcache.util.SuppressFBWarnings;
 
 /**
  * This class is an implementation of the {@link CacheProvider} interface using a backing Guava
@@ -168,7 +174,10 @@ private void initCache(CacheConfiguration configuration) {
                                     currentSize.addAndGet(-obj.getBlobSize());
                                     final String tileKey = generateTileKey(obj);
                                     final String layerName = obj.getLayerName();
-                                    multimap.removeTile(layerName, tileKey);
+                                    // a replaced tile is indexed again by putTileObj()
+                                    if (notification.getCause() != RemovalCause.REPLACED) {
+                                        multimap.removeTile(obj, tileKey);
+                                    }
                                     if (LOGGER.isLoggable(Level.FINE)) {
                                         LOGGER.fine(
                                                 "Removed tile "
@@ -309,7 +318,7 @@ public void putTileObj(TileObject obj) {
                 String id = generateTileKey(obj);
                 // Add the TileObject to the cache and its id in the multimap
                 cache.put(id, obj);
-                multimap.putTile(obj.getLayerName(), id);
+                multimap.putTile(obj, id);
             } finally {
                 // Decrement the number of current operations.
                 actualOperations.decrementAndGet();
@@ -382,6 +391,39 @@ public void removeLayer(String layername) {
         }
     }
 
+    @Override
+    public void removeTiles(TileRange range) {
+        // Check if the cache has already been configured
+        if (configured.get()) {
+            // Increment the number of current operations
+            // This behavior is used in order to wait
+            // the end of all the operations after setting
+            // the configured parameter to false
+            actualOperations.incrementAndGet();
+            try {
+                // Check if the layer must be cached
+                if (layers.contains(range.getLayerName())) {
+                    // The layer must not be cached
+                    return;
+                }
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.fine(
+                            "Removing tiles of Layer: "
+                                    + range.getLayerName()
+                                    + " in range from cache");
+                }
+                // Get the TileObject ids within the range and removes them
+                Set<String> keys = multimap.removeTiles(range);
+                if (!keys.isEmpty()) {
+                    cache.invalidateAll(keys);
+                }
+            } finally {
+                // Decrement the number of current operations.
+                actualOperations.decrementAndGet();
+            }
+        }
+    }
+
     @Override
     public void clear() {
         // Check if the cache has already been configured
@@ -604,9 +646,13 @@ public boolean isAvailable() {
 
     /**
      * Internal class representing a concurrent multimap which associates to each Layer name the
-     * related {@link TileObject} cache keys. This map is useful when trying to remove a Layer,
-     * because it returns quicly all the cached keys of the selected layer, without having to cycle
-     * on the cache and checking if each TileObject belongs to the selected Layer.
+     * related {@link TileObject} cache keys. This map is useful when trying to remove a Layer or a
+     * {@link TileRange}, because it returns quickly the matching cached keys, without having to
+     * cycle on the cache and checking each TileObject.
+     *
+     * <p>Within a Layer the keys are grouped by gridset, format and parameters, then by zoom level,
+     * and sorted by the Morton code of the tile coordinates: the tiles within the bounds of a range
+     * all fall between the codes of its lower left and upper right corners.
      *
      * @author Nicola Lagomarsini, GeoSolutions
      */
@@ -621,8 +667,10 @@ static class LayerMap {
         /** {@link ReadLock} used when accessing the map */
         private final ReadLock readLock;
 
-        /** MultiMap containing the {@link TileObject} keys for the Layers */
-        private final ConcurrentHashMap<String, Set<String>> layerMap = new ConcurrentHashMap<>();
+        /** Layer name, then tile set, zoom level and Morton code of the {@link TileObject} keys */
+        private final ConcurrentHashMap<
+                        String, Map<TileSet, Map<Integer, NavigableMap<Long, String>>>>
+                layerMap = new ConcurrentHashMap<>();
 
         public LayerMap() {
             // Lock initialization
@@ -632,84 +680,43 @@ public LayerMap() {
         }
 
         /** Insertion of a {@link TileObject} key in the map for the associated Layer. */
-        // not sure why locking is used on top of concurrent structures to start with... just
-        // ignoring to move on, but imho all locks should be removed and concurrent structure
-        // be used as intended (e.g., putIfAbsent and the like
-        @SuppressFBWarnings({
-            "AT_OPERATION_SEQUENCE_ON_CONCURRENT_ABSTRACTION",
-            "UL_UNRELEASED_LOCK",
-            "UL_UNRELEASED_LOCK_EXCEPTION_PATH"
-        })
-        public void putTile(String layer, String id) {
-            // ReadLock is used because we are only accessing the map
+        public void putTile(TileObject obj, String id) {
+            // ReadLock is used because the Layer set is not replaced, only accessed
             readLock.lock();
-            Set<String> tileKeys = layerMap.get(layer);
-            if (tileKeys == null) {
-                if (LOGGER.isLoggable(Level.FINE)) {
-                    LOGGER.fine("No KeySet for Layer: " + layer);
-                }
-                // If the Map is not present, we must add it
-                // So we do the unlock and try to acquire the writeLock
-                readLock.unlock();
-                writeLock.lock();
-                try {
-                    // Check again if the tileKey has not been added already
-                    tileKeys = layerMap.get(layer);
-                    if (tileKeys == null) {
-                        if (LOGGER.isLoggable(Level.FINE)) {
-                            LOGGER.fine("Creating new KeySet for Layer: " + layer);
-                        }
-                        // If no key is present then a new KeySet is created and then added to the
-                        // multimap
-                        tileKeys = new ConcurrentSkipListSet<>();
-                        layerMap.put(layer, tileKeys);
-                    }
-                    // Downgrade by acquiring read lock before releasing write lock
-                    readLock.lock();
-                } finally {
-                    // Release the writeLock
-                    writeLock.unlock();
-                }
-            }
             try {
                 if (LOGGER.isLoggable(Level.FINE)) {
                     LOGGER.fine("Add the TileObject id to the Map");
                 }
-                // Finally the tile key is added.
-                tileKeys.add(id);
+                long[] xyz = obj.getXYZ();
+                layerMap.computeIfAbsent(obj.getLayerName(), k -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(new TileSet(obj), k -> new ConcurrentHashMap<>())
+                        .computeIfAbsent((int) xyz[2], k -> new ConcurrentSkipListMap<>())
+                        .put(morton(xyz[0], xyz[1]), id);
             } finally {
                 readLock.unlock();
             }
         }
 
         /** Removal of a {@link TileObject} key in the map for the associated Layer. */
-        public void removeTile(String layer, String id) {
-            // ReadLock is used because we are only accessing the map
+        public void removeTile(TileObject obj, String id) {
             readLock.lock();
             try {
-                // KeySet associated to the image
-                Set<String> tileKeys = layerMap.get(layer);
-                if (tileKeys != null) {
+                Map<TileSet, Map<Integer, NavigableMap<Long, String>>> tileSets =
+                        layerMap.get(obj.getLayerName());
+                if (tileSets == null) {
+                    return;
+                }
+                Map<Integer, NavigableMap<Long, String>> levels = tileSets.get(new TileSet(obj));
+                if (levels == null) {
+                    return;
+                }
+                long[] xyz = obj.getXYZ();
+                NavigableMap<Long, String> tiles = levels.get((int) xyz[2]);
+                if (tiles != null) {
                     if (LOGGER.isLoggable(Level.FINE)) {
                         LOGGER.fine("Remove TileObject id to the Map");
                     }
-                    // Removal of the keys
-                    tileKeys.remove(id);
-                    // If the KeySet is empty then it is removed from the multimap
-                    if (tileKeys.isEmpty()) {
-                        readLock.unlock();
-                        writeLock.lock();
-                        try {
-                            if (tileKeys.isEmpty()) {
-                                // Here writeLock is acquired again, but it is reentrant
-                                removeLayer(layer);
-                            }
-                            // Downgrade by acquiring read lock before releasing write lock
-                            readLock.lock();
-                        } finally {
-                            writeLock.unlock();
-                        }
-                    }
+                    tiles.remove(morton(xyz[0], xyz[1]), id);
                 }
             } finally {
                 readLock.unlock();
@@ -717,9 +724,9 @@ public void removeTile(String layer, String id) {
         }
 
         /**
-         * Removes a layer {@link Set} and returns it to the cache.
+         * Removes a layer from the map and returns its keys to the cache.
          *
-         * @return the keys associated to the Layer
+         * @return the keys associated to the Layer, or {@code null} if there are none
          */
         public Set<String> removeLayer(String layer) {
             writeLock.lock();
@@ -727,15 +734,148 @@ public Set<String> removeLayer(String layer) {
                 if (LOGGER.isLoggable(Level.FINE)) {
                     LOGGER.fine("Removing KeySet for Layer: " + layer);
                 }
-                // Get the Set from the map
-                Set<String> layers = layerMap.get(layer);
-                // Removes the set from the map
-                layerMap.remove(layer);
-                // Returns the set
-                return layers;
+                Map<TileSet, Map<Integer, NavigableMap<Long, String>>> tileSets =
+                        layerMap.remove(layer);
+                if (tileSets == null) {
+                    return null;
+                }
+                Set<String> keys = new HashSet<>();
+                for (Map<Integer, NavigableMap<Long, String>> levels : tileSets.values()) {
+                    for (NavigableMap<Long, String> tiles : levels.values()) {
+                        keys.addAll(tiles.values());
+                    }
+                }
+                return keys;
             } finally {
                 writeLock.unlock();
             }
         }
+
+        /**
+         * Removes the keys of the tiles within a range from the map and returns them to the cache.
+         * A range without a format matches all formats.
+         *
+         * @return the keys of the tiles in the range
+         */
+        public Set<String> removeTiles(TileRange range) {
+            Set<String> keys = new HashSet<>();
+            readLock.lock();
+            try {
+                Map<TileSet, Map<Integer, NavigableMap<Long, String>>> tileSets =
+                        layerMap.get(range.getLayerName());
+                if (tileSets == null) {
+                    return keys;
+                }
+                String format =
+                        range.getMimeType() == null ? null : range.getMimeType().getFormat();
+                String parametersId = range.getParametersId();
+                if (parametersId == null) {
+                    parametersId = ParametersUtils.getId(range.getParameters());
+                }
+                for (Map.Entry<TileSet, Map<Integer, NavigableMap<Long, String>>> entry :
+                        tileSets.entrySet()) {
+                    TileSet tileSet = entry.getKey();
+                    if (!Objects.equals(tileSet.gridSetId, range.getGridSetId())
+                            || (format != null && !format.equals(tileSet.format))
+                            || !Objects.equals(tileSet.parametersId, parametersId)) {
+                        continue;
+                    }
+                    for (int z = range.getZoomStart(); z <= range.getZoomStop(); z++) {
+                        NavigableMap<Long, String> tiles = entry.getValue().get(z);
+                        if (tiles != null) {
+                            removeTiles(range, z, tiles, keys);
+                        }
+                    }
+                }
+            } finally {
+                readLock.unlock();
+            }
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine("Removing " + keys.size() + " TileObject ids in range from the Map");
+            }
+            return keys;
+        }
+
+        private void removeTiles(
+                TileRange range, int z, NavigableMap<Long, String> tiles, Set<String> keys) {
+            long[] bounds = range.rangeBounds(z);
+            // every tile within the bounds has a code between the ones of the corners, the
+            // others in between are filtered out, along with the ones outside of a raster mask
+            Iterator<Map.Entry<Long, String>> it =
+                    tiles.subMap(
+                                    morton(bounds[0], bounds[1]),
+                                    true,
+                                    morton(bounds[2], bounds[3]),
+                                    true)
+                            .entrySet()
+                            .iterator();
+            while (it.hasNext()) {
+                Map.Entry<Long, String> tile = it.next();
+                long code = tile.getKey();
+                if (range.contains(compact(code), compact(code >>> 1), z)) {
+                    keys.add(tile.getValue());
+                    it.remove();
+                }
+            }
+        }
+
+        /** Interleaves the bits of the tile coordinates, up to 31 bits each */
+        static long morton(long x, long y) {
+            return spread(x) | (spread(y) << 1);
+        }
+
+        private static long spread(long v) {
+            v &= 0x7FFFFFFFL;
+            v = (v | (v << 16)) & 0x0000FFFF0000FFFFL;
+            v = (v | (v << 8)) & 0x00FF00FF00FF00FFL;
+            v = (v | (v << 4)) & 0x0F0F0F0F0F0F0F0FL;
+            v = (v | (v << 2)) & 0x3333333333333333L;
+            return (v | (v << 1)) & 0x5555555555555555L;
+        }
+
+        private static long compact(long v) {
+            v &= 0x5555555555555555L;
+            v = (v | (v >>> 1)) & 0x3333333333333333L;
+            v = (v | (v >>> 2)) & 0x0F0F0F0F0F0F0F0FL;
+            v = (v | (v >>> 4)) & 0x00FF00FF00FF00FFL;
+            v = (v | (v >>> 8)) & 0x0000FFFF0000FFFFL;
+            return (v | (v >>> 16)) & 0x00000000FFFFFFFFL;
+        }
+    }
+
+    /** Gridset, format and parameters shared by the tiles of a layer */
+    private static final class TileSet {
+
+        private final String gridSetId;
+
+        private final String format;
+
+        private final String parametersId;
+
+        TileSet(TileObject obj) {
+            this.gridSetId = obj.getGridSetId();
+            this.format = obj.getBlobFormat();
+            String parametersId = obj.getParametersId();
+            if (parametersId == null) {
+                parametersId = ParametersUtils.getId(obj.getParameters());
+            }
+            this.parametersId = parametersId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(gridSetId, format, parametersId);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof TileSet)) {
+                return false;
+            }
+            TileSet other = (TileSet) obj;
+            return Objects.equals(gridSetId, other.gridSetId)
+                    && Objects.equals(format, other.format)
+                    && Objects.equals(parametersId, other.parametersId);
+        }
     }
 }
@@ -0,0 +1,1058 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage.blobstore.tiered;
+
+import com.google.common.hash.Hashing;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.filter.parameters.ParametersUtils;
+import org.geowebcache.storage.BlobStore;
+import org.geowebcache.storage.BlobStoreListener;
+import org.geowebcache.storage.StorageException;
+import org.geowebcache.storage.TileObject;
+import org.geowebcache.storage.TileRange;
+import org.geowebcache.storage.blobstore.file.FileBlobStore;
+import org.geowebcache.storage.blobstore.memory.guava.GuavaCacheProvider;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * A {@link BlobStore} keeping the most recently used tiles of a remote (cold) store on a bounded
+ * local (hot) store.
+ *
+ * <p>Tiles read from the cold tier are promoted to the hot tier, and the least recently used tiles
+ * are demoted, i.e. removed from the hot tier, once it grows over its size budget. Puts go to both
+ * tiers, either waiting for the cold tier write (write-through, the default) or returning as soon
+ * as the hot tier has the tile (write-back), the tile then staying in the hot tier until the cold
+ * tier has it. Failed write-back writes are retried, with a growing delay, and the bulk operations
+ * fail rather than drop tiles that could not be written. Tiles not written yet can be recorded in
+ * the hot tier directory, to be written on the next start after a shutdown or a crash.
+ *
+ * <p>Changes to a given tile, puts, deletes and promotions, are serialized by a striped lock, and
+ * a promotion is dropped if the tile was changed or a range containing it deleted since it was read
+ * from the cold tier. Reads of hot tiles only lock a stripe of the index for a moment.
+ *
+ * <p>The cold tier is the reference: listeners are registered on it only, so they are notified
+ * once per change, and metadata, parameters and layer existence come from it. The hot tier is only
+ * tracked in memory, it is emptied when the store is created, once the tiles recorded as not
+ * written yet are.
+ */
+public class TieredBlobStore implements BlobStore {
+
+    private static final Logger log = Logging.getLogger(TieredBlobStore.class.getName());
+
+    /** Number of threads writing the tiles to the cold tier in write-back mode, 4 by default */
+    public static final String PROPERTY_WRITE_THREADS = "gwc.tieredBlobStore.writeThreads";
+
+    /** Number of writes each write-back thread can queue, 1000 by default */
+    public static final String PROPERTY_WRITE_QUEUE_SIZE = "gwc.tieredBlobStore.writeQueueSize";
+
+    /** File marking a directory as a hot tier, so that it can safely be emptied on startup */
+    static final String HOT_TIER_MARKER = ".gwc_hot_tier";
+
+    /** Directory of the hot tier recording the write-back tiles not written to the cold tier yet */
+    public static final String PENDING_WRITES = ".gwc_pending_writes";
+
+    private static final RejectedExecutionHandler BLOCK_WHEN_FULL =
+            (r, executor) -> {
+                if (executor.isShutdown()) {
+                    throw new RejectedExecutionException("TieredBlobStore has been destroyed");
+                }
+                try {
+                    executor.getQueue().put(r);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException(e);
+                }
+            };
+
+    private final BlobStore hot;
+
+    private final BlobStore cold;
+
+    private final long maxHotSize;
+
+    private final boolean writeBack;
+
+    /** Number of stripes of the hot tier index, and of locks serializing the changes of a tile */
+    private static final int STRIPES = 64;
+
+    /** First delay before writing again a tile the cold tier failed to store, doubling up to max */
+    static final long RETRY_DELAY = 1000;
+
+    static final long MAX_RETRY_DELAY = 60_000;
+
+    /** Tiles in the hot tier, spread by key */
+    private final HotStripe[] stripes = new HotStripe[STRIPES];
+
+    private final AtomicLong hotSize = new AtomicLong();
+
+    /**
+     * Bumped by each delete of several tiles, so that a promotion racing with it does not keep a
+     * tile read before the delete
+     */
+    private final AtomicLong bulkGeneration = new AtomicLong();
+
+    private final ThreadPoolExecutor[] writers;
+
+    /** Schedules the retries of the failed write-back writes */
+    private final ScheduledExecutorService retries;
+
+    /** The failed write-back writes waiting for their retry, by tile key */
+    private final ConcurrentMap<String, PendingWrite> pendingRetries = new ConcurrentHashMap<>();
+
+    /** Where the write-back tiles not written yet are recorded, {@code null} if they are not */
+    private final File pendingDirectory;
+
+    private final AtomicLong hotHits = new AtomicLong();
+
+    private final AtomicLong coldHits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong promotions = new AtomicLong();
+
+    private final AtomicLong demotions = new AtomicLong();
+
+    /**
+     * @param hot the local store, must be empty and not used by anything else
+     * @param cold the remote store
+     * @param maxHotSize size budget of the hot tier, in bytes
+     * @param writeBack whether puts return before the cold tier write
+     */
+    public TieredBlobStore(BlobStore hot, BlobStore cold, long maxHotSize, boolean writeBack) {
+        this(hot, cold, maxHotSize, writeBack, null);
+    }
+
+    /**
+     * @param hot the local store, must be empty and not used by anything else
+     * @param cold the remote store
+     * @param maxHotSize size budget of the hot tier, in bytes
+     * @param writeBack whether puts return before the cold tier write
+     * @param pendingDirectory where to record the write-back tiles not written to the cold tier
+     *     yet, usually the {@link #PENDING_WRITES} directory of the hot tier, so that {@link
+     *     #prepareHotDirectory(File, BlobStore)} writes them on the next start, or {@code null}
+     */
+    public TieredBlobStore(
+            BlobStore hot,
+            BlobStore cold,
+            long maxHotSize,
+            boolean writeBack,
+            File pendingDirectory) {
+        if (maxHotSize <= 0) {
+            throw new IllegalArgumentException("Hot tier size must be positive: " + maxHotSize);
+        }
+        this.hot = hot;
+        this.cold = cold;
+        this.maxHotSize = maxHotSize;
+        this.writeBack = writeBack;
+        this.pendingDirectory = writeBack ? pendingDirectory : null;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new HotStripe();
+        }
+        if (writeBack) {
+            int threads = Math.max(1, Integer.getInteger(PROPERTY_WRITE_THREADS, 4));
+            int queueSize = Math.max(1, Integer.getInteger(PROPERTY_WRITE_QUEUE_SIZE, 1000));
+            this.writers = new ThreadPoolExecutor[threads];
+            for (int i = 0; i < threads; i++) {
+                CustomizableThreadFactory tf =
+                        new CustomizableThreadFactory("GWC TieredBlobStore writer " + i + "-");
+                tf.setDaemon(true);
+                writers[i] =
+                        new ThreadPoolExecutor(
+                                1,
+                                1,
+                                0,
+                                TimeUnit.MILLISECONDS,
+                                new ArrayBlockingQueue<>(queueSize),
+                                tf,
+                                BLOCK_WHEN_FULL);
+            }
+            CustomizableThreadFactory tf =
+                    new CustomizableThreadFactory("GWC TieredBlobStore write retries-");
+            tf.setDaemon(true);
+            this.retries = Executors.newSingleThreadScheduledExecutor(tf);
+        } else {
+            this.writers = new ThreadPoolExecutor[0];
+            this.retries = null;
+        }
+    }
+
+    /**
+     * Prepares a directory to hold a hot tier: empties it if it was already used as a hot tier,
+     * after writing to the cold tier the write-back tiles recorded as not written yet. Call {@link
+     * #markHotDirectory(File)} once the hot tier store is created.
+     *
+     * @param directory the hot tier directory
+     * @param cold the cold tier, to write the pending tiles to
+     * @throws StorageException if the directory has contents but is not a hot tier, as emptying it
+     *     could lose data, or if the pending tiles could not all be written, in which case the
+     *     directory is kept as is
+     */
+    public static void prepareHotDirectory(File directory, BlobStore cold)
+            throws StorageException {
+        Path dir = directory.toPath();
+        if (!Files.exists(dir)) {
+            return;
+        }
+        if (!Files.exists(dir.resolve(HOT_TIER_MARKER))) {
+            try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+                if (ds.iterator().hasNext()) {
+                    throw new StorageException(
+                            directory
+                                    + " is not empty and was not used as a hot tier before, "
+                                    + "refusing to use it as it would be emptied on each start");
+                }
+            } catch (IOException e) {
+                throw new StorageException("Error checking " + directory, e);
+            }
+            return;
+        }
+        writePendingTiles(directory, cold);
+        // move the previous contents aside and delete them in the background
+        Path old = dir.resolveSibling(dir.getFileName() + ".purge-" + System.currentTimeMillis());
+        try {
+            Files.move(dir, old);
+        } catch (IOException e) {
+            throw new StorageException("Could not empty the hot tier " + directory, e);
+        }
+        Thread purge =
+                new Thread(() -> deleteRecursively(old), "GWC TieredBlobStore hot tier purge");
+        purge.setDaemon(true);
+        purge.start();
+    }
+
+    /** Writes to the cold tier the tiles recorded as pending in a previous hot tier */
+    private static void writePendingTiles(File directory, BlobStore cold) throws StorageException {
+        File[] entries = new File(directory, PENDING_WRITES).listFiles();
+        if (entries == null || entries.length == 0) {
+            return;
+        }
+        FileBlobStore previous = new FileBlobStore(directory.getAbsolutePath());
+        int written = 0;
+        try {
+            for (File entry : entries) {
+                TileObject tile;
+                try {
+                    tile = readPending(entry);
+                } catch (IOException | RuntimeException e) {
+                    log.log(Level.WARNING, "Skipping unreadable pending tile " + entry, e);
+                    Files.deleteIfExists(entry.toPath());
+                    continue;
+                }
+                if (previous.get(tile)) {
+                    cold.put(tile);
+                    written++;
+                }
+                Files.delete(entry.toPath());
+            }
+        } catch (IOException e) {
+            throw new StorageException(
+                    "Could not write the pending tiles of the hot tier "
+                            + directory
+                            + " to the cold tier, they are kept until the next start",
+                    e);
+        } finally {
+            previous.destroy();
+        }
+        log.info("Wrote " + written + " pending tiles of the hot tier to the cold tier");
+    }
+
+    /** Marks the directory as a hot tier, see {@link #prepareHotDirectory(File, BlobStore)} */
+    public static void markHotDirectory(File directory) throws StorageException {
+        try {
+            Path marker = directory.toPath().resolve(HOT_TIER_MARKER);
+            if (!Files.exists(marker)) {
+                Files.createFile(marker);
+            }
+        } catch (IOException e) {
+            throw new StorageException("Could not mark " + directory + " as a hot tier", e);
+        }
+    }
+
+    private static void deleteRecursively(Path root) {
+        try {
+            Files.walkFileTree(
+                    root,
+                    new SimpleFileVisitor<Path>() {
+                        @Override
+                        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+                                throws IOException {
+                            Files.delete(file);
+                            return FileVisitResult.CONTINUE;
+                        }
+
+                        @Override
+                        public FileVisitResult postVisitDirectory(Path dir, IOException exc)
+                                throws IOException {
+                            Files.delete(dir);
+                            return FileVisitResult.CONTINUE;
+                        }
+                    });
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Could not delete the old hot tier " + root, e);
+        }
+    }
+
+    @Override
+    public boolean get(TileObject obj) throws StorageException {
+        String key = GuavaCacheProvider.generateTileKey(obj);
+        HotStripe stripe = stripe(key);
+        HotTile tile = stripe.touch(key);
+        if (tile != null) {
+            if (hot.get(obj)) {
+                hotHits.incrementAndGet();
+                return true;
+            }
+            // demoted or deleted meanwhile
+            untrack(stripe, key, tile);
+        }
+        // taken before reading the cold tier, a change after that makes what is read stale
+        final long generation = stripe.generation;
+        final long bulk = bulkGeneration.get();
+        if (!cold.get(obj)) {
+            misses.incrementAndGet();
+            return false;
+        }
+        coldHits.incrementAndGet();
+        promote(key, stripe, obj, generation, bulk);
+        return true;
+    }
+
+    /**
+     * Copies a tile read from the cold tier to the hot one, unless the tile changed since it was
+     * read
+     */
+    private void promote(
+            String key, HotStripe stripe, TileObject obj, long generation, long bulk) {
+        stripe.lock.lock();
+        try {
+            if (stripe.generation != generation || stripe.contains(key)) {
+                // put, deleted or promoted meanwhile
+                return;
+            }
+            TileObject copy = copy(obj);
+            hot.put(copy);
+            if (track(stripe, key, copy, false, bulk)) {
+                promotions.incrementAndGet();
+            } else {
+                // part of a range deleted meanwhile, the cold tier may not have it anymore
+                hot.delete(query(obj));
+            }
+        } catch (StorageException | RuntimeException e) {
+            log.log(Level.FINE, "Could not promote " + obj + " to the hot tier", e);
+        } finally {
+            stripe.lock.unlock();
+        }
+        demoteOverBudget();
+    }
+
+    /** Checks the hot tier first, tiles found in the cold one are promoted on the next get */
+    @Override
+    public boolean getMetadata(TileObject obj) throws StorageException {
+        String key = GuavaCacheProvider.generateTileKey(obj);
+        if (stripe(key).touch(key) != null && hot.getMetadata(obj)) {
+            return true;
+        }
+        return cold.getMetadata(obj);
+    }
+
+    @Override
+    public void put(TileObject obj) throws StorageException {
+        String key = GuavaCacheProvider.generateTileKey(obj);
+        HotStripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            stripe.generation++;
+            if (!writeBack) {
+                cold.put(obj);
+            } else {
+                recordPending(key, obj);
+            }
+            TileObject copy = copy(obj);
+            hot.put(copy);
+            track(stripe, key, copy, writeBack);
+        } finally {
+            stripe.lock.unlock();
+        }
+        demoteOverBudget();
+        if (writeBack) {
+            TileObject query = query(obj);
+            submit(key, () -> writeToCold(key, query, 0));
+        }
+    }
+
+    /**
+     * Writes the latest version of a tile to the cold tier, unless it got deleted meanwhile. The
+     * tile stays pinned in the hot tier until the write succeeds, failed writes are retried.
+     */
+    private boolean writeToCold(String key, TileObject query, int failures) {
+        try {
+            if (hot.get(query)) {
+                cold.put(query);
+            }
+        } catch (StorageException | RuntimeException e) {
+            long delay = Math.min(MAX_RETRY_DELAY, RETRY_DELAY << Math.min(failures, 16));
+            log.log(
+                    Level.WARNING,
+                    "Could not write " + query + " to the cold tier, retrying in " + delay + "ms",
+                    e);
+            scheduleRetry(key, new PendingWrite(query, failures + 1), delay);
+            return false;
+        }
+        HotStripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            // under the lock a put records the tile under, so its record is not dropped
+            if (unpin(key)) {
+                clearPending(key);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        demoteOverBudget();
+        return true;
+    }
+
+    private void scheduleRetry(String key, PendingWrite write, long delay) {
+        if (pendingRetries.put(key, write) != null) {
+            // the write of a later put of the tile, this one writes its latest version anyway
+            unpin(key);
+        }
+        try {
+            retries.schedule(
+                    () -> {
+                        // unless flushed meanwhile
+                        if (pendingRetries.remove(key, write)) {
+                            try {
+                                submit(key, () -> writeToCold(key, write.query, write.failures));
+                            } catch (RejectedExecutionException e) {
+                                log.warning(gaveUp(write.query));
+                            }
+                        }
+                    },
+                    delay,
+                    TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            pendingRetries.remove(key, write);
+            log.warning(gaveUp(write.query));
+        }
+    }
+
+    private String gaveUp(TileObject query) {
+        return "Gave up writing "
+                + query
+                + " to the cold tier"
+                + (pendingDirectory == null ? "" : ", it will be written on the next start");
+    }
+
+    /** Records a write-back tile as not written to the cold tier yet, under its stripe lock */
+    private void recordPending(String key, TileObject obj) throws StorageException {
+        if (pendingDirectory == null) {
+            return;
+        }
+        Properties properties = new Properties();
+        properties.setProperty("layer", obj.getLayerName());
+        properties.setProperty("gridSet", obj.getGridSetId());
+        properties.setProperty("format", obj.getBlobFormat());
+        long[] xyz = obj.getXYZ();
+        properties.setProperty("x", String.valueOf(xyz[0]));
+        properties.setProperty("y", String.valueOf(xyz[1]));
+        properties.setProperty("z", String.valueOf(xyz[2]));
+        if (obj.getParameters() != null) {
+            obj.getParameters().forEach((k, v) -> properties.setProperty("parameter." + k, v));
+        }
+        try {
+            Files.createDirectories(pendingDirectory.toPath());
+            try (OutputStream out = Files.newOutputStream(pendingFile(key).toPath())) {
+                properties.store(out, null);
+            }
+        } catch (IOException e) {
+            throw new StorageException("Could not record " + obj + " as pending", e);
+        }
+    }
+
+    /** Drops the record of a tile written to the cold tier, under its stripe lock */
+    private void clearPending(String key) {
+        if (pendingDirectory == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(pendingFile(key).toPath());
+        } catch (IOException e) {
+            log.log(Level.FINE, "Could not delete the pending record of " + key, e);
+        }
+    }
+
+    private File pendingFile(String key) {
+        return new File(
+                pendingDirectory,
+                Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).toString());
+    }
+
+    private static TileObject readPending(File file) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            properties.load(in);
+        }
+        Map<String, String> parameters = new HashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith("parameter.")) {
+                parameters.put(name.substring("parameter.".length()), properties.getProperty(name));
+            }
+        }
+        long[] xyz = {
+            Long.parseLong(properties.getProperty("x")),
+            Long.parseLong(properties.getProperty("y")),
+            Long.parseLong(properties.getProperty("z"))
+        };
+        return TileObject.createQueryTileObject(
+                properties.getProperty("layer"),
+                xyz,
+                properties.getProperty("gridSet"),
+                properties.getProperty("format"),
+                parameters.isEmpty() ? null : parameters);
+    }
+
+    @Override
+    public boolean delete(TileObject obj) throws StorageException {
+        String key = GuavaCacheProvider.generateTileKey(obj);
+        if (writeBack) {
+            // after the queued write of the tile, if any
+            return waitFor(submit(key, () -> deleteTile(key, obj)));
+        }
+        return deleteTile(key, obj);
+    }
+
+    private boolean deleteTile(String key, TileObject obj) throws StorageException {
+        HotStripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            stripe.generation++;
+            untrack(stripe, key, null);
+            hot.delete(query(obj));
+            boolean deleted = cold.delete(obj);
+            clearPending(key);
+            return deleted;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean delete(TileRange range) throws StorageException {
+        flush();
+        String parametersId = range.getParametersId();
+        String format = range.getMimeType() == null ? null : range.getMimeType().getFormat();
+        untrack(
+                tile ->
+                        tile.query.getLayerName().equals(range.getLayerName())
+                                && tile.query.getGridSetId().equals(range.getGridSetId())
+                                && (format == null || format.equals(tile.query.getBlobFormat()))
+                                && (parametersId == null || parametersId.equals(tile.parametersId))
+                                && range.contains(tile.query.getXYZ()));
+        hot.delete(range);
+        return cold.delete(range);
+    }
+
+    @Override
+    public boolean delete(String layerName) throws StorageException {
+        flush();
+        untrack(tile -> tile.query.getLayerName().equals(layerName));
+        hot.delete(layerName);
+        return cold.delete(layerName);
+    }
+
+    @Override
+    public boolean deleteByGridsetId(String layerName, String gridSetId) throws StorageException {
+        flush();
+        untrack(
+                tile ->
+                        tile.query.getLayerName().equals(layerName)
+                                && tile.query.getGridSetId().equals(gridSetId));
+        hot.deleteByGridsetId(layerName, gridSetId);
+        return cold.deleteByGridsetId(layerName, gridSetId);
+    }
+
+    @Override
+    public boolean deleteByParametersId(String layerName, String parametersId)
+            throws StorageException {
+        flush();
+        untrack(
+                tile ->
+                        tile.query.getLayerName().equals(layerName)
+                                && parametersId.equals(tile.parametersId));
+        hot.deleteByParametersId(layerName, parametersId);
+        return cold.deleteByParametersId(layerName, parametersId);
+    }
+
+    @Override
+    public boolean rename(String oldLayerName, String newLayerName) throws StorageException {
+        flush();
+        // simpler to forget the layer than to rename it on both tiers
+        untrack(tile -> tile.query.getLayerName().equals(oldLayerName));
+        hot.delete(oldLayerName);
+        return cold.rename(oldLayerName, newLayerName);
+    }
+
+    @Deprecated
+    @Override
+    public void clear() throws StorageException {
+        flush();
+        untrack(tile -> true);
+        hot.clear();
+        cold.clear();
+    }
+
+    @Override
+    public void destroy() {
+        try {
+            flush();
+        } catch (StorageException e) {
+            log.log(Level.WARNING, "Could not write all the pending tiles to the cold tier", e);
+        }
+        if (retries != null) {
+            retries.shutdownNow();
+            if (!pendingRetries.isEmpty()) {
+                log.warning(
+                        pendingRetries.size()
+                                + " tiles the cold tier failed to store are left in the hot tier"
+                                + (pendingDirectory == null
+                                        ? " only"
+                                        : ", they will be written on the next start"));
+            }
+        }
+        for (ThreadPoolExecutor writer : writers) {
+            writer.shutdown();
+        }
+        log.info(toString());
+        hot.destroy();
+        cold.destroy();
+    }
+
+    @Override
+    public void addListener(BlobStoreListener listener) {
+        cold.addListener(listener);
+    }
+
+    @Override
+    public boolean removeListener(BlobStoreListener listener) {
+        return cold.removeListener(listener);
+    }
+
+    @Override
+    public String getLayerMetadata(String layerName, String key) {
+        return cold.getLayerMetadata(layerName, key);
+    }
+
+    @Override
+    public void putLayerMetadata(String layerName, String key, String value) {
+        cold.putLayerMetadata(layerName, key, value);
+    }
+
+    @Override
+    public boolean layerExists(String layerName) {
+        return cold.layerExists(layerName);
+    }
+
+    @Override
+    public Set<Map<String, String>> getParameters(String layerName) throws StorageException {
+        return cold.getParameters(layerName);
+    }
+
+    @Override
+    public Set<String> getParameterIds(String layerName) throws StorageException {
+        return cold.getParameterIds(layerName);
+    }
+
+    @Override
+    public Map<String, Optional<Map<String, String>>> getParametersMapping(String layerName) {
+        return cold.getParametersMapping(layerName);
+    }
+
+    /**
+     * Waits for the tiles queued for the cold tier to be written, trying again right away the
+     * writes that failed before
+     *
+     * @throws StorageException if some tiles could not be written, they stay in the hot tier and
+     *     their writes are retried later on
+     */
+    public void flush() throws StorageException {
+        List<Future<Boolean>> barriers = new ArrayList<>(writers.length);
+        for (ThreadPoolExecutor writer : writers) {
+            barriers.add(writer.submit(() -> true));
+        }
+        for (Future<Boolean> barrier : barriers) {
+            waitFor(barrier);
+        }
+        // including the ones of the writes just waited for
+        List<Future<Boolean>> writes = new ArrayList<>();
+        for (Map.Entry<String, PendingWrite> entry : pendingRetries.entrySet()) {
+            String key = entry.getKey();
+            PendingWrite write = entry.getValue();
+            if (pendingRetries.remove(key, write)) {
+                writes.add(submit(key, () -> writeToCold(key, write.query, write.failures)));
+            }
+        }
+        int failed = 0;
+        for (Future<Boolean> write : writes) {
+            if (!waitFor(write)) {
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            throw new StorageException(
+                    failed + " tiles could not be written to the cold tier, they are retried later");
+        }
+    }
+
+    private Future<Boolean> submit(String key, Callable<Boolean> task) {
+        return writers[Math.floorMod(key.hashCode(), writers.length)].submit(task);
+    }
+
+    private boolean waitFor(Future<Boolean> future) throws StorageException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StorageException("Interrupted waiting for the cold tier", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof StorageException) {
+                throw (StorageException) e.getCause();
+            }
+            throw new StorageException("Cold tier operation failed", e.getCause());
+        }
+    }
+
+    private HotStripe stripe(String key) {
+        return stripes[Math.floorMod(key.hashCode(), STRIPES)];
+    }
+
+    /**
+     * Adds a tile to the hot tier index
+     *
+     * @param stored the tile as stored in the hot tier, with its size on disk
+     */
+    private void track(HotStripe stripe, String key, TileObject stored, boolean pin) {
+        track(stripe, key, stored, pin, -1);
+    }
+
+    /**
+     * Adds a tile to the hot tier index, unless a bulk delete happened since its content was read
+     *
+     * @param stored the tile as stored in the hot tier, with its size on disk
+     * @param bulk the {@link #bulkGeneration} the tile content dates from, or -1 to track it anyway
+     * @return whether the tile was tracked
+     */
+    private boolean track(HotStripe stripe, String key, TileObject stored, boolean pin, long bulk) {
+        HotTile tile = new HotTile(key, query(stored), Math.max(stored.getBlobSize(), 0));
+        synchronized (stripe) {
+            // checked under the stripe lock, bulk deletes bump it before untracking
+            if (bulk != -1 && bulkGeneration.get() != bulk) {
+                return false;
+            }
+            HotTile previous = stripe.tiles.put(key, tile);
+            if (previous != null) {
+                hotSize.addAndGet(-previous.size);
+                tile.pins = previous.pins;
+            }
+            if (pin) {
+                tile.pins++;
+            }
+            tile.lastAccess = System.nanoTime();
+            hotSize.addAndGet(tile.size);
+        }
+        return true;
+    }
+
+    /** @return whether the tile has no pending write left */
+    private boolean unpin(String key) {
+        HotStripe stripe = stripe(key);
+        synchronized (stripe) {
+            HotTile tile = stripe.tiles.get(key);
+            if (tile != null && tile.pins > 0) {
+                tile.pins--;
+            }
+            return tile == null || tile.pins == 0;
+        }
+    }
+
+    /** Removes a tile from the index, only if it is still {@code expected} when not null */
+    private void untrack(HotStripe stripe, String key, HotTile expected) {
+        synchronized (stripe) {
+            HotTile tile = stripe.tiles.get(key);
+            if (tile != null && (expected == null || tile == expected)) {
+                stripe.tiles.remove(key);
+                hotSize.addAndGet(-tile.size);
+            }
+        }
+    }
+
+    /** Removes the matching tiles from the index, before they are deleted from the tiers */
+    private void untrack(Predicate<HotTile> filter) {
+        bulkGeneration.incrementAndGet();
+        for (HotStripe stripe : stripes) {
+            synchronized (stripe) {
+                for (Iterator<HotTile> it = stripe.tiles.values().iterator(); it.hasNext(); ) {
+                    HotTile tile = it.next();
+                    if (filter.test(tile)) {
+                        it.remove();
+                        hotSize.addAndGet(-tile.size);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the least recently used tiles from the hot tier, skipping the pinned ones, until it
+     * is back within its budget. Must not be called holding a stripe lock.
+     */
+    private void demoteOverBudget() {
+        while (hotSize.get() > maxHotSize) {
+            HotStripe oldestStripe = null;
+            HotTile oldest = null;
+            for (HotStripe stripe : stripes) {
+                HotTile candidate = stripe.eldestUnpinned();
+                if (candidate != null
+                        && (oldest == null || candidate.lastAccess - oldest.lastAccess < 0)) {
+                    oldest = candidate;
+                    oldestStripe = stripe;
+                }
+            }
+            if (oldest == null) {
+                // all pinned
+                return;
+            }
+            if (oldestStripe.removeUnpinned(oldest)) {
+                hotSize.addAndGet(-oldest.size);
+                demote(oldestStripe, oldest);
+            }
+        }
+    }
+
+    private void demote(HotStripe stripe, HotTile tile) {
+        stripe.lock.lock();
+        try {
+            // unless put or promoted again since
+            if (!stripe.contains(tile.key)) {
+                hot.delete(tile.query);
+                demotions.incrementAndGet();
+            }
+        } catch (StorageException | RuntimeException e) {
+            log.log(Level.WARNING, "Could not demote " + tile.query, e);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private static TileObject query(TileObject obj) {
+        return TileObject.createQueryTileObject(
+                obj.getLayerName(),
+                obj.getXYZ().clone(),
+                obj.getGridSetId(),
+                obj.getBlobFormat(),
+                obj.getParameters());
+    }
+
+    private static TileObject copy(TileObject obj) {
+        TileObject copy =
+                TileObject.createCompleteTileObject(
+                        obj.getLayerName(),
+                        obj.getXYZ().clone(),
+                        obj.getGridSetId(),
+                        obj.getBlobFormat(),
+                        obj.getParameters(),
+                        obj.getBlob());
+        copy.setCreated(obj.getCreated());
+        return copy;
+    }
+
+    /** @return the number of tiles served from the hot tier */
+    public long getHotHits() {
+        return hotHits.get();
+    }
+
+    /** @return the number of tiles served from the cold tier */
+    public long getColdHits() {
+        return coldHits.get();
+    }
+
+    /** @return the number of tiles found in neither tier */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /** @return the number of tiles copied from the cold tier to the hot one */
+    public long getPromotions() {
+        return promotions.get();
+    }
+
+    /** @return the number of tiles removed from the hot tier to stay within its budget */
+    public long getDemotions() {
+        return demotions.get();
+    }
+
+    /** @return the size of the tiles in the hot tier, in bytes */
+    public long getHotSize() {
+        return hotSize.get();
+    }
+
+    /** @return the number of tiles in the hot tier */
+    public int getHotTileCount() {
+        int count = 0;
+        for (HotStripe stripe : stripes) {
+            synchronized (stripe) {
+                count += stripe.tiles.size();
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "TieredBlobStore[hot hits: "
+                + getHotHits()
+                + ", cold hits: "
+                + getColdHits()
+                + ", misses: "
+                + getMisses()
+                + ", promotions: "
+                + getPromotions()
+                + ", demotions: "
+                + getDemotions()
+                + ", hot tier: "
+                + getHotSize()
+                + "/"
+                + maxHotSize
+                + " bytes]";
+    }
+
+    /** A write-back write waiting for its retry */
+    private static final class PendingWrite {
+
+        final TileObject query;
+
+        final int failures;
+
+        PendingWrite(TileObject query, int failures) {
+            this.query = query;
+            this.failures = failures;
+        }
+    }
+
+    /** A tile of the hot tier, mutable state guarded by its stripe */
+    private static final class HotTile {
+
+        final String key;
+
+        final TileObject query;
+
+        final String parametersId;
+
+        final long size;
+
+        /** Pending cold tier writes, the tile can't be demoted until they are done */
+        int pins;
+
+        /** {@link System#nanoTime()} of the last use */
+        long lastAccess;
+
+        HotTile(String key, TileObject query, long size) {
+            this.key = key;
+            this.query = query;
+            this.parametersId = ParametersUtils.getId(query.getParameters());
+            this.size = size;
+        }
+    }
+
+    /**
+     * A stripe of the hot tier index, least recently used tiles first, guarded by itself. Stripes
+     * are kept in access order on their own, the globally least recently used tile is the oldest
+     * of their eldest tiles.
+     */
+    private static final class HotStripe {
+
+        /** Serializes the puts, deletes, promotions and demotions of the tiles of the stripe */
+        final ReentrantLock lock = new ReentrantLock();
+
+        /** Bumped by each put or delete of a tile of the stripe, under {@link #lock} */
+        volatile long generation;
+
+        final LinkedHashMap<String, HotTile> tiles = new LinkedHashMap<>(64, 0.75f, true);
+
+        /** @return the tracked tile, marked as recently used, or {@code null} */
+        synchronized HotTile touch(String key) {
+            HotTile tile = tiles.get(key);
+            if (tile != null) {
+                tile.lastAccess = System.nanoTime();
+            }
+            return tile;
+        }
+
+        synchronized boolean contains(String key) {
+            return tiles.containsKey(key);
+        }
+
+        synchronized HotTile eldestUnpinned() {
+            for (HotTile tile : tiles.values()) {
+                if (tile.pins == 0) {
+                    return tile;
+                }
+            }
+            return null;
+        }
+
+        /** Removes the tile if still tracked and unpinned */
+        synchronized boolean removeUnpinned(HotTile tile) {
+            return tile.pins == 0 && tiles.remove(tile.key, tile);
+        }
+    }
+}
@@ -22,8 +22,16 @@
 import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.servlet.http.HttpServletRequest;
@@ -41,6 +49,8 @@
 import org.geowebcache.grid.GridSubset;
 import org.geowebcache.grid.OutsideCoverageException;
 import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.io.EncodedResource;
+import org.geowebcache.io.FileResource;
 import org.geowebcache.io.Resource;
 import org.geowebcache.layer.EmptyTileException;
 import org.geowebcache.layer.TileLayer;
@@ -49,6 +59,7 @@
 import org.geowebcache.stats.RuntimeStats;
 import org.geowebcache.storage.DefaultStorageFinder;
 import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 /**
  * Utility methods that can be used to write a string as http response</br> The response can be a
@@ -60,6 +71,48 @@ public final class ResponseUtils {
 
     private static Logger log = Logging.getLogger(ResponseUtils.class);
 
+    /**
+     * System property setting the minimum size in bytes of a file backed tile for it to be handed
+     * to the container's sendfile support, a negative value disables sendfile. Small tiles are
+     * cheaper to copy than to hand off.
+     */
+    public static final String PROPERTY_SENDFILE_MIN_SIZE = "gwc.sendfile.minSize";
+
+    static final long SENDFILE_MIN_SIZE =
+            Long.parseLong(System.getProperty(PROPERTY_SENDFILE_MIN_SIZE, "49152"));
+
+    /** Request attribute set to {@code true} by containers able to send files (Tomcat) */
+    static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+
+    static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+
+    static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+
+    static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    /** Name prefix of the hard links handed to the container */
+    static final String SENDFILE_LINK_PREFIX = "gwc-sendfile-";
+
+    /** How long a hard link is kept, the container opens it as soon as the request returns */
+    static final long SENDFILE_LINK_TTL = 60_000;
+
+    /** The hard links handed to the container, oldest first */
+    private static final Queue<StagedFile> SENDFILE_LINKS = new ConcurrentLinkedQueue<>();
+
+    /** Deletes expired links also when no more tiles are sent, started with the first link */
+    private static ScheduledExecutorService sendFilePurger;
+
+    private static class StagedFile {
+        final Path link;
+
+        final long expires;
+
+        StagedFile(Path link, long expires) {
+            this.link = link;
+            this.expires = expires;
+        }
+    }
+
     private ResponseUtils() {}
 
     /**
@@ -83,7 +136,23 @@ public static void writeTile(
             RuntimeStats runtimeStats)
             throws GeoWebCacheException, RequestFilterException, IOException {
         ConveyorTile convTile = (ConveyorTile) conv;
+        TileLayer layer = checkTile(secDispatcher, convTile, layerName, tileLayerDispatcher);
+        writeTile(layer, convTile, defaultStorageFinder, runtimeStats);
+    }
 
+    /**
+     * Applies the layer request filters and checks the security permissions of a tile request, the
+     * first half of {@link #writeTile(SecurityDispatcher, Conveyor, String, TileLayerDispatcher,
+     * DefaultStorageFinder, RuntimeStats) writeTile}.
+     *
+     * @return the layer that has to respond to the request
+     */
+    public static TileLayer checkTile(
+            SecurityDispatcher secDispatcher,
+            ConveyorTile convTile,
+            String layerName,
+            TileLayerDispatcher tileLayerDispatcher)
+            throws GeoWebCacheException, RequestFilterException {
         // Get the configuration that has to respond to this request
         TileLayer layer = tileLayerDispatcher.getTileLayer(layerName);
 
@@ -95,8 +164,29 @@ public static void writeTile(
 
         // Keep the URI
         // tile.requestURI = request.getRequestURI();
+        return layer;
+    }
 
+    /**
+     * Gets a tile checked by {@link #checkTile} from the layer and writes it to the output, the
+     * second half of {@link #writeTile(SecurityDispatcher, Conveyor, String, TileLayerDispatcher,
+     * DefaultStorageFinder, RuntimeStats) writeTile}.
+     *
+     * @param layer the layer responding to the request
+     * @param convTile tile request information
+     * @param defaultStorageFinder storage finder
+     * @param runtimeStats runtime statistics
+     */
+    public static void writeTile(
+            TileLayer layer,
+            ConveyorTile convTile,
+            DefaultStorageFinder defaultStorageFinder,
+            RuntimeStats runtimeStats)
+            throws GeoWebCacheException, IOException {
         try {
+            // answer conditional requests from the tile metadata if the client copy is current
+            convTile.setConditionalProbe(true);
+
             // A5) Ask the layer to provide the content for the tile
             convTile = layer.getTile(convTile);
 
@@ -125,7 +215,22 @@ private static void writeData(ConveyorTile tile, RuntimeStats runtimeStats) thro
         final CacheResult cacheResult = tile.getCacheResult();
         int httpCode = HttpServletResponse.SC_OK;
         Resource blob = tile.getBlob();
-        String mimeType = tile.getMimeType().getMimeType(blob);
+        // the contents are not read for tiles found not modified
+        String mimeType =
+                blob == null
+                        ? tile.getMimeType().getMimeType()
+                        : tile.getMimeType().getMimeType(blob);
+
+        // send compressed tiles as stored to the clients accepting it
+        String contentEncoding = null;
+        if (blob instanceof EncodedResource) {
+            EncodedResource encoded = (EncodedResource) blob;
+            servletResp.addHeader("Vary", "Accept-Encoding");
+            if (acceptsEncoding(servletReq, encoded.getEncoding())) {
+                contentEncoding = encoded.getEncoding();
+                blob = encoded.getEncoded();
+            }
+        }
 
         servletResp.setHeader("geowebcache-cache-result", String.valueOf(cacheResult));
         servletResp.setHeader("geowebcache-tile-index", Arrays.toString(tile.getTileIndex()));
@@ -147,6 +252,27 @@ private static void writeData(ConveyorTile tile, RuntimeStats runtimeStats) thro
         final String lastModified = DateUtils.formatDate(new Date(tileTimeStamp));
         servletResp.setHeader("Last-Modified", lastModified);
 
+        if (tile.isNotModified()) {
+            if (layer.useETags()) {
+                // the stored representation is unknown, confirm the one the client holds
+                String ifNoneMatch = servletReq.getHeader("If-None-Match");
+                servletResp.setHeader(
+                        "ETag",
+                        matchesEntityTag(ifNoneMatch, tileTimeStamp)
+                                ? ifNoneMatch
+                                : Long.toHexString(tileTimeStamp));
+            }
+            writeFixedResponse(
+                    servletResp,
+                    HttpServletResponse.SC_NOT_MODIFIED,
+                    mimeType,
+                    null,
+                    cacheResult,
+                    -1,
+                    runtimeStats);
+            return;
+        }
+
         final Date ifModifiedSince;
         if (ifModSinceHeader != null && ifModSinceHeader.length() > 0) {
 
@@ -163,6 +289,10 @@ private static void writeData(ConveyorTile tile, RuntimeStats runtimeStats) thro
         if (httpCode == HttpServletResponse.SC_OK && tile.getLayer().useETags()) {
             String ifNoneMatch = servletReq.getHeader("If-None-Match");
             String hexTag = Long.toHexString(tileTimeStamp);
+            if (contentEncoding != null) {
+                // each representation has its own entity tag
+                hexTag += "-" + contentEncoding;
+            }
 
             if (ifNoneMatch != null) {
                 if (ifNoneMatch.equals(hexTag)) {
@@ -175,11 +305,194 @@ private static void writeData(ConveyorTile tile, RuntimeStats runtimeStats) thro
             servletResp.setHeader("ETag", hexTag);
         }
 
+        if (httpCode == HttpServletResponse.SC_OK && contentEncoding != null) {
+            servletResp.setHeader("Content-Encoding", contentEncoding);
+        }
+
+        if (httpCode == HttpServletResponse.SC_OK
+                && sendFile(servletReq, servletResp, mimeType, blob, cacheResult, runtimeStats)) {
+            return;
+        }
+
         int contentLength = (int) (blob == null ? -1 : blob.getSize());
         writeFixedResponse(
                 servletResp, httpCode, mimeType, blob, cacheResult, contentLength, runtimeStats);
     }
 
+    /** Checks whether the request carries {@code If-Modified-Since} or {@code If-None-Match} */
+    public static boolean isConditional(HttpServletRequest request) {
+        return request != null
+                && (request.getHeader("If-Modified-Since") != null
+                        || request.getHeader("If-None-Match") != null);
+    }
+
+    /**
+     * Checks the request validators against a tile, as {@link #writeTile} does, to tell whether the
+     * client copy is current without looking at the tile contents. The entity tag of any content
+     * coding of the tile matches.
+     *
+     * @param request the conditional request
+     * @param lastModified the tile creation time
+     * @param useETags whether the tile layer uses entity tags
+     * @return {@code true} if a 304 response can be sent
+     */
+    public static boolean isNotModified(
+            HttpServletRequest request, long lastModified, boolean useETags) {
+        String ifModSinceHeader = request.getHeader("If-Modified-Since");
+        if (ifModSinceHeader != null && ifModSinceHeader.length() > 0) {
+            Date ifModifiedSince = DateUtils.parseDate(ifModSinceHeader);
+            // the HTTP header has second precision
+            if (ifModifiedSince != null
+                    && 1000 * (ifModifiedSince.getTime() / 1000) >= 1000 * (lastModified / 1000)) {
+                return true;
+            }
+        }
+        return useETags && matchesEntityTag(request.getHeader("If-None-Match"), lastModified);
+    }
+
+    private static boolean matchesEntityTag(String ifNoneMatch, long lastModified) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String hexTag = Long.toHexString(lastModified);
+        return ifNoneMatch.equals(hexTag) || ifNoneMatch.startsWith(hexTag + "-");
+    }
+
+    /**
+     * Checks whether the request {@code Accept-Encoding} header allows the given content coding, as
+     * per <a href="https://www.rfc-editor.org/rfc/rfc9110#name-accept-encoding">RFC 9110</a>.
+     */
+    static boolean acceptsEncoding(HttpServletRequest request, String encoding) {
+        String header = request == null ? null : request.getHeader("Accept-Encoding");
+        if (header == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String coding : header.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            boolean acceptable = true;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        acceptable = Double.parseDouble(param.substring(2).trim()) > 0;
+                    } catch (NumberFormatException e) {
+                        acceptable = false;
+                    }
+                }
+            }
+            if (name.equalsIgnoreCase(encoding)) {
+                // an explicit entry wins over the wildcard
+                return acceptable;
+            }
+            if (name.equals("*")) {
+                wildcard = acceptable;
+            }
+        }
+        return wildcard;
+    }
+
+    /**
+     * Hands a file backed tile over to the container's sendfile support, if available, so that the
+     * file is copied to the socket by the kernel once the request completes, without going through
+     * the servlet output stream.
+     *
+     * <p>The container opens the file only after the request returned, by then the tile may have
+     * been replaced or removed. It is hence given a private hard link to the current version of
+     * the tile rather than the tile path itself. This is only done for stores that never modify
+     * tiles in place and provide a {@link FileResource#getStagingDirectory() staging directory}
+     * for the links, outside of the tile tree and emptied when the store starts. Links are
+     * deleted once expired. Where hard links are not available the tile is written as usual.
+     *
+     * @return {@code true} if the container will send the file, {@code false} if the response has
+     *     to be written as usual
+     */
+    static boolean sendFile(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            String contentType,
+            Resource resource,
+            CacheResult cacheRes,
+            RuntimeStats runtimeStats) {
+        if (SENDFILE_MIN_SIZE < 0 || request == null || !(resource instanceof FileResource)) {
+            return false;
+        }
+        // the container only sends the file at the end of a synchronous request
+        if (request.isAsyncStarted()) {
+            return false;
+        }
+        if (!Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            return false;
+        }
+        long size = resource.getSize();
+        if (size < SENDFILE_MIN_SIZE) {
+            return false;
+        }
+        File staging = ((FileResource) resource).getStagingDirectory();
+        if (staging == null) {
+            return false;
+        }
+        File file = ((FileResource) resource).getFile();
+        Path link = staging.toPath().resolve(SENDFILE_LINK_PREFIX + UUID.randomUUID());
+        try {
+            Files.createLink(link, file.toPath());
+            long expires = System.currentTimeMillis() + SENDFILE_LINK_TTL;
+            SENDFILE_LINKS.add(new StagedFile(link, expires));
+            startSendFilePurger();
+            // the size of the linked version, the tile may have been replaced since
+            size = Files.size(link);
+            request.setAttribute(SENDFILE_FILENAME_ATTR, link.toAbsolutePath().toString());
+        } catch (IOException | RuntimeException e) {
+            // no hard links on this file system, the tile is gone, or the container refused the
+            // file, e.g. due to a security manager
+            log.log(Level.FINE, "Sendfile not used for " + file + ", writing it instead", e);
+            deleteQuietly(link);
+            return false;
+        } finally {
+            purgeSendFileLinks(System.currentTimeMillis());
+        }
+        request.setAttribute(SENDFILE_START_ATTR, Long.valueOf(0));
+        request.setAttribute(SENDFILE_END_ATTR, Long.valueOf(size));
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(contentType);
+        response.setContentLengthLong(size);
+        runtimeStats.log((int) size, cacheRes);
+        return true;
+    }
+
+    private static synchronized void startSendFilePurger() {
+        if (sendFilePurger == null) {
+            CustomizableThreadFactory tf = new CustomizableThreadFactory("GWC sendfile purger-");
+            tf.setDaemon(true);
+            sendFilePurger = Executors.newSingleThreadScheduledExecutor(tf);
+            sendFilePurger.scheduleWithFixedDelay(
+                    () -> purgeSendFileLinks(System.currentTimeMillis()),
+                    SENDFILE_LINK_TTL,
+                    SENDFILE_LINK_TTL,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /** Deletes the hard links expired at {@code now}, the container has long opened them */
+    static void purgeSendFileLinks(long now) {
+        StagedFile staged;
+        while ((staged = SENDFILE_LINKS.peek()) != null && staged.expires <= now) {
+            if (SENDFILE_LINKS.remove(staged)) {
+                deleteQuietly(staged.link);
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path link) {
+        try {
+            Files.deleteIfExists(link);
+        } catch (IOException e) {
+            log.log(Level.FINE, "Could not delete " + link, e);
+        }
+    }
+
     private static void writeEmpty(
             DefaultStorageFinder defaultStorageFinder,
             ConveyorTile tile,
@@ -0,0 +1,260 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletResponse;
+import org.geowebcache.conveyor.ConveyorTile;
+import org.geowebcache.grid.GridSubset;
+import org.geowebcache.layer.AbstractTileLayer;
+import org.geowebcache.layer.TileLayer;
+import org.geowebcache.mime.ImageMime;
+import org.geowebcache.storage.StorageBroker;
+import org.geowebcache.storage.TileObject;
+import org.geowebcache.util.GWCVars;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class AsyncTileHandlerTest {
+
+    private AsyncTileHandler handler;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    private ConveyorTile tile;
+
+    private StorageBroker broker;
+
+    private TileLayer layer;
+
+    @Before
+    public void setUp() throws Exception {
+        handler = new AsyncTileHandler(1, 60_000);
+        request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        response = new MockHttpServletResponse();
+        broker = mock(StorageBroker.class);
+        tile =
+                new ConveyorTile(
+                        broker,
+                        "layer",
+                        "EPSG:4326",
+                        new long[] {1, 2, 3},
+                        ImageMime.png,
+                        Collections.emptyMap(),
+                        request,
+                        response);
+        layer = mock(TileLayer.class);
+        GridSubset gridSubset = mock(GridSubset.class);
+        when(layer.getGridSubset("EPSG:4326")).thenReturn(gridSubset);
+        when(gridSubset.shouldCacheAtZoom(3)).thenReturn(true);
+    }
+
+    @After
+    public void tearDown() {
+        handler.destroy();
+    }
+
+    private void stored(long created) throws Exception {
+        doAnswer(
+                        invocation -> {
+                            ((TileObject) invocation.getArgument(0)).setCreated(created);
+                            return true;
+                        })
+                .when(broker)
+                .get(any());
+    }
+
+    private void awaitTasks() throws InterruptedException {
+        handler.getExecutor().shutdown();
+        assertTrue(handler.getExecutor().awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private void fireTimeout() throws Exception {
+        MockAsyncContext context = (MockAsyncContext) request.getAsyncContext();
+        for (AsyncListener listener : context.getListeners()) {
+            listener.onTimeout(new AsyncEvent(context));
+        }
+    }
+
+    @Test
+    public void testHitsServedSynchronously() throws Exception {
+        stored(System.currentTimeMillis());
+        assertFalse(handler.isAsync(request, layer, tile));
+
+        // not expired yet
+        when(layer.getExpireCache(3)).thenReturn(60);
+        assertFalse(handler.isAsync(request, layer, tile));
+
+        // the container does not support it
+        doReturn(false).when(broker).get(any());
+        request.setAsyncSupported(false);
+        assertFalse(handler.isAsync(request, layer, tile));
+    }
+
+    @Test
+    public void testHitReadOnce() throws Exception {
+        stored(System.currentTimeMillis());
+        assertFalse(handler.isAsync(request, layer, tile));
+        assertTrue(tile.retrieve(0));
+        verify(broker, times(1)).get(any());
+        verify(broker, never()).getMetadata(any());
+
+        // read again on the next retrieval
+        assertTrue(tile.retrieve(0));
+        verify(broker, times(2)).get(any());
+    }
+
+    @Test
+    public void testStaleTilesServedSynchronously() throws Exception {
+        layer = mock(AbstractTileLayer.class);
+        GridSubset gridSubset = mock(GridSubset.class);
+        when(layer.getGridSubset("EPSG:4326")).thenReturn(gridSubset);
+        when(gridSubset.shouldCacheAtZoom(3)).thenReturn(true);
+        when(layer.getExpireCache(3)).thenReturn(60);
+        when(((AbstractTileLayer) layer).getExpireCacheMaxStale(3)).thenReturn(600);
+
+        stored(System.currentTimeMillis() - 120_000);
+        assertFalse(handler.isAsync(request, layer, tile));
+
+        // past the stale window
+        stored(System.currentTimeMillis() - 720_000);
+        assertTrue(handler.isAsync(request, layer, tile));
+    }
+
+    @Test
+    public void testMissesServedAsynchronously() throws Exception {
+        when(broker.get(any())).thenReturn(false);
+        assertTrue(handler.isAsync(request, layer, tile));
+
+        // expired tiles get rendered again
+        stored(System.currentTimeMillis() - 120_000);
+        when(layer.getExpireCache(3)).thenReturn(60);
+        assertTrue(handler.isAsync(request, layer, tile));
+
+        // so do the tiles of layers not caching them
+        when(layer.getExpireCache(3)).thenReturn(GWCVars.CACHE_DISABLE_CACHE);
+        stored(System.currentTimeMillis());
+        assertTrue(handler.isAsync(request, layer, tile));
+    }
+
+    @Test
+    public void testDispatch() throws Exception {
+        byte[] contents = {1, 2, 3};
+        AtomicReference<String> thread = new AtomicReference<>();
+        handler.dispatch(
+                request,
+                tile,
+                () -> {
+                    thread.set(Thread.currentThread().getName());
+                    try {
+                        tile.servletResp.setStatus(HttpServletResponse.SC_OK);
+                        tile.servletResp.getOutputStream().write(contents);
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                });
+        awaitTasks();
+
+        assertTrue(thread.get().startsWith("GWC async tile thread"));
+        assertFalse(request.isAsyncStarted());
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertArrayEquals(contents, response.getContentAsByteArray());
+        assertEquals(60_000, request.getAsyncContext().getTimeout());
+        assertEquals(1, handler.getDispatched());
+    }
+
+    @Test
+    public void testTimeoutDropsQueuedRequest() throws Exception {
+        // keep the only thread busy
+        CountDownLatch busy = new CountDownLatch(1);
+        handler.getExecutor().execute(() -> awaitQuietly(busy));
+
+        AtomicBoolean ran = new AtomicBoolean();
+        handler.dispatch(request, tile, () -> ran.set(true));
+        assertEquals(1, handler.getQueued());
+        fireTimeout();
+        busy.countDown();
+        awaitTasks();
+
+        assertFalse(ran.get());
+        assertFalse(request.isAsyncStarted());
+        assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, response.getStatus());
+        assertEquals("60", response.getHeader("Retry-After"));
+        assertEquals(1, handler.getTimedOut());
+    }
+
+    @Test
+    public void testWritesAfterTimeoutDiscarded() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch rendered = new CountDownLatch(1);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        handler.dispatch(
+                request,
+                tile,
+                () -> {
+                    started.countDown();
+                    awaitQuietly(rendered);
+                    try {
+                        tile.servletResp.setStatus(HttpServletResponse.SC_OK);
+                        tile.servletResp.setHeader("geowebcache-cache-result", "MISS");
+                        tile.servletResp.getOutputStream().write(new byte[] {1, 2, 3});
+                    } catch (Exception e) {
+                        failure.set(e);
+                    }
+                });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        fireTimeout();
+        rendered.countDown();
+        awaitTasks();
+
+        assertTrue(failure.get() instanceof ClientStreamAbortedException);
+        assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, response.getStatus());
+        assertEquals(null, response.getHeader("geowebcache-cache-result"));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
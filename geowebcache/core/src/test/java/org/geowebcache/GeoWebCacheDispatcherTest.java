@@ -15,9 +15,13 @@
 package org.geowebcache;
 
 import static org.geowebcache.TestHelpers.hasStatus;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 import javax.servlet.http.HttpServletResponse;
 import org.easymock.EasyMock;
 import org.easymock.IMocksControl;
@@ -160,6 +164,91 @@ public void testRequestNoSecurity() throws Exception {
         EasyMock.verify(testService, layer);
     }
 
+    @Test
+    public void testTileMissServedAsynchronously() throws Exception {
+        IMocksControl stubs = EasyMock.createControl(MockType.NICE);
+        TileLayerDispatcher tld = stubs.createMock("tld", TileLayerDispatcher.class);
+        GridSetBroker gsb = stubs.createMock("gsb", GridSetBroker.class);
+        StorageBroker sb = stubs.createMock("sb", StorageBroker.class);
+        BlobStoreAggregator bsa = stubs.createMock("bsa", BlobStoreAggregator.class);
+        ServerConfiguration config = stubs.createMock("config", ServerConfiguration.class);
+        RuntimeStats rts = stubs.createMock("rts", RuntimeStats.class);
+        DefaultStorageFinder dfs = stubs.createMock("dfs", DefaultStorageFinder.class);
+        TileLayer layer = EasyMock.createMock("layer", TileLayer.class);
+        GridSubset subset = stubs.createMock("subset", GridSubset.class);
+        SecurityDispatcher secDisp = stubs.createMock("secDisp", SecurityDispatcher.class);
+        SRS srs = SRS.getEPSG3857();
+
+        EasyMock.expect(config.isRuntimeStatsEnabled()).andStubReturn(false);
+
+        Service testService = EasyMock.createMock("testService", Service.class);
+
+        EasyMock.expect(testService.getPathName()).andStubReturn("testService");
+        EasyMock.expect(tld.getTileLayer("testLayer")).andStubReturn(layer);
+        EasyMock.expect(layer.isEnabled()).andStubReturn(true);
+
+        MockHttpServletRequest request =
+                new MockHttpServletRequest("GET", "/geowebcache/service/testService/testRequest1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        request.setContextPath("/geowebcache");
+        request.setAsyncSupported(true);
+
+        ConveyorTile conv =
+                new ConveyorTile(
+                        sb,
+                        "testLayer",
+                        "testGrid",
+                        new long[] {1, 2, 3},
+                        ImageMime.png,
+                        Collections.emptyMap(),
+                        request,
+                        response);
+
+        layer.applyRequestFilters(conv);
+        EasyMock.expectLastCall().anyTimes();
+        EasyMock.expect(
+                        testService.getConveyor(
+                                EasyMock.eq(request),
+                                EasyMock.anyObject(HttpServletResponse.class)))
+                .andReturn(conv);
+        EasyMock.expect(layer.getTile(conv)).andReturn(conv).once();
+        EasyMock.expect(layer.getGridSubset("testGrid")).andStubReturn(subset);
+        EasyMock.expect(layer.useETags()).andStubReturn(false);
+        EasyMock.expect(subset.boundsFromIndex(EasyMock.aryEq(new long[] {1, 2, 3})))
+                .andStubReturn(new BoundingBox(10, 20, 30, 40));
+        EasyMock.expect(subset.getName()).andStubReturn("testGrid");
+        EasyMock.expect(subset.getSRS()).andStubReturn(srs);
+
+        secDisp.checkSecurity(conv);
+        EasyMock.expectLastCall().once();
+
+        stubs.replay();
+        EasyMock.replay(testService, layer);
+
+        // Bean init
+        extensions.addBean("testService", testService, Service.class);
+        GeoWebCacheDispatcher dispatcher =
+                new GeoWebCacheDispatcher(tld, gsb, sb, bsa, config, rts);
+        dispatcher.setApplicationContext(extensions.getMockContext());
+        dispatcher.setDefaultStorageFinder(dfs);
+        dispatcher.setSecurityDispatcher(secDisp);
+        AsyncTileHandler asyncTiles = new AsyncTileHandler(1, 60_000);
+        dispatcher.setAsyncTileHandler(asyncTiles);
+
+        // The test, the tile is not in the storage broker
+        dispatcher.handleRequest(request, response);
+        asyncTiles.getExecutor().shutdown();
+        assertTrue(asyncTiles.getExecutor().awaitTermination(10, TimeUnit.SECONDS));
+
+        assertThat(response, hasStatus(HttpStatus.OK));
+        assertFalse(request.isAsyncStarted());
+        assertEquals(1, asyncTiles.getDispatched());
+
+        stubs.verify();
+        EasyMock.verify(testService, layer);
+    }
+
     @Test
     public void testRequestFail() throws Exception {
         IMocksControl stubs = EasyMock.createControl(MockType.NICE);
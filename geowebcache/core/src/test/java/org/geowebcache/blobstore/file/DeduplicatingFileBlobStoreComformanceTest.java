@@ -0,0 +1,215 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.blobstore.file;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.apache.commons.io.IOUtils;
+import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.io.FileResource;
+import org.geowebcache.storage.TileObject;
+import org.geowebcache.storage.blobstore.file.TileDeduplicator;
+import org.junit.Assume;
+import org.junit.Test;
+
+/** Runs the file blob store conformance tests with tile deduplication enabled */
+public class DeduplicatingFileBlobStoreComformanceTest extends FileBlobStoreComformanceTest {
+
+    @Override
+    public void createTestUnit() throws Exception {
+        super.createTestUnit();
+        store.setDeduplicate(true);
+        Assume.assumeTrue(store.isDeduplicate());
+    }
+
+    private static final long CREATED = 1_700_000_000_000L;
+
+    private TileObject tile(String layer, long x, String contents) {
+        return tile(layer, x, contents, CREATED);
+    }
+
+    private TileObject tile(String layer, long x, String contents, long created) {
+        TileObject tile =
+                TileObject.createCompleteTileObject(
+                        layer,
+                        new long[] {x, 0L, 0L},
+                        "testGridSet",
+                        "image/png",
+                        null,
+                        new ByteArrayResource(contents.getBytes(StandardCharsets.UTF_8)));
+        tile.setCreated(created);
+        return tile;
+    }
+
+    private long created(String layer, long x) throws Exception {
+        TileObject query =
+                TileObject.createQueryTileObject(
+                        layer, new long[] {x, 0L, 0L}, "testGridSet", "image/png", null);
+        assertTrue(store.getMetadata(query));
+        return query.getCreated();
+    }
+
+    private File tileFile(String layer, long x) throws Exception {
+        TileObject query =
+                TileObject.createQueryTileObject(
+                        layer, new long[] {x, 0L, 0L}, "testGridSet", "image/png", null);
+        assertTrue(store.get(query));
+        return ((FileResource) query.getBlob()).getFile();
+    }
+
+    @Test
+    public void testIdenticalTilesShareStorage() throws Exception {
+        store.put(tile("layer1", 0, "blank"));
+        store.put(tile("layer1", 1, "blank"));
+        store.put(tile("layer2", 0, "blank"));
+        store.put(tile("layer1", 2, "not blank"));
+
+        Object key = Files.getAttribute(tileFile("layer1", 0).toPath(), "unix:ino");
+        assertEquals(key, Files.getAttribute(tileFile("layer1", 1).toPath(), "unix:ino"));
+        assertEquals(key, Files.getAttribute(tileFile("layer2", 0).toPath(), "unix:ino"));
+        // the payload plus three tiles
+        assertEquals(4, Files.getAttribute(tileFile("layer1", 0).toPath(), "unix:nlink"));
+
+        TileDeduplicator deduplicator = store.getDeduplicator();
+        assertEquals(2, deduplicator.getDeduplicatedTiles());
+        assertEquals(2, deduplicator.getPayloadCount());
+
+        TileObject query =
+                TileObject.createQueryTileObject(
+                        "layer2", new long[] {0L, 0L, 0L}, "testGridSet", "image/png", null);
+        assertTrue(store.get(query));
+        try (InputStream is = query.getBlob().getInputStream()) {
+            assertThat(IOUtils.toString(is, StandardCharsets.UTF_8), equalTo("blank"));
+        }
+    }
+
+    @Test
+    public void testUpdateDoesNotAffectOtherTiles() throws Exception {
+        store.put(tile("layer1", 0, "blank"));
+        store.put(tile("layer1", 1, "blank"));
+        store.put(tile("layer1", 1, "updated"));
+
+        TileObject query =
+                TileObject.createQueryTileObject(
+                        "layer1", new long[] {0L, 0L, 0L}, "testGridSet", "image/png", null);
+        assertTrue(store.get(query));
+        try (InputStream is = query.getBlob().getInputStream()) {
+            assertThat(IOUtils.toString(is, StandardCharsets.UTF_8), equalTo("blank"));
+        }
+    }
+
+    @Test
+    public void testTilesKeepTheirCreationTime() throws Exception {
+        store.put(tile("layer1", 0, "blank", CREATED));
+        store.put(tile("layer1", 1, "blank", CREATED + 500));
+        // a later identical tile shares the payload, but not its time
+        store.put(tile("layer1", 2, "blank", CREATED + 60_000));
+
+        assertEquals(CREATED, created("layer1", 0));
+        assertEquals(CREATED, created("layer1", 1));
+        assertEquals(CREATED + 60_000, created("layer1", 2));
+        Object key = Files.getAttribute(tileFile("layer1", 0).toPath(), "unix:ino");
+        assertEquals(key, Files.getAttribute(tileFile("layer1", 1).toPath(), "unix:ino"));
+        assertEquals(key, Files.getAttribute(tileFile("layer1", 2).toPath(), "unix:ino"));
+        assertEquals(1, store.getDeduplicator().getPayloadCount());
+
+        // refreshing a tile does not change the time of the others
+        store.put(tile("layer1", 2, "blank", CREATED + 120_000));
+        assertEquals(CREATED, created("layer1", 0));
+        assertEquals(CREATED + 120_000, created("layer1", 2));
+
+        // the full read reports the same time
+        TileObject query =
+                TileObject.createQueryTileObject(
+                        "layer1", new long[] {2L, 0L, 0L}, "testGridSet", "image/png", null);
+        assertTrue(store.get(query));
+        assertEquals(CREATED + 120_000, query.getCreated());
+        assertEquals(CREATED + 120_000, query.getBlob().getLastModified());
+
+        // back in the payload second
+        store.put(tile("layer1", 2, "blank", CREATED + 200));
+        assertEquals(CREATED, created("layer1", 2));
+
+        // a tile no longer deduplicated reports its own file time
+        store.setDeduplicate(false);
+        store.put(tile("layer1", 1, "blank", CREATED + 180_000));
+        store.setDeduplicate(true);
+        assertEquals(CREATED + 180_000, created("layer1", 1));
+    }
+
+    @Test
+    public void testCreationTimeFollowsRename() throws Exception {
+        store.put(tile("layer1", 0, "blank", CREATED));
+        store.put(tile("layer1", 1, "blank", CREATED + 60_000));
+
+        store.rename("layer1", "layer2");
+        assertEquals(CREATED, created("layer2", 0));
+        assertEquals(CREATED + 60_000, created("layer2", 1));
+    }
+
+    @Test
+    public void testSweepRemovesUnreferencedPayloads() throws Exception {
+        store.put(tile("layer1", 0, "blank"));
+        store.put(tile("layer1", 1, "other"));
+        store.put(tile("layer2", 0, "blank"));
+
+        store.delete(tile("layer1", 1, "other"));
+        TileDeduplicator deduplicator = store.getDeduplicator();
+        assertEquals(1, deduplicator.sweep());
+        assertEquals(1, deduplicator.getPayloadCount());
+        assertEquals(5, deduplicator.getPayloadBytes());
+
+        // the remaining payload is still in use by layer2
+        store.delete("layer1");
+        assertEquals(0, deduplicator.sweep());
+        assertEquals(1, deduplicator.getPayloadCount());
+    }
+
+    @Test
+    public void testSweepRemovesCreationTimesOfDeletedTiles() throws Exception {
+        store.put(tile("layer1", 0, "blank", CREATED));
+        store.put(tile("layer1", 1, "blank", CREATED + 60_000));
+        File times =
+                new File(
+                        new File(temp.getRoot(), TileDeduplicator.DEDUP_DIRECTORY),
+                        TileDeduplicator.TIMES_DIRECTORY);
+        assertEquals(1, countFiles(times));
+
+        store.delete(tile("layer1", 1, "blank"));
+        store.getDeduplicator().sweep();
+        assertEquals(0, countFiles(times));
+        // the payload is still in use
+        assertEquals(CREATED, created("layer1", 0));
+    }
+
+    private static long countFiles(File directory) throws Exception {
+        if (!directory.exists()) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(directory.toPath())) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
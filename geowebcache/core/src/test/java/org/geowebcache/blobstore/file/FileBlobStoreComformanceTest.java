@@ -18,15 +18,26 @@
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.geotools.util.logging.Logging;
+import org.geowebcache.filter.parameters.ParametersUtils;
+import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.io.FileResource;
 import org.geowebcache.storage.AbstractBlobStoreTest;
 import org.geowebcache.storage.StorageException;
+import org.geowebcache.storage.TileObject;
 import org.geowebcache.storage.blobstore.file.FileBlobStore;
+import org.geowebcache.storage.blobstore.file.FilePathUtils;
 import org.geowebcache.storage.blobstore.file.LayerMetadataStore;
 import org.junit.Ignore;
 import org.junit.Rule;
@@ -205,4 +216,147 @@ public void testConcurrentMassiveMetadataKeys() throws InterruptedException {
                     equalTo("testValue" + String.valueOf(i)));
         }
     }
+
+    @Test
+    public void testMetadataChangedByOtherStore() throws Exception {
+        store.putLayerMetadata("testLayer", "testKey", "value1");
+        assertThat(store.getLayerMetadata("testLayer", "testKey"), equalTo("value1"));
+
+        // another process sharing the cache directory, the cached value gets revalidated
+        FileBlobStore other = new FileBlobStore(temp.getRoot().getAbsolutePath());
+        try {
+            assertThat(other.getLayerMetadata("testLayer", "testKey"), equalTo("value1"));
+            other.putLayerMetadata("testLayer", "testKey", "a longer value2");
+            assertThat(
+                    store.getLayerMetadata("testLayer", "testKey"), equalTo("a longer value2"));
+        } finally {
+            other.destroy();
+        }
+
+        store.putLayerMetadata("testLayer", "testKey", null);
+        assertThat(store.getLayerMetadata("testLayer", "testKey"), nullValue());
+    }
+
+    @Test
+    public void testParametersFileRewrittenAfterDelete() throws Exception {
+        Map<String, String> parameters = Collections.singletonMap("STYLES", "population");
+        String parametersId = ParametersUtils.getId(parameters);
+        TileObject tile =
+                TileObject.createCompleteTileObject(
+                        "testLayer",
+                        new long[] {0L, 0L, 0L},
+                        "testGridSet",
+                        "image/png",
+                        parameters,
+                        new ByteArrayResource("tile".getBytes(StandardCharsets.UTF_8)));
+        store.put(tile);
+        assertThat(
+                store.getParametersMapping("testLayer").get(parametersId),
+                equalTo(Optional.of(parameters)));
+
+        store.deleteByParametersId("testLayer", parametersId);
+        store.put(tile);
+        File parametersFile =
+                new File(
+                        FilePathUtils.buildPath(
+                                temp.getRoot().getAbsolutePath(),
+                                "testLayer",
+                                "parameters-" + parametersId + ".properties"));
+        assertThat(parametersFile.exists(), equalTo(true));
+    }
+
+    @Test
+    public void testParametersFileRevalidation() throws Exception {
+        Map<String, String> parameters = Collections.singletonMap("STYLES", "population");
+        String parametersId = ParametersUtils.getId(parameters);
+        TileObject tile =
+                TileObject.createCompleteTileObject(
+                        "testLayer",
+                        new long[] {0L, 0L, 0L},
+                        "testGridSet",
+                        "image/png",
+                        parameters,
+                        new ByteArrayResource("tile".getBytes(StandardCharsets.UTF_8)));
+        File parametersFile =
+                new File(
+                        FilePathUtils.buildPath(
+                                temp.getRoot().getAbsolutePath(),
+                                "testLayer",
+                                "parameters-" + parametersId + ".properties"));
+
+        // trusted while recently checked, puts do not look at the file
+        store.setParametersRevalidate(-1);
+        store.put(tile);
+        assertThat(parametersFile.delete(), equalTo(true));
+        store.put(tile);
+        assertThat(parametersFile.exists(), equalTo(false));
+
+        // checked again once too old
+        store.setParametersRevalidate(0);
+        store.put(tile);
+        assertThat(parametersFile.exists(), equalTo(true));
+    }
+
+    @Test
+    public void testParametersFileDeletedByOtherStore() throws Exception {
+        Map<String, String> parameters = Collections.singletonMap("STYLES", "population");
+        String parametersId = ParametersUtils.getId(parameters);
+        TileObject tile =
+                TileObject.createCompleteTileObject(
+                        "testLayer",
+                        new long[] {0L, 0L, 0L},
+                        "testGridSet",
+                        "image/png",
+                        parameters,
+                        new ByteArrayResource("tile".getBytes(StandardCharsets.UTF_8)));
+        store.put(tile);
+
+        // another node sharing the cache directory deletes the parameters
+        FileBlobStore other = new FileBlobStore(temp.getRoot().getAbsolutePath());
+        try {
+            other.deleteByParametersId("testLayer", parametersId);
+        } finally {
+            other.destroy();
+        }
+        assertThat(store.getParametersMapping("testLayer").get(parametersId), nullValue());
+
+        // the next put writes the parameters file again
+        store.put(tile);
+        assertThat(
+                store.getParametersMapping("testLayer").get(parametersId),
+                equalTo(Optional.of(parameters)));
+    }
+
+    @Test
+    public void testStaleSendFileLinksDeletedOnStart() throws Exception {
+        TileObject tile =
+                TileObject.createCompleteTileObject(
+                        "testLayer",
+                        new long[] {0L, 0L, 0L},
+                        "testGridSet",
+                        "image/png",
+                        null,
+                        new ByteArrayResource("tile".getBytes(StandardCharsets.UTF_8)));
+        store.put(tile);
+        TileObject query =
+                TileObject.createQueryTileObject(
+                        "testLayer", new long[] {0L, 0L, 0L}, "testGridSet", "image/png", null);
+        assertThat(store.get(query), equalTo(true));
+
+        // links are kept in a directory of their own, outside of the tile tree
+        File links = ((FileResource) query.getBlob()).getStagingDirectory();
+        assertThat(links.getParentFile(), equalTo(new File(temp.getRoot(), "tmp")));
+        assertThat(links.isDirectory(), equalTo(true));
+
+        // a link left behind by a crash is gone once the store starts again
+        File stale = new File(links, "gwc-sendfile-stale");
+        Files.createLink(stale.toPath(), ((FileResource) query.getBlob()).getFile().toPath());
+        FileBlobStore other = new FileBlobStore(temp.getRoot().getAbsolutePath());
+        try {
+            assertThat(stale.exists(), equalTo(false));
+            assertThat(links.isDirectory(), equalTo(true));
+        } finally {
+            other.destroy();
+        }
+    }
 }
@@ -44,6 +44,7 @@
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.apache.commons.io.FileUtils;
@@ -64,6 +65,7 @@
 import org.geowebcache.grid.SRS;
 import org.geowebcache.layer.TileLayer;
 import org.geowebcache.layer.wms.WMSLayer;
+import org.geowebcache.storage.blobstore.file.StripedFileBlobStore;
 import org.geowebcache.util.TestUtils;
 import org.junit.Before;
 import org.junit.Rule;
@@ -153,6 +155,110 @@ public void testModifyLayer() throws Exception {
         }
     }
 
+    @Test
+    public void testPutLayers() throws Exception {
+        WMSLayer existing = createTestLayer("testLayer");
+        config.addLayer(existing);
+        int count = config.getLayerCount();
+        long saved = configFile.lastModified();
+        configFile.setLastModified(saved - 10000);
+
+        WMSLayer modified = createTestLayer("testLayer");
+        WMSLayer added1 = createTestLayer("added1");
+        WMSLayer added2 = createTestLayer("added2");
+        config.putLayers(Arrays.asList(modified, added1, added2));
+
+        assertEquals(count + 2, config.getLayerCount());
+        assertSame(modified, config.getLayer("testLayer").get());
+        assertSame(added1, config.getLayer("added1").get());
+        assertSame(added2, config.getLayer("added2").get());
+        assertTrue(configFile.lastModified() > saved - 10000);
+        // no leftover temporary file
+        assertFalse(new File(configDir, "geowebcache.xml.tmp").exists());
+
+        XMLConfiguration config2 = new XMLConfiguration(null, configDir.getAbsolutePath());
+        config2.setGridSetBroker(gridSetBroker);
+        config2.afterPropertiesSet();
+        assertEquals(config.getLayerNames(), config2.getLayerNames());
+    }
+
+    @Test
+    public void testPutLayersIsAllOrNothing() throws Exception {
+        int count = config.getLayerCount();
+        // not a layer type this configuration can save
+        TileLayer unsupported = mock(TileLayer.class);
+        when(unsupported.getName()).thenReturn("unsupported");
+        try {
+            config.putLayers(Arrays.asList(createTestLayer("added1"), unsupported));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(count, config.getLayerCount());
+        assertFalse(config.getLayer("added1").isPresent());
+
+        try {
+            config.putLayers(Arrays.asList(createTestLayer("added1"), createTestLayer("added1")));
+            fail("Expected IllegalArgumentException on duplicate layer name");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Layer 'added1' is included more than once", e.getMessage());
+        }
+        assertEquals(count, config.getLayerCount());
+    }
+
+    @Test
+    public void testParallelLayerInitialization() throws Exception {
+        XMLConfiguration config2 = new XMLConfiguration(null, configDir.getAbsolutePath());
+        config2.setGridSetBroker(gridSetBroker);
+        config2.setLayerInitThreads(4);
+        config2.afterPropertiesSet();
+
+        assertEquals(0, config2.getPendingLayerCount());
+        assertEquals(config.getLayerNames(), config2.getLayerNames());
+        for (TileLayer layer : config2.getLayers()) {
+            assertNotNull(layer.getMimeTypes());
+            assertFalse(layer.getGridSubsets().isEmpty());
+        }
+    }
+
+    @Test
+    public void testLazyLayerInitialization() throws Exception {
+        XMLConfiguration config2 = new XMLConfiguration(null, configDir.getAbsolutePath());
+        config2.setGridSetBroker(gridSetBroker);
+        config2.setLazyLayerInit(true);
+        config2.afterPropertiesSet();
+
+        // whether or not the background initialization got to it, a layer is initialized on use
+        String name = config.getLayerNames().iterator().next();
+        TileLayer layer = config2.getLayer(name).get();
+        assertNotNull(layer.getMimeTypes());
+        assertFalse(layer.getGridSubsets().isEmpty());
+
+        assertEquals(config.getLayerCount(), config2.getLayers().size());
+        assertEquals(0, config2.getPendingLayerCount());
+    }
+
+    @Test
+    public void testLazyLayerInitializationReportsReadyLayers() throws Exception {
+        XMLConfiguration config2 = new XMLConfiguration(null, configDir.getAbsolutePath());
+        config2.setGridSetBroker(gridSetBroker);
+        config2.setLazyLayerInit(true);
+        Set<String> notified = ConcurrentHashMap.newKeySet();
+        config2.addLayerListener(notified::add);
+        config2.afterPropertiesSet();
+
+        for (TileLayer layer : config2.getReadyLayers()) {
+            assertFalse(layer.getGridSubsets().isEmpty());
+        }
+        // every layer left out of the ready ones is reported once initialized
+        config2.getLayers();
+        for (int i = 0; i < 100 && notified.size() < config.getLayerCount(); i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(config.getLayerNames(), notified);
+        assertEquals(config.getLayerCount(), config2.getReadyLayers().size());
+    }
+
     @Test
     public void testRemoveLayer() {
 
@@ -537,6 +643,75 @@ public void testSaveBlobStores() throws Exception {
         assertEquals(store2, stores.get(1));
     }
 
+    @Test
+    public void testSaveTieredBlobStore() throws Exception {
+        FileBlobStoreInfo cold = new FileBlobStoreInfo();
+        cold.setName("cold");
+        cold.setEnabled(true);
+        cold.setBaseDirectory("/tmp/cold");
+
+        TieredBlobStoreInfo store = new TieredBlobStoreInfo();
+        store.setName("tiered");
+        store.setEnabled(true);
+        store.setHotDirectory("/tmp/hot");
+        store.setHotTierSize(256);
+        store.setWriteBack(true);
+        store.setColdStore(cold);
+
+        config.addBlobStore(store);
+
+        try {
+            XMLConfiguration.validate(
+                    XMLConfiguration.loadDocument(new FileInputStream(configFile)));
+        } catch (SAXParseException e) {
+            log.log(Level.SEVERE, e.getMessage());
+            fail(e.getMessage());
+        }
+
+        XMLConfiguration config2 = new XMLConfiguration(null, configDir.getAbsolutePath());
+        config2.setGridSetBroker(
+                new GridSetBroker(Collections.singletonList(new DefaultGridsets(true, true))));
+        config2.afterPropertiesSet();
+        config2.getLayerCount();
+
+        List<BlobStoreInfo> stores = config2.getBlobStores();
+        assertEquals(1, stores.size());
+        assertEquals(store, stores.get(0));
+    }
+
+    @Test
+    public void testSaveStripedFileBlobStore() throws Exception {
+        FileBlobStoreInfo store = new FileBlobStoreInfo();
+        store.setName("striped");
+        store.setEnabled(true);
+        store.setBaseDirectory("/tmp/disk0");
+        store.setFileSystemBlockSize(4096);
+        store.setStripeDirectories(Arrays.asList("/tmp/disk1", "/tmp/disk2"));
+        store.setStripeGranularity(StripedFileBlobStore.Granularity.ZOOM);
+
+        config.addBlobStore(store);
+
+        String xml = FileUtils.readFileToString(configFile, "UTF-8");
+        assertTrue(xml, xml.contains("<directory>/tmp/disk1</directory>"));
+        try {
+            XMLConfiguration.validate(
+                    XMLConfiguration.loadDocument(new FileInputStream(configFile)));
+        } catch (SAXParseException e) {
+            log.log(Level.SEVERE, e.getMessage());
+            fail(e.getMessage());
+        }
+
+        XMLConfiguration config2 = new XMLConfiguration(null, configDir.getAbsolutePath());
+        config2.setGridSetBroker(
+                new GridSetBroker(Collections.singletonList(new DefaultGridsets(true, true))));
+        config2.afterPropertiesSet();
+        config2.getLayerCount();
+
+        List<BlobStoreInfo> stores = config2.getBlobStores();
+        assertEquals(1, stores.size());
+        assertEquals(store, stores.get(0));
+    }
+
     @Test
     public void testSaveCurrentVersion() throws Exception {
 
@@ -14,10 +14,26 @@
  */
 package org.geowebcache.conveyor;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
 import org.geowebcache.grid.GridSubset;
+import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.layer.TileLayer;
+import org.geowebcache.mime.ImageMime;
+import org.geowebcache.storage.StorageBroker;
+import org.geowebcache.storage.TileObject;
 import org.hamcrest.Matchers;
 import org.junit.Assert;
 import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
 
 public class ConveyorTileTest {
 
@@ -29,4 +45,93 @@ public void testGetGridSubsetWithNullGridsetId() {
         GridSubset result = tile.getGridSubset();
         Assert.assertThat(result, Matchers.nullValue());
     }
+
+    private static ConveyorTile tile(StorageBroker broker, MockHttpServletRequest request) {
+        ConveyorTile tile =
+                new ConveyorTile(
+                        broker,
+                        "layer",
+                        "EPSG:4326",
+                        new long[] {0, 0, 0},
+                        ImageMime.png,
+                        Collections.emptyMap(),
+                        request,
+                        null);
+        TileLayer layer = mock(TileLayer.class);
+        when(layer.useETags()).thenReturn(true);
+        tile.setTileLayer(layer);
+        tile.setConditionalProbe(true);
+        return tile;
+    }
+
+    private static StorageBroker broker(long created) throws Exception {
+        StorageBroker broker = mock(StorageBroker.class);
+        when(broker.getMetadata(any()))
+                .thenAnswer(
+                        invocation -> {
+                            ((TileObject) invocation.getArgument(0)).setCreated(created);
+                            return true;
+                        });
+        when(broker.get(any()))
+                .thenAnswer(
+                        invocation -> {
+                            TileObject obj = invocation.getArgument(0);
+                            obj.setCreated(created);
+                            obj.setBlob(new ByteArrayResource(new byte[] {1}));
+                            return true;
+                        });
+        return broker;
+    }
+
+    @Test
+    public void testNotModifiedFromMetadata() throws Exception {
+        long created = System.currentTimeMillis() - 1000;
+        StorageBroker broker = broker(created);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("If-None-Match", Long.toHexString(created) + "-gzip");
+        ConveyorTile tile = tile(broker, request);
+
+        assertTrue(tile.retrieve(0));
+        assertTrue(tile.isNotModified());
+        assertNull(tile.getBlob());
+        verify(broker, never()).get(any());
+    }
+
+    @Test
+    public void testModifiedReadsTile() throws Exception {
+        long created = System.currentTimeMillis() - 1000;
+        StorageBroker broker = broker(created);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("If-None-Match", Long.toHexString(created - 1000));
+        ConveyorTile tile = tile(broker, request);
+
+        assertTrue(tile.retrieve(0));
+        assertFalse(tile.isNotModified());
+        Assert.assertNotNull(tile.getBlob());
+    }
+
+    @Test
+    public void testExpiredTileReadsTile() throws Exception {
+        long created = System.currentTimeMillis() - 60_000;
+        StorageBroker broker = broker(created);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("If-None-Match", Long.toHexString(created));
+        ConveyorTile tile = tile(broker, request);
+
+        // the tile expired 50 seconds ago, but can be served stale for a minute
+        assertTrue(tile.retrieve(10_000, 60_000));
+        assertFalse(tile.isNotModified());
+        assertTrue(tile.isStale());
+        verify(broker).get(any());
+    }
+
+    @Test
+    public void testUnconditionalRequestSkipsProbe() throws Exception {
+        StorageBroker broker = broker(System.currentTimeMillis());
+        ConveyorTile tile = tile(broker, new MockHttpServletRequest());
+
+        assertTrue(tile.retrieve(0));
+        assertFalse(tile.isNotModified());
+        verify(broker, never()).getMetadata(any());
+    }
 }
@@ -0,0 +1,127 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.filter.request;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import org.geowebcache.layer.TileLayer;
+import org.junit.Test;
+
+public class RasterFilterTest {
+
+    /** White image with black, i.e. data, pixels on the diagonal */
+    private static BufferedImage diagonal(int size, int type) {
+        BufferedImage img = new BufferedImage(size, size, type);
+        Graphics2D g = img.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, size, size);
+        g.dispose();
+        for (int i = 0; i < size; i++) {
+            img.setRGB(i, i, Color.BLACK.getRGB());
+        }
+        return img;
+    }
+
+    @Test
+    public void testMatrixFromImage() {
+        for (int type : new int[] {BufferedImage.TYPE_BYTE_BINARY, BufferedImage.TYPE_INT_RGB}) {
+            // not a multiple of 64 pixels, so rows straddle words
+            FilterMatrix matrix = FilterMatrix.fromImage(diagonal(70, type));
+            assertEquals(70, matrix.getWidth());
+            assertEquals(70, matrix.getHeight());
+            for (int x = 0; x < 70; x++) {
+                for (int y = 0; y < 70; y++) {
+                    assertEquals(x == y, matrix.hasData(x, y));
+                }
+            }
+            // 4900 bits in 77 words
+            assertEquals(32 + 16 + 77 * 8, matrix.getMemoryUsage());
+        }
+    }
+
+    @Test
+    public void testMatrixToImage() {
+        BufferedImage img =
+                FilterMatrix.fromImage(diagonal(70, BufferedImage.TYPE_INT_RGB)).toImage();
+        assertEquals(70, img.getWidth());
+        assertEquals(70, img.getHeight());
+        for (int x = 0; x < 70; x++) {
+            for (int y = 0; y < 70; y++) {
+                assertEquals(x == y ? 0 : 1, img.getRaster().getSample(x, y, 0));
+            }
+        }
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void testOutsideOfMatrix() {
+        FilterMatrix.fromImage(diagonal(10, BufferedImage.TYPE_BYTE_BINARY)).hasData(10, 0);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testReplaceMatrix() throws Exception {
+        List<BufferedImage> images = new ArrayList<>();
+        images.add(diagonal(8, BufferedImage.TYPE_BYTE_BINARY));
+        images.add(diagonal(16, BufferedImage.TYPE_BYTE_BINARY));
+        RasterFilter filter =
+                new RasterFilter() {
+                    @Override
+                    protected BufferedImage loadMatrix(
+                            TileLayer layer, String gridSetId, int zoomLevel) {
+                        return images.remove(0);
+                    }
+
+                    @Override
+                    public boolean update(TileLayer layer, String gridSetId) {
+                        return false;
+                    }
+
+                    @Override
+                    public void update(
+                            TileLayer layer, String gridSetId, int zoomStart, int zoomStop) {}
+
+                    @Override
+                    public void update(
+                            byte[] filterData, TileLayer layer, String gridSetId, int z) {}
+                };
+        filter.setZoomStop(3);
+        assertEquals(0, filter.getMatrixMemoryUsage("EPSG:4326", 2));
+        assertNull(filter.getMatrices());
+
+        filter.setMatrix(null, "EPSG:4326", 2, false);
+        assertEquals(32 + 16 + 8, filter.getMatrixMemoryUsage("EPSG:4326", 2));
+        // already loaded
+        filter.setMatrix(null, "EPSG:4326", 2, false);
+        assertEquals(1, images.size());
+
+        filter.setMatrix(null, "EPSG:4326", 2, true);
+        assertTrue(images.isEmpty());
+        assertEquals(32 + 16 + 4 * 8, filter.getMatrixMemoryUsage("EPSG:4326", 2));
+        assertEquals(0, filter.getMatrixMemoryUsage("EPSG:4326", 3));
+        assertEquals(0, filter.getMatrixMemoryUsage("EPSG:900913", 2));
+
+        BufferedImage[] levels = filter.getMatrices().get("EPSG:4326");
+        assertEquals(4, levels.length);
+        assertNull(levels[0]);
+        assertEquals(16, levels[2].getWidth());
+    }
+}
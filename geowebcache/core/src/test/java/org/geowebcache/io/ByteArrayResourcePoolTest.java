@@ -0,0 +1,124 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import org.junit.Test;
+
+public class ByteArrayResourcePoolTest {
+
+    @Test
+    public void testReleasedBufferIsReused() throws IOException {
+        ByteArrayResourcePool pool = new ByteArrayResourcePool(4, 1024 * 1024);
+
+        ByteArrayResourcePool.Lease lease = pool.lease(0);
+        ByteArrayResource first = lease.getResource();
+        try (OutputStream os = first.getOutputStream()) {
+            os.write(new byte[] {1, 2, 3});
+        }
+        assertEquals(1, pool.getOutstandingCount());
+        lease.close();
+        assertEquals(0, pool.getOutstandingCount());
+        assertEquals(1, pool.getIdleCount());
+
+        try (ByteArrayResourcePool.Lease second = pool.lease(0)) {
+            assertSame(first, second.getResource());
+            // handed out empty
+            assertEquals(0, second.getResource().getSize());
+        }
+        assertEquals(2, pool.getLeaseCount());
+        assertEquals(1, pool.getAllocatedCount());
+        assertEquals(1, pool.getReusedCount());
+    }
+
+    @Test
+    public void testDoubleCloseIsHarmless() {
+        ByteArrayResourcePool pool = new ByteArrayResourcePool(4, 1024 * 1024);
+
+        ByteArrayResourcePool.Lease lease = pool.lease(0);
+        lease.close();
+        lease.close();
+
+        assertEquals(0, pool.getOutstandingCount());
+        assertEquals(1, pool.getIdleCount());
+        // the buffer is in the pool once, two leases get two different buffers
+        try (ByteArrayResourcePool.Lease l1 = pool.lease(0);
+                ByteArrayResourcePool.Lease l2 = pool.lease(0)) {
+            assertNotSame(l1.getResource(), l2.getResource());
+        }
+    }
+
+    @Test
+    public void testSizeHint() {
+        ByteArrayResourcePool pool = new ByteArrayResourcePool(4, 16 * 1024 * 1024);
+
+        try (ByteArrayResourcePool.Lease lease = pool.lease(100 * 1024)) {
+            assertEquals(256 * 1024, lease.getResource().getCapacity());
+        }
+        // a large idle buffer can serve a small request
+        try (ByteArrayResourcePool.Lease lease = pool.lease(0)) {
+            assertEquals(256 * 1024, lease.getResource().getCapacity());
+        }
+        // but a small one cannot serve a large request
+        try (ByteArrayResourcePool.Lease lease = pool.lease(0)) {
+            try (ByteArrayResourcePool.Lease large = pool.lease(1024 * 1024)) {
+                assertEquals(1024 * 1024, large.getResource().getCapacity());
+            }
+        }
+    }
+
+    @Test
+    public void testPoolIsBounded() {
+        ByteArrayResourcePool pool = new ByteArrayResourcePool(2, 1024 * 1024);
+
+        ByteArrayResourcePool.Lease l1 = pool.lease(0);
+        ByteArrayResourcePool.Lease l2 = pool.lease(0);
+        ByteArrayResourcePool.Lease l3 = pool.lease(0);
+        l1.close();
+        l2.close();
+        l3.close();
+        assertEquals(2, pool.getIdleCount());
+        assertEquals(1, pool.getDiscardedCount());
+        assertEquals(2 * 16 * 1024, pool.getRetainedBytes());
+
+        // retained bytes cap
+        try (ByteArrayResourcePool.Lease large = pool.lease(1024 * 1024)) {
+            assertTrue(large.getResource().getCapacity() >= 1024 * 1024);
+        }
+        assertEquals(2, pool.getIdleCount());
+        assertEquals(2, pool.getDiscardedCount());
+
+        pool.clear();
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(0, pool.getRetainedBytes());
+    }
+
+    @Test
+    public void testOversizedBuffersAreNotRetained() {
+        ByteArrayResourcePool pool = new ByteArrayResourcePool(2, Long.MAX_VALUE);
+
+        try (ByteArrayResourcePool.Lease lease = pool.lease(64 * 1024 * 1024)) {
+            assertEquals(64 * 1024 * 1024, lease.getResource().getCapacity());
+        }
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(1, pool.getDiscardedCount());
+    }
+}
@@ -23,17 +23,22 @@
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import org.geowebcache.GeoWebCacheException;
 import org.geowebcache.config.GWCConfigIntegrationTest;
 import org.geowebcache.config.GWCConfigIntegrationTestData;
+import org.geowebcache.config.TileLayerConfiguration;
+import org.geowebcache.config.TileLayerConfigurationListener;
 import org.geowebcache.grid.BoundingBox;
 import org.geowebcache.grid.GridSet;
 import org.geowebcache.grid.GridSetFactory;
 import org.geowebcache.grid.SRS;
 import org.geowebcache.layer.wms.WMSLayer;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 public class TileLayerDispatcherTest extends GWCConfigIntegrationTest {
@@ -164,6 +169,188 @@ public void testModifyLayer() throws GeoWebCacheException {
         assertNull(modifiedLayer.getGridSubset(GWCConfigIntegrationTestData.GRIDSET_EPSG2163));
     }
 
+    @Test
+    public void testRenameLayer() throws GeoWebCacheException {
+        // the XML configuration does not support renaming layers
+        TileLayerConfiguration config = Mockito.mock(TileLayerConfiguration.class);
+        Mockito.when(config.supportsLayerListeners()).thenReturn(true);
+        TileLayer layer = Mockito.mock(TileLayer.class);
+        Mockito.when(layer.getName()).thenReturn("oldName");
+        Mockito.doReturn(Collections.singletonList(layer)).when(config).getLayers();
+        Mockito.when(config.getLayer(Mockito.anyString())).thenReturn(Optional.empty());
+        Mockito.when(config.getLayer("oldName")).thenReturn(Optional.of(layer));
+        Mockito.when(config.containsLayer("oldName")).thenReturn(true);
+        TileLayerDispatcher dispatcher =
+                new TileLayerDispatcher(null, new ArrayList<>(Arrays.asList(config)), null);
+        assertEquals(layer, dispatcher.getTileLayer("oldName"));
+
+        Mockito.doAnswer(
+                        invocation -> {
+                            Mockito.when(layer.getName()).thenReturn("newName");
+                            Mockito.when(config.getLayer("oldName")).thenReturn(Optional.empty());
+                            Mockito.when(config.getLayer("newName"))
+                                    .thenReturn(Optional.of(layer));
+                            return null;
+                        })
+                .when(config)
+                .renameLayer("oldName", "newName");
+        dispatcher.rename("oldName", "newName");
+
+        assertFalse(dispatcher.layerExists("oldName"));
+        assertEquals(Collections.singleton("newName"), dispatcher.getLayerNames());
+        assertEquals(layer, dispatcher.getTileLayer("newName"));
+        assertEquals(1, dispatcher.getLayerCount());
+    }
+
+    @Test
+    public void testPutLayers() throws GeoWebCacheException {
+        // prime the index
+        int count = tileLayerDispatcher.getLayerCount();
+        assertEquals(count, tileLayerDispatcher.getLayerNames().size());
+
+        String modifiedLayerName = GWCConfigIntegrationTestData.LAYER_TOPP_STATES;
+        TileLayer modified = tileLayerDispatcher.getTileLayer(modifiedLayerName);
+        boolean advertised = !modified.isAdvertised();
+        modified.setAdvertised(advertised);
+        WMSLayer added =
+                new WMSLayer(
+                        "newLayer",
+                        new String[] {"http://example.com/"},
+                        null,
+                        null,
+                        null,
+                        null,
+                        null,
+                        null,
+                        null,
+                        false,
+                        null);
+
+        tileLayerDispatcher.putLayers(Arrays.asList(modified, added));
+
+        assertEquals(count + 1, tileLayerDispatcher.getLayerCount());
+        assertTrue(tileLayerDispatcher.getLayerNames().contains("newLayer"));
+        assertEquals(added, tileLayerDispatcher.getTileLayer("newLayer"));
+        assertEquals(advertised, tileLayerDispatcher.getTileLayer(modifiedLayerName).isAdvertised());
+    }
+
+    @Test
+    public void testLayerListIsSnapshot() throws GeoWebCacheException {
+        Iterable<TileLayer> before = tileLayerDispatcher.getLayerList();
+        int count = tileLayerDispatcher.getLayerCount();
+
+        tileLayerDispatcher.removeLayer(GWCConfigIntegrationTestData.LAYER_TOPP_STATES);
+
+        int i = 0;
+        for (@SuppressWarnings("unused") TileLayer layer : before) {
+            i++;
+        }
+        assertEquals(count, i);
+        assertEquals(count - 1, tileLayerDispatcher.getLayerCount());
+    }
+
+    @Test
+    public void testLayerAddedToConfigurationIsFound() throws GeoWebCacheException {
+        // prime the index
+        assertEquals(
+                tileLayerDispatcher.getLayerCount(), tileLayerDispatcher.getLayerNames().size());
+
+        String layerName = "configLayer";
+        WMSLayer layer =
+                new WMSLayer(
+                        layerName,
+                        new String[] {"http://example.com/"},
+                        null,
+                        null,
+                        null,
+                        null,
+                        null,
+                        null,
+                        null,
+                        false,
+                        null);
+        testSupport.getTileLayerConfigurations().get(0).addLayer(layer);
+
+        // reported by the configuration and indexed
+        assertEquals(layer, tileLayerDispatcher.getTileLayer(layerName));
+        assertTrue(tileLayerDispatcher.getLayerNames().contains(layerName));
+    }
+
+    @Test
+    public void testLayerRemovedFromConfigurationIsDropped() throws GeoWebCacheException {
+        String layerName = GWCConfigIntegrationTestData.LAYER_TOPP_STATES;
+        assertTrue(tileLayerDispatcher.layerExists(layerName));
+
+        // removed behind the dispatcher's back, the configuration reports it
+        testSupport.getTileLayerConfigurations().get(0).removeLayer(layerName);
+        assertFalse(tileLayerDispatcher.layerExists(layerName));
+        assertFalse(tileLayerDispatcher.getLayerNames().contains(layerName));
+    }
+
+    @Test
+    public void testUnknownLayers() throws GeoWebCacheException {
+        TileLayerConfiguration config = Mockito.mock(TileLayerConfiguration.class);
+        Mockito.doReturn(Collections.emptyList()).when(config).getLayers();
+        Mockito.when(config.getLayer(Mockito.anyString())).thenReturn(Optional.empty());
+        Mockito.when(config.supportsLayerListeners()).thenReturn(true);
+        ArgumentCaptor<TileLayerConfigurationListener> listener =
+                ArgumentCaptor.forClass(TileLayerConfigurationListener.class);
+        TileLayerDispatcher dispatcher =
+                new TileLayerDispatcher(null, new ArrayList<>(Arrays.asList(config)), null);
+        Mockito.verify(config).addLayerListener(listener.capture());
+
+        // unknown names are looked up once
+        assertFalse(dispatcher.layerExists("bogus"));
+        assertFalse(dispatcher.layerExists("bogus"));
+        Mockito.verify(config, Mockito.times(1)).getLayer("bogus");
+
+        // until the configuration reports a change
+        TileLayer layer = Mockito.mock(TileLayer.class);
+        Mockito.when(layer.getName()).thenReturn("bogus");
+        Mockito.when(config.getLayer("bogus")).thenReturn(Optional.of(layer));
+        listener.getValue().handleLayerChange("bogus");
+        assertEquals(layer, dispatcher.getTileLayer("bogus"));
+        assertEquals(Collections.singleton("bogus"), dispatcher.getLayerNames());
+
+        // or the dispatcher is reset
+        assertFalse(dispatcher.layerExists("other"));
+        dispatcher.reset();
+        assertFalse(dispatcher.layerExists("other"));
+        Mockito.verify(config, Mockito.times(2)).getLayer("other");
+    }
+
+    @Test
+    public void testConfigurationWithoutListenersIsQueriedOnEachLookup()
+            throws GeoWebCacheException {
+        TileLayerConfiguration config = Mockito.mock(TileLayerConfiguration.class);
+        Mockito.when(config.getLayer(Mockito.anyString())).thenReturn(Optional.empty());
+        TileLayerDispatcher dispatcher =
+                new TileLayerDispatcher(null, new ArrayList<>(Arrays.asList(config)), null);
+        Mockito.verify(config, Mockito.never()).addLayerListener(Mockito.any());
+
+        // new layers are found right after a miss
+        assertFalse(dispatcher.layerExists("external"));
+        TileLayer layer = Mockito.mock(TileLayer.class);
+        Mockito.when(layer.getName()).thenReturn("external");
+        Mockito.when(config.getLayer("external")).thenReturn(Optional.of(layer));
+        Mockito.doReturn(Collections.singletonList(layer)).when(config).getLayers();
+        Mockito.when(config.getLayerNames()).thenReturn(Collections.singleton("external"));
+        Mockito.when(config.getLayerCount()).thenReturn(1);
+        assertEquals(layer, dispatcher.getTileLayer("external"));
+        assertEquals(Collections.singleton("external"), dispatcher.getLayerNames());
+        assertEquals(1, dispatcher.getLayerCount());
+        assertEquals(Collections.singletonList(layer), dispatcher.getLayerList());
+
+        // replaced layers are not served from an index
+        TileLayer replacement = Mockito.mock(TileLayer.class);
+        Mockito.when(config.getLayer("external")).thenReturn(Optional.of(replacement));
+        assertEquals(replacement, dispatcher.getTileLayer("external"));
+
+        // and removed layers are gone
+        Mockito.when(config.getLayer("external")).thenReturn(Optional.empty());
+        assertFalse(dispatcher.layerExists("external"));
+    }
+
     @Test
     public void testModifyBadLayer() {
         String layerName = "newLayer";
@@ -0,0 +1,327 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.layer.wms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.geowebcache.GeoWebCacheException;
+import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.layer.TileResponseReceiver;
+import org.geowebcache.mime.ImageMime;
+import org.junit.After;
+import org.junit.Test;
+
+public class BackendLimiterTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private HttpServer server;
+
+    @After
+    public void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+        BackendLimiter.setEnabled(false);
+        BackendLimiter.reset();
+    }
+
+    private BackendLimiter limiter(int min, int max, int maxQueue, long queueTimeout) {
+        return new BackendLimiter("http://test", min, max, maxQueue, queueTimeout, 2, 3, 100);
+    }
+
+    @Test
+    public void testLimitFollowsLatency() throws Exception {
+        BackendLimiter limiter = new BackendLimiter("http://test", 1, 10, 10, 1000, 2, 100, 100);
+        assertEquals(10, limiter.getLimit());
+
+        // fast responses set the baseline
+        limiter.acquire(false).release(false, 10 * MS);
+        assertEquals(10, limiter.getLimit());
+
+        // a response well over the baseline shrinks the limit
+        limiter.acquire(false).release(false, 100 * MS);
+        assertEquals(9, limiter.getLimit());
+
+        // failures shrink it faster, but never below the minimum
+        for (int i = 0; i < 20; i++) {
+            Thread.sleep(20);
+            limiter.acquire(false).release(true, 10 * MS);
+        }
+        assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    public void testLimitGrowsWhenUsed() throws Exception {
+        BackendLimiter limiter = limiter(1, 4, 10, 1000);
+        Thread.sleep(20);
+        limiter.acquire(false).release(true, 10 * MS);
+        assertEquals(2, limiter.getLimit());
+
+        // sequential requests do not use the limit, it stays put
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire(false).release(false, 10 * MS);
+        }
+        assertEquals(2, limiter.getLimit());
+
+        // requests using up the limit make it grow
+        for (int i = 0; i < 10; i++) {
+            BackendLimiter.Permit p1 = limiter.acquire(false);
+            BackendLimiter.Permit p2 = limiter.acquire(false);
+            p1.release(false, 10 * MS);
+            p2.release(false, 10 * MS);
+        }
+        assertTrue(limiter.getLimit() > 2);
+    }
+
+    @Test
+    public void testQueueTimeoutAndShedding() throws Exception {
+        BackendLimiter limiter = limiter(1, 1, 1, 200);
+        BackendLimiter.Permit permit = limiter.acquire(false);
+
+        CountDownLatch waiting = new CountDownLatch(1);
+        Thread waiter =
+                new Thread(
+                        () -> {
+                            waiting.countDown();
+                            try {
+                                limiter.acquire(false).release(false);
+                            } catch (GeoWebCacheException e) {
+                                // timed out
+                            }
+                        });
+        waiter.start();
+        waiting.await();
+        while (limiter.getWaiting() == 0) {
+            Thread.sleep(1);
+        }
+        // the queue is full
+        try {
+            limiter.acquire(false);
+            fail("Expected the request to be rejected");
+        } catch (GeoWebCacheException e) {
+            assertTrue(e.getMessage().contains("too many requests waiting"));
+        }
+        waiter.join();
+        assertEquals(2, limiter.getRejectedCount());
+        permit.release(false);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void testInteractiveRequestsGoFirst() throws Exception {
+        BackendLimiter limiter = limiter(1, 1, 10, 5000);
+        BackendLimiter.Permit permit = limiter.acquire(false);
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        Thread seeder = acquireInThread(limiter, true, "background", order);
+        while (limiter.getWaiting() < 1) {
+            Thread.sleep(1);
+        }
+        Thread client = acquireInThread(limiter, false, "foreground", order);
+        while (limiter.getWaiting() < 2) {
+            Thread.sleep(1);
+        }
+        permit.release(false, 10 * MS);
+        seeder.join();
+        client.join();
+        assertEquals(List.of("foreground", "background"), order);
+    }
+
+    @Test
+    public void testBackgroundRequestsTimeOut() throws Exception {
+        BackendLimiter limiter = limiter(1, 1, 10, 200);
+        BackendLimiter.Permit permit = limiter.acquire(false);
+        try {
+            limiter.acquire(true);
+            fail("Expected the background request to time out");
+        } catch (GeoWebCacheException e) {
+            assertTrue(e.getMessage().contains("timed out waiting"));
+        }
+        assertEquals(0, limiter.getWaiting());
+        permit.release(false);
+        limiter.acquire(true).release(false);
+    }
+
+    private Thread acquireInThread(
+            BackendLimiter limiter, boolean background, String name, List<String> order) {
+        Thread t =
+                new Thread(
+                        () -> {
+                            try {
+                                BackendLimiter.Permit p = limiter.acquire(background);
+                                order.add(name);
+                                p.release(false, 10 * MS);
+                            } catch (GeoWebCacheException e) {
+                                order.add(e.getMessage());
+                            }
+                        });
+        t.start();
+        return t;
+    }
+
+    @Test
+    public void testCircuitBreaker() throws Exception {
+        BackendLimiter limiter = new BackendLimiter("http://test", 1, 10, 10, 1000, 2, 3, 500);
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(false).release(true, 10 * MS);
+        }
+        assertTrue(limiter.isCircuitOpen());
+        try {
+            limiter.acquire(true);
+            fail("Expected the circuit to be open");
+        } catch (GeoWebCacheException e) {
+            assertTrue(e.getMessage().contains("suspended"));
+        }
+
+        Thread.sleep(600);
+        // a single probe goes through
+        BackendLimiter.Permit probe = limiter.acquire(false);
+        try {
+            limiter.acquire(false);
+            fail("Expected the circuit to be open while probing");
+        } catch (GeoWebCacheException e) {
+            // expected
+        }
+        probe.release(false, 10 * MS);
+        assertFalse(limiter.isCircuitOpen());
+        limiter.acquire(false).release(false, 10 * MS);
+    }
+
+    @Test
+    public void testFlakyBackend() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(
+                "/wms",
+                exchange -> {
+                    requests.incrementAndGet();
+                    exchange.sendResponseHeaders(503, -1);
+                    exchange.close();
+                });
+        server.start();
+        BackendLimiter.setEnabled(true);
+
+        String url = "http://localhost:" + server.getAddress().getPort() + "/wms";
+        WMSLayer layer =
+                new WMSLayer(
+                        "flaky",
+                        new String[] {url},
+                        null,
+                        "flaky",
+                        null,
+                        null,
+                        null,
+                        null,
+                        null,
+                        false,
+                        null);
+        WMSHttpHelper helper = new WMSHttpHelper();
+        for (int i = 0; i < 10; i++) {
+            Receiver receiver = new Receiver();
+            try {
+                helper.makeRequest(
+                        receiver,
+                        layer,
+                        Collections.emptyMap(),
+                        ImageMime.png,
+                        new ByteArrayResource());
+                fail("Expected the request to fail");
+            } catch (GeoWebCacheException e) {
+                // expected
+            }
+        }
+        // the circuit opened after the fifth failure and spared the backend the rest
+        assertEquals(BackendLimiter.get(new URL(url)).getRejectedCount(), 10 - requests.get());
+        assertTrue(BackendLimiter.get(new URL(url)).isCircuitOpen());
+        assertEquals(5, requests.get());
+    }
+
+    @Test
+    public void testInvalidSettingsUseDefaults() throws Exception {
+        System.setProperty(BackendLimiter.MAX_CONCURRENCY, "lots");
+        System.setProperty(BackendLimiter.MIN_CONCURRENCY, "-1");
+        try {
+            BackendLimiter limiter = BackendLimiter.get(new URL("http://invalid.example.com/wms"));
+            assertEquals(64, limiter.getLimit());
+        } finally {
+            System.clearProperty(BackendLimiter.MAX_CONCURRENCY);
+            System.clearProperty(BackendLimiter.MIN_CONCURRENCY);
+        }
+    }
+
+    static class Receiver implements TileResponseReceiver {
+
+        int status;
+
+        boolean error;
+
+        String errorMessage;
+
+        long expires = -1;
+
+        @Override
+        public void setStatus(int status) {
+            this.status = status;
+        }
+
+        @Override
+        public int getStatus() {
+            return status;
+        }
+
+        @Override
+        public void setExpiresHeader(long seconds) {
+            this.expires = seconds;
+        }
+
+        @Override
+        public long getExpiresHeader() {
+            return expires;
+        }
+
+        @Override
+        public void setError() {
+            this.error = true;
+        }
+
+        @Override
+        public boolean getError() {
+            return error;
+        }
+
+        @Override
+        public void setErrorMessage(String message) {
+            this.errorMessage = message;
+        }
+
+        @Override
+        public String getErrorMessage() {
+            return errorMessage;
+        }
+    }
+}
@@ -23,6 +23,7 @@
 import static org.geowebcache.TestHelpers.createWMSLayer;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
@@ -76,6 +77,7 @@
 import org.geowebcache.GeoWebCacheException;
 import org.geowebcache.TestHelpers;
 import org.geowebcache.config.DefaultGridsets;
+import org.geowebcache.conveyor.Conveyor.CacheResult;
 import org.geowebcache.conveyor.ConveyorTile;
 import org.geowebcache.filter.parameters.ParameterFilter;
 import org.geowebcache.grid.GridSet;
@@ -83,6 +85,7 @@
 import org.geowebcache.grid.OutsideCoverageException;
 import org.geowebcache.io.ByteArrayResource;
 import org.geowebcache.io.Resource;
+import org.geowebcache.layer.ExpirationRule;
 import org.geowebcache.layer.TileLayer;
 import org.geowebcache.layer.TileResponseReceiver;
 import org.geowebcache.layer.wms.WMSLayer.RequestType;
@@ -104,6 +107,7 @@
 import org.junit.Test;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
 
 /**
  * Unit test suite for {@link WMSLayer}
@@ -511,6 +515,121 @@ public void testGetFeatureInfoQueryLayers() throws MimeException {
         assertEquals(l.getWmsQueryLayers(), rt.get("QUERY_LAYERS"));
     }
 
+    @Test
+    public void testStaleWhileRevalidate() throws Exception {
+        WMSLayer tl = createWMSLayer("image/png");
+        // expire after a minute, serve stale for up to an hour
+        ReflectionTestUtils.setField(
+                tl,
+                "expireCacheList",
+                new ArrayList<>(Collections.singletonList(new ExpirationRule(0, 60, 3600))));
+        StaleTileRefresher refresher = new StaleTileRefresher(1, 10);
+        tl.setStaleTileRefresher(refresher);
+        try {
+            MockTileSupport mock = new MockTileSupport(tl);
+            // every stored tile is two minutes old
+            StorageBroker storageBroker = EasyMock.createMock(StorageBroker.class);
+            AtomicInteger puts = new AtomicInteger();
+            expect(storageBroker.get(anyObject()))
+                    .andAnswer(
+                            () -> {
+                                TileObject tile = (TileObject) EasyMock.getCurrentArguments()[0];
+                                tile.setBlob(new ByteArrayResource(mock.fakeWMSResponse));
+                                tile.setCreated(System.currentTimeMillis() - 120_000);
+                                return true;
+                            })
+                    .anyTimes();
+            expect(storageBroker.put(anyObject()))
+                    .andAnswer(
+                            () -> {
+                                puts.incrementAndGet();
+                                return true;
+                            })
+                    .anyTimes();
+            replay(storageBroker);
+
+            long[] coverage = tl.getGridSubset("EPSG:4326").getCoverage(2);
+            ConveyorTile tile =
+                    new ConveyorTile(
+                            storageBroker,
+                            tl.getName(),
+                            "EPSG:4326",
+                            new long[] {coverage[0], coverage[1], 2},
+                            ImageMime.png,
+                            null,
+                            null,
+                            null);
+            ConveyorTile result = tl.getTile(tile);
+
+            // the stale tile is served right away
+            assertEquals(CacheResult.HIT, result.getCacheResult());
+            assertTrue(result.isStale());
+            assertEquals(1, refresher.getStaleServed());
+
+            // and its metatile gets refreshed in the background, but since the
+            // refreshed tiles are still reported as old by the mock broker the
+            // strict re-check under lock does not find them
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (refresher.getRefreshesCompleted() == 0
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, refresher.getRefreshesCompleted());
+            assertEquals(0, refresher.getRefreshesFailed());
+            assertEquals(1, mock.wmsMetaRequestCounter.get());
+            assertTrue(puts.get() > 0);
+        } finally {
+            refresher.shutdown();
+        }
+    }
+
+    @Test
+    public void testStaleTileBeyondMaxStaleIsAMiss() throws Exception {
+        WMSLayer tl = createWMSLayer("image/png");
+        ReflectionTestUtils.setField(
+                tl,
+                "expireCacheList",
+                new ArrayList<>(Collections.singletonList(new ExpirationRule(0, 60, 60))));
+        StaleTileRefresher refresher = new StaleTileRefresher(1, 10);
+        tl.setStaleTileRefresher(refresher);
+        try {
+            MockTileSupport mock = new MockTileSupport(tl);
+            StorageBroker storageBroker = EasyMock.createMock(StorageBroker.class);
+            expect(storageBroker.get(anyObject()))
+                    .andAnswer(
+                            () -> {
+                                TileObject tile = (TileObject) EasyMock.getCurrentArguments()[0];
+                                tile.setBlob(new ByteArrayResource(mock.fakeWMSResponse));
+                                tile.setCreated(System.currentTimeMillis() - 3_600_000);
+                                return true;
+                            })
+                    .anyTimes();
+            expect(storageBroker.put(anyObject())).andReturn(true).anyTimes();
+            replay(storageBroker);
+
+            long[] coverage = tl.getGridSubset("EPSG:4326").getCoverage(2);
+            ConveyorTile tile =
+                    new ConveyorTile(
+                            storageBroker,
+                            tl.getName(),
+                            "EPSG:4326",
+                            new long[] {coverage[0], coverage[1], 2},
+                            ImageMime.png,
+                            null,
+                            null,
+                            null);
+            ConveyorTile result = tl.getTile(tile);
+
+            // too old to be served stale, rendered synchronously instead
+            assertEquals(CacheResult.MISS, result.getCacheResult());
+            assertFalse(result.isStale());
+            assertEquals(0, refresher.getStaleServed());
+            assertEquals(1, mock.wmsMetaRequestCounter.get());
+        } finally {
+            refresher.shutdown();
+        }
+    }
+
     private WMSLayer createFeatureInfoLayer(String wmsLayers, String wmsQueryLayers) {
         return new WMSLayer(
                 "name",
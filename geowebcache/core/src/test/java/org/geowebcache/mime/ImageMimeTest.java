@@ -18,6 +18,8 @@
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import java.awt.Color;
 import java.awt.Graphics2D;
@@ -100,6 +102,7 @@ private Resource getAsResource(BufferedImage image, ImageMime mime) throws IOExc
         writer.setOutput(ios);
         writer.write(image);
         ios.flush();
+        ImageMime.releaseImageWriter(writer);
         return new ByteArrayResource(os.toByteArray());
     }
 
@@ -130,4 +133,38 @@ public void test4BitPNG() throws IOException, URISyntaxException {
                 writer.getClass().getName(),
                 ImageMime.NATIVE_PNG_WRITER_CLASS_NAME);
     }
+
+    @Test
+    public void testReleasedWriterIsReused() {
+        ImageWriter writer = ImageMime.gif.getImageWriter(indexed);
+        ImageWriter other = ImageMime.gif.getImageWriter(indexed);
+        assertNotSame(writer, other);
+
+        ImageMime.releaseImageWriter(writer);
+        assertSame(writer, ImageMime.gif.getImageWriter(indexed));
+        other.dispose();
+        writer.dispose();
+    }
+
+    @Test
+    public void testReusedWriterEncodes() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            Resource resource = getAsResource(rgb, ImageMime.png);
+            assertEquals(rgb.getWidth(), ImageIO.read(resource.getInputStream()).getWidth());
+        }
+    }
+
+    @Test
+    public void testMetaTileEncoderResolve() {
+        // an opaque metatile only holds opaque tiles, no need to look at them
+        MetaTileEncoder encoder = ImageMime.jpegPng.createMetaTileEncoder(rgb);
+        assertSame(ImageMime.jpeg, encoder.resolve(rgba));
+        // same for a paletted one
+        encoder = ImageMime.jpegPng8.createMetaTileEncoder(indexed);
+        assertSame(ImageMime.png8, encoder.resolve(rgb));
+        // other formats just encode as themselves
+        encoder = ImageMime.png8.createMetaTileEncoder(rgba);
+        assertSame(ImageMime.png8, encoder.resolve(rgba));
+        assertSame(indexed, encoder.preprocess(ImageMime.png8, indexed));
+    }
 }
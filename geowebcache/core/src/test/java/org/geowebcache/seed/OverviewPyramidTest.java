@@ -0,0 +1,378 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.seed;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+import org.geowebcache.GeoWebCacheException;
+import org.geowebcache.config.DefaultGridsets;
+import org.geowebcache.conveyor.ConveyorTile;
+import org.geowebcache.grid.BoundingBox;
+import org.geowebcache.grid.GridSet;
+import org.geowebcache.grid.GridSetFactory;
+import org.geowebcache.grid.GridSubset;
+import org.geowebcache.grid.GridSubsetFactory;
+import org.geowebcache.grid.SRS;
+import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.layer.TileLayer;
+import org.geowebcache.mime.ApplicationMime;
+import org.geowebcache.mime.ImageMime;
+import org.geowebcache.mime.MimeType;
+import org.geowebcache.seed.OverviewPyramid.Quality;
+import org.geowebcache.storage.StorageBroker;
+import org.geowebcache.storage.TileObject;
+import org.geowebcache.storage.TileRange;
+import org.geowebcache.storage.TileRangeIterator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OverviewPyramidTest {
+
+    private static final int RED = 0xffff0000;
+
+    private static final int GREEN = 0xff00ff00;
+
+    private static final int BLUE = 0xff0000ff;
+
+    private static final int BLACK = 0xff000000;
+
+    private static final int WHITE = 0xffffffff;
+
+    private TileLayer layer;
+
+    private StorageBroker sb;
+
+    /** The stored tiles, by x/y/z */
+    private Map<String, byte[]> tiles;
+
+    /** The tiles rendered by the backend, by x/y/z */
+    private List<String> rendered;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        GridSubset gridSubset =
+                GridSubsetFactory.createGridSubSet(
+                        new DefaultGridsets(false, false).worldEpsg4326(),
+                        BoundingBox.WORLD4326,
+                        0,
+                        2);
+        layer = mock(TileLayer.class);
+        when(layer.getName()).thenReturn("layer");
+        when(layer.getGridSubset("EPSG:4326")).thenReturn(gridSubset);
+        when(layer.getMetaTilingFactors()).thenReturn(new int[] {1, 1});
+
+        tiles = new ConcurrentHashMap<>();
+        rendered = new ArrayList<>();
+        sb = mock(StorageBroker.class);
+        when(sb.get(any()))
+                .thenAnswer(
+                        invocation -> {
+                            TileObject tile = invocation.getArgument(0);
+                            byte[] contents = tiles.get(key(tile.getXYZ()));
+                            if (contents == null) {
+                                return false;
+                            }
+                            tile.setBlob(new ByteArrayResource(contents));
+                            return true;
+                        });
+        when(sb.getMetadata(any()))
+                .thenAnswer(
+                        invocation ->
+                                tiles.containsKey(
+                                        key(((TileObject) invocation.getArgument(0)).getXYZ())));
+        when(sb.put(any()))
+                .thenAnswer(
+                        invocation -> {
+                            TileObject tile = invocation.getArgument(0);
+                            byte[] contents = ((ByteArrayResource) tile.getBlob()).getContents();
+                            tiles.put(key(tile.getXYZ()), contents);
+                            return true;
+                        });
+
+        executor = Executors.newFixedThreadPool(3);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static String key(long[] index) {
+        return index[0] + "/" + index[1] + "/" + index[2];
+    }
+
+    private void store(long x, long y, int z, BufferedImage image) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        tiles.put(key(new long[] {x, y, z}), out.toByteArray());
+    }
+
+    private BufferedImage stored(long x, long y, int z) throws Exception {
+        byte[] contents = tiles.get(key(new long[] {x, y, z}));
+        assertNotNull("Missing tile " + x + "/" + y + "/" + z, contents);
+        return ImageIO.read(new ByteArrayInputStream(contents));
+    }
+
+    private static BufferedImage solid(int argb) {
+        BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 256; y++) {
+            for (int x = 0; x < 256; x++) {
+                image.setRGB(x, y, argb);
+            }
+        }
+        return image;
+    }
+
+    private static BufferedImage checkerboard() {
+        BufferedImage image = solid(WHITE);
+        for (int y = 0; y < 256; y++) {
+            for (int x = (y + 1) % 2; x < 256; x += 2) {
+                image.setRGB(x, y, BLACK);
+            }
+        }
+        return image;
+    }
+
+    private TileRange range(MimeType format, int zoomStart, int zoomStop) {
+        return new TileRange(
+                "layer",
+                "EPSG:4326",
+                zoomStart,
+                zoomStop,
+                layer.getGridSubset("EPSG:4326").getCoverages(),
+                format,
+                null);
+    }
+
+    private OverviewPyramid pyramid(Quality quality) {
+        return OverviewPyramid.create(range(ImageMime.png, 0, 2), layer, quality, sb, false);
+    }
+
+    @Test
+    public void testParseQuality() throws Exception {
+        assertNull(Quality.parse(null));
+        assertNull(Quality.parse(" "));
+        assertEquals(Quality.AVERAGE, Quality.parse("average"));
+        assertEquals(Quality.NEAREST, Quality.parse("Nearest "));
+        try {
+            Quality.parse("bicubic");
+            fail("Expected a GeoWebCacheException");
+        } catch (GeoWebCacheException e) {
+            assertTrue(e.getMessage().contains("bicubic"));
+        }
+    }
+
+    @Test
+    public void testNotApplicable() throws Exception {
+        assertNull(OverviewPyramid.create(range(ImageMime.png, 0, 2), layer, null, sb, false));
+        assertNull(
+                OverviewPyramid.create(
+                        range(ImageMime.png, 2, 2), layer, Quality.AVERAGE, sb, false));
+        assertNull(
+                OverviewPyramid.create(
+                        range(ApplicationMime.json, 0, 2), layer, Quality.AVERAGE, sb, false));
+
+        GridSet gridSet =
+                GridSetFactory.createGridSet(
+                        "EPSG:4326",
+                        SRS.getEPSG4326(),
+                        BoundingBox.WORLD4326,
+                        false,
+                        new double[] {0.703125, 0.3515625, 0.1},
+                        null,
+                        null,
+                        GridSetFactory.DEFAULT_PIXEL_SIZE_METER,
+                        null,
+                        256,
+                        256,
+                        false);
+        when(layer.getGridSubset("EPSG:4326"))
+                .thenReturn(GridSubsetFactory.createGridSubSet(gridSet));
+        assertNull(
+                OverviewPyramid.create(
+                        range(ImageMime.png, 0, 2), layer, Quality.AVERAGE, sb, false));
+        assertNotNull(
+                OverviewPyramid.create(
+                        range(ImageMime.png, 0, 1), layer, Quality.AVERAGE, sb, false));
+    }
+
+    @Test
+    public void testBackendRange() throws Exception {
+        TileRange backend = pyramid(Quality.AVERAGE).getBackendRange();
+        assertEquals(2, backend.getZoomStart());
+        assertEquals(2, backend.getZoomStop());
+        assertEquals(ImageMime.png, backend.getMimeType());
+        assertArrayEquals(new long[] {0, 0, 7, 3, 2}, backend.rangeBounds(2));
+    }
+
+    @Test
+    public void testComposeQuadrants() throws Exception {
+        // the children of 0/0/1, the northern ones have the higher y
+        store(0, 0, 2, solid(RED));
+        store(1, 0, 2, solid(GREEN));
+        store(0, 1, 2, solid(BLUE));
+        store(1, 1, 2, solid(0));
+
+        BufferedImage parent = pyramid(Quality.AVERAGE).compose(new long[] {0, 0, 1});
+
+        assertEquals(BLUE, parent.getRGB(0, 0));
+        assertEquals(BLUE, parent.getRGB(127, 127));
+        assertEquals(0, parent.getRGB(128, 0));
+        assertEquals(0, parent.getRGB(255, 127));
+        assertEquals(RED, parent.getRGB(0, 128));
+        assertEquals(RED, parent.getRGB(127, 255));
+        assertEquals(GREEN, parent.getRGB(128, 128));
+        assertEquals(GREEN, parent.getRGB(255, 255));
+
+        // a child is missing
+        tiles.remove("1/1/2");
+        assertNull(pyramid(Quality.AVERAGE).compose(new long[] {0, 0, 1}));
+    }
+
+    @Test
+    public void testDownsampling() throws Exception {
+        for (long x = 0; x < 2; x++) {
+            for (long y = 0; y < 2; y++) {
+                store(x, y, 2, checkerboard());
+            }
+        }
+        long[] index = {0, 0, 1};
+
+        // every block of four is half black, half white
+        BufferedImage average = pyramid(Quality.AVERAGE).compose(index);
+        for (int[] pixel : new int[][] {{0, 0}, {100, 200}, {255, 255}}) {
+            int gray = average.getRGB(pixel[0], pixel[1]) & 0xff;
+            assertEquals(128, gray);
+        }
+
+        // one pixel out of each block, either black or white
+        BufferedImage nearest = pyramid(Quality.NEAREST).compose(index);
+        int gray = nearest.getRGB(10, 10) & 0xff;
+        assertTrue("Unexpected " + gray, gray == 0 || gray == 255);
+
+        BufferedImage bilinear = pyramid(Quality.BILINEAR).compose(index);
+        gray = bilinear.getRGB(10, 10) & 0xff;
+        assertTrue("Unexpected " + gray, gray > 0 && gray < 255);
+    }
+
+    @Test
+    public void testBuildPyramid() throws Exception {
+        // the backend renders red tiles in the west, blue ones in the east, but leaves 7/3/2 out
+        doAnswer(
+                        invocation -> {
+                            ConveyorTile tile = invocation.getArgument(0);
+                            long[] index = tile.getTileIndex();
+                            synchronized (rendered) {
+                                rendered.add(key(index));
+                            }
+                            if (!key(index).equals("7/3/2")) {
+                                // the level is twice as wide as high
+                                long west = 1L << index[2];
+                                store(
+                                        index[0],
+                                        index[1],
+                                        (int) index[2],
+                                        solid(index[0] < west ? RED : BLUE));
+                            }
+                            return null;
+                        })
+                .when(layer)
+                .seedTile(any(), anyBoolean());
+
+        OverviewPyramid pyramid = pyramid(Quality.AVERAGE);
+        TileRangeIterator trIter =
+                new TileRangeIterator(pyramid.getBackendRange(), new int[] {1, 1});
+        AtomicInteger threadCount = new AtomicInteger(3);
+        List<SeedTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            SeedTask task = new SeedTask(sb, trIter, layer, false, false);
+            task.setThreadInfo(threadCount, i);
+            task.setOverviewPyramid(pyramid);
+            tasks.add(task);
+        }
+        List<Future<?>> futures = new ArrayList<>();
+        for (SeedTask task : tasks) {
+            futures.add(
+                    executor.submit(
+                            () -> {
+                                task.doAction();
+                                return null;
+                            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+
+        // the deepest level and the parent of the missing tile come from the backend
+        assertEquals(33, rendered.size());
+        assertTrue(rendered.contains("3/1/1"));
+        assertEquals(1, pyramid.getFromBackend());
+        assertEquals(9, pyramid.getBuilt());
+        assertEquals(RED, stored(0, 0, 0).getRGB(128, 128));
+        assertEquals(BLUE, stored(1, 0, 0).getRGB(128, 128));
+        assertEquals(RED, stored(1, 1, 1).getRGB(0, 0));
+        assertEquals(BLUE, stored(2, 0, 1).getRGB(255, 255));
+        for (SeedTask task : tasks) {
+            assertEquals(GWCTask.STATE.DONE, task.getState());
+            // progress covers the whole request
+            assertEquals(42, task.getTilesTotal());
+        }
+    }
+
+    @Test
+    public void testAbortedBaseLevel() throws Exception {
+        OverviewPyramid pyramid = pyramid(Quality.NEAREST);
+        SeedTask task =
+                new SeedTask(
+                        sb,
+                        new TileRangeIterator(pyramid.getBackendRange(), new int[] {1, 1}),
+                        layer,
+                        false,
+                        false);
+        task.setThreadInfo(new AtomicInteger(1), 0);
+        task.setOverviewPyramid(pyramid);
+        task.terminateNicely();
+        task.doAction();
+
+        assertEquals(0, pyramid.getBuilt());
+        assertTrue(tiles.isEmpty());
+    }
+}
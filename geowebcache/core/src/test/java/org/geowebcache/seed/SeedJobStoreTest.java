@@ -0,0 +1,139 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.seed;
+
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.geowebcache.grid.BoundingBox;
+import org.geowebcache.storage.TileRangeIterator;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SeedJobStoreTest {
+
+    @Rule public TemporaryFolder temp = new TemporaryFolder();
+
+    private SeedJobStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        store = new SeedJobStore(new File(temp.getRoot(), "jobs"));
+    }
+
+    private static SeedJob job(String id) {
+        SeedRequest request =
+                new SeedRequest(
+                        "topp:states",
+                        new BoundingBox(-180, -90, 180, 90),
+                        "EPSG:4326",
+                        2,
+                        0,
+                        5,
+                        "image/png",
+                        GWCTask.TYPE.SEED,
+                        Collections.singletonMap("STYLES", "population"));
+        return new SeedJob(id, "topp:states", request);
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        assertTrue(store.load().isEmpty());
+
+        SeedJob job = job("a");
+        job.setState(SeedJob.STATE.PAUSED);
+        TileRangeIterator iterator = createMockIterator(new long[] {4, 2, 3});
+        job.started(null, iterator, new GWCTask[0]);
+        assertTrue(job.updateCheckpoint());
+        store.save(job);
+
+        List<SeedJob> loaded = store.load();
+        assertEquals(1, loaded.size());
+        SeedJob copy = loaded.get(0);
+        assertEquals("a", copy.getId());
+        assertEquals("topp:states", copy.getLayerName());
+        assertEquals(SeedJob.STATE.PAUSED, copy.getState());
+        assertEquals(job.getCreated(), copy.getCreated());
+        assertArrayEquals(new long[] {4, 2, 3}, copy.getCheckpoint());
+        assertNull(copy.getTasks());
+
+        SeedRequest request = copy.getRequest();
+        assertEquals(GWCTask.TYPE.SEED, request.getType());
+        assertEquals("EPSG:4326", request.getGridSetId());
+        assertEquals(new BoundingBox(-180, -90, 180, 90), request.getBounds());
+        assertEquals(Integer.valueOf(5), request.getZoomStop());
+        assertEquals("population", request.getParameters().get("STYLES"));
+
+        store.delete("a");
+        assertTrue(store.load().isEmpty());
+    }
+
+    @Test
+    public void testRequestIsCopied() throws Exception {
+        Map<String, String> parameters = Collections.singletonMap("STYLES", "population");
+        SeedRequest request =
+                new SeedRequest(
+                        "topp:states",
+                        null,
+                        "EPSG:4326",
+                        1,
+                        0,
+                        5,
+                        "image/png",
+                        GWCTask.TYPE.SEED,
+                        parameters);
+        SeedJob job = new SeedJob("a", "topp:states", request);
+
+        // the caller's request is left alone
+        assertSame(parameters, request.getParameters());
+        assertNotSame(request, job.getRequest());
+        assertEquals(parameters, job.getRequest().getParameters());
+        assertEquals(Integer.valueOf(5), job.getRequest().getZoomStop());
+    }
+
+    @Test
+    public void testSkipsUnreadableFiles() throws Exception {
+        store.save(job("a"));
+        Files.write(
+                new File(store.getDirectory(), "b.xml").toPath(),
+                "<notAJob/>".getBytes(StandardCharsets.UTF_8));
+        List<SeedJob> loaded = store.load();
+        assertEquals(1, loaded.size());
+        assertEquals("a", loaded.get(0).getId());
+        assertNull(loaded.get(0).getCheckpoint());
+    }
+
+    private static TileRangeIterator createMockIterator(long[] checkpoint) {
+        TileRangeIterator iterator = createMock(TileRangeIterator.class);
+        expect(iterator.getCheckpoint()).andReturn(checkpoint);
+        replay(iterator);
+        return iterator;
+    }
+}
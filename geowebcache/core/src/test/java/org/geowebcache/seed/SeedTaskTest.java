@@ -33,6 +33,7 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import org.easymock.Capture;
@@ -345,6 +346,52 @@ public void testSeedStoredTiles() throws Exception {
         verify(sleeper);
     }
 
+    /** Seeding with backend permits must hold one for each backend request and give it back */
+    @Test
+    public void testSeedHoldsBackendPermits() throws Exception {
+        WMSLayer tl = createWMSLayer("image/png");
+
+        final Semaphore permits = new Semaphore(2);
+        final AtomicInteger requests = new AtomicInteger();
+        WMSSourceHelper mockSourceHelper =
+                new MockWMSSourceHelper() {
+                    @Override
+                    protected void makeRequest(
+                            TileResponseReceiver tileRespRecv,
+                            WMSLayer layer,
+                            Map<String, String> wmsParams,
+                            MimeType expectedMimeType,
+                            Resource target)
+                            throws GeoWebCacheException {
+                        Assert.assertEquals(1, permits.availablePermits());
+                        requests.incrementAndGet();
+                        super.makeRequest(
+                                tileRespRecv, layer, wmsParams, expectedMimeType, target);
+                    }
+                };
+        tl.setSourceHelper(mockSourceHelper);
+
+        SeedRequest req = createRequest(tl, TYPE.SEED, 2, 2);
+        TileRange tr = TileBreeder.createTileRange(req, tl);
+        TileRangeIterator trIter = new TileRangeIterator(tr, tl.getMetaTilingFactors());
+
+        final StorageBroker mockStorageBroker = EasyMock.createMock(StorageBroker.class);
+        expect(mockStorageBroker.put(anyObject())).andReturn(true).anyTimes();
+        expect(mockStorageBroker.get(anyObject())).andReturn(false).anyTimes();
+        replay(mockStorageBroker);
+
+        SeedTask task = new SeedTask(mockStorageBroker, trIter, tl, false, false);
+        task.setTaskId(1L);
+        task.setThreadInfo(new AtomicInteger(), 0);
+        task.setBackendPermits(permits);
+        Thread.currentThread().setName("pool-fake-thread-1");
+
+        task.doAction();
+
+        Assert.assertTrue(requests.get() > 0);
+        Assert.assertEquals(2, permits.availablePermits());
+    }
+
     private static class Tuple<T extends Comparable<T>> implements Comparable<Tuple<T>> {
 
         private T[] members;
@@ -0,0 +1,227 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.seed;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.geowebcache.GeoWebCacheException;
+import org.geowebcache.seed.GWCTask.THROTTLE;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SeedThrottleTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private SeedThrottle.RequestLoad load;
+
+    private AtomicInteger backendWaiting;
+
+    private SeedThrottle throttle;
+
+    private Instant now;
+
+    @Before
+    public void setUp() {
+        load = new SeedThrottle.RequestLoad();
+        backendWaiting = new AtomicInteger();
+        throttle = new SeedThrottle(load, backendWaiting::get);
+        setTime(LocalDateTime.of(2026, 1, 1, 12, 0).toInstant(ZoneOffset.UTC));
+    }
+
+    private void setTime(Instant time) {
+        now = time;
+        throttle.clock = Clock.fixed(now, ZoneOffset.UTC);
+    }
+
+    private void advance(long millis) {
+        setTime(now.plusMillis(millis));
+    }
+
+    private void requests(int count, long latencyMillis) {
+        for (int i = 0; i < count; i++) {
+            load.record(now.toEpochMilli(), latencyMillis * MS);
+        }
+    }
+
+    private static GWCTask task(int priority) {
+        GWCTask task =
+                new GWCTask() {
+                    @Override
+                    protected void doActionInternal() {}
+
+                    @Override
+                    protected void dispose() {}
+                };
+        task.setPriority(priority);
+        return task;
+    }
+
+    @Test
+    public void testWindows() {
+        throttle.setWindows("22:00-06:00, 12:30-13:00");
+        assertEquals(THROTTLE.PAUSED, throttle.getState());
+        advance(TimeUnit.MINUTES.toMillis(30));
+        assertEquals(THROTTLE.NONE, throttle.getState());
+        advance(TimeUnit.MINUTES.toMillis(30));
+        assertEquals(THROTTLE.PAUSED, throttle.getState());
+        // spanning midnight
+        advance(TimeUnit.HOURS.toMillis(10));
+        assertEquals(THROTTLE.NONE, throttle.getState());
+        advance(TimeUnit.HOURS.toMillis(8));
+        assertEquals(THROTTLE.PAUSED, throttle.getState());
+
+        throttle.setWindows(null);
+        assertEquals(THROTTLE.NONE, throttle.getState());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidWindow() {
+        throttle.setWindows("22:00");
+    }
+
+    @Test
+    public void testRequestRate() {
+        throttle.setMaxRequestRate(10);
+        assertEquals(THROTTLE.NONE, throttle.getState());
+
+        requests(50, 10);
+        // not evaluated again yet
+        assertEquals(THROTTLE.NONE, throttle.getState());
+        advance(1000);
+        assertEquals(THROTTLE.SLOWED, throttle.getState());
+        assertEquals(50, throttle.getRequestRate(), 0.01);
+        // low priority tasks stop altogether
+        assertEquals(THROTTLE.SLOWED, throttle.getState(task(0)));
+        assertEquals(THROTTLE.PAUSED, throttle.getState(task(-1)));
+
+        requests(5, 10);
+        advance(1000);
+        assertEquals(THROTTLE.NONE, throttle.getState());
+        assertEquals(THROTTLE.NONE, throttle.getState(task(-1)));
+    }
+
+    @Test
+    public void testLatency() {
+        throttle.setMaxLatency(100);
+        requests(100, 10);
+        requests(10, 500);
+        assertEquals(THROTTLE.SLOWED, throttle.getState());
+        assertEquals(500, throttle.getLatencyP95());
+
+        // old samples no longer count
+        advance(SeedThrottle.RequestLoad.LATENCY_WINDOW + 1);
+        requests(10, 10);
+        assertEquals(THROTTLE.NONE, throttle.getState());
+        assertEquals(10, throttle.getLatencyP95());
+    }
+
+    @Test
+    public void testBackendQueue() {
+        throttle.setMaxBackendWaiting(2);
+        backendWaiting.set(1);
+        assertEquals(THROTTLE.NONE, throttle.getState());
+        backendWaiting.set(2);
+        advance(1000);
+        assertEquals(THROTTLE.SLOWED, throttle.getState());
+    }
+
+    @Test
+    public void testAwait() throws Exception {
+        throttle.setWindows("12:00-13:00");
+        throttle.setMaxBackendWaiting(1);
+        throttle.setDelay(250);
+        List<Long> sleeps = new CopyOnWriteArrayList<>();
+        throttle.sleeper = sleeps::add;
+
+        GWCTask task = task(0);
+        throttle.await(task);
+        assertEquals(THROTTLE.NONE, task.getThrottle());
+        assertTrue(sleeps.isEmpty());
+
+        backendWaiting.set(1);
+        advance(1000);
+        throttle.await(task);
+        assertEquals(THROTTLE.SLOWED, task.getThrottle());
+        assertEquals(List.of(250L), sleeps);
+
+        // paused until back in the window
+        sleeps.clear();
+        backendWaiting.set(0);
+        advance(TimeUnit.HOURS.toMillis(1));
+        throttle.sleeper =
+                millis -> {
+                    assertEquals(THROTTLE.PAUSED, task.getThrottle());
+                    sleeps.add(millis);
+                    if (sleeps.size() == 3) {
+                        advance(TimeUnit.HOURS.toMillis(23));
+                    }
+                };
+        throttle.await(task);
+        assertEquals(3, sleeps.size());
+        assertEquals(THROTTLE.NONE, task.getThrottle());
+
+        // terminating a paused task lets it go
+        advance(TimeUnit.HOURS.toMillis(1));
+        throttle.sleeper = millis -> task.terminateNicely();
+        throttle.await(task);
+        assertEquals(THROTTLE.PAUSED, task.getThrottle());
+    }
+
+    @Test
+    public void testPriorityOrdersPendingTasks() throws Exception {
+        SeederThreadPoolExecutor executor = new SeederThreadPoolExecutor(1, 1, false);
+        try {
+            CountDownLatch blocker = new CountDownLatch(1);
+            executor.submit(
+                    () -> {
+                        blocker.await();
+                        return null;
+                    });
+
+            List<Integer> order = new CopyOnWriteArrayList<>();
+            for (int priority : new int[] {0, -1, 5, 0}) {
+                GWCTask task =
+                        new GWCTask() {
+                            @Override
+                            protected void doActionInternal() throws GeoWebCacheException {
+                                order.add(getPriority());
+                            }
+
+                            @Override
+                            protected void dispose() {}
+                        };
+                task.setPriority(priority);
+                executor.submit(new MTSeeder(task));
+            }
+            blocker.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+            assertEquals(List.of(5, 0, 0, -1), order);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
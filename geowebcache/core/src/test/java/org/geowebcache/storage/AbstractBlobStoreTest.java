@@ -129,6 +129,31 @@ public void testStoreTile() throws Exception {
                                         "1,2,4,5,6 test".getBytes(StandardCharsets.UTF_8)))));
     }
 
+    @Test
+    public void testGetMetadata() throws Exception {
+        TileObject toCache =
+                TileObject.createCompleteTileObject(
+                        "testLayer",
+                        new long[] {0L, 0L, 0L},
+                        "testGridSet",
+                        "image/png",
+                        null,
+                        new ByteArrayResource("1,2,4,5,6 test".getBytes(StandardCharsets.UTF_8)));
+        final long size = toCache.getBlobSize();
+        TileObject missing =
+                TileObject.createQueryTileObject(
+                        "testLayer", new long[] {1L, 0L, 0L}, "testGridSet", "image/png", null);
+        TileObject fromCache =
+                TileObject.createQueryTileObject(
+                        "testLayer", new long[] {0L, 0L, 0L}, "testGridSet", "image/png", null);
+
+        store.put(toCache);
+
+        assertThat(store.getMetadata(missing), is(false));
+        assertThat(store.getMetadata(fromCache), is(true));
+        assertThat(fromCache, hasProperty("blobSize", is((int) size)));
+    }
+
     @Test
     public void testStoreTilesInMultipleLayers() throws Exception {
         BlobStoreListener listener = EasyMock.createNiceMock(BlobStoreListener.class);
@@ -0,0 +1,167 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.io.IOUtils;
+import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.io.EncodedResource;
+import org.geowebcache.io.FileResource;
+import org.geowebcache.io.Resource;
+import org.geowebcache.storage.blobstore.file.FileBlobStore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TileCompressionTest {
+
+    @Rule public TemporaryFolder temp = new TemporaryFolder();
+
+    private static TileObject tile(String format, byte[] contents) {
+        return TileObject.createCompleteTileObject(
+                "layer",
+                new long[] {1, 2, 3},
+                "EPSG:4326",
+                format,
+                null,
+                new ByteArrayResource(contents));
+    }
+
+    private static TileObject query(String format) {
+        return TileObject.createQueryTileObject(
+                "layer", new long[] {1, 2, 3}, "EPSG:4326", format, null);
+    }
+
+    private static byte[] contents() {
+        byte[] contents = new byte[4096];
+        for (int i = 0; i < contents.length; i++) {
+            contents[i] = (byte) (i % 7);
+        }
+        return contents;
+    }
+
+    private static byte[] read(Resource resource) throws Exception {
+        try (InputStream in = resource.getInputStream()) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        FileBlobStore store = new FileBlobStore(temp.getRoot().getAbsolutePath());
+        // report file sizes rather than disk blocks
+        store.setBlockSize(1);
+        TileCompression compression = new TileCompression(true);
+        byte[] contents = contents();
+        String format = "application/vnd.mapbox-vector-tile";
+
+        TileObject tile = tile(format, contents);
+        Resource original = tile.getBlob();
+        compression.encode(tile);
+        store.put(tile);
+        assertTrue(tile.getBlobSize() < contents.length);
+
+        TileObject query = query(format);
+        assertTrue(store.get(query));
+        compression.decode(query);
+        EncodedResource blob = (EncodedResource) query.getBlob();
+        assertEquals("gzip", blob.getEncoding());
+        assertEquals(contents.length, blob.getSize());
+        assertArrayEquals(contents, read(blob));
+        assertNotNull(EncodedResource.ifGzipped(blob.getEncoded()));
+
+        // contents read compressed are stored as is
+        TileObject copy = tile(format, new byte[0]);
+        copy.setBlob(blob);
+        compression.encode(copy);
+        assertSame(blob.getEncoded(), copy.getBlob());
+        assertFalse(original instanceof EncodedResource);
+    }
+
+    @Test
+    public void testDecodeOnlyReadsTheHeader() throws Exception {
+        byte[] contents = contents();
+        byte[] compressed = read(EncodedResource.gzip(new ByteArrayResource(contents)).getEncoded());
+        File file = temp.newFile();
+        Files.write(file.toPath(), compressed);
+        AtomicLong read = new AtomicLong();
+        Resource stored =
+                new FileResource(file) {
+                    @Override
+                    public InputStream getInputStream() throws IOException {
+                        return new FilterInputStream(super.getInputStream()) {
+                            @Override
+                            public int read() throws IOException {
+                                read.incrementAndGet();
+                                return super.read();
+                            }
+
+                            @Override
+                            public int read(byte[] b, int off, int len) throws IOException {
+                                int n = super.read(b, off, len);
+                                read.addAndGet(Math.max(n, 0));
+                                return n;
+                            }
+                        };
+                    }
+                };
+        TileObject tile = tile("application/json;type=geojson", contents);
+        tile.setBlob(stored);
+        new TileCompression(false).decode(tile);
+        assertTrue(tile.getBlob() instanceof EncodedResource);
+        assertEquals(3, read.get());
+
+        // decoded when first used
+        assertEquals(contents.length, tile.getBlob().getSize());
+        assertArrayEquals(contents, read(tile.getBlob()));
+    }
+
+    @Test
+    public void testImagesNotCompressed() throws Exception {
+        TileCompression compression = new TileCompression(true);
+        TileObject tile = tile("image/png", contents());
+        Resource original = tile.getBlob();
+        compression.encode(tile);
+        assertSame(original, tile.getBlob());
+    }
+
+    @Test
+    public void testDecodeWithoutCompressOnPut() throws Exception {
+        TileCompression compression = new TileCompression(false);
+        byte[] contents = contents();
+        TileObject tile = tile("application/json;type=geojson", contents);
+        Resource original = tile.getBlob();
+        compression.encode(tile);
+        assertSame(original, tile.getBlob());
+
+        // tiles stored compressed earlier are still recognized
+        tile.setBlob(EncodedResource.gzip(original).getEncoded());
+        compression.decode(tile);
+        assertTrue(tile.getBlob() instanceof EncodedResource);
+        assertArrayEquals(contents, read(tile.getBlob()));
+    }
+}
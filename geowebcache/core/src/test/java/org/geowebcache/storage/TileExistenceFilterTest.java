@@ -0,0 +1,139 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.geowebcache.storage.TileExistenceFilter.ScalableBloomFilter;
+import org.junit.Test;
+
+public class TileExistenceFilterTest {
+
+    private static TileObject tile(long x, long y, int z) {
+        return TileObject.createQueryTileObject(
+                "layer", new long[] {x, y, z}, "EPSG:4326", "image/png", null);
+    }
+
+    @Test
+    public void testNegativeCache() throws Exception {
+        BlobStore store = mock(BlobStore.class);
+        TileExistenceFilter filter = new TileExistenceFilter(false, 100, 60_000, 100);
+        TileObject tile = tile(1, 2, 3);
+
+        assertFalse(filter.get(store, tile));
+        assertFalse(filter.get(store, tile(1, 2, 3)));
+        verify(store, times(1)).get(tile);
+        assertEquals(2, filter.getLookups());
+        assertEquals(1, filter.getNegativeCacheHits());
+        assertEquals(1, filter.getStoreMisses());
+
+        // storing the tile invalidates the miss
+        filter.put(store, tile(1, 2, 3));
+        when(store.get(tile)).thenReturn(true);
+        assertTrue(filter.get(store, tile));
+        assertTrue(filter.get(store, tile));
+        verify(store, times(3)).get(tile);
+    }
+
+    @Test
+    public void testBloomFilterOnEmptyLayer() throws Exception {
+        BlobStore store = mock(BlobStore.class);
+        when(store.layerExists("layer")).thenReturn(false);
+        TileExistenceFilter filter = new TileExistenceFilter(true, 100, 0, 100);
+
+        TileObject stored = tile(1, 1, 1);
+        filter.put(store, stored);
+        when(store.get(stored)).thenReturn(true);
+
+        assertTrue(filter.get(store, stored));
+        for (int i = 0; i < 50; i++) {
+            assertFalse(filter.get(store, tile(i, 0, 5)));
+        }
+        assertEquals(51, filter.getLookups());
+        assertEquals(50, filter.getDefiniteMisses() + filter.getFalsePositives());
+        assertTrue(filter.getDefiniteMisses() > 40);
+    }
+
+    @Test
+    public void testBloomFilterNotTrustedOnExistingLayer() throws Exception {
+        BlobStore store = mock(BlobStore.class);
+        when(store.layerExists("layer")).thenReturn(true);
+        TileExistenceFilter filter = new TileExistenceFilter(true, 100, 0, 100);
+
+        TileObject tile = tile(4, 5, 6);
+        when(store.get(tile)).thenReturn(true);
+        assertTrue(filter.get(store, tile));
+        assertEquals(0, filter.getDefiniteMisses());
+    }
+
+    @Test
+    public void testLayerDeleteRestartsFilter() throws Exception {
+        BlobStore store = mock(BlobStore.class);
+        when(store.layerExists("layer")).thenReturn(true);
+        TileExistenceFilter filter = new TileExistenceFilter(true, 100, 0, 100);
+
+        TileObject tile = tile(0, 0, 0);
+        filter.get(store, tile);
+        verify(store, times(1)).get(tile);
+
+        when(store.layerExists("layer")).thenReturn(false);
+        filter.layerDeleted("layer");
+        assertFalse(filter.get(store, tile));
+        verify(store, times(1)).get(tile);
+        assertEquals(1, filter.getDefiniteMisses());
+    }
+
+    @Test
+    public void testStoreChangeRestartsFilter() throws Exception {
+        BlobStore store = mock(BlobStore.class);
+        BlobStore other = mock(BlobStore.class);
+        when(other.layerExists("layer")).thenReturn(true);
+        TileExistenceFilter filter = new TileExistenceFilter(true, 100, 0, 100);
+
+        TileObject tile = tile(0, 0, 0);
+        assertFalse(filter.get(store, tile));
+        verify(store, never()).get(tile);
+
+        // the layer was moved to a store that has tiles
+        when(other.get(tile)).thenReturn(true);
+        assertTrue(filter.get(other, tile));
+    }
+
+    @Test
+    public void testScalableBloomFilterGrows() {
+        ScalableBloomFilter bloom = new ScalableBloomFilter(100);
+        for (int i = 0; i < 1000; i++) {
+            bloom.put("tile" + i);
+        }
+        assertTrue(bloom.getFilterCount() > 1);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(bloom.mightContain("tile" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 1000; i < 11000; i++) {
+            if (bloom.mightContain("tile" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue("False positives: " + falsePositives, falsePositives < 300);
+    }
+}
@@ -85,6 +85,43 @@ public void setUp() throws Exception {
         gridCoverages = gridSubSet.getCoverages();
     }
 
+    @Test
+    public void testCheckpoint() throws Exception {
+        int[] metaTilingFactors = {2, 2};
+        TileRange tileRange =
+                new TileRange(
+                        "layer",
+                        "gridset",
+                        3,
+                        4,
+                        gridCoverages,
+                        mimeType,
+                        ServletUtils.queryStringToMap(parameters));
+        TileRangeIterator it = new TileRangeIterator(tileRange, metaTilingFactors);
+        it.trackProgress();
+        Assert.assertNull(it.getCheckpoint());
+
+        List<long[]> locations = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            locations.add(it.nextMetaGridLocation(new long[3]).clone());
+        }
+        // the second one is still in progress, everything after it would be processed again
+        it.completed(locations.get(0));
+        it.completed(locations.get(2));
+        it.completed(locations.get(3));
+        long[] checkpoint = it.getCheckpoint();
+
+        TileRangeIterator resumed = new TileRangeIterator(tileRange, metaTilingFactors);
+        resumed.resumeAfter(checkpoint);
+        for (int i = 1; i < 5; i++) {
+            Assert.assertArrayEquals(locations.get(i), resumed.nextMetaGridLocation(new long[3]));
+        }
+
+        it.completed(locations.get(1));
+        it.completed(locations.get(4));
+        Assert.assertArrayEquals(locations.get(4), it.getCheckpoint());
+    }
+
     /** */
     @Test
     public void testTraverseIndividualZoomLevelsNoMetaTiling() throws Exception {
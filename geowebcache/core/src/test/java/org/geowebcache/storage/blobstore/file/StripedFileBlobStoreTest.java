@@ -0,0 +1,337 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage.blobstore.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.geowebcache.config.DefaultGridsets;
+import org.geowebcache.grid.GridSubsetFactory;
+import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.layer.TileLayer;
+import org.geowebcache.layer.TileLayerDispatcher;
+import org.geowebcache.mime.ImageMime;
+import org.geowebcache.storage.BlobStoreListener;
+import org.geowebcache.storage.StorageException;
+import org.geowebcache.storage.TileObject;
+import org.geowebcache.storage.blobstore.file.StripedFileBlobStore.Granularity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class StripedFileBlobStoreTest {
+
+    @Rule public TemporaryFolder temp = new TemporaryFolder();
+
+    private List<String> roots;
+
+    private StripedFileBlobStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        roots = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            roots.add(temp.newFolder("root" + i).getAbsolutePath());
+        }
+    }
+
+    @After
+    public void tearDown() {
+        if (store != null) {
+            store.destroy();
+        }
+    }
+
+    private StripedFileBlobStore create(List<String> roots, Granularity granularity)
+            throws StorageException {
+        List<FileBlobStore> stores = new ArrayList<>();
+        for (String root : roots) {
+            stores.add(new FileBlobStore(root));
+        }
+        return new StripedFileBlobStore(roots, stores, granularity);
+    }
+
+    private static TileObject tile(String layer, long x, long y) {
+        return TileObject.createCompleteTileObject(
+                layer,
+                new long[] {x, y, 8},
+                "EPSG:4326",
+                "image/png",
+                null,
+                new ByteArrayResource(new byte[] {1, 2, 3}));
+    }
+
+    private static TileObject query(String layer, long x, long y) {
+        return TileObject.createQueryTileObject(
+                layer, new long[] {x, y, 8}, "EPSG:4326", "image/png", null);
+    }
+
+    /** Puts a tile in each of 64 blocks and returns how many landed in each root */
+    private int[] fill(String layer) throws StorageException {
+        int[] counts = new int[store.getRoots().size()];
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                TileObject tile = tile(layer, x * 16, y * 16);
+                store.put(tile);
+                counts[store.getStripe(tile)]++;
+            }
+        }
+        return counts;
+    }
+
+    private boolean inRoot(int root, String layer, long x, long y) throws StorageException {
+        return new FileBlobStore(roots.get(root)).get(query(layer, x, y));
+    }
+
+    @Test
+    public void testTilesSpreadAcrossRoots() throws Exception {
+        store = create(roots, Granularity.BLOCK);
+        int[] counts = fill("layer");
+        for (int count : counts) {
+            assertTrue(count > 0);
+        }
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                TileObject query = query("layer", x * 16, y * 16);
+                assertTrue(store.get(query));
+                assertTrue(inRoot(store.getStripe(query), "layer", x * 16, y * 16));
+                // the whole block is in the same root
+                TileObject corner = query("layer", x * 16 + 15, y * 16 + 15);
+                assertEquals(store.getStripe(query), store.getStripe(corner));
+            }
+        }
+    }
+
+    @Test
+    public void testLayerGranularity() throws Exception {
+        store = create(roots, Granularity.LAYER);
+        int[] counts = fill("layer");
+        Arrays.sort(counts);
+        assertEquals(0, counts[0]);
+        assertEquals(64, counts[2]);
+    }
+
+    @Test
+    public void testBulkOperationsOnAllRoots() throws Exception {
+        store = create(roots, Granularity.BLOCK);
+        BlobStoreListener listener = mock(BlobStoreListener.class);
+        store.addListener(listener);
+        fill("layer");
+        verify(listener, times(64))
+                .tileStored(
+                        eq("layer"),
+                        eq("EPSG:4326"),
+                        eq("image/png"),
+                        isNull(),
+                        anyLong(),
+                        anyLong(),
+                        anyInt(),
+                        anyLong());
+
+        assertTrue(store.rename("layer", "renamed"));
+        verify(listener, times(1)).layerRenamed("layer", "renamed");
+        assertFalse(store.layerExists("layer"));
+        assertTrue(store.get(query("renamed", 16, 16)));
+
+        assertTrue(store.delete("renamed"));
+        verify(listener, times(1)).layerDeleted("renamed");
+        for (int x = 0; x < 8; x++) {
+            assertFalse(store.get(query("renamed", x * 16, 0)));
+        }
+    }
+
+    @Test(expected = StorageException.class)
+    public void testRenameToExistingLayer() throws Exception {
+        store = create(roots, Granularity.LAYER);
+        store.put(tile("a", 0, 0));
+        store.put(tile("b", 0, 0));
+        store.rename("a", "b");
+    }
+
+    @Test
+    public void testAddRoot() throws Exception {
+        store = create(roots.subList(0, 2), Granularity.BLOCK);
+        fill("layer");
+        store.destroy();
+
+        store = create(roots, Granularity.BLOCK);
+        BlobStoreListener listener = mock(BlobStoreListener.class);
+        store.addListener(listener);
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                assertTrue(store.get(query("layer", x * 16, y * 16)));
+            }
+        }
+        // about a third of the tiles moved to the new root, on read
+        long moved = store.getRelocatedTiles();
+        assertTrue("Moved " + moved, moved > 0 && moved < 64);
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                TileObject query = query("layer", x * 16, y * 16);
+                int stripe = store.getStripe(query);
+                assertTrue(inRoot(stripe, "layer", x * 16, y * 16));
+                for (int other = 0; other < 3; other++) {
+                    if (other != stripe) {
+                        assertFalse(inRoot(other, "layer", x * 16, y * 16));
+                    }
+                }
+            }
+        }
+        verify(listener, never()).layerDeleted(anyString());
+        assertEquals(3, StripedFileBlobStore.getRoots(new File(roots.get(0))).size());
+    }
+
+    @Test
+    public void testStripeExistingCache() throws Exception {
+        FileBlobStore single = new FileBlobStore(roots.get(0));
+        for (int x = 0; x < 8; x++) {
+            single.put(tile("layer", x * 16, 0));
+        }
+        single.destroy();
+        assertEquals(1, StripedFileBlobStore.getRoots(new File(roots.get(0))).size());
+
+        store = create(roots, Granularity.BLOCK);
+        for (int x = 0; x < 8; x++) {
+            assertTrue(store.get(query("layer", x * 16, 0)));
+        }
+        store.delete(query("layer", 0, 0));
+        assertFalse(store.get(query("layer", 0, 0)));
+    }
+
+    private static TileLayerDispatcher layers(String... names) {
+        TileLayerDispatcher layers = mock(TileLayerDispatcher.class);
+        List<TileLayer> list = new ArrayList<>();
+        for (String name : names) {
+            TileLayer layer = mock(TileLayer.class);
+            when(layer.getName()).thenReturn(name);
+            when(layer.getGridSubsets()).thenReturn(Collections.singleton("EPSG:4326"));
+            when(layer.getGridSubset("EPSG:4326"))
+                    .thenReturn(
+                            GridSubsetFactory.createGridSubSet(
+                                    new DefaultGridsets(false, false).worldEpsg4326()));
+            when(layer.getMimeTypes()).thenReturn(Collections.singletonList(ImageMime.png));
+            list.add(layer);
+        }
+        when(layers.getLayerList()).thenReturn(list);
+        return layers;
+    }
+
+    @Test
+    public void testMigration() throws Exception {
+        store = create(roots.subList(0, 2), Granularity.BLOCK);
+        fill("layer");
+        store.destroy();
+
+        store = create(roots, Granularity.BLOCK);
+        assertTrue(store.isMigrating());
+        assertTrue(store.get(query("layer", 0, 0)));
+        assertTrue(store.migrate(layers("layer")));
+        assertFalse(store.isMigrating());
+        long moved = store.getRelocatedTiles();
+        assertTrue("Moved " + moved, moved > 0 && moved < 64);
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                int stripe = store.getStripe(query("layer", x * 16, y * 16));
+                for (int root = 0; root < 3; root++) {
+                    assertEquals(root == stripe, inRoot(root, "layer", x * 16, y * 16));
+                }
+            }
+        }
+        store.destroy();
+
+        // the manifest no longer lists the previous generation
+        store = create(roots, Granularity.BLOCK);
+        assertFalse(store.isMigrating());
+        assertEquals(3, StripedFileBlobStore.getRoots(new File(roots.get(0))).size());
+    }
+
+    @Test
+    public void testMigrationWaitsForUnknownLayers() throws Exception {
+        store = create(roots.subList(0, 2), Granularity.BLOCK);
+        fill("layer");
+        fill("orphan");
+        store.destroy();
+
+        store = create(roots, Granularity.BLOCK);
+        assertFalse(store.migrate(layers("layer")));
+        assertTrue(store.isMigrating());
+        for (int x = 0; x < 8; x++) {
+            assertTrue(store.get(query("orphan", x * 16, 0)));
+        }
+    }
+
+    @Test
+    public void testMoveDoesNotReplaceNewerTile() throws Exception {
+        store = create(roots.subList(0, 2), Granularity.BLOCK);
+        fill("layer");
+        store.destroy();
+
+        store = create(roots, Granularity.BLOCK);
+        // a tile that moves to the new root, written there behind the store's back
+        TileObject moving = null;
+        for (int x = 0; moving == null; x++) {
+            TileObject query = query("layer", x * 16, 0);
+            if (store.getStripe(query) == 2) {
+                moving = query;
+            }
+        }
+        long[] xyz = moving.getXYZ();
+        TileObject newer =
+                TileObject.createCompleteTileObject(
+                        "layer",
+                        xyz,
+                        "EPSG:4326",
+                        "image/png",
+                        null,
+                        new ByteArrayResource(new byte[] {4, 5}));
+        FileBlobStore newRoot = new FileBlobStore(roots.get(2));
+        newRoot.put(newer);
+        newRoot.destroy();
+
+        assertTrue(store.migrate(layers("layer")));
+        TileObject query = query("layer", xyz[0], xyz[1]);
+        assertTrue(store.get(query));
+        assertEquals(2, query.getBlobSize());
+        for (int root = 0; root < 2; root++) {
+            assertFalse(inRoot(root, "layer", xyz[0], xyz[1]));
+        }
+    }
+
+    @Test(expected = StorageException.class)
+    public void testRemoveRoot() throws Exception {
+        store = create(roots, Granularity.BLOCK);
+        store.destroy();
+        store = null;
+        create(roots.subList(0, 2), Granularity.BLOCK);
+    }
+}
@@ -25,6 +25,11 @@
 import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.apache.commons.io.FileUtils;
@@ -32,9 +37,12 @@
 import org.geotools.util.logging.Logging;
 import org.geowebcache.io.ByteArrayResource;
 import org.geowebcache.io.Resource;
+import org.geowebcache.mime.ImageMime;
 import org.geowebcache.storage.BlobStore;
 import org.geowebcache.storage.StorageBrokerTest;
+import org.geowebcache.storage.StorageException;
 import org.geowebcache.storage.TileObject;
+import org.geowebcache.storage.TileRange;
 import org.geowebcache.storage.blobstore.file.FileBlobStore;
 import org.geowebcache.storage.blobstore.memory.guava.GuavaCacheProvider;
 import org.junit.After;
@@ -232,6 +240,56 @@ public void testTileDelete() throws Exception {
         assertNull(to5);
     }
 
+    @Test
+    public void testRangeDelete() throws Exception {
+        nbs = new NullBlobStore();
+        mbs = new MemoryBlobStore();
+        mbs.setStore(nbs);
+        mbs.setCacheProvider(cache);
+
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("a", "x");
+        for (long x = 0; x < 8; x++) {
+            for (long y = 0; y < 8; y++) {
+                cache.putTileObj(rangeTile(x, y, 3, "image/png", null));
+                cache.putTileObj(rangeTile(x, y, 4, "image/png", null));
+                cache.putTileObj(rangeTile(x, y, 3, "image/jpeg", null));
+                cache.putTileObj(rangeTile(x, y, 3, "image/png", parameters));
+            }
+        }
+
+        // x 2 to 4 and y 3 to 6 at zoom level 3, png and default parameters only
+        long[][] bounds = {{2, 3, 4, 6, 3}};
+        mbs.delete(new TileRange("test", "EPSG:4326", 3, 3, bounds, ImageMime.png, null));
+
+        for (long x = 0; x < 8; x++) {
+            for (long y = 0; y < 8; y++) {
+                boolean inRange = x >= 2 && x <= 4 && y >= 3 && y <= 6;
+                assertEquals(
+                        inRange, cache.getTileObj(rangeTile(x, y, 3, "image/png", null)) == null);
+                assertNotNull(cache.getTileObj(rangeTile(x, y, 4, "image/png", null)));
+                assertNotNull(cache.getTileObj(rangeTile(x, y, 3, "image/jpeg", null)));
+                assertNotNull(cache.getTileObj(rangeTile(x, y, 3, "image/png", parameters)));
+            }
+        }
+
+        // the rest of the layer still goes away as a whole
+        cache.removeLayer("test");
+        assertNull(cache.getTileObj(rangeTile(0, 0, 3, "image/png", null)));
+        assertNull(cache.getTileObj(rangeTile(0, 0, 4, "image/png", null)));
+    }
+
+    private static TileObject rangeTile(
+            long x, long y, long z, String format, Map<String, String> parameters) {
+        return TileObject.createCompleteTileObject(
+                "test",
+                new long[] {x, y, z},
+                "EPSG:4326",
+                format,
+                parameters,
+                new ByteArrayResource(("tile " + x + " " + y + " " + z).getBytes()));
+    }
+
     @Test
     public void testLastModifiedFromFilesystem() throws Exception {
         // Add a fileblobstore to the memory blobstore
@@ -278,6 +336,98 @@ public void testLastModifiedFromFilesystem() throws Exception {
      *
      * @return a new FileBlobStore
      */
+    @Test
+    public void testConcurrentMisses() throws Exception {
+        // a store whose reads only complete when two of them are running at the same time
+        final CountDownLatch concurrentReads = new CountDownLatch(2);
+        nbs =
+                new NullBlobStore() {
+                    @Override
+                    public boolean get(TileObject obj) throws StorageException {
+                        concurrentReads.countDown();
+                        obj.setBlob(new ByteArrayResource(new byte[] {1}));
+                        try {
+                            return concurrentReads.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            throw new StorageException(e.getMessage());
+                        }
+                    }
+                };
+        cache.clear();
+        mbs = new MemoryBlobStore();
+        mbs.setStore(nbs);
+        mbs.setCacheProvider(cache);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Boolean> first = executor.submit(() -> mbs.get(queryTile(1L)));
+            Future<Boolean> second = executor.submit(() -> mbs.get(queryTile(2L)));
+            assertTrue(first.get());
+            assertTrue(second.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testWriteBehind() throws Exception {
+        // a store whose writes wait for the test to let them through
+        final CountDownLatch writeAllowed = new CountDownLatch(1);
+        final CountDownLatch written = new CountDownLatch(1);
+        nbs =
+                new NullBlobStore() {
+                    @Override
+                    public void put(TileObject obj) throws StorageException {
+                        try {
+                            writeAllowed.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            throw new StorageException(e.getMessage());
+                        }
+                        written.countDown();
+                    }
+                };
+        cache.clear();
+        mbs = new MemoryBlobStore();
+        mbs.setStore(nbs);
+        mbs.setCacheProvider(cache);
+        mbs.setWriteBehind(true);
+
+        byte[] contents = "1 2 3 4 5 6 test".getBytes();
+        TileObject to =
+                TileObject.createCompleteTileObject(
+                        "test:123123 112",
+                        new long[] {1L, 2L, 3L},
+                        "EPSG:4326",
+                        "image/jpeg",
+                        null,
+                        new ByteArrayResource(contents));
+        try {
+            // does not wait for the wrapped store
+            mbs.put(to);
+            assertEquals(1, mbs.getPendingTileCount());
+
+            // still served once evicted from the cache, as the write is pending
+            cache.clear();
+            TileObject query = queryTile(1L);
+            assertTrue(mbs.get(query));
+            assertEquals(contents.length, query.getBlobSize());
+        } finally {
+            writeAllowed.countDown();
+        }
+        assertTrue(written.await(10, TimeUnit.SECONDS));
+        // the pending entry goes away once the write completed
+        for (int i = 0; i < 100 && mbs.getPendingTileCount() > 0; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(0, mbs.getPendingTileCount());
+        assertEquals(0, mbs.getWriteQueueSize());
+    }
+
+    private TileObject queryTile(long x) {
+        return TileObject.createQueryTileObject(
+                "test:123123 112", new long[] {x, 2L, 3L}, "EPSG:4326", "image/jpeg", null);
+    }
+
     private BlobStore setup() throws Exception {
         File fh = new File(StorageBrokerTest.findTempDir() + File.separator + TEST_BLOB_DIR_NAME);
 
@@ -39,6 +39,13 @@ public void testStoreTile() throws Exception {
         super.testStoreTile();
     }
 
+    @Override
+    @Ignore
+    @Test
+    public void testGetMetadata() throws Exception {
+        super.testGetMetadata();
+    }
+
     @Override
     @Ignore
     @Test
@@ -0,0 +1,295 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage.blobstore.tiered;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.storage.BlobStoreListener;
+import org.geowebcache.storage.StorageException;
+import org.geowebcache.storage.TileObject;
+import org.geowebcache.storage.blobstore.file.FileBlobStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TieredBlobStoreTest {
+
+    @Rule public TemporaryFolder temp = new TemporaryFolder();
+
+    private FileBlobStore hot;
+
+    private FileBlobStore cold;
+
+    private TieredBlobStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        hot = new FileBlobStore(temp.newFolder("hot").getAbsolutePath());
+        // budget in file sizes rather than disk blocks
+        hot.setBlockSize(1);
+        cold = new FileBlobStore(temp.newFolder("cold").getAbsolutePath());
+    }
+
+    @After
+    public void tearDown() {
+        if (store != null) {
+            store.destroy();
+        }
+    }
+
+    private static TileObject tile(long x, int size) {
+        return TileObject.createCompleteTileObject(
+                "layer",
+                new long[] {x, 0, 5},
+                "EPSG:4326",
+                "image/png",
+                null,
+                new ByteArrayResource(new byte[size]));
+    }
+
+    private static TileObject query(long x) {
+        return TileObject.createQueryTileObject(
+                "layer", new long[] {x, 0, 5}, "EPSG:4326", "image/png", null);
+    }
+
+    @Test
+    public void testWriteThrough() throws Exception {
+        store = new TieredBlobStore(hot, cold, 1024, false);
+        BlobStoreListener listener = mock(BlobStoreListener.class);
+        store.addListener(listener);
+
+        store.put(tile(1, 100));
+        assertTrue(cold.get(query(1)));
+        assertTrue(hot.get(query(1)));
+        verify(listener, times(1))
+                .tileStored(
+                        eq("layer"),
+                        eq("EPSG:4326"),
+                        eq("image/png"),
+                        isNull(),
+                        anyLong(),
+                        anyLong(),
+                        anyInt(),
+                        anyLong());
+
+        assertTrue(store.get(query(1)));
+        assertEquals(1, store.getHotHits());
+        assertEquals(0, store.getColdHits());
+    }
+
+    @Test
+    public void testPromotion() throws Exception {
+        store = new TieredBlobStore(hot, cold, 1024, false);
+        cold.put(tile(1, 100));
+
+        TileObject first = query(1);
+        assertTrue(store.get(first));
+        assertEquals(100, first.getBlobSize());
+        assertEquals(1, store.getColdHits());
+        assertEquals(1, store.getPromotions());
+        assertTrue(hot.get(query(1)));
+
+        assertTrue(store.get(query(1)));
+        assertEquals(1, store.getHotHits());
+
+        assertFalse(store.get(query(2)));
+        assertEquals(1, store.getMisses());
+    }
+
+    @Test
+    public void testDemotion() throws Exception {
+        store = new TieredBlobStore(hot, cold, 250, false);
+        store.put(tile(1, 100));
+        store.put(tile(2, 100));
+        // tile 1 is now the most recently used
+        assertTrue(store.get(query(1)));
+        store.put(tile(3, 100));
+
+        assertEquals(2, store.getHotTileCount());
+        assertEquals(200, store.getHotSize());
+        assertEquals(1, store.getDemotions());
+        assertFalse(hot.get(query(2)));
+        assertTrue(hot.get(query(1)));
+
+        // still in the cold tier
+        assertTrue(store.get(query(2)));
+        assertEquals(1, store.getColdHits());
+    }
+
+    @Test
+    public void testWriteBack() throws Exception {
+        store = new TieredBlobStore(hot, cold, 150, true);
+        store.put(tile(1, 100));
+        store.put(tile(2, 100));
+        store.flush();
+
+        assertTrue(cold.get(query(1)));
+        assertTrue(cold.get(query(2)));
+        // pinned until written, then demoted
+        assertEquals(1, store.getHotTileCount());
+
+        assertTrue(store.delete(query(2)));
+        assertFalse(store.get(query(2)));
+        assertFalse(cold.get(query(2)));
+    }
+
+    @Test
+    public void testFailedWriteBackIsRetried() throws Exception {
+        FileBlobStore failing = spy(cold);
+        doThrow(new StorageException("cold tier down")).doCallRealMethod().when(failing).put(any());
+        store = new TieredBlobStore(hot, failing, 150, true);
+        store.put(tile(1, 100));
+        for (int i = 0; i < 100 && !cold.get(query(1)); i++) {
+            Thread.sleep(50);
+        }
+        assertTrue(cold.get(query(1)));
+    }
+
+    @Test
+    public void testBulkOperationsFailWhileWritesFail() throws Exception {
+        FileBlobStore failing = spy(cold);
+        StorageException down = new StorageException("cold tier down");
+        doThrow(down, down, down).doCallRealMethod().when(failing).put(any());
+        store = new TieredBlobStore(hot, failing, 150, true);
+        store.put(tile(1, 100));
+        try {
+            store.flush();
+            throw new AssertionError("Expected a StorageException");
+        } catch (StorageException e) {
+            assertFalse(cold.get(query(1)));
+        }
+
+        // the tile is not dropped with the layer
+        try {
+            store.rename("layer", "renamed");
+            throw new AssertionError("Expected a StorageException");
+        } catch (StorageException e) {
+            assertTrue(hot.get(query(1)));
+        }
+
+        // still pinned, the next tile is demoted instead once written
+        store.put(tile(2, 100));
+        store.flush();
+        assertTrue(cold.get(query(1)));
+        assertTrue(cold.get(query(2)));
+        assertTrue(hot.get(query(1)));
+        assertFalse(hot.get(query(2)));
+    }
+
+    @Test
+    public void testPendingTilesWrittenOnStart() throws Exception {
+        File dir = temp.newFolder("tier");
+        TieredBlobStore.prepareHotDirectory(dir, cold);
+        FileBlobStore tier = new FileBlobStore(dir.getAbsolutePath());
+        TieredBlobStore.markHotDirectory(dir);
+        FileBlobStore failing = spy(cold);
+        doThrow(new StorageException("cold tier down")).when(failing).put(any());
+        File pending = new File(dir, TieredBlobStore.PENDING_WRITES);
+        store = new TieredBlobStore(tier, failing, 1024, true, pending);
+        store.put(tile(1, 100));
+        store.put(tile(2, 100));
+        // a crash, or a shutdown while the cold tier is down
+        store.destroy();
+        store = null;
+        assertEquals(2, pending.list().length);
+
+        cold = new FileBlobStore(temp.getRoot().toPath().resolve("cold").toString());
+        TieredBlobStore.prepareHotDirectory(dir, cold);
+        assertTrue(cold.get(query(1)));
+        assertTrue(cold.get(query(2)));
+        assertFalse(pending.exists());
+    }
+
+    @Test
+    public void testPromotionRacingWithDeletes() throws Exception {
+        cold.put(tile(1, 100));
+        cold.put(tile(2, 100));
+        FileBlobStore racing = spy(cold);
+        AtomicReference<Callable<?>> afterColdRead = new AtomicReference<>();
+        doAnswer(
+                        invocation -> {
+                            Object found = invocation.callRealMethod();
+                            Callable<?> hook = afterColdRead.getAndSet(null);
+                            if (hook != null) {
+                                hook.call();
+                            }
+                            return found;
+                        })
+                .when(racing)
+                .get(any());
+        store = new TieredBlobStore(hot, racing, 1024, false);
+
+        // the tile read before the delete is served, but not promoted
+        afterColdRead.set(() -> store.delete(query(1)));
+        assertTrue(store.get(query(1)));
+        assertFalse(hot.get(query(1)));
+
+        afterColdRead.set(() -> store.delete("layer"));
+        assertTrue(store.get(query(2)));
+        assertFalse(hot.get(query(2)));
+
+        assertEquals(0, store.getPromotions());
+        assertEquals(0, store.getHotTileCount());
+        assertEquals(0, store.getHotSize());
+    }
+
+    @Test
+    public void testDeleteLayer() throws Exception {
+        store = new TieredBlobStore(hot, cold, 1024, false);
+        store.put(tile(1, 100));
+        store.put(tile(2, 100));
+
+        assertTrue(store.delete("layer"));
+        assertEquals(0, store.getHotTileCount());
+        assertEquals(0, store.getHotSize());
+        assertFalse(store.get(query(1)));
+    }
+
+    @Test
+    public void testPrepareHotDirectory() throws Exception {
+        File dir = temp.newFolder("tier");
+        Files.write(new File(dir, "data").toPath(), new byte[] {1});
+        try {
+            TieredBlobStore.prepareHotDirectory(dir, cold);
+            throw new AssertionError("Expected a StorageException");
+        } catch (StorageException e) {
+            assertTrue(new File(dir, "data").exists());
+        }
+
+        TieredBlobStore.markHotDirectory(dir);
+        TieredBlobStore.prepareHotDirectory(dir, cold);
+        assertFalse(new File(dir, "data").exists());
+    }
+}
@@ -14,29 +14,50 @@
  */
 package org.geowebcache.util;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.nio.charset.StandardCharsets;
+import java.util.Date;
 import javax.servlet.http.HttpServletResponse;
+import org.apache.http.client.utils.DateUtils;
 import org.geowebcache.GeoWebCacheException;
+import org.geowebcache.conveyor.Conveyor.CacheResult;
 import org.geowebcache.conveyor.ConveyorTile;
 import org.geowebcache.filter.request.RequestFilterException;
 import org.geowebcache.filter.security.SecurityDispatcher;
+import org.geowebcache.grid.BoundingBox;
+import org.geowebcache.grid.GridSubset;
 import org.geowebcache.grid.OutsideCoverageException;
+import org.geowebcache.grid.SRS;
 import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.io.EncodedResource;
+import org.geowebcache.io.FileResource;
 import org.geowebcache.layer.EmptyTileException;
 import org.geowebcache.layer.TileLayer;
 import org.geowebcache.layer.TileLayerDispatcher;
 import org.geowebcache.mime.ApplicationMime;
+import org.geowebcache.mime.MimeType;
 import org.geowebcache.stats.RuntimeStats;
 import org.geowebcache.storage.DefaultStorageFinder;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -48,12 +69,18 @@ public class ResponseUtilsTest {
     @Mock TileLayerDispatcher tld;
     @Mock DefaultStorageFinder storage;
     @Mock RuntimeStats stats;
+    @Mock GridSubset gridSubset;
     private MockHttpServletResponse response;
 
+    private File links;
+
+    @Rule public TemporaryFolder temp = new TemporaryFolder();
+
     @Before
     public void setUp() throws Exception {
-        when(tld.getTileLayer("layer")).thenReturn(tileLayer);
+        lenient().when(tld.getTileLayer("layer")).thenReturn(tileLayer);
         this.response = new MockHttpServletResponse();
+        this.links = temp.newFolder("links");
         tile.servletResp = response;
     }
 
@@ -107,4 +134,230 @@ public void writeOutOfBoundsTile()
                 "Zoom level was 10, but value has to be in [0,5]",
                 response.getHeader("geowebcache-message"));
     }
+
+    @Test
+    public void sendFileWhenSupported() throws IOException {
+        File file = createTile(64 * 1024);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(ResponseUtils.SENDFILE_SUPPORT_ATTR, Boolean.TRUE);
+
+        assertTrue(
+                ResponseUtils.sendFile(
+                        request,
+                        response,
+                        "image/png",
+                        new FileResource(file, links),
+                        CacheResult.HIT,
+                        stats));
+
+        // a private link to the current version of the tile
+        File link = new File((String) request.getAttribute(ResponseUtils.SENDFILE_FILENAME_ATTR));
+        assertEquals(links, link.getParentFile());
+        assertTrue(link.getName().startsWith(ResponseUtils.SENDFILE_LINK_PREFIX));
+        byte[] contents = Files.readAllBytes(file.toPath());
+        assertArrayEquals(contents, Files.readAllBytes(link.toPath()));
+        assertEquals(0L, request.getAttribute(ResponseUtils.SENDFILE_START_ATTR));
+        assertEquals(file.length(), request.getAttribute(ResponseUtils.SENDFILE_END_ATTR));
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals("image/png", response.getContentType());
+        assertEquals(file.length(), response.getContentLengthLong());
+        // the container writes the body
+        assertEquals(0, response.getContentAsByteArray().length);
+        verify(stats).log((int) file.length(), CacheResult.HIT);
+    }
+
+    @Test
+    public void sendFileSurvivesTileReplacement() throws IOException {
+        File file = createTile(64 * 1024);
+        byte[] contents = Files.readAllBytes(file.toPath());
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(ResponseUtils.SENDFILE_SUPPORT_ATTR, Boolean.TRUE);
+        assertTrue(
+                ResponseUtils.sendFile(
+                        request,
+                        response,
+                        "image/png",
+                        new FileResource(file, links),
+                        CacheResult.HIT,
+                        stats));
+        File link = new File((String) request.getAttribute(ResponseUtils.SENDFILE_FILENAME_ATTR));
+
+        // the blob store replaces tiles by rename and deletes them
+        File replacement = createTile(1024);
+        Files.move(replacement.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        assertArrayEquals(contents, Files.readAllBytes(link.toPath()));
+        assertTrue(file.delete());
+        assertArrayEquals(contents, Files.readAllBytes(link.toPath()));
+
+        // links are dropped once expired
+        ResponseUtils.purgeSendFileLinks(Long.MAX_VALUE);
+        assertFalse(link.exists());
+    }
+
+    @Test
+    public void noSendFileWithoutStagingDirectory() throws IOException {
+        File file = createTile(64 * 1024);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(ResponseUtils.SENDFILE_SUPPORT_ATTR, Boolean.TRUE);
+
+        // the tile may be rewritten in place, it has to be written while it is known to be whole
+        assertFalse(
+                ResponseUtils.sendFile(
+                        request,
+                        response,
+                        "image/png",
+                        new FileResource(file),
+                        CacheResult.HIT,
+                        stats));
+        assertNull(request.getAttribute(ResponseUtils.SENDFILE_FILENAME_ATTR));
+    }
+
+    @Test
+    public void noSendFileWithoutContainerSupport() throws IOException {
+        File file = createTile(64 * 1024);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        assertFalse(
+                ResponseUtils.sendFile(
+                        request,
+                        response,
+                        "image/png",
+                        new FileResource(file, links),
+                        CacheResult.HIT,
+                        stats));
+        assertNull(request.getAttribute(ResponseUtils.SENDFILE_FILENAME_ATTR));
+    }
+
+    @Test
+    public void noSendFileForSmallOrInMemoryTiles() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(ResponseUtils.SENDFILE_SUPPORT_ATTR, Boolean.TRUE);
+
+        File small = createTile(1024);
+        assertFalse(
+                ResponseUtils.sendFile(
+                        request,
+                        response,
+                        "image/png",
+                        new FileResource(small, links),
+                        CacheResult.HIT,
+                        stats));
+        assertFalse(
+                ResponseUtils.sendFile(
+                        request,
+                        response,
+                        "image/png",
+                        new ByteArrayResource(new byte[64 * 1024]),
+                        CacheResult.HIT,
+                        stats));
+        assertNull(request.getAttribute(ResponseUtils.SENDFILE_FILENAME_ATTR));
+    }
+
+    @Test
+    public void acceptsEncoding() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        assertFalse(ResponseUtils.acceptsEncoding(request, "gzip"));
+        request.addHeader("Accept-Encoding", "deflate, gzip;q=0.8, br");
+        assertTrue(ResponseUtils.acceptsEncoding(request, "gzip"));
+
+        request = new MockHttpServletRequest();
+        request.addHeader("Accept-Encoding", "*;q=0.5, gzip;q=0");
+        assertFalse(ResponseUtils.acceptsEncoding(request, "gzip"));
+
+        request = new MockHttpServletRequest();
+        request.addHeader("Accept-Encoding", "identity, *");
+        assertTrue(ResponseUtils.acceptsEncoding(request, "gzip"));
+    }
+
+    @Test
+    public void writeCompressedTileAsStored() throws Exception {
+        byte[] contents = new byte[1000];
+        EncodedResource blob = mockEncodedTile(contents);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Accept-Encoding", "gzip, deflate");
+        tile.servletReq = request;
+
+        ResponseUtils.writeTile(sd, tile, "layer", tld, storage, stats);
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        assertEquals(blob.getEncoded().getSize(), response.getContentLengthLong());
+        assertArrayEquals(
+                ((ByteArrayResource) blob.getEncoded()).getContents(),
+                response.getContentAsByteArray());
+    }
+
+    @Test
+    public void writeCompressedTileDecoded() throws Exception {
+        byte[] contents = new byte[1000];
+        contents[10] = 42;
+        mockEncodedTile(contents);
+        tile.servletReq = new MockHttpServletRequest();
+
+        ResponseUtils.writeTile(sd, tile, "layer", tld, storage, stats);
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals("Accept-Encoding", response.getHeader("Vary"));
+        assertArrayEquals(contents, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void writeNotModifiedTile() throws Exception {
+        long created = 1700000000000L;
+        mockTile(ApplicationMime.mapboxVector);
+        when(tile.isNotModified()).thenReturn(true);
+        when(tile.getTSCreated()).thenReturn(created);
+        when(tileLayer.useETags()).thenReturn(true);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("If-None-Match", Long.toHexString(created) + "-gzip");
+        tile.servletReq = request;
+
+        ResponseUtils.writeTile(sd, tile, "layer", tld, storage, stats);
+        verify(tile).setConditionalProbe(true);
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        assertEquals(Long.toHexString(created) + "-gzip", response.getHeader("ETag"));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void isNotModified() {
+        long created = 1700000000500L;
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        assertFalse(ResponseUtils.isConditional(request));
+        request.addHeader("If-Modified-Since", DateUtils.formatDate(new Date(created)));
+        assertTrue(ResponseUtils.isConditional(request));
+        assertTrue(ResponseUtils.isNotModified(request, created, false));
+        assertFalse(ResponseUtils.isNotModified(request, created + 1000, false));
+
+        request = new MockHttpServletRequest();
+        request.addHeader("If-None-Match", Long.toHexString(created));
+        assertTrue(ResponseUtils.isNotModified(request, created, true));
+        assertFalse(ResponseUtils.isNotModified(request, created, false));
+        assertFalse(ResponseUtils.isNotModified(request, created + 1, true));
+    }
+
+    private EncodedResource mockEncodedTile(byte[] contents) throws Exception {
+        EncodedResource blob = EncodedResource.gzip(new ByteArrayResource(contents));
+        when(tile.getBlob()).thenReturn(blob);
+        mockTile(ApplicationMime.mapboxVector);
+        return blob;
+    }
+
+    private void mockTile(MimeType mimeType) throws Exception {
+        when(tileLayer.getTile(tile)).thenReturn(tile);
+        when(tile.getMimeType()).thenReturn(mimeType);
+        when(tile.getTileIndex()).thenReturn(new long[] {0, 0, 0});
+        when(tile.getLayer()).thenReturn(tileLayer);
+        when(tile.getGridSetId()).thenReturn("EPSG:4326");
+        when(tileLayer.getGridSubset("EPSG:4326")).thenReturn(gridSubset);
+        when(gridSubset.boundsFromIndex(new long[] {0, 0, 0})).thenReturn(BoundingBox.WORLD4326);
+        when(gridSubset.getName()).thenReturn("EPSG:4326");
+        when(gridSubset.getSRS()).thenReturn(SRS.getEPSG4326());
+    }
+
+    private File createTile(int size) throws IOException {
+        File file = temp.newFile();
+        Files.write(file.toPath(), new byte[size]);
+        return file;
+    }
 }
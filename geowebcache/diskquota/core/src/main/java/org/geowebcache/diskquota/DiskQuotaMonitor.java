@@ -36,6 +36,7 @@
 import org.geowebcache.layer.TileLayerDispatcher;
 import org.geowebcache.storage.DefaultStorageFinder;
 import org.geowebcache.storage.StorageBroker;
+import org.geowebcache.storage.blobstore.file.StripedFileBlobStore;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.event.ContextRefreshedEvent;
@@ -356,14 +357,15 @@ public void saveConfig() {
      */
     private LayerCacheInfoBuilder launchCacheInfoGatheringThreads() throws InterruptedException {
 
-        File cacheRoot;
+        List<File> cacheRoots;
         try {
-            cacheRoot = new File(storageFinder.getDefaultPath());
+            // the default cache may be striped across several roots
+            cacheRoots = StripedFileBlobStore.getRoots(new File(storageFinder.getDefaultPath()));
         } catch (ConfigurationException e) {
             throw new RuntimeException(e);
         }
         LayerCacheInfoBuilder cacheInfoBuilder =
-                new LayerCacheInfoBuilder(cacheRoot, cleanUpExecutorService, quotaUsageMonitor);
+                new LayerCacheInfoBuilder(cacheRoots, cleanUpExecutorService, quotaUsageMonitor);
 
         for (String layerName : tileLayerDispatcher.getLayerNames()) {
 
@@ -17,6 +17,7 @@
 import java.io.File;
 import java.io.FileFilter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -50,7 +51,7 @@ final class LayerCacheInfoBuilder {
 
     private static final Logger log = Logging.getLogger(LayerCacheInfoBuilder.class.getName());
 
-    private final File rootCacheDir;
+    private final List<File> rootCacheDirs;
 
     private final ExecutorService threadPool;
 
@@ -64,7 +65,18 @@ public LayerCacheInfoBuilder(
             final File rootCacheDir,
             final ExecutorService threadPool,
             QuotaUpdatesMonitor quotaUsageMonitor) {
-        this.rootCacheDir = rootCacheDir;
+        this(Collections.singletonList(rootCacheDir), threadPool, quotaUsageMonitor);
+    }
+
+    /**
+     * Builds the cache information of a cache striped across several root directories, the layer
+     * usage being the sum of its usage in each root.
+     */
+    public LayerCacheInfoBuilder(
+            final List<File> rootCacheDirs,
+            final ExecutorService threadPool,
+            QuotaUpdatesMonitor quotaUsageMonitor) {
+        this.rootCacheDirs = rootCacheDirs;
         this.threadPool = threadPool;
         this.quotaUsageMonitor = quotaUsageMonitor;
         this.perLayerRunningTasks = new HashMap<>();
@@ -86,21 +98,26 @@ public void buildCacheInfo(final TileLayer tileLayer) {
         final String layerName = tileLayer.getName();
         final String layerDirName = FilePathUtils.filteredLayerName(layerName);
 
-        final File layerDir = new File(rootCacheDir, layerDirName);
-
-        if (!layerDir.exists()) {
-            return;
-        }
+        for (File rootCacheDir : rootCacheDirs) {
+            final File layerDir = new File(rootCacheDir, layerDirName);
 
-        perLayerRunningTasks.put(layerName, new ArrayList<>());
+            if (!layerDir.exists()) {
+                continue;
+            }
 
-        // gathering the on disk tilesets can take a very long time, in case there are
-        // many parameters (e.g., long list of times), so moving this task also on background exec
-        Future<?> tilesetCollector =
-                threadPool.submit(() -> gatherStatsByTileset(tileLayer, layerName, layerDir));
-        // make sure the list has at this task too, so early calls to #isRunning find
-        // that something is executing, even if the stats collectors have not been created yet
-        perLayerRunningTasks.get(layerName).add(tilesetCollector);
+            // the tileset collectors of each root add their tasks concurrently
+            perLayerRunningTasks.computeIfAbsent(
+                    layerName, k -> Collections.synchronizedList(new ArrayList<>()));
+
+            // gathering the on disk tilesets can take a very long time, in case there are
+            // many parameters (e.g., long list of times), so moving this task also on background
+            // exec
+            Future<?> tilesetCollector =
+                    threadPool.submit(() -> gatherStatsByTileset(tileLayer, layerName, layerDir));
+            // make sure the list has at this task too, so early calls to #isRunning find
+            // that something is executing, even if the stats collectors have not been created yet
+            perLayerRunningTasks.get(layerName).add(tilesetCollector);
+        }
     }
 
     private void gatherStatsByTileset(TileLayer tileLayer, String layerName, File layerDir) {
@@ -327,12 +344,14 @@ public boolean isRunning(String layerName) {
 
             int numRunning = 0;
             Future<?> future;
-            for (Iterator<Future<?>> it = layerTasks.iterator(); it.hasNext(); ) {
-                future = it.next();
-                if (future.isDone()) {
-                    it.remove();
-                } else {
-                    numRunning++;
+            synchronized (layerTasks) {
+                for (Iterator<Future<?>> it = layerTasks.iterator(); it.hasNext(); ) {
+                    future = it.next();
+                    if (future.isDone()) {
+                        it.remove();
+                    } else {
+                        numRunning++;
+                    }
                 }
             }
             return numRunning > 0;
@@ -14,24 +14,24 @@
  */
 package org.geowebcache.storage.blobstore.memory.distributed;
 
-import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.config.IndexType;
 import com.hazelcast.map.IMap;
 import com.hazelcast.map.LocalMapStats;
 import com.hazelcast.query.Predicate;
-import com.hazelcast.query.PredicateBuilder;
-import com.hazelcast.query.impl.PredicateBuilderImpl;
+import com.hazelcast.query.Predicates;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.geotools.util.logging.Logging;
+import org.geowebcache.filter.parameters.ParametersUtils;
 import org.geowebcache.storage.TileObject;
+import org.geowebcache.storage.TileRange;
 import org.geowebcache.storage.blobstore.memory.CacheConfiguration;
 import org.geowebcache.storage.blobstore.memory.CacheConfiguration.EvictionPolicy;
 import org.geowebcache.storage.blobstore.memory.CacheProvider;
 import org.geowebcache.storage.blobstore.memory.CacheStatistics;
-import org.geowebcache.storage.blobstore.memory.guava.GuavaCacheProvider;
 import org.springframework.beans.factory.DisposableBean;
 
 /**
@@ -45,6 +45,14 @@
  * by other cluster instances while the total operation count indicates only the number of GET
  * operations requested on the local cluster instance.
  *
+ * <p>Tiles are stored as {@link TileKey} and {@link TileEntry} pairs, compact {@link
+ * com.hazelcast.nio.serialization.IdentifiedDataSerializable} objects that require {@link
+ * TileDataSerializableFactory} to be registered on all members. Layers are evicted through an index
+ * on the key layer name, tile ranges through the same index plus predicates on the other key
+ * fields. Cache fills can be made asynchronous with {@link #setAsyncPuts(boolean)} or the {@code
+ * gwc.hazelcast.asyncPuts} system property, at the cost of a pending fill possibly landing after a
+ * later tile, layer or range removal and bringing a deleted tile back.
+ *
  * @author Nicola Lagomarsini Geosolutions
  */
 public class HazelcastCacheProvider implements CacheProvider, DisposableBean {
@@ -61,8 +69,20 @@ public class HazelcastCacheProvider implements CacheProvider, DisposableBean {
     /** Name of the {@link CacheProvider} used as Label */
     private static final String HAZELCAST_NAME = "Hazelcast Cache";
 
+    /** System property controlling whether cache fills wait for the cluster to acknowledge them */
+    public static final String ASYNC_PUTS_PROPERTY = "gwc.hazelcast.asyncPuts";
+
+    /** Prefix of the attribute paths of the key fields */
+    static final String KEY_PREFIX = "__key.";
+
+    /** Attribute path of the indexed key layer name */
+    static final String LAYER_NAME_ATTRIBUTE = KEY_PREFIX + "layerName";
+
     /** Hazelcast {@link IMap} */
-    private final IMap<String, TileObject> map;
+    private final IMap<TileKey, TileEntry> map;
+
+    private volatile boolean asyncPuts =
+            Boolean.parseBoolean(System.getProperty(ASYNC_PUTS_PROPERTY, "false"));
 
     /** Boolean indicating that the Cache has been configured */
     private final boolean configured;
@@ -76,6 +96,7 @@ public HazelcastCacheProvider(HazelcastLoader loader) {
         // cacheProvider parameters are defined
         if (configured) {
             map = loader.getInstance().getMap(HAZELCAST_MAP_DEFINITION);
+            addLayerIndex(map);
             totalSize =
                     loader.getInstance()
                                     .getConfig()
@@ -95,10 +116,29 @@ public HazelcastCacheProvider(HazelcastLoader loader) {
         }
     }
 
-    public HazelcastCacheProvider(IMap<String, TileObject> map, long totalSize) {
+    public HazelcastCacheProvider(IMap<TileKey, TileEntry> map, long totalSize) {
         this.map = map;
         this.totalSize = totalSize;
         this.configured = true;
+        addLayerIndex(map);
+    }
+
+    /** Adding an index that already exists is a no-op, so every member can safely do it */
+    private static void addLayerIndex(IMap<TileKey, TileEntry> map) {
+        map.addIndex(IndexType.HASH, LAYER_NAME_ATTRIBUTE);
+    }
+
+    /**
+     * Sets whether cache fills return without waiting for the owning member to store the tile.
+     * Defaults to {@code false}, a pending fill is not ordered with later removals and may put a
+     * deleted or truncated tile back in the cache.
+     */
+    public void setAsyncPuts(boolean asyncPuts) {
+        this.asyncPuts = asyncPuts;
+    }
+
+    public boolean isAsyncPuts() {
+        return asyncPuts;
     }
 
     @Override
@@ -107,8 +147,9 @@ public TileObject getTileObj(TileObject obj) {
             if (LOGGER.isLoggable(Level.FINE)) {
                 LOGGER.fine("Getting TileObject:" + obj);
             }
-            String key = GuavaCacheProvider.generateTileKey(obj);
-            return map.get(key);
+            TileKey key = new TileKey(obj);
+            TileEntry entry = map.get(key);
+            return entry == null ? null : entry.toTileObject(key);
         } else {
             if (LOGGER.isLoggable(Level.FINE)) {
                 LOGGER.fine("Cache not configured");
@@ -123,8 +164,20 @@ public void putTileObj(TileObject obj) {
             if (LOGGER.isLoggable(Level.FINE)) {
                 LOGGER.fine("Adding TileObject:" + obj);
             }
-            String key = GuavaCacheProvider.generateTileKey(obj);
-            map.put(key, obj);
+            TileKey key = new TileKey(obj);
+            TileEntry entry = new TileEntry(obj);
+            if (asyncPuts) {
+                map.setAsync(key, entry)
+                        .whenComplete(
+                                (v, e) -> {
+                                    if (e != null) {
+                                        LOGGER.log(Level.FINE, "Failed to cache " + key, e);
+                                    }
+                                });
+            } else {
+                // set rather than put, the previous value is of no use
+                map.set(key, entry);
+            }
         } else {
             if (LOGGER.isLoggable(Level.FINE)) {
                 LOGGER.fine("Cache not configured");
@@ -138,8 +191,7 @@ public void removeTileObj(TileObject obj) {
             if (LOGGER.isLoggable(Level.FINE)) {
                 LOGGER.fine("Removing TileObject:" + obj);
             }
-            String key = GuavaCacheProvider.generateTileKey(obj);
-            map.remove(key);
+            map.delete(new TileKey(obj));
         } else {
             if (LOGGER.isLoggable(Level.FINE)) {
                 LOGGER.fine("Cache not configured");
@@ -153,15 +205,22 @@ public void removeLayer(String layername) {
             if (LOGGER.isLoggable(Level.FINE)) {
                 LOGGER.fine("Removing Layer:" + layername);
             }
-            // Creation of the Predicate
-            PredicateBuilder.EntryObject e = new PredicateBuilderImpl().getEntryObject();
-            @SuppressWarnings("unchecked")
-            Predicate<String, TileObject> predicate =
-                    (Predicate<String, TileObject>) e.get("layer_name").equal(layername);
-            // Creation of the processor
-            CacheEntryProcessor entryProcessor = new CacheEntryProcessor();
-            // Execution of the Processor
-            map.executeOnEntries(entryProcessor, predicate);
+            // uses the layer name index, each member only touches the matching entries it owns
+            map.removeAll(Predicates.equal(LAYER_NAME_ATTRIBUTE, layername));
+        } else {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine("Cache not configured");
+            }
+        }
+    }
+
+    @Override
+    public void removeTiles(TileRange range) {
+        if (configured) {
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine("Removing tiles of Layer:" + range.getLayerName() + " in range");
+            }
+            map.removeAll(rangePredicate(range));
         } else {
             if (LOGGER.isLoggable(Level.FINE)) {
                 LOGGER.fine("Cache not configured");
@@ -169,6 +228,38 @@ public void removeLayer(String layername) {
         }
     }
 
+    /**
+     * Matches the keys of a range using the layer name index, and the per zoom level bounds. Tiles
+     * outside of a raster mask but within the bounds are matched too, evicting a few more tiles
+     * than needed is cheaper than shipping the mask to every member.
+     */
+    static Predicate<TileKey, TileEntry> rangePredicate(TileRange range) {
+        List<Predicate<TileKey, TileEntry>> predicates = new ArrayList<>();
+        predicates.add(Predicates.equal(LAYER_NAME_ATTRIBUTE, range.getLayerName()));
+        predicates.add(Predicates.equal(KEY_PREFIX + "gridSetId", range.getGridSetId()));
+        if (range.getMimeType() != null) {
+            predicates.add(
+                    Predicates.equal(KEY_PREFIX + "blobFormat", range.getMimeType().getFormat()));
+        }
+        String parametersId = range.getParametersId();
+        if (parametersId == null) {
+            parametersId = ParametersUtils.getId(range.getParameters());
+        }
+        predicates.add(Predicates.equal(KEY_PREFIX + "parametersId", parametersId));
+
+        List<Predicate<TileKey, TileEntry>> levels = new ArrayList<>();
+        for (int z = range.getZoomStart(); z <= range.getZoomStop(); z++) {
+            long[] bounds = range.rangeBounds(z);
+            levels.add(
+                    Predicates.and(
+                            Predicates.equal(KEY_PREFIX + "z", z),
+                            Predicates.between(KEY_PREFIX + "x", bounds[0], bounds[2]),
+                            Predicates.between(KEY_PREFIX + "y", bounds[1], bounds[3])));
+        }
+        predicates.add(Predicates.or(levels.toArray(new Predicate[levels.size()])));
+        return Predicates.and(predicates.toArray(new Predicate[predicates.size()]));
+    }
+
     @Override
     public void clear() {
         if (configured) {
@@ -301,24 +392,4 @@ public HazelcastCacheStatistics(LocalMapStats localMapStats, long totalSize) {
             setEvictionCount(-1);
         }
     }
-
-    /**
-     * {@link EntryProcessor} implementation used for removing defined entries
-     *
-     * @author Nicola Lagomarsini Geosolutions
-     */
-    static class CacheEntryProcessor implements EntryProcessor<String, TileObject, Object> {
-
-        @Override
-        public Object process(Entry<String, TileObject> entry) {
-            // By setting the entry value to null the entry is evicted
-            entry.setValue(null);
-            return null;
-        }
-
-        @Override
-        public EntryProcessor<String, TileObject, Object> getBackupProcessor() {
-            return null;
-        }
-    }
 }
@@ -15,6 +15,9 @@
 package org.geowebcache.storage.blobstore.memory.distributed;
 
 import com.hazelcast.config.Config;
+import com.hazelcast.config.EvictionConfig;
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.config.MaxSizePolicy;
 import com.hazelcast.config.NearCacheConfig;
@@ -40,6 +43,11 @@
  * NearCache is enabled, user must be careful that the max size is not bigger or equal to
  * Integer.MAX_VALUE
  *
+ * <p>The {@link TileDataSerializableFactory} is registered automatically in configurations loaded
+ * from hazelcast.xml, an injected instance must have it registered already. A near cache holding
+ * the hottest tiles on each member can be added to configurations that do not define one by
+ * setting the {@code gwc.hazelcast.nearCacheSize} system property to the number of tiles to keep.
+ *
  * @author Nicola Lagomarsini Geosolutions
  */
 public class HazelcastLoader implements InitializingBean {
@@ -52,6 +60,9 @@ public class HazelcastLoader implements InitializingBean {
     /** Name of the Hazelcast XML file to use */
     public static final String HAZELCAST_NAME = "hazelcast.xml";
 
+    /** Property name for the number of tiles kept in the default near cache */
+    public static final String NEAR_CACHE_SIZE = "gwc.hazelcast.nearCacheSize";
+
     /** Hazelcast instance to pass to the {@link HazelcastCacheProvider} class */
     private HazelcastInstance instance;
 
@@ -83,6 +94,8 @@ public void afterPropertiesSet() throws Exception {
                         try (InputStream stream = new FileInputStream(hazelCastConf)) {
                             config = new XmlConfigBuilder(stream).build();
                         }
+                        TileDataSerializableFactory.register(config);
+                        addNearCache(config);
                         // Ensure the configuration is accepted
                         if (configAccepted(config)) {
                             if (LOGGER.isLoggable(Level.FINE)) {
@@ -105,6 +118,29 @@ public void afterPropertiesSet() throws Exception {
         }
     }
 
+    /** Adds the near cache requested by {@link #NEAR_CACHE_SIZE}, if the map does not have one */
+    private void addNearCache(Config config) {
+        int size = Integer.getInteger(NEAR_CACHE_SIZE, 0);
+        MapConfig mapConfig =
+                config.getMapConfigOrNull(HazelcastCacheProvider.HAZELCAST_MAP_DEFINITION);
+        if (size <= 0 || mapConfig == null || mapConfig.getNearCacheConfig() != null) {
+            return;
+        }
+        NearCacheConfig nearCache = new NearCacheConfig(mapConfig.getName());
+        // binary, each read builds its own tile anyway
+        nearCache.setInMemoryFormat(InMemoryFormat.BINARY);
+        nearCache.setInvalidateOnChange(true);
+        nearCache.setEvictionConfig(
+                new EvictionConfig()
+                        .setEvictionPolicy(EvictionPolicy.LRU)
+                        .setMaxSizePolicy(MaxSizePolicy.ENTRY_COUNT)
+                        .setSize(size));
+        mapConfig.setNearCacheConfig(nearCache);
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("Added a near cache of " + size + " tiles");
+        }
+    }
+
     /**
      * Indicates if the Hazelcast instance has been configured
      *
@@ -162,7 +198,20 @@ private boolean configAccepted(Config config) {
                     nearCacheAccepted = conf.getEvictionConfig().getSize() < Integer.MAX_VALUE;
                 }
 
-                if (sizeDefined && policyExists && sizeFromHeap && nearCacheAccepted) {
+                boolean serializationRegistered = TileDataSerializableFactory.isRegistered(config);
+                if (!serializationRegistered) {
+                    LOGGER.warning(
+                            "The Hazelcast configuration does not register "
+                                    + TileDataSerializableFactory.class.getName()
+                                    + " with factory id "
+                                    + TileDataSerializableFactory.FACTORY_ID);
+                }
+
+                if (sizeDefined
+                        && policyExists
+                        && sizeFromHeap
+                        && nearCacheAccepted
+                        && serializationRegistered) {
                     if (LOGGER.isLoggable(Level.FINE)) {
                         LOGGER.fine("Hazelcast config validated");
                     }
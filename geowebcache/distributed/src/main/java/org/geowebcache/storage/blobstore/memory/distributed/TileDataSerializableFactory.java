@@ -0,0 +1,71 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage.blobstore.memory.distributed;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.SerializationConfig;
+import com.hazelcast.nio.serialization.DataSerializableFactory;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+/**
+ * Creates the {@link TileKey} and {@link TileEntry} instances on deserialization. It has to be
+ * registered on every cluster member, either with {@link #register(Config)} or in hazelcast.xml:
+ *
+ * <pre>{@code
+ * <serialization>
+ *   <data-serializable-factories>
+ *     <data-serializable-factory factory-id="6780771">
+ *       org.geowebcache.storage.blobstore.memory.distributed.TileDataSerializableFactory
+ *     </data-serializable-factory>
+ *   </data-serializable-factories>
+ * </serialization>
+ * }</pre>
+ */
+public class TileDataSerializableFactory implements DataSerializableFactory {
+
+    /** "gwc" in ASCII */
+    public static final int FACTORY_ID = 0x677763;
+
+    static final int TILE_KEY = 1;
+
+    static final int TILE_ENTRY = 2;
+
+    @Override
+    public IdentifiedDataSerializable create(int typeId) {
+        switch (typeId) {
+            case TILE_KEY:
+                return new TileKey();
+            case TILE_ENTRY:
+                return new TileEntry();
+            default:
+                return null;
+        }
+    }
+
+    /** Registers the factory in the configuration, unless already there */
+    public static void register(Config config) {
+        if (!isRegistered(config)) {
+            config.getSerializationConfig()
+                    .addDataSerializableFactory(FACTORY_ID, new TileDataSerializableFactory());
+        }
+    }
+
+    /** Checks whether the factory is registered in the configuration, as an instance or a class */
+    public static boolean isRegistered(Config config) {
+        SerializationConfig serialization = config.getSerializationConfig();
+        return serialization.getDataSerializableFactories().containsKey(FACTORY_ID)
+                || serialization.getDataSerializableFactoryClasses().containsKey(FACTORY_ID);
+    }
+}
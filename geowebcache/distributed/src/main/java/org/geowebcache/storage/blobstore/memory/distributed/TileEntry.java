@@ -0,0 +1,104 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage.blobstore.memory.distributed;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import org.apache.commons.io.IOUtils;
+import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.io.Resource;
+import org.geowebcache.storage.TileObject;
+
+/**
+ * Value of a tile in the distributed cache, the raw tile bytes along with the little metadata
+ * needed to rebuild the {@link TileObject}. The rest of the tile identity is in its {@link TileKey}.
+ */
+public class TileEntry implements IdentifiedDataSerializable {
+
+    private String blobFormat;
+
+    private long created;
+
+    private long lastModified;
+
+    private byte[] contents;
+
+    /** Used by {@link TileDataSerializableFactory} */
+    public TileEntry() {}
+
+    public TileEntry(TileObject obj) {
+        Resource blob = obj.getBlob();
+        this.blobFormat = obj.getBlobFormat();
+        this.created = obj.getCreated();
+        this.lastModified = blob.getLastModified();
+        if (blob instanceof ByteArrayResource) {
+            // MemoryBlobStore always caches a private copy, no need to copy again
+            this.contents = ((ByteArrayResource) blob).getContents();
+        } else {
+            try (InputStream is = blob.getInputStream()) {
+                this.contents = IOUtils.toByteArray(is);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /** Rebuilds the tile for the given key */
+    public TileObject toTileObject(TileKey key) {
+        ByteArrayResource blob = new ByteArrayResource(contents);
+        blob.setLastModified(lastModified);
+        TileObject obj =
+                TileObject.createCompleteTileObject(
+                        key.getLayerName(),
+                        new long[] {key.getX(), key.getY(), key.getZ()},
+                        key.getGridSetId(),
+                        blobFormat,
+                        null,
+                        blob);
+        obj.setParametersId(key.getParametersId());
+        obj.setCreated(created);
+        return obj;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return TileDataSerializableFactory.FACTORY_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return TileDataSerializableFactory.TILE_ENTRY;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeString(blobFormat);
+        out.writeLong(created);
+        out.writeLong(lastModified);
+        out.writeByteArray(contents);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        blobFormat = in.readString();
+        created = in.readLong();
+        lastModified = in.readLong();
+        contents = in.readByteArray();
+    }
+}
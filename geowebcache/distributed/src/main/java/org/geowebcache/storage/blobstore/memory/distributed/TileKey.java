@@ -0,0 +1,150 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.storage.blobstore.memory.distributed;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import java.io.IOException;
+import java.util.Objects;
+import org.geowebcache.filter.parameters.ParametersUtils;
+import org.geowebcache.storage.TileObject;
+
+/**
+ * Key of a tile in the distributed cache. Serialized as a handful of fields rather than the
+ * verbose string used by the local caches, and exposes {@link #getLayerName() layerName} so that
+ * a layer can be evicted through an index instead of scanning the map.
+ */
+public class TileKey implements IdentifiedDataSerializable {
+
+    private String layerName;
+
+    private String gridSetId;
+
+    private String blobFormat;
+
+    private String parametersId;
+
+    private long x;
+
+    private long y;
+
+    private int z;
+
+    /** Used by {@link TileDataSerializableFactory} */
+    public TileKey() {}
+
+    public TileKey(TileObject obj) {
+        this.layerName = obj.getLayerName();
+        this.gridSetId = obj.getGridSetId();
+        this.blobFormat = obj.getBlobFormat();
+        this.parametersId = obj.getParametersId();
+        if (parametersId == null
+                && obj.getParameters() != null
+                && !obj.getParameters().isEmpty()) {
+            parametersId = ParametersUtils.getId(obj.getParameters());
+        }
+        long[] xyz = obj.getXYZ();
+        this.x = xyz[0];
+        this.y = xyz[1];
+        this.z = (int) xyz[2];
+    }
+
+    public String getLayerName() {
+        return layerName;
+    }
+
+    public String getGridSetId() {
+        return gridSetId;
+    }
+
+    public String getBlobFormat() {
+        return blobFormat;
+    }
+
+    public String getParametersId() {
+        return parametersId;
+    }
+
+    public long getX() {
+        return x;
+    }
+
+    public long getY() {
+        return y;
+    }
+
+    public int getZ() {
+        return z;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return TileDataSerializableFactory.FACTORY_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return TileDataSerializableFactory.TILE_KEY;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeString(layerName);
+        out.writeString(gridSetId);
+        out.writeString(blobFormat);
+        out.writeString(parametersId);
+        out.writeLong(x);
+        out.writeLong(y);
+        out.writeInt(z);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        layerName = in.readString();
+        gridSetId = in.readString();
+        blobFormat = in.readString();
+        parametersId = in.readString();
+        x = in.readLong();
+        y = in.readLong();
+        z = in.readInt();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(layerName, gridSetId, blobFormat, parametersId, x, y, z);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        TileKey other = (TileKey) obj;
+        return x == other.x
+                && y == other.y
+                && z == other.z
+                && Objects.equals(layerName, other.layerName)
+                && Objects.equals(gridSetId, other.gridSetId)
+                && Objects.equals(blobFormat, other.blobFormat)
+                && Objects.equals(parametersId, other.parametersId);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "TileKey[%s, %s, %s, %s, %d, %d, %d]",
+                layerName, gridSetId, blobFormat, parametersId, x, y, z);
+    }
+}
@@ -32,12 +32,16 @@
 import java.util.logging.Logger;
 import org.apache.commons.io.IOUtils;
 import org.geotools.util.logging.Logging;
+import org.geowebcache.filter.parameters.ParametersUtils;
 import org.geowebcache.io.ByteArrayResource;
 import org.geowebcache.io.Resource;
+import org.geowebcache.mime.ImageMime;
 import org.geowebcache.storage.TileObject;
+import org.geowebcache.storage.TileRange;
 import org.geowebcache.storage.blobstore.memory.MemoryBlobStore;
 import org.geowebcache.storage.blobstore.memory.NullBlobStore;
 import org.geowebcache.storage.blobstore.memory.distributed.HazelcastCacheProvider;
+import org.geowebcache.storage.blobstore.memory.distributed.TileDataSerializableFactory;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -78,6 +82,7 @@ public static void initialSetup() throws UnknownHostException {
         Config config = new Config();
         config.getMapConfig("default").setBackupCount(1).setAsyncBackupCount(0);
         config.setClusterName("gwc");
+        TileDataSerializableFactory.register(config);
         TcpIpConfig tcpIpConfig = config.getNetworkConfig().getJoin().getTcpIpConfig();
         tcpIpConfig.setEnabled(true);
         tcpIpConfig.getMembers().add("localhost");
@@ -89,11 +94,14 @@ public static void initialSetup() throws UnknownHostException {
         mem1 = new MemoryBlobStore();
         mem1.setStore(nbs);
         cache1 = new HazelcastCacheProvider(h1.getMap("map1"), 16);
+        // the tests check the other member right after a put
+        cache1.setAsyncPuts(false);
         mem1.setCacheProvider(cache1);
 
         mem2 = new MemoryBlobStore();
         mem2.setStore(nbs);
         cache2 = new HazelcastCacheProvider(h2.getMap("map1"), 16);
+        cache2.setAsyncPuts(false);
         mem2.setCacheProvider(cache2);
 
         // Ensure both the caches are available and immutable
@@ -213,6 +221,113 @@ public void testTileDelete() throws Exception {
         assertNull(to6);
     }
 
+    @Test
+    public void testAsyncPut() throws Exception {
+        cache1.clear();
+        long[] xyz = {9L, 9L, 9L};
+        Resource bytes = new ByteArrayResource("async test".getBytes());
+        TileObject to =
+                TileObject.createCompleteTileObject(
+                        "async", xyz, "EPSG:4326", "image/png", null, bytes);
+        cache1.setAsyncPuts(true);
+        try {
+            cache1.putTileObj(to);
+        } finally {
+            cache1.setAsyncPuts(false);
+        }
+
+        // eventually visible from the other member
+        TileObject cached = null;
+        for (int i = 0; i < 100 && cached == null; i++) {
+            cached = cache2.getTileObj(to);
+            if (cached == null) {
+                Thread.sleep(50);
+            }
+        }
+        assertNotNull(cached);
+        assertEquals("image/png", cached.getBlobFormat());
+        try (InputStream is = to.getBlob().getInputStream();
+                InputStream is2 = cached.getBlob().getInputStream()) {
+            checkInputStreams(is, is2);
+        }
+    }
+
+    @Test
+    public void testRemoveLayer() throws Exception {
+        cache1.clear();
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("a", "x");
+        for (long x = 0; x < 10; x++) {
+            cache1.putTileObj(tile("layer1", x, parameters));
+            cache2.putTileObj(tile("layer2", x, null));
+        }
+
+        cache2.removeLayer("layer1");
+
+        for (long x = 0; x < 10; x++) {
+            assertNull(cache1.getTileObj(tile("layer1", x, parameters)));
+            assertNotNull(cache1.getTileObj(tile("layer2", x, null)));
+        }
+    }
+
+    @Test
+    public void testParametersArePartOfTheKey() throws Exception {
+        cache1.clear();
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("a", "x");
+        cache1.putTileObj(tile("layer1", 0, parameters));
+
+        assertNull(cache2.getTileObj(tile("layer1", 0, null)));
+        parameters.put("a", "y");
+        assertNull(cache2.getTileObj(tile("layer1", 0, parameters)));
+        parameters.put("a", "x");
+        TileObject cached = cache2.getTileObj(tile("layer1", 0, parameters));
+        assertNotNull(cached);
+        assertEquals("layer1", cached.getLayerName());
+        assertEquals(ParametersUtils.getId(parameters), cached.getParametersId());
+    }
+
+    @Test
+    public void testRemoveTiles() throws Exception {
+        cache1.clear();
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("a", "x");
+        for (long x = 0; x < 10; x++) {
+            cache1.putTileObj(tile("layer1", x, null));
+            cache1.putTileObj(tile("layer1", x, parameters));
+            cache1.putTileObj(tile("layer2", x, null));
+        }
+
+        // x 3 to 6 at zoom level 0, default parameters
+        TileRange range =
+                new TileRange(
+                        "layer1",
+                        "EPSG:4326",
+                        0,
+                        0,
+                        new long[][] {{3, 0, 6, 0, 0}},
+                        ImageMime.png,
+                        null);
+        cache2.removeTiles(range);
+
+        for (long x = 0; x < 10; x++) {
+            boolean inRange = x >= 3 && x <= 6;
+            assertEquals(inRange, cache1.getTileObj(tile("layer1", x, null)) == null);
+            assertNotNull(cache1.getTileObj(tile("layer1", x, parameters)));
+            assertNotNull(cache1.getTileObj(tile("layer2", x, null)));
+        }
+    }
+
+    private TileObject tile(String layer, long x, Map<String, String> parameters) {
+        return TileObject.createCompleteTileObject(
+                layer,
+                new long[] {x, 0L, 0L},
+                "EPSG:4326",
+                "image/png",
+                parameters,
+                new ByteArrayResource(("tile " + x).getBytes()));
+    }
+
     @AfterClass
     public static void afterClass() throws Exception {
         // Blobstore destroy
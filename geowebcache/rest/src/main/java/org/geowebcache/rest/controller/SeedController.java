@@ -66,6 +66,15 @@ public ResponseEntity<?> doGet(HttpServletRequest req) {
         return seedService.getRunningTasks(req);
     }
 
+    /** GET method for querying the seeding throttle state */
+    @RequestMapping(
+            value = "/seedthrottle.json",
+            method = RequestMethod.GET,
+            produces = {MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> doGetThrottle() {
+        return seedService.getThrottleStatus();
+    }
+
     /** GET method for querying running tasks for the provided layer */
     @RequestMapping(
             value = "/seed/{layer:.+}.json",
@@ -0,0 +1,141 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.rest.controller;
+
+import org.geowebcache.GeoWebCacheException;
+import org.geowebcache.rest.exception.RestException;
+import org.geowebcache.seed.GWCTask;
+import org.geowebcache.seed.SeedJob;
+import org.geowebcache.seed.TileBreeder;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+/** Lists, pauses, resumes and cancels the seed jobs persisted by {@link TileBreeder} */
+@Component
+@RestController
+@RequestMapping(path = "${gwc.context.suffix:}/rest")
+public class SeedJobController {
+
+    @Autowired TileBreeder seeder;
+
+    public void setSeeder(TileBreeder seeder) {
+        this.seeder = seeder;
+    }
+
+    @RequestMapping(
+            value = {"/seedjobs", "/seedjobs.json"},
+            method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getJobs() {
+        JSONArray array = new JSONArray();
+        for (SeedJob job : seeder.getJobs()) {
+            array.put(toJson(job));
+        }
+        JSONObject obj = new JSONObject();
+        obj.put("seedJobs", array);
+        return json(obj);
+    }
+
+    @RequestMapping(
+            value = "/seedjobs/{id}",
+            method = RequestMethod.GET,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getJob(@PathVariable String id) {
+        return json(toJson(findJob(id)));
+    }
+
+    @RequestMapping(value = "/seedjobs/{id}/pause", method = RequestMethod.POST)
+    public ResponseEntity<?> pauseJob(@PathVariable String id) {
+        SeedJob job = findJob(id);
+        if (!seeder.pauseJob(id)) {
+            throw new RestException("Seed job " + id + " is not running", HttpStatus.CONFLICT);
+        }
+        return text("Pausing seed job " + job.getId());
+    }
+
+    @RequestMapping(value = "/seedjobs/{id}/resume", method = RequestMethod.POST)
+    public ResponseEntity<?> resumeJob(@PathVariable String id) {
+        SeedJob job = findJob(id);
+        try {
+            if (!seeder.resumeJob(id)) {
+                throw new RestException("Seed job " + id + " is not paused", HttpStatus.CONFLICT);
+            }
+        } catch (GeoWebCacheException e) {
+            throw new RestException(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR, e);
+        }
+        return text("Resumed seed job " + job.getId());
+    }
+
+    @RequestMapping(value = "/seedjobs/{id}", method = RequestMethod.DELETE)
+    public ResponseEntity<?> cancelJob(@PathVariable String id) {
+        findJob(id);
+        if (!seeder.cancelJob(id)) {
+            throw new RestException("Unknown seed job " + id, HttpStatus.NOT_FOUND);
+        }
+        return text("Cancelled seed job " + id);
+    }
+
+    private SeedJob findJob(String id) {
+        SeedJob job = seeder.getJob(id);
+        if (job == null) {
+            throw new RestException("Unknown seed job " + id, HttpStatus.NOT_FOUND);
+        }
+        return job;
+    }
+
+    private JSONObject toJson(SeedJob job) {
+        JSONObject obj = new JSONObject();
+        obj.put("id", job.getId());
+        obj.put("layer", job.getLayerName());
+        obj.put("type", job.getRequest().getType().toString().toLowerCase());
+        obj.put("state", job.getState().toString().toLowerCase());
+        obj.put("created", job.getCreated());
+        long[] checkpoint = job.getCheckpoint();
+        if (checkpoint != null) {
+            obj.put("checkpoint", new JSONArray(checkpoint));
+        }
+        GWCTask[] tasks = job.getTasks();
+        if (tasks != null) {
+            JSONArray ids = new JSONArray();
+            for (GWCTask task : tasks) {
+                ids.put(task.getTaskId());
+            }
+            obj.put("tasks", ids);
+        }
+        return obj;
+    }
+
+    private ResponseEntity<?> json(JSONObject obj) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new ResponseEntity<>(obj.toString(), headers, HttpStatus.OK);
+    }
+
+    private ResponseEntity<?> text(String message) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_PLAIN);
+        return new ResponseEntity<>(message, headers, HttpStatus.OK);
+    }
+}
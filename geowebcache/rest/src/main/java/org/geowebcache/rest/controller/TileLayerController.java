@@ -18,12 +18,14 @@
 package org.geowebcache.rest.controller;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Set;
 import javax.servlet.http.HttpServletRequest;
 import org.geowebcache.GeoWebCacheException;
 import org.geowebcache.filter.parameters.ParameterFilter;
 import org.geowebcache.layer.TileLayer;
 import org.geowebcache.layer.TileLayerDispatcher;
+import org.geowebcache.rest.converter.TileLayersPOJO;
 import org.geowebcache.rest.converter.XStreamListAliasWrapper;
 import org.geowebcache.rest.exception.RestException;
 import org.geowebcache.storage.StorageBroker;
@@ -118,6 +120,25 @@ public ResponseEntity<?> layerPut(@RequestBody TileLayer tl, @PathVariable Strin
         return new ResponseEntity<Object>("layer saved", HttpStatus.OK);
     }
 
+    /**
+     * Adds or replaces all the layers in the request body at once, saving the configuration once
+     * instead of once per layer.
+     */
+    @RequestMapping(value = "/layers", method = RequestMethod.PUT)
+    public ResponseEntity<?> layersPut(@RequestBody TileLayersPOJO layers)
+            throws GeoWebCacheException, RestException, IOException {
+        List<TileLayer> tileLayers = layers.getLayers();
+        for (TileLayer tl : tileLayers) {
+            checkLayer(tl.getName(), tl);
+        }
+        try {
+            layerDispatcher.putLayers(tileLayers);
+        } catch (IllegalArgumentException e) {
+            throw new RestException(e.getMessage(), HttpStatus.BAD_REQUEST, e);
+        }
+        return new ResponseEntity<Object>(tileLayers.size() + " layers saved", HttpStatus.OK);
+    }
+
     /*
     DO DELETE
      */
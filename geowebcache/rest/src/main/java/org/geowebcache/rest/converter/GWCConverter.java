@@ -71,6 +71,7 @@
                             BlobStoreInfo.class,
                             GridSet.class,
                             TileLayer.class,
+                            TileLayersPOJO.class,
                             ServerConfigurationPOJO.class));
 
     public GWCConverter(ApplicationContextProvider appCtx) {
@@ -86,6 +87,8 @@ public GWCConverter(ApplicationContextProvider appCtx) {
      */
     private XStream configureXStream(XStream xs) {
         xs.alias("global", ServerConfigurationPOJO.class);
+        xs.alias("layers", TileLayersPOJO.class);
+        xs.addImplicitCollection(TileLayersPOJO.class, "layers");
         return xs;
     }
 
@@ -0,0 +1,42 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.rest.converter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.geowebcache.layer.TileLayer;
+
+/**
+ * A list of {@link TileLayer}s submitted in a single request, for deserialization via XStream as a
+ * {@code <layers>} element directly containing the layer elements.
+ */
+public class TileLayersPOJO {
+
+    private List<TileLayer> layers;
+
+    public TileLayersPOJO() {
+        this.layers = new ArrayList<>();
+    }
+
+    public TileLayersPOJO(List<TileLayer> layers) {
+        this.layers = new ArrayList<>(layers);
+    }
+
+    /** @return the layers, never {@code null} */
+    public List<TileLayer> getLayers() {
+        return layers == null ? Collections.emptyList() : layers;
+    }
+}
@@ -48,6 +48,7 @@
 import org.geowebcache.mime.MimeType;
 import org.geowebcache.rest.exception.RestException;
 import org.geowebcache.seed.GWCTask;
+import org.geowebcache.seed.OverviewPyramid;
 import org.geowebcache.seed.SeedRequest;
 import org.geowebcache.seed.TileBreeder;
 import org.geowebcache.storage.TileRange;
@@ -252,10 +253,15 @@ private ResponseEntity<?> handleDoSeedPost(Map<String, String> form, TileLayer t
                             sr.getFilterUpdate(),
                             tileFailureRetryCount,
                             tileFailureRetryWaitTime,
-                            totalFailuresBeforeAborting);
+                            totalFailuresBeforeAborting,
+                            OverviewPyramid.Quality.parse(form.get("overviews")));
         } catch (GeoWebCacheException e) {
             throw new RestException(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
         }
+        int priority = (int) getOptionalLongParam(form, "priority", 0);
+        for (GWCTask task : tasks) {
+            task.setPriority(priority);
+        }
 
         seeder.dispatchTasks(tasks);
 
@@ -330,6 +336,8 @@ protected String makeFormPage(TileLayer tl, boolean listAllTasks) {
 
         makeZoomStopPullDown(doc, tl);
 
+        makeOverviewsPullDown(doc);
+
         makeModifiableParameters(doc, tl);
 
         makeBboxFields(doc);
@@ -436,6 +444,21 @@ private void makeTypePullDown(StringBuilder doc) {
         doc.append("</td></tr>\n");
     }
 
+    private void makeOverviewsPullDown(StringBuilder doc) {
+        doc.append("<tr><td valign=\"top\">Overview levels:</td><td>\n");
+        Map<String, String> keysValues = new LinkedHashMap<>();
+
+        keysValues.put("Rendered by the backend", "");
+        keysValues.put("Built from child tiles - nearest", "nearest");
+        keysValues.put("Built from child tiles - bilinear", "bilinear");
+        keysValues.put("Built from child tiles - average", "average");
+
+        makePullDown(doc, "overviews", keysValues, "Rendered by the backend");
+        doc.append(
+                "</br><span style=\"font-size:80%\">Only the zoom stop level is rendered by the backend when building the others from child tiles.</span>");
+        doc.append("</td></tr>\n");
+    }
+
     private void makeThreadCountPullDown(StringBuilder doc) {
         doc.append("<tr><td>Number of tasks to use:</td><td>\n");
         Map<String, String> keysValues = new LinkedHashMap<>();
@@ -714,10 +737,14 @@ private void makeTaskList(StringBuilder doc, TileLayer tl, boolean listAll) {
             final String tilesDoneStr = nf.format(task.getTilesDone());
             final GWCTask.STATE state = task.getState();
 
-            final String status =
+            String status =
                     GWCTask.STATE.UNSET.equals(state) || GWCTask.STATE.READY.equals(state)
                             ? "PENDING"
                             : state.toString();
+            if (GWCTask.STATE.RUNNING.equals(state)
+                    && task.getThrottle() != GWCTask.THROTTLE.NONE) {
+                status += " (" + task.getThrottle().toString().toLowerCase() + ")";
+            }
 
             String timeSpent = toTimeString(spent, tilesDone, tilesTotal);
             String timeRemaining = toTimeString(remining, tilesDone, tilesTotal);
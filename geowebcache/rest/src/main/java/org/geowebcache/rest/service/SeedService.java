@@ -49,6 +49,7 @@
 import org.geowebcache.seed.SeedRequest;
 import org.geowebcache.seed.TileBreeder;
 import org.geowebcache.util.ApplicationContextProvider;
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -117,6 +118,25 @@ public ResponseEntity<?> getRunningLayerTasksXml(String layer) {
         return constructResponse(MediaType.APPLICATION_XML, xs.toXML(list), HttpStatus.OK);
     }
 
+    /** GET method for querying the throttle state of the seeding tasks */
+    public ResponseEntity<?> getThrottleStatus() {
+        JSONArray tasks = new JSONArray();
+        for (Iterator<GWCTask> it = seeder.getRunningAndPendingTasks(); it.hasNext(); ) {
+            GWCTask task = it.next();
+            JSONObject obj = new JSONObject();
+            obj.put("id", task.getTaskId());
+            obj.put("layer", task.getLayerName());
+            obj.put("throttle", task.getThrottle().toString().toLowerCase());
+            tasks.put(obj);
+        }
+        JSONObject throttle = new JSONObject();
+        throttle.put("state", seeder.getSeedThrottle().getState().toString().toLowerCase());
+        throttle.put("tasks", tasks);
+        JSONObject obj = new JSONObject();
+        obj.put("seedThrottle", throttle);
+        return constructResponse(MediaType.APPLICATION_JSON, obj.toString(), HttpStatus.OK);
+    }
+
     private ResponseEntity<?> constructResponse(
             MediaType mediaType, String message, HttpStatus status) {
         HttpHeaders headers = new HttpHeaders();
@@ -102,6 +102,16 @@ public void testSeedLayerNameWithDots() throws Exception {
         testPost(layerName);
     }
 
+    @Test
+    public void testSeedThrottleGet() throws Exception {
+        doReturn(ResponseEntity.ok(null)).when(seedService).getThrottleStatus();
+
+        mockMvc.perform(get("/rest/seedthrottle.json").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        verify(controller.seedService).getThrottleStatus();
+    }
+
     private void testPost(String layerName) throws Exception {
         doReturn(ResponseEntity.ok(null)).when(formService).handleFormPost(anyString(), anyMap());
 
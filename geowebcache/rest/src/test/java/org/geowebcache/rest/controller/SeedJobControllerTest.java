@@ -0,0 +1,96 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.rest.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.geowebcache.GeoWebCacheException;
+import org.geowebcache.rest.exception.RestException;
+import org.geowebcache.seed.SeedJob;
+import org.geowebcache.seed.TileBreeder;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+public class SeedJobControllerTest {
+
+    private TileBreeder seeder;
+
+    private SeedJobController controller;
+
+    private SeedJob job;
+
+    @Before
+    public void setUp() {
+        seeder = mock(TileBreeder.class);
+        controller = new SeedJobController();
+        controller.setSeeder(seeder);
+        job = mock(SeedJob.class);
+        when(job.getId()).thenReturn("job1");
+        when(seeder.getJob("job1")).thenReturn(job);
+    }
+
+    private static void assertStatus(HttpStatus expected, Runnable call) {
+        try {
+            call.run();
+            fail("Expected a RestException");
+        } catch (RestException e) {
+            assertEquals(expected, e.getStatus());
+        }
+    }
+
+    @Test
+    public void testUnknownJob() {
+        assertStatus(HttpStatus.NOT_FOUND, () -> controller.getJob("nope"));
+        assertStatus(HttpStatus.NOT_FOUND, () -> controller.pauseJob("nope"));
+        assertStatus(HttpStatus.NOT_FOUND, () -> controller.resumeJob("nope"));
+        assertStatus(HttpStatus.NOT_FOUND, () -> controller.cancelJob("nope"));
+    }
+
+    @Test
+    public void testPause() {
+        when(seeder.pauseJob("job1")).thenReturn(true);
+        ResponseEntity<?> response = controller.pauseJob("job1");
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(seeder).pauseJob("job1");
+
+        when(seeder.pauseJob("job1")).thenReturn(false);
+        assertStatus(HttpStatus.CONFLICT, () -> controller.pauseJob("job1"));
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        when(seeder.resumeJob("job1")).thenReturn(true);
+        assertEquals(HttpStatus.OK, controller.resumeJob("job1").getStatusCode());
+
+        when(seeder.resumeJob("job1")).thenReturn(false);
+        assertStatus(HttpStatus.CONFLICT, () -> controller.resumeJob("job1"));
+
+        when(seeder.resumeJob("job1")).thenThrow(new GeoWebCacheException("no such layer"));
+        assertStatus(HttpStatus.INTERNAL_SERVER_ERROR, () -> controller.resumeJob("job1"));
+    }
+
+    @Test
+    public void testCancel() {
+        when(seeder.cancelJob("job1")).thenReturn(true);
+        assertEquals(HttpStatus.OK, controller.cancelJob("job1").getStatusCode());
+        verify(seeder).cancelJob("job1");
+    }
+}
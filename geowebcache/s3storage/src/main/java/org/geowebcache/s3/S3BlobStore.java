@@ -286,6 +286,19 @@ public boolean get(TileObject obj) throws StorageException {
         return true;
     }
 
+    /** Checks the tile with a HEAD request, without downloading it */
+    @Override
+    public boolean getMetadata(TileObject obj) throws StorageException {
+        final String key = keyBuilder.forTile(obj);
+        ObjectMetadata metadata = s3Ops.getObjectMetadata(key);
+        if (metadata == null) {
+            return false;
+        }
+        obj.setBlobSize((int) metadata.getContentLength());
+        obj.setCreated(metadata.getLastModified().getTime());
+        return true;
+    }
+
     private class TileToKey implements Function<long[], KeyVersion> {
 
         private final String coordsPrefix;
@@ -26,9 +26,11 @@
 import javax.servlet.http.HttpServletResponse;
 import org.geowebcache.GeoWebCacheDispatcher;
 import org.geowebcache.GeoWebCacheException;
+import org.geowebcache.GeoWebCacheExtensions;
 import org.geowebcache.conveyor.Conveyor;
 import org.geowebcache.conveyor.Conveyor.CacheResult;
 import org.geowebcache.conveyor.ConveyorTile;
+import org.geowebcache.filter.security.SecurityDispatcher;
 import org.geowebcache.grid.GridSetBroker;
 import org.geowebcache.grid.GridSubset;
 import org.geowebcache.grid.OutsideCoverageException;
@@ -44,8 +46,9 @@
 import org.geowebcache.util.NullURLMangler;
 import org.geowebcache.util.ServletUtils;
 import org.geowebcache.util.URLMangler;
+import org.springframework.beans.factory.DisposableBean;
 
-public class TMSService extends Service {
+public class TMSService extends Service implements DisposableBean {
 
     public static final String SERVICE_TMS = "tms";
 
@@ -61,6 +64,10 @@ public class TMSService extends Service {
 
     private TMSDocumentFactory tmsFactory;
 
+    private SecurityDispatcher securityDispatcher;
+
+    private volatile TMSTileBatch tileBatch;
+
     /** Protected no-argument constructor to allow run-time instrumentation */
     protected TMSService() {
         super(SERVICE_TMS);
@@ -101,6 +108,13 @@ public TMSService(
     public ConveyorTile getConveyor(HttpServletRequest request, HttpServletResponse response)
             throws GeoWebCacheException {
         final String pathInfo = request.getPathInfo();
+        if (TMSTileBatch.isBatchRequest(request)) {
+            // many tiles, the layer is checked by the dispatcher and the tiles by the batch
+            String layerId = TMSTileBatch.layerGridSetExtension(request)[0];
+            ConveyorTile batch = new ConveyorTile(sb, layerId, request, response);
+            batch.setRequestHandler(ConveyorTile.RequestHandler.SERVICE);
+            return batch;
+        }
         Optional<Map<String, String>> possibleSplit = splitParams(request);
         if (possibleSplit.isPresent()) {
             Map<String, String> split = possibleSplit.get();
@@ -160,6 +174,39 @@ public ConveyorTile getConveyor(HttpServletRequest request, HttpServletResponse
         }
     }
 
+    public void setSecurityDispatcher(SecurityDispatcher securityDispatcher) {
+        this.securityDispatcher = securityDispatcher;
+    }
+
+    /** The security dispatcher, looked up in the application context if it was not set */
+    protected SecurityDispatcher getSecurityDispatcher() {
+        if (securityDispatcher == null) {
+            securityDispatcher = GeoWebCacheExtensions.bean(SecurityDispatcher.class);
+        }
+        return securityDispatcher;
+    }
+
+    /** The handler of batch requests, created on first use */
+    TMSTileBatch getTileBatch() {
+        if (tileBatch == null) {
+            synchronized (this) {
+                if (tileBatch == null) {
+                    tileBatch = TMSTileBatch.fromProperties();
+                }
+            }
+        }
+        return tileBatch;
+    }
+
+    /** Stops the threads of the batch handler, if it was created */
+    @Override
+    public synchronized void destroy() {
+        if (tileBatch != null) {
+            tileBatch.destroy();
+            tileBatch = null;
+        }
+    }
+
     /** Look for the presence of the flipY parameter */
     private boolean hasFlipY(HttpServletRequest request) {
         Enumeration<String> parameterNames = request.getParameterNames();
@@ -221,6 +268,15 @@ public static Optional<Map<String, String>> splitParams(HttpServletRequest reque
 
     @Override
     public void handleRequest(Conveyor conv) throws GeoWebCacheException {
+        if (TMSTileBatch.isBatchRequest(conv.servletReq)) {
+            try {
+                getTileBatch().handle((ConveyorTile) conv, sb, getSecurityDispatcher(), stats);
+            } catch (IOException e) {
+                throw new GeoWebCacheException(e);
+            }
+            return;
+        }
+
         // get all elements of the pathInfo after the leading "/tms/1.0.0/" part.
         String pathInfo = conv.servletReq.getPathInfo();
         pathInfo =
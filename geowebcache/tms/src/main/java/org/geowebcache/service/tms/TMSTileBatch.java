@@ -0,0 +1,454 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.service.tms;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.geotools.util.logging.Logging;
+import org.geowebcache.ClientStreamAbortedException;
+import org.geowebcache.GeoWebCacheException;
+import org.geowebcache.GeoWebCacheExtensions;
+import org.geowebcache.conveyor.Conveyor.CacheResult;
+import org.geowebcache.conveyor.ConveyorTile;
+import org.geowebcache.filter.parameters.ParameterException;
+import org.geowebcache.filter.request.RequestFilterException;
+import org.geowebcache.filter.security.SecurityDispatcher;
+import org.geowebcache.grid.GridSubset;
+import org.geowebcache.grid.OutsideCoverageException;
+import org.geowebcache.io.Resource;
+import org.geowebcache.layer.EmptyTileException;
+import org.geowebcache.layer.TileLayer;
+import org.geowebcache.mime.MimeException;
+import org.geowebcache.mime.MimeType;
+import org.geowebcache.service.HttpErrorCodeException;
+import org.geowebcache.stats.RuntimeStats;
+import org.geowebcache.storage.StorageBroker;
+import org.geowebcache.util.ServletUtils;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Serves many tiles of a layer, gridset, format and parameters set in a single response, at {@code
+ * /tms/1.0.0/layername@gridsetId@formatExtension/batch}.
+ *
+ * <p>The tiles are listed with the {@code tiles} parameter, a comma separated list of {@code
+ * z/x/y}, and the {@code range} parameter, {@code z/minx/miny/maxx/maxy}, both repeatable. The
+ * coordinates follow the TMS convention, or the flipped one if {@code flipY=true}, and the other
+ * request parameters are the layer parameter filters ones, as for single tile requests.
+ *
+ * <p>The layer lookup, parameter parsing and response headers are done once for the whole batch,
+ * while the tiles are fetched in parallel on a pool of {@link #THREADS} threads, misses being
+ * rendered through the layer as for single tile requests, so that tiles of the same meta tile are
+ * rendered once. Each tile is written as soon as available, in no particular order, as a frame of
+ * big endian values:
+ *
+ * <pre>
+ * int z, long x, long y, int status, int length, byte[length] contents
+ * </pre>
+ *
+ * where the status is the HTTP status a single tile request would have got: 200 for a tile, 204
+ * for an empty one, 404 outside the layer coverage, 403 if not authorized and 500 on errors. A
+ * batch is limited to {@link #MAX_TILES} tiles.
+ */
+public class TMSTileBatch {
+
+    private static Logger log = Logging.getLogger(TMSTileBatch.class.getName());
+
+    /** The last path element of batch requests */
+    public static final String BATCH_PATH = "batch";
+
+    /** The content type of batch responses */
+    public static final String MIME_TYPE = "application/vnd.geowebcache.tile-batch";
+
+    /** Maximum number of tiles in a batch request */
+    public static final String MAX_TILES = "GWC_TMS_BATCH_MAX_TILES";
+
+    /** Number of threads fetching the tiles of batch requests */
+    public static final String THREADS = "GWC_TMS_BATCH_THREADS";
+
+    static final int DEFAULT_MAX_TILES = 256;
+
+    static final int DEFAULT_THREADS = 2 * Runtime.getRuntime().availableProcessors();
+
+    private final int maxTiles;
+
+    private final int threads;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * @param maxTiles maximum number of tiles in a batch request
+     * @param threads number of threads fetching the tiles, shared by all the batch requests
+     */
+    public TMSTileBatch(int maxTiles, int threads) {
+        this.maxTiles = maxTiles;
+        this.threads = threads;
+        CustomizableThreadFactory tf = new CustomizableThreadFactory("GWC TMS batch thread-");
+        tf.setDaemon(true);
+        this.executor =
+                new ThreadPoolExecutor(
+                        threads,
+                        threads,
+                        0,
+                        TimeUnit.MILLISECONDS,
+                        new LinkedBlockingQueue<>(),
+                        tf);
+    }
+
+    /**
+     * Creates an instance configured after the {@link #MAX_TILES} and {@link #THREADS} properties
+     */
+    public static TMSTileBatch fromProperties() {
+        return new TMSTileBatch(
+                getInt(MAX_TILES, DEFAULT_MAX_TILES), getInt(THREADS, DEFAULT_THREADS));
+    }
+
+    private static int getInt(String property, int defaultValue) {
+        String value = GeoWebCacheExtensions.getProperty(property);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // fall through
+        }
+        log.warning(
+                "Invalid "
+                        + property
+                        + " value '"
+                        + value
+                        + "', using "
+                        + defaultValue
+                        + " instead");
+        return defaultValue;
+    }
+
+    /** Whether the request is a batch request */
+    public static boolean isBatchRequest(HttpServletRequest request) {
+        String pathInfo = request.getPathInfo();
+        return pathInfo != null && pathInfo.endsWith("/" + BATCH_PATH);
+    }
+
+    public int getMaxTiles() {
+        return maxTiles;
+    }
+
+    /** Stops the threads fetching the tiles */
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    boolean isDestroyed() {
+        return executor.isShutdown();
+    }
+
+    /** A tile of the batch, with the coordinates as requested and the ones of the grid */
+    static class Frame {
+
+        final long[] requested;
+
+        final long[] gridLoc;
+
+        int status = 200;
+
+        Resource contents;
+
+        CacheResult cacheResult = CacheResult.OTHER;
+
+        Frame(long[] requested, long[] gridLoc) {
+            this.requested = requested;
+            this.gridLoc = gridLoc;
+        }
+    }
+
+    /**
+     * Handles a batch request
+     *
+     * @param conv the request conveyor, holding the layer of the batch
+     * @param sb the storage broker
+     * @param securityDispatcher checks each tile of the batch, the batch is refused without it
+     * @param stats runtime statistics
+     */
+    public void handle(
+            ConveyorTile conv,
+            StorageBroker sb,
+            SecurityDispatcher securityDispatcher,
+            RuntimeStats stats)
+            throws GeoWebCacheException, IOException {
+        if (securityDispatcher == null) {
+            // never serve tiles unchecked
+            throw new GeoWebCacheException(
+                    "No security dispatcher is available to check the tiles of the batch");
+        }
+        final HttpServletRequest request = conv.servletReq;
+        final TileLayer layer = conv.getLayer();
+        String[] layerGridSetExtension = layerGridSetExtension(request);
+        String gridSetId = layerGridSetExtension[1];
+        GridSubset gridSubset = layer.getGridSubset(gridSetId);
+        if (gridSubset == null) {
+            throw new HttpErrorCodeException(400, "Unsupported gridset: " + gridSetId);
+        }
+        MimeType mimeType;
+        try {
+            mimeType = MimeType.createFromExtension(layerGridSetExtension[2]);
+        } catch (MimeException e) {
+            mimeType = null;
+        }
+        if (mimeType == null || !layer.getMimeTypes().contains(mimeType)) {
+            throw new HttpErrorCodeException(
+                    400, "Unsupported format: " + layerGridSetExtension[2]);
+        }
+        Map<String, String> parameters;
+        try {
+            parameters =
+                    layer.getModifiableParameters(
+                            request.getParameterMap(), request.getCharacterEncoding());
+        } catch (ParameterException e) {
+            throw new HttpErrorCodeException(400, e.getMessage(), e);
+        }
+
+        List<Frame> frames = parseTiles(request, gridSubset);
+        final String layerId = layer.getName();
+        final MimeType format = mimeType;
+        CompletionService<Frame> completion = new ExecutorCompletionService<>(executor);
+        List<Future<Frame>> futures = new ArrayList<>(frames.size());
+        // keep the shared pool available to concurrent batches
+        int window = Math.min(threads, frames.size());
+        int submitted = 0;
+        Function<Frame, Callable<Frame>> task =
+                frame ->
+                        () ->
+                                fetch(
+                                        frame,
+                                        new ConveyorTile(
+                                                sb,
+                                                layerId,
+                                                gridSetId,
+                                                frame.gridLoc,
+                                                format,
+                                                parameters,
+                                                request,
+                                                null),
+                                        layer,
+                                        securityDispatcher);
+        for (; submitted < window; submitted++) {
+            futures.add(completion.submit(task.apply(frames.get(submitted))));
+        }
+
+        HttpServletResponse response = conv.servletResp;
+        response.setStatus(200);
+        response.setContentType(MIME_TYPE);
+        response.setHeader("geowebcache-tile-format", format.getFormat());
+        response.setHeader("geowebcache-tile-count", String.valueOf(frames.size()));
+        try (DataOutputStream out =
+                new DataOutputStream(new BufferedOutputStream(response.getOutputStream()))) {
+            for (int written = 0; written < frames.size(); written++) {
+                Frame frame = completion.take().get();
+                if (submitted < frames.size()) {
+                    futures.add(completion.submit(task.apply(frames.get(submitted++))));
+                }
+                write(out, frame, stats);
+            }
+        } catch (IOException e) {
+            throw new ClientStreamAbortedException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GeoWebCacheException(e);
+        } catch (ExecutionException e) {
+            // fetch reports the errors in the frames
+            throw new GeoWebCacheException(e.getCause());
+        } finally {
+            for (Future<Frame> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /** Splits the {@code layername@gridsetId@formatExtension} path element */
+    static String[] layerGridSetExtension(HttpServletRequest request) {
+        String pathInfo = request.getPathInfo();
+        pathInfo =
+                pathInfo.substring(pathInfo.indexOf(TMSDocumentFactory.TILEMAPSERVICE_LEADINGPATH));
+        String[] params = pathInfo.split("/");
+        // {"tms", "1.0.0", "img states@EPSG:4326@png", "batch"}
+        if (params.length != 4) {
+            throw new HttpErrorCodeException(
+                    400, "Batch requests must have the form layername@gridsetId@extension/batch");
+        }
+        String[] layerGridSetExtension =
+                ServletUtils.URLDecode(params[2], request.getCharacterEncoding()).split("@");
+        if (layerGridSetExtension.length != 3) {
+            throw new HttpErrorCodeException(
+                    400, "Batch requests must have the form layername@gridsetId@extension/batch");
+        }
+        return layerGridSetExtension;
+    }
+
+    /** Parses the {@code tiles} and {@code range} parameters, checking the batch size */
+    List<Frame> parseTiles(HttpServletRequest request, GridSubset gridSubset) {
+        boolean flipY = false;
+        String[] tiles = null;
+        String[] ranges = null;
+        for (Map.Entry<String, String[]> e : request.getParameterMap().entrySet()) {
+            if ("tiles".equalsIgnoreCase(e.getKey())) {
+                tiles = e.getValue();
+            } else if ("range".equalsIgnoreCase(e.getKey())) {
+                ranges = e.getValue();
+            } else if ("flipY".equalsIgnoreCase(e.getKey()) && e.getValue().length > 0) {
+                flipY = Boolean.parseBoolean(e.getValue()[0]);
+            }
+        }
+
+        List<long[]> requested = new ArrayList<>();
+        long total = 0;
+        if (ranges != null) {
+            for (String range : ranges) {
+                long[] r = parseLongs(range, 5);
+                if (r[3] < r[1] || r[4] < r[2]) {
+                    throw new HttpErrorCodeException(400, "Empty tile range: " + range);
+                }
+                // computed in floating point not to overflow on bogus ranges
+                total += (long) Math.min((r[3] - r[1] + 1d) * (r[4] - r[2] + 1d), maxTiles + 1d);
+                checkSize(total);
+                for (long y = r[2]; y <= r[4]; y++) {
+                    for (long x = r[1]; x <= r[3]; x++) {
+                        requested.add(new long[] {x, y, r[0]});
+                    }
+                }
+            }
+        }
+        if (tiles != null) {
+            for (String list : tiles) {
+                for (String tile : list.split(",")) {
+                    if (!tile.trim().isEmpty()) {
+                        long[] t = parseLongs(tile, 3);
+                        checkSize(++total);
+                        requested.add(new long[] {t[1], t[2], t[0]});
+                    }
+                }
+            }
+        }
+        if (requested.isEmpty()) {
+            throw new HttpErrorCodeException(
+                    400, "No tiles requested, use the tiles or range parameters");
+        }
+
+        List<Frame> frames = new ArrayList<>(requested.size());
+        for (long[] r : requested) {
+            long[] gridLoc = r.clone();
+            if (flipY
+                    && gridLoc[2] >= gridSubset.getZoomStart()
+                    && gridLoc[2] <= gridSubset.getZoomStop()) {
+                gridLoc[1] = gridSubset.getNumTilesHigh((int) gridLoc[2]) - gridLoc[1] - 1;
+            }
+            frames.add(new Frame(r, gridLoc));
+        }
+        return frames;
+    }
+
+    private void checkSize(long total) {
+        if (total > maxTiles) {
+            throw new HttpErrorCodeException(
+                    413, "Too many tiles requested, a batch is limited to " + maxTiles + " tiles");
+        }
+    }
+
+    private static long[] parseLongs(String value, int count) {
+        String[] split = value.trim().split("/");
+        if (split.length != count) {
+            throw new HttpErrorCodeException(400, "Invalid tile coordinates: " + value);
+        }
+        long[] parsed = new long[count];
+        try {
+            for (int i = 0; i < count; i++) {
+                parsed[i] = Long.parseLong(split[i]);
+            }
+        } catch (NumberFormatException e) {
+            throw new HttpErrorCodeException(400, "Invalid tile coordinates: " + value);
+        }
+        if (parsed[0] < 0 || parsed[0] > Integer.MAX_VALUE) {
+            throw new HttpErrorCodeException(400, "Invalid zoom level: " + value);
+        }
+        return parsed;
+    }
+
+    /** Fetches a tile, recording the outcome in the frame */
+    private static Frame fetch(
+            Frame frame,
+            ConveyorTile tile,
+            TileLayer layer,
+            SecurityDispatcher securityDispatcher) {
+        try {
+            tile.setTileLayer(layer);
+            layer.getGridSubset(tile.getGridSetId()).checkCoverage(frame.gridLoc);
+            layer.applyRequestFilters(tile);
+            securityDispatcher.checkSecurity(tile);
+            tile = layer.getTile(tile);
+            frame.contents = tile.getBlob();
+            frame.cacheResult = tile.getCacheResult();
+        } catch (OutsideCoverageException e) {
+            frame.status = 404;
+        } catch (EmptyTileException e) {
+            frame.status = 204;
+        } catch (RequestFilterException e) {
+            frame.status = e.getResponseCode();
+        } catch (SecurityException e) {
+            frame.status = 403;
+        } catch (Exception e) {
+            log.log(Level.FINE, "Failed to fetch tile " + tile, e);
+            frame.status = 500;
+        }
+        return frame;
+    }
+
+    private static void write(DataOutputStream out, Frame frame, RuntimeStats stats)
+            throws IOException {
+        out.writeInt((int) frame.requested[2]);
+        out.writeLong(frame.requested[0]);
+        out.writeLong(frame.requested[1]);
+        Resource contents = frame.status == 200 ? frame.contents : null;
+        if (contents == null) {
+            out.writeInt(frame.status == 200 ? 204 : frame.status);
+            out.writeInt(0);
+        } else {
+            out.writeInt(frame.status);
+            out.writeInt((int) contents.getSize());
+            // encoded resources are written decoded, the batch is not content coded
+            contents.transferTo(Channels.newChannel(out));
+            stats.log((int) contents.getSize(), frame.cacheResult);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/**
+ * This program is free software: you can redistribute it and/or modify it under the terms of the
+ * GNU Lesser General Public License as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU Lesser General Public License along with this
+ * program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * <p>Copyright 2026
+ */
+package org.geowebcache.service.tms;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.geowebcache.GeoWebCacheException;
+import org.geowebcache.config.DefaultGridsets;
+import org.geowebcache.conveyor.ConveyorTile;
+import org.geowebcache.filter.security.SecurityDispatcher;
+import org.geowebcache.grid.GridSubset;
+import org.geowebcache.grid.GridSubsetFactory;
+import org.geowebcache.io.ByteArrayResource;
+import org.geowebcache.layer.EmptyTileException;
+import org.geowebcache.layer.TileLayer;
+import org.geowebcache.mime.ImageMime;
+import org.geowebcache.service.HttpErrorCodeException;
+import org.geowebcache.stats.RuntimeStats;
+import org.geowebcache.storage.StorageBroker;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class TMSTileBatchTest {
+
+    private TMSTileBatch batch;
+
+    private StorageBroker sb;
+
+    private TileLayer layer;
+
+    private GridSubset gridSubset;
+
+    private SecurityDispatcher securityDispatcher;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @Before
+    public void setUp() throws Exception {
+        batch = new TMSTileBatch(8, 2);
+        sb = mock(StorageBroker.class);
+        securityDispatcher = mock(SecurityDispatcher.class);
+        gridSubset =
+                GridSubsetFactory.createGridSubSet(
+                        new DefaultGridsets(false, false).worldEpsg4326());
+        layer = mock(TileLayer.class);
+        when(layer.getName()).thenReturn("topp:states");
+        when(layer.getGridSubset("EPSG:4326")).thenReturn(gridSubset);
+        when(layer.getMimeTypes()).thenReturn(Collections.singletonList(ImageMime.png));
+        when(layer.getModifiableParameters(anyMap(), any())).thenReturn(Collections.emptyMap());
+        // the contents of a tile are its coordinates
+        when(layer.getTile(any()))
+                .thenAnswer(
+                        invocation -> {
+                            ConveyorTile tile = invocation.getArgument(0);
+                            long[] index = tile.getTileIndex();
+                            if (index[0] == 3 && index[2] == 1) {
+                                throw new EmptyTileException(ImageMime.png);
+                            }
+                            tile.setBlob(
+                                    new ByteArrayResource(
+                                            new byte[] {
+                                                (byte) index[2], (byte) index[0], (byte) index[1]
+                                            }));
+                            return tile;
+                        });
+
+        request = new MockHttpServletRequest();
+        request.setPathInfo("/tms/1.0.0/topp:states@EPSG:4326@png/batch");
+        response = new MockHttpServletResponse();
+    }
+
+    @After
+    public void tearDown() {
+        batch.destroy();
+    }
+
+    private Map<String, long[]> handle() throws Exception {
+        ConveyorTile conv = new ConveyorTile(sb, "topp:states", request, response);
+        conv.setTileLayer(layer);
+        batch.handle(conv, sb, securityDispatcher, mock(RuntimeStats.class));
+
+        assertEquals(200, response.getStatus());
+        assertEquals(TMSTileBatch.MIME_TYPE, response.getContentType());
+        assertEquals("image/png", response.getHeader("geowebcache-tile-format"));
+        // z/x/y -> status, contents
+        Map<String, long[]> frames = new HashMap<>();
+        DataInputStream in =
+                new DataInputStream(new ByteArrayInputStream(response.getContentAsByteArray()));
+        while (in.available() > 0) {
+            String key = in.readInt() + "/" + in.readLong() + "/" + in.readLong();
+            int status = in.readInt();
+            byte[] contents = new byte[in.readInt()];
+            in.readFully(contents);
+            long[] frame = new long[contents.length + 1];
+            frame[0] = status;
+            for (int i = 0; i < contents.length; i++) {
+                frame[i + 1] = contents[i];
+            }
+            frames.put(key, frame);
+        }
+        assertEquals(
+                Integer.parseInt(response.getHeader("geowebcache-tile-count")), frames.size());
+        return frames;
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        request.addParameter("tiles", "1/0/0,1/3/1,1/9/9");
+        request.addParameter("range", "0/0/0/1/0");
+        doThrow(new SecurityException("Not Authorized"))
+                .when(securityDispatcher)
+                .checkSecurity(
+                        argThat(
+                                t -> t.getTileIndex()[0] == 1 && t.getTileIndex()[2] == 0));
+
+        Map<String, long[]> frames = handle();
+
+        assertEquals(5, frames.size());
+        assertArrayEquals(new long[] {200, 1, 0, 0}, frames.get("1/0/0"));
+        assertArrayEquals(new long[] {204}, frames.get("1/3/1"));
+        assertArrayEquals(new long[] {404}, frames.get("1/9/9"));
+        assertArrayEquals(new long[] {200, 0, 0, 0}, frames.get("0/0/0"));
+        assertArrayEquals(new long[] {403}, frames.get("0/1/0"));
+    }
+
+    @Test
+    public void testFlipY() throws Exception {
+        request.addParameter("tiles", "1/2/0");
+        request.addParameter("flipY", "true");
+
+        Map<String, long[]> frames = handle();
+
+        // reported as requested, fetched from the bottom row
+        assertArrayEquals(new long[] {200, 1, 2, 1}, frames.get("1/2/0"));
+    }
+
+    @Test
+    public void testTooManyTiles() throws Exception {
+        request.addParameter("tiles", "0/0/0");
+        request.addParameter("range", "3/0/0/3/1");
+        try {
+            batch.parseTiles(request, gridSubset);
+            fail("Expected a 413");
+        } catch (HttpErrorCodeException e) {
+            assertEquals(413, e.getErrorCode());
+        }
+
+        // bogus ranges do not overflow
+        request.removeAllParameters();
+        request.addParameter("range", "20/0/0/" + Long.MAX_VALUE + "/" + Long.MAX_VALUE);
+        try {
+            batch.parseTiles(request, gridSubset);
+            fail("Expected a 413");
+        } catch (HttpErrorCodeException e) {
+            assertEquals(413, e.getErrorCode());
+        }
+
+        request.removeAllParameters();
+        request.addParameter("range", "3/0/0/3/0");
+        request.addParameter("tiles", "3/5/5");
+        List<TMSTileBatch.Frame> frames = batch.parseTiles(request, gridSubset);
+        assertEquals(5, frames.size());
+    }
+
+    @Test
+    public void testInvalidRequests() throws Exception {
+        for (String tiles : Arrays.asList("", "1/2", "a/b/c", "-1/0/0")) {
+            request.removeAllParameters();
+            request.addParameter("tiles", tiles);
+            try {
+                batch.parseTiles(request, gridSubset);
+                fail("Expected a 400 for " + tiles);
+            } catch (HttpErrorCodeException e) {
+                assertEquals(400, e.getErrorCode());
+            }
+        }
+
+        request.setPathInfo("/tms/1.0.0/topp:states/batch");
+        try {
+            TMSTileBatch.layerGridSetExtension(request);
+            fail("Expected a 400");
+        } catch (HttpErrorCodeException e) {
+            assertEquals(400, e.getErrorCode());
+        }
+    }
+
+    @Test
+    public void testRefusedWithoutSecurityDispatcher() throws Exception {
+        request.addParameter("tiles", "1/0/0");
+        ConveyorTile conv = new ConveyorTile(sb, "topp:states", request, response);
+        conv.setTileLayer(layer);
+        try {
+            batch.handle(conv, sb, null, mock(RuntimeStats.class));
+            fail("Expected the batch to be refused");
+        } catch (GeoWebCacheException e) {
+            verify(layer, never()).getTile(any());
+        }
+    }
+
+    @Test
+    public void testServiceDestroysBatch() throws Exception {
+        TMSService service =
+                new TMSService(sb, null, null, new TMSDocumentFactory(null, null, null));
+        // nothing to stop before the first batch request
+        service.destroy();
+
+        TMSTileBatch serviceBatch = service.getTileBatch();
+        assertFalse(serviceBatch.isDestroyed());
+        service.destroy();
+        assertTrue(serviceBatch.isDestroyed());
+    }
+
+    @Test
+    public void testServiceConveyor() throws Exception {
+        TMSService service =
+                new TMSService(sb, null, null, new TMSDocumentFactory(null, null, null));
+        ConveyorTile conv = service.getConveyor(request, response);
+        assertEquals("topp:states", conv.getLayerId());
+        assertEquals(ConveyorTile.RequestHandler.SERVICE, conv.reqHandler);
+        assertEquals(false, TMSTileBatch.isBatchRequest(new MockHttpServletRequest()));
+    }
+}